@@ -81,12 +81,39 @@ if (isMobileDevice()) {
     }
   }
 
+  // Filtros opcionales desde la URL: ?vehicles=ABC123,XYZ789&anomaliesOnly=true&bbox=minLat,minLon,maxLat,maxLon
+  function buildSubscription() {
+    const params = new URLSearchParams(window.location.search);
+    const subscription = { type: "subscribe" };
+    let filtered = false;
+
+    if (params.get("vehicles")) {
+      subscription.vehicleIds = params.get("vehicles").split(",").map(v => v.trim()).filter(Boolean);
+      filtered = true;
+    }
+    if (params.get("anomaliesOnly") === "true") {
+      subscription.anomaliesOnly = true;
+      filtered = true;
+    }
+    if (params.get("bbox")) {
+      const [minLat, minLon, maxLat, maxLon] = params.get("bbox").split(",").map(Number);
+      subscription.bounds = { minLat, minLon, maxLat, maxLon };
+      filtered = true;
+    }
+    return filtered ? subscription : null;
+  }
+
   function connectWebSocket() {
     ws = new WebSocket(wsUrl);
 
     ws.onopen = () => {
       console.log("✅ WebSocket reconectado");
       updateStatus("Reconectado al WebSocket", 'connected');
+
+      const subscription = buildSubscription();
+      if (subscription) {
+        ws.send(JSON.stringify(subscription));
+      }
       
       // Check after 5 seconds if we're receiving messages
       setTimeout(() => {
@@ -110,68 +137,18 @@ if (isMobileDevice()) {
 
     ws.onmessage = (event) => {
       messageCount++;
-      console.log(`Message #${messageCount} received:`, event.data);
-      
-      try {
-        const data = JSON.parse(event.data);
-        console.log("✅ Parsed JSON data:", data);
-        
-        // Normalize field names (handle both camelCase and snake_case)
-        // Always show data, even if null/undefined
-        const vehicleId = data.vehicleId ?? data.vehicle_id ?? data.id ?? data.vehicle ?? '-';
-        const speed = data.speed ?? data.speed_kmh ?? data.speed_km ?? null;
-        const acceleration = data.acceleration ?? data.accel ?? null;
-        const battery = data.battery ?? data.battery_level ?? data.batteryLevel ?? null;
-        const temperature = data.temperature ?? data.temp ?? data.temp_c ?? data.tempC ?? null;
-        const trafficLevel = data.trafficLevel ?? data.traffic_level ?? data.traffic ?? null;
-        const anomaly = data.anomaly ?? false;
-        const anomalyType = data.anomalyType ?? data.anomaly_type ?? null;
-
-        // Guardar los datos completos del vehículo
-        if (vehicleId && vehicleId !== '-') {
-          vehicleDataMap.set(vehicleId, data);
-        }
 
-        const row = document.createElement("tr");
-        const targetBody = anomaly ? anomalyBody : tableBody;
-        
-        // Apply Tailwind classes based on anomaly status and make it clickable
-        if (anomaly) {
-          row.className = "bg-red-900/20 hover:bg-red-900/30 border-l-4 border-red-500 transition-colors cursor-pointer";
-        } else {
-          row.className = "bg-slate-800/50 hover:bg-slate-700/50 border-l-4 border-green-500 transition-colors cursor-pointer";
-        }
-
-        // Agregar evento click para mostrar detalles
-        row.addEventListener('click', () => {
-          if (vehicleId && vehicleId !== '-') {
-            showVehicleDetails(vehicleId);
-          }
-        });
-
-        row.innerHTML = `
-          <td class="px-6 py-4 whitespace-nowrap text-sm font-medium text-gray-200">${formatValue(vehicleId)}</td>
-          <td class="px-6 py-4 whitespace-nowrap text-sm text-blue-400">${formatValue(speed, true, 1)}</td>
-          <td class="px-6 py-4 whitespace-nowrap text-sm text-purple-400">${formatValue(acceleration, true, 2)}</td>
-          <td class="px-6 py-4 whitespace-nowrap text-sm text-yellow-400">${formatValue(battery, true, 1, '%')}</td>
-          <td class="px-6 py-4 whitespace-nowrap text-sm text-orange-400">${formatValue(temperature, true, 1, '°C')}</td>
-          <td class="px-6 py-4 whitespace-nowrap text-sm text-cyan-400">${formatValue(trafficLevel)}</td>
-          <td class="px-6 py-4 whitespace-nowrap text-sm text-gray-300">${formatValue(anomalyType)}</td>
-        `;
-
-        // Add the new row at the top of the appropriate table
-        targetBody.prepend(row);
-        console.log(`✅ Row added to ${anomaly ? 'anomaly' : 'normal'} table. Total rows:`, targetBody.rows.length);
+      try {
+        // Los registros normales llegan conflacionados (array con el último estado de cada vehículo por tick);
+        // las anomalías llegan solas, en el momento
+        const parsed = JSON.parse(event.data);
+        const records = Array.isArray(parsed) ? parsed : [parsed];
+        records.forEach(renderRecord);
 
-        // Limit the number of rows in each table
-        if (targetBody.rows.length > maxRows) {
-          targetBody.deleteRow(targetBody.rows.length - 1);
-        }
-        
         // Update counters
         normalCountEl.textContent = `${tableBody.rows.length} registro(s)`;
         anomalyCountEl.textContent = `${anomalyBody.rows.length} registro(s)`;
-        
+
         updateStatus(`Conectado `, 'connected');
       } catch (err) {
         console.error("Error processing WebSocket message:", err);
@@ -191,6 +168,65 @@ if (isMobileDevice()) {
     };
   }
 
+  function renderRecord(data) {
+    // Normalize field names (handle both camelCase and snake_case)
+    // Always show data, even if null/undefined
+    const vehicleId = data.vehicleId ?? data.vehicle_id ?? data.id ?? data.vehicle ?? '-';
+    const speed = data.speed ?? data.speed_kmh ?? data.speed_km ?? null;
+    const acceleration = data.acceleration ?? data.accel ?? null;
+    const battery = data.battery ?? data.battery_level ?? data.batteryLevel ?? null;
+    const temperature = data.temperature ?? data.temp ?? data.temp_c ?? data.tempC ?? null;
+    const trafficLevel = data.trafficLevel ?? data.traffic_level ?? data.traffic ?? null;
+    const anomaly = data.anomaly ?? false;
+    const anomalyType = data.anomalyType ?? data.anomaly_type ?? null;
+    // El modelo no respondió: el registro llega igual pero sin veredicto
+    const unscored = data.scoreStatus === "UNSCORED";
+    // Marcado por una regla del procesador, sin pasar por el modelo
+    const byRule = data.scoreStatus === "RULE";
+
+    // Guardar los datos completos del vehículo
+    if (vehicleId && vehicleId !== '-') {
+      vehicleDataMap.set(vehicleId, data);
+    }
+
+    const row = document.createElement("tr");
+    const targetBody = anomaly ? anomalyBody : tableBody;
+
+    // Apply Tailwind classes based on anomaly status and make it clickable
+    if (anomaly) {
+      row.className = "bg-red-900/20 hover:bg-red-900/30 border-l-4 border-red-500 transition-colors cursor-pointer";
+    } else if (unscored) {
+      row.className = "bg-slate-800/50 hover:bg-slate-700/50 border-l-4 border-amber-500 transition-colors cursor-pointer";
+    } else {
+      row.className = "bg-slate-800/50 hover:bg-slate-700/50 border-l-4 border-green-500 transition-colors cursor-pointer";
+    }
+
+    // Agregar evento click para mostrar detalles
+    row.addEventListener('click', () => {
+      if (vehicleId && vehicleId !== '-') {
+        showVehicleDetails(vehicleId);
+      }
+    });
+
+    row.innerHTML = `
+      <td class="px-6 py-4 whitespace-nowrap text-sm font-medium text-gray-200">${formatValue(vehicleId)}</td>
+      <td class="px-6 py-4 whitespace-nowrap text-sm text-blue-400">${formatValue(speed, true, 1)}</td>
+      <td class="px-6 py-4 whitespace-nowrap text-sm text-purple-400">${formatValue(acceleration, true, 2)}</td>
+      <td class="px-6 py-4 whitespace-nowrap text-sm text-yellow-400">${formatValue(battery, true, 1, '%')}</td>
+      <td class="px-6 py-4 whitespace-nowrap text-sm text-orange-400">${formatValue(temperature, true, 1, '°C')}</td>
+      <td class="px-6 py-4 whitespace-nowrap text-sm text-cyan-400">${formatValue(trafficLevel)}</td>
+      <td class="px-6 py-4 whitespace-nowrap text-sm text-gray-300">${unscored ? '<span class="text-amber-400">sin puntuar</span>' : formatValue(anomalyType)}${byRule ? ' <span class="text-xs text-red-300">(regla)</span>' : ''}</td>
+    `;
+
+    // Add the new row at the top of the appropriate table
+    targetBody.prepend(row);
+
+    // Limit the number of rows in each table
+    if (targetBody.rows.length > maxRows) {
+      targetBody.deleteRow(targetBody.rows.length - 1);
+    }
+  }
+
   // Llamar a la función de conexión inicial
   connectWebSocket();
 }
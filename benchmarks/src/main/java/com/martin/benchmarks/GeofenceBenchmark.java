@@ -0,0 +1,124 @@
+package com.martin.benchmarks;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.geofence.Geofence;
+import com.martin.stream_processor_service.geofence.GeofenceIndex;
+import com.martin.stream_processor_service.geofence.GeofenceTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Geocercas sintéticas repartidas en una región de 2 x 2 grados alrededor de Córdoba, con la grilla de
+// stream.geofences.cell-size-degrees: depósitos (círculos de 50 a 500 m), zonas (polígonos no convexos de 5 a 24
+// vértices y 50 a 550 m de radio) y un 0.5% de distritos de 5 a 15 km. Un punto cae en ~1 cerca en promedio.
+// query: sólo el índice, puntos al azar. update: GeofenceTracker con vehículos que avanzan ~10 m por lectura,
+// como en el pipeline (casi todas las lecturas no cambian de cerca).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeofenceBenchmark {
+
+    private static final int POINTS = 1 << 16;
+    private static final int VEHICLES = 1 << 14;
+    private static final double MIN_LAT = -32.4;
+    private static final double MIN_LON = -65.2;
+    private static final double SPAN = 2;
+
+    @Param({"1000", "10000", "50000"})
+    public int fences;
+
+    private GeofenceIndex index;
+    private GeofenceTracker tracker;
+    private final GeofenceIndex.Hits hits = new GeofenceIndex.Hits();
+    private double[] lats;
+    private double[] lons;
+    private VehicleData[] vehicles;
+    private double[] headings;
+    private int cursor;
+    private long events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        tracker = new GeofenceTracker(0.01, 4096, VEHICLES, event -> events++);
+        List<Geofence> definitions = new ArrayList<>(fences);
+        for (int i = 0; i < fences; i++) {
+            definitions.add(fence(tracker.key("f" + i), random));
+        }
+        index = GeofenceIndex.build(definitions, 0.01, 4096);
+        tracker.replace(definitions);
+
+        lats = new double[POINTS];
+        lons = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            lats[i] = MIN_LAT + random.nextDouble() * SPAN;
+            lons[i] = MIN_LON + random.nextDouble() * SPAN;
+        }
+        vehicles = new VehicleData[VEHICLES];
+        headings = new double[VEHICLES];
+        for (int i = 0; i < VEHICLES; i++) {
+            vehicles[i] = VehicleData.builder()
+                    .vehicleId(String.format("V%07d", i))
+                    .timestamp(Instant.parse("2026-01-08T12:00:00Z"))
+                    .latitude(lats[i])
+                    .longitude(lons[i])
+                    .build();
+            headings[i] = random.nextDouble() * 2 * Math.PI;
+        }
+    }
+
+    @Benchmark
+    public int query() {
+        int i = cursor;
+        cursor = (i + 1) & (POINTS - 1);
+        return index.query(lats[i], lons[i], hits);
+    }
+
+    @Benchmark
+    public long update() {
+        int i = cursor;
+        cursor = (i + 1) & (VEHICLES - 1);
+        VehicleData vehicle = vehicles[i];
+        vehicle.setLatitude(vehicle.getLatitude() + 0.0001 * Math.sin(headings[i]));
+        vehicle.setLongitude(vehicle.getLongitude() + 0.0001 * Math.cos(headings[i]));
+        tracker.update(vehicle);
+        return events;
+    }
+
+    private static Geofence fence(int key, SplittableRandom random) {
+        double lat = MIN_LAT + random.nextDouble() * SPAN;
+        double lon = MIN_LON + random.nextDouble() * SPAN;
+        if (key % 3 == 0) {
+            return Geofence.circle(key, "f" + key, "f" + key, "depot", lat, lon, 50 + random.nextDouble() * 450);
+        }
+        boolean district = key % 200 == 1;
+        double minRadius = district ? 0.045 : 0.0005;
+        double maxRadius = district ? 0.135 : 0.005;
+        int vertices = 5 + random.nextInt(20);
+        double[][] ring = new double[vertices][];
+        for (int v = 0; v < vertices; v++) {
+            double angle = 2 * Math.PI * v / vertices;
+            double radius = minRadius + random.nextDouble() * (maxRadius - minRadius);
+            ring[v] = new double[]{lat + radius * Math.sin(angle), lon + radius * Math.cos(angle)};
+        }
+        return Geofence.polygon(key, "f" + key, "f" + key, district ? "district" : "restricted", List.<double[][]>of(ring));
+    }
+}
@@ -0,0 +1,98 @@
+package com.martin.benchmarks;
+
+import com.martin.model.VehicleData;
+import com.martin.model.codec.VehicleDataSerializer;
+import com.martin.stream_processor_service.config.TelemetryDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Serialización de VehicleData en Kafka: JSON (JsonSerializer / JsonDeserializer como en los topics
+// de telemetry.kafka.json-topics) frente al codec binario de vehicle-data
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaCodecBenchmark {
+
+    private static final String TOPIC = "vehicle-telemetry";
+    private static final int RECORDS = 1024;
+
+    private final JsonSerializer<VehicleData> jsonSerializer = new JsonSerializer<VehicleData>().noTypeInfo();
+    private final JsonDeserializer<VehicleData> jsonDeserializer = new JsonDeserializer<>(VehicleData.class, false);
+    private final VehicleDataSerializer binarySerializer = new VehicleDataSerializer();
+    private final TelemetryDeserializer telemetryDeserializer = new TelemetryDeserializer();
+
+    private VehicleData[] records;
+    private byte[][] json;
+    private byte[][] binary;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        jsonDeserializer.addTrustedPackages("com.martin.model");
+        telemetryDeserializer.configure(Map.of(), false);
+
+        records = Telemetry.sample(RECORDS);
+        json = new byte[RECORDS][];
+        binary = new byte[RECORDS][];
+        for (int i = 0; i < RECORDS; i++) {
+            json[i] = jsonSerializer.serialize(TOPIC, records[i]);
+            binary[i] = binarySerializer.serialize(TOPIC, records[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+        jsonDeserializer.close();
+        telemetryDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize(TOPIC, records[next()]);
+    }
+
+    @Benchmark
+    public VehicleData deserializeJson() {
+        return jsonDeserializer.deserialize(TOPIC, json[next()]);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, records[next()]);
+    }
+
+    // El deserializer del consumidor: detecta el formato por el primer byte
+    @Benchmark
+    public VehicleData deserializeBinary() {
+        return telemetryDeserializer.deserialize(TOPIC, binary[next()]);
+    }
+
+    @Benchmark
+    public VehicleData deserializeJsonDetected() {
+        return telemetryDeserializer.deserialize(TOPIC, json[next()]);
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = (i + 1) & (RECORDS - 1);
+        return i;
+    }
+}
@@ -0,0 +1,26 @@
+package com.martin.benchmarks;
+
+import com.martin.model.VehicleData;
+import com.martin.vehicle_telemetry_service.services.TelemetryGenerator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Registros de prueba deterministas generados con el mismo modelo que el simulador
+public final class Telemetry {
+
+    private Telemetry() {
+    }
+
+    public static VehicleData[] sample(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] lastSpeeds = new double[count];
+        Arrays.fill(lastSpeeds, Double.NaN);
+
+        VehicleData[] records = new VehicleData[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = TelemetryGenerator.generate(String.format("V%07d", i), lastSpeeds, i, random);
+        }
+        return records;
+    }
+}
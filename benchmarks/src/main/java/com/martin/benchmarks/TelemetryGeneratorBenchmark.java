@@ -0,0 +1,60 @@
+package com.martin.benchmarks;
+
+import com.martin.model.VehicleData;
+import com.martin.vehicle_telemetry_service.services.TelemetryGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+// Generación de un registro simulado (TelemetrySimulator.generateVehicleData delega en TelemetryGenerator):
+// SecureRandom como el simulador demo frente a SplittableRandom como los shards de LoadGenerator
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetryGeneratorBenchmark {
+
+    private static final int VEHICLES = 1024;
+
+    @Param({"secure", "splittable"})
+    public String random;
+
+    private RandomGenerator generator;
+    private String[] vehicleIds;
+    private double[] lastSpeeds;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        generator = "secure".equals(random) ? new SecureRandom() : new SplittableRandom(42);
+        vehicleIds = new String[VEHICLES];
+        for (int i = 0; i < VEHICLES; i++) {
+            vehicleIds[i] = String.format("V%07d", i);
+        }
+        lastSpeeds = new double[VEHICLES];
+        Arrays.fill(lastSpeeds, Double.NaN);
+    }
+
+    @Benchmark
+    public VehicleData generate() {
+        int slot = cursor;
+        cursor = (slot + 1) & (VEHICLES - 1);
+        return TelemetryGenerator.generate(vehicleIds[slot], lastSpeeds, slot, generator);
+    }
+}
@@ -0,0 +1,73 @@
+package com.martin.benchmarks;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.TelemetryWebSocketHandler;
+import com.martin.stream_processor_service.config.WebSocketProperties;
+import com.martin.stream_processor_service.websocket.WebSocketFanOut;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// TelemetryWebSocketHandler.sendTelemetry contra N sesiones stub. Mide el costo en el hilo del pipeline
+// (serializar una vez + encolar en cada sender); el envío lo hacen los hilos virtuales de cada sesión.
+// Con conflation=true sólo se mide el offer: el trabajo real pasa al tick del conflator.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebSocketFanOutBenchmark {
+
+    private static final int RECORDS = 1024;
+
+    @Param({"1", "100", "1000"})
+    public int sessions;
+
+    @Param({"false", "true"})
+    public boolean conflation;
+
+    private WebSocketFanOut fanOut;
+    private TelemetryWebSocketHandler handler;
+    private VehicleData[] records;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        WebSocketProperties properties = new WebSocketProperties();
+        properties.getConflation().setEnabled(conflation);
+
+        fanOut = new WebSocketFanOut(properties, new SimpleMeterRegistry());
+        handler = new TelemetryWebSocketHandler(fanOut, properties);
+        for (int i = 0; i < sessions; i++) {
+            handler.afterConnectionEstablished(new StubWebSocketSession("bench-" + i));
+        }
+        records = Telemetry.sample(RECORDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        handler.close();
+        fanOut.close();
+    }
+
+    @Benchmark
+    public void sendTelemetry() {
+        int i = cursor;
+        cursor = (i + 1) & (RECORDS - 1);
+        handler.sendTelemetry(records[i]);
+    }
+}
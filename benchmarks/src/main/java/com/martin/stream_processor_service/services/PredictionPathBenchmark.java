@@ -0,0 +1,88 @@
+package com.martin.stream_processor_service.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.benchmarks.Telemetry;
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Camino de cada registro alrededor del modelo en StreamProcessorService: armar el PredictionRequest,
+// parsear la respuesta del servicio de inferencia (sólo el veredicto) y enrich(). Vive en el paquete
+// de StreamProcessorService porque enrich() es package-private. Se ejecuta con BenchmarkRunner.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PredictionPathBenchmark {
+
+    private static final int RECORDS = 1024;
+
+    // Mismo ObjectMapper por defecto que usa el decoder JSON de WebClient para el cuerpo de /predict
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private VehicleData[] records;
+    private byte[][] responseBodies;
+    private PredictionResponse[] responses;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws IOException {
+        records = Telemetry.sample(RECORDS);
+        responseBodies = new byte[RECORDS][];
+        responses = new PredictionResponse[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            // Forma de la respuesta de llm-anomalies-detection: el input se devuelve tal cual
+            String body = "{\"input\":" + mapper.writeValueAsString(PredictionRequest.fromVehicleData(records[i]))
+                    + ",\"reconstruction_error\":0.0123,\"anomaly_threshold\":0.05,\"is_anomaly\":false}";
+            responseBodies[i] = body.getBytes();
+            responses[i] = mapper.readValue(responseBodies[i], PredictionResponse.class);
+        }
+    }
+
+    @Benchmark
+    public PredictionRequest fromVehicleData() {
+        return PredictionRequest.fromVehicleData(records[next()]);
+    }
+
+    @Benchmark
+    public PredictionResponse parseResponse() throws IOException {
+        return mapper.readValue(responseBodies[next()], PredictionResponse.class);
+    }
+
+    @Benchmark
+    public VehicleData enrich() {
+        int i = next();
+        return StreamProcessorService.enrich(records[i], responses[i]);
+    }
+
+    // Request -> respuesta parseada -> registro enriquecido, sin la llamada HTTP
+    @Benchmark
+    public VehicleData parseThenEnrich(Blackhole blackhole) throws IOException {
+        int i = next();
+        blackhole.consume(PredictionRequest.fromVehicleData(records[i]));
+        PredictionResponse response = mapper.readValue(responseBodies[i], PredictionResponse.class);
+        return StreamProcessorService.enrich(records[i], response);
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = (i + 1) & (RECORDS - 1);
+        return i;
+    }
+}
@@ -1,5 +1,6 @@
 from fastapi import FastAPI, HTTPException
 from pydantic import BaseModel
+from typing import List
 import numpy as np
 import pickle
 import os
@@ -126,4 +127,57 @@ def predict(data: DataPoint):
     except Exception as e:
         print(f"ERROR in predict endpoint processing: {e}")
         traceback.print_exc()
-        raise HTTPException(status_code=500, detail=f"Error al procesar la predicción: {str(e)}")
\ No newline at end of file
+        raise HTTPException(status_code=500, detail=f"Error al procesar la predicción: {str(e)}")
+
+
+# --------------------------
+# Predict batch
+# --------------------------
+# Mismo contrato que /predict pero para una lista de puntos: un único scaler.transform
+# y un único autoencoder_model.predict por lote. Las respuestas mantienen el orden de entrada.
+@app.post("/predict/batch")
+def predict_batch(data: List[DataPoint]):
+
+    if autoencoder_model is None or scaler is None or anomaly_threshold is None:
+        print("ERROR: Model or components not loaded completely in predict_batch function.")
+        raise HTTPException(status_code=500, detail="Modelo o componentes no cargados completamente.")
+
+    if not data:
+        return []
+
+    try:
+        input_array = np.array([
+            [
+                d.latitude,
+                d.longitude,
+                d.speed,
+                d.previousSpeed,
+                d.acceleration,
+                d.temperature,
+                d.battery,
+                d.fuelLevel,
+                d.speedLimit,
+                d.trafficLevel
+            ]
+            for d in data
+        ], dtype=np.float32)
+
+        scaled_input = scaler.transform(input_array)
+        reconstructed_input = autoencoder_model.predict(scaled_input, batch_size=len(data), verbose=0)
+
+        # MSE por fila
+        reconstruction_errors = np.mean(np.square(scaled_input - reconstructed_input), axis=1)
+
+        return [
+            {
+                "input": d.model_dump(),
+                "reconstruction_error": float(error),
+                "anomaly_threshold": anomaly_threshold,
+                "is_anomaly": bool(error > anomaly_threshold)
+            }
+            for d, error in zip(data, reconstruction_errors)
+        ]
+    except Exception as e:
+        print(f"ERROR in predict_batch endpoint processing: {e}")
+        traceback.print_exc()
+        raise HTTPException(status_code=500, detail=f"Error al procesar la predicción en lote: {str(e)}")
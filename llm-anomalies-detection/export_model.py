@@ -0,0 +1,162 @@
+"""
+Exporta model.pkl (StandardScaler + autoencoder Keras + umbral) a un JSON que el
+stream-processor-service puede cargar para puntuar en proceso (prediction.engine=native).
+
+Uso:
+    python export_model.py [--model model.pkl] [--output autoencoder.json] [--parity parity.json]
+
+Para el test de paridad (el export y el fixture se regeneran y se commitean juntos):
+    python export_model.py \
+        --output ../stream-processor-service/src/main/resources/model/autoencoder.json \
+        --parity ../stream-processor-service/src/test/resources/model/autoencoder-parity.json
+
+Sin Keras instalado, con la imagen del servicio (mismas versiones que sirven /predict), desde la raíz del repo:
+    docker build -t fleet-anomalies llm-anomalies-detection
+    docker run --rm -v "$PWD":/repo -w /repo/llm-anomalies-detection fleet-anomalies python export_model.py \
+        --output ../stream-processor-service/src/main/resources/model/autoencoder.json \
+        --parity ../stream-processor-service/src/test/resources/model/autoencoder-parity.json
+
+Con --parity además se registran las puntuaciones del modelo Python para un conjunto de
+entradas de ejemplo, que el test de paridad de Java compara contra el motor nativo. El fixture
+guarda el SHA-256 del export: el test falla si autoencoder.json no es el que se exportó con él.
+"""
+import argparse
+import hashlib
+import json
+import os
+import pickle
+
+import numpy as np
+
+FEATURES = [
+    "latitude",
+    "longitude",
+    "speed",
+    "previousSpeed",
+    "acceleration",
+    "temperature",
+    "battery",
+    "fuelLevel",
+    "speedLimit",
+    "trafficLevel",
+]
+
+
+def export_model(loaded_data):
+    autoencoder_model = loaded_data['autoencoder_model']
+    scaler = loaded_data['scaler']
+
+    layers = []
+    for layer in autoencoder_model.layers:
+        weights = layer.get_weights()
+        if not weights:
+            continue  # InputLayer
+        kernel, bias = weights
+        layers.append({
+            "activation": layer.get_config()["activation"],
+            "kernel": kernel.astype(float).tolist(),  # [entradas][unidades]
+            "bias": bias.astype(float).tolist(),
+        })
+
+    return {
+        "format": "fleet-autoencoder",
+        "version": 1,
+        "features": FEATURES,
+        "scaler": {
+            "mean": scaler.mean_.astype(float).tolist(),
+            "scale": scaler.scale_.astype(float).tolist(),
+        },
+        "layers": layers,
+        "threshold": float(loaded_data['threshold']),
+    }
+
+
+def sample_inputs(count, seed=42):
+    # Mismas distribuciones que TelemetrySimulator, incluyendo las anomalías que inyecta
+    rng = np.random.default_rng(seed)
+    rows = []
+    for i in range(count):
+        limit = rng.choice([60.0, 90.0, 120.0])
+        speed = max(0.0, limit * 0.6 + rng.normal() * 10)
+        previous_speed = max(0.0, limit * 0.6 + rng.normal() * 10)
+        temperature = 70 + rng.normal() * 5
+        battery = 80 - rng.random() * 0.5
+        kind = i % 8
+        if kind == 5:
+            speed = limit + 50 + rng.random() * 30
+        elif kind == 6:
+            temperature = 110 + rng.random() * 30
+        elif kind == 7:
+            battery = 10 + rng.random() * 5
+        rows.append([
+            -31.4201 + rng.random() / 100,
+            -64.1888 + rng.random() / 100,
+            speed,
+            previous_speed,
+            speed - previous_speed,
+            temperature,
+            battery,
+            100 - rng.random() * 0.8,
+            limit,
+            float(rng.integers(1, 6)),
+        ])
+    return np.array(rows, dtype=np.float32)
+
+
+def record_parity(loaded_data, count, export_sha256):
+    # Mismo cálculo que /predict/batch en app.py
+    autoencoder_model = loaded_data['autoencoder_model']
+    scaler = loaded_data['scaler']
+    threshold = float(loaded_data['threshold'])
+
+    input_array = sample_inputs(count)
+    scaled_input = scaler.transform(input_array)
+    reconstructed_input = autoencoder_model.predict(scaled_input, verbose=0)
+    errors = np.mean(np.square(scaled_input - reconstructed_input), axis=1)
+
+    # El test de paridad de Java rechaza fixtures que no salgan de Keras
+    import keras
+
+    return {
+        "generator": f"keras {keras.__version__}",
+        "export_sha256": export_sha256,
+        "features": FEATURES,
+        "threshold": threshold,
+        "samples": [
+            {
+                "input": row.astype(float).tolist(),
+                "reconstruction_error": float(error),
+                "is_anomaly": bool(error > threshold),
+            }
+            for row, error in zip(input_array, errors)
+        ],
+    }
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("--model", default="model.pkl")
+    parser.add_argument("--output", default="autoencoder.json")
+    parser.add_argument("--parity", help="fichero donde registrar las puntuaciones de referencia")
+    parser.add_argument("--parity-samples", type=int, default=64)
+    args = parser.parse_args()
+
+    with open(args.model, "rb") as f:
+        loaded_data = pickle.load(f)
+
+    with open(args.output, "w") as f:
+        json.dump(export_model(loaded_data), f, indent=2)
+    print(f"✅ Modelo exportado a {args.output}")
+
+    if args.parity:
+        # src/test/resources/model no existe hasta que se genera el primer fixture
+        os.makedirs(os.path.dirname(args.parity) or ".", exist_ok=True)
+        with open(args.output, "rb") as f:
+            export_sha256 = hashlib.sha256(f.read()).hexdigest()
+        with open(args.parity, "w") as f:
+            json.dump(record_parity(loaded_data, args.parity_samples, export_sha256), f, indent=2)
+        print(f"✅ Puntuaciones de referencia registradas en {args.parity}")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,157 @@
+package com.martin.stream_processor_service.archive;
+
+import com.martin.model.ScoreStatus;
+import com.martin.model.VehicleData;
+import com.martin.model.codec.VehicleDataCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+// Registro de tamaño fijo (128 bytes, big-endian) dentro de un segmento:
+//
+//   0  timestamp (epoch nanos)         8  latitude, longitude (doubles)
+//  24  speed, previousSpeed, acceleration, temperature, battery, fuelLevel, speedLimit (floats)
+//  52  reconstructionError (float)
+//  56  flags (valid, timestamp, night, anomaly, unscored, rule)   57 weather   58 roadType   59 anomalyType
+//  60  trafficLevel                   61  largo de vehicleId     62  vehicleId (hasta 34 bytes UTF-8)
+//  96  largo del overflow             97  overflow (hasta 31 bytes)
+//
+// weather/roadType/anomalyType usan los diccionarios de VehicleDataCodec. Un valor fuera del diccionario
+// lleva el código LITERAL y su texto va en el overflow ([largo][UTF-8], en el orden de los campos).
+// Si vehicleId o el overflow no entran, el registro no se puede archivar.
+final class ArchiveRecordCodec {
+
+    static final int RECORD_SIZE = 128;
+    static final int MAX_VEHICLE_ID_BYTES = 34;
+    static final int MAX_OVERFLOW_BYTES = 31;
+
+    private static final int FLAGS = 56;
+    private static final int VEHICLE_ID = 62;
+    private static final int OVERFLOW = 96;
+
+    private static final int FLAG_VALID = 1;
+    private static final int FLAG_TIMESTAMP = 1 << 1;
+    private static final int FLAG_NIGHT = 1 << 2;
+    private static final int FLAG_ANOMALY = 1 << 3;
+    private static final int FLAG_UNSCORED = 1 << 4;
+    private static final int FLAG_RULE = 1 << 5;
+
+    private ArchiveRecordCodec() {
+    }
+
+    static byte[] vehicleId(VehicleData data) {
+        return data.getVehicleId() != null ? data.getVehicleId().getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    // Textos de los campos fuera de diccionario; puede superar MAX_OVERFLOW_BYTES (el llamador lo rechaza)
+    static byte[] overflow(VehicleData data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        literal(out, VehicleDataCodec.WEATHER, data.getWeather());
+        literal(out, VehicleDataCodec.ROAD_TYPE, data.getRoadType());
+        literal(out, VehicleDataCodec.ANOMALY_TYPE, data.getAnomalyType());
+        return out.toByteArray();
+    }
+
+    private static void literal(ByteArrayOutputStream out, VehicleDataCodec.Dictionary dictionary, String value) {
+        if (dictionary.code(value) != VehicleDataCodec.Dictionary.LITERAL) {
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(Math.min(bytes.length, 255));
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static long timestamp(VehicleData data, long fallbackNanos) {
+        Instant ts = data.getTimestamp();
+        return ts != null ? ts.getEpochSecond() * 1_000_000_000L + ts.getNano() : fallbackNanos;
+    }
+
+    static long timestampAt(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+    }
+
+    static boolean isValid(ByteBuffer buffer, int offset) {
+        return (buffer.get(offset + FLAGS) & FLAG_VALID) != 0;
+    }
+
+    // Los flags (con FLAG_VALID) se escriben al final
+    static void encode(ByteBuffer buffer, int offset, VehicleData data, byte[] vehicleId, byte[] overflow,
+                       long timestampNanos, float reconstructionError) {
+        buffer.putLong(offset, timestampNanos);
+        buffer.putDouble(offset + 8, data.getLatitude());
+        buffer.putDouble(offset + 16, data.getLongitude());
+        buffer.putFloat(offset + 24, (float) data.getSpeed());
+        buffer.putFloat(offset + 28, (float) data.getPreviousSpeed());
+        buffer.putFloat(offset + 32, (float) data.getAcceleration());
+        buffer.putFloat(offset + 36, (float) data.getTemperature());
+        buffer.putFloat(offset + 40, (float) data.getBattery());
+        buffer.putFloat(offset + 44, (float) data.getFuelLevel());
+        buffer.putFloat(offset + 48, (float) data.getSpeedLimit());
+        buffer.putFloat(offset + 52, reconstructionError);
+        buffer.put(offset + 57, VehicleDataCodec.WEATHER.code(data.getWeather()));
+        buffer.put(offset + 58, VehicleDataCodec.ROAD_TYPE.code(data.getRoadType()));
+        buffer.put(offset + 59, VehicleDataCodec.ANOMALY_TYPE.code(data.getAnomalyType()));
+        buffer.put(offset + 60, (byte) data.getTrafficLevel());
+        buffer.put(offset + 61, (byte) vehicleId.length);
+        buffer.put(offset + VEHICLE_ID, vehicleId);
+        buffer.put(offset + OVERFLOW, (byte) overflow.length);
+        buffer.put(offset + OVERFLOW + 1, overflow);
+
+        int flags = FLAG_VALID
+                | (data.getTimestamp() != null ? FLAG_TIMESTAMP : 0)
+                | (data.isNight() ? FLAG_NIGHT : 0)
+                | (data.isAnomaly() ? FLAG_ANOMALY : 0)
+                | (data.getScoreStatus() == ScoreStatus.UNSCORED ? FLAG_UNSCORED : 0)
+                | (data.getScoreStatus() == ScoreStatus.RULE ? FLAG_RULE : 0);
+        buffer.put(offset + FLAGS, (byte) flags);
+    }
+
+    static ArchivedTelemetry decode(ByteBuffer buffer, int offset) {
+        int flags = buffer.get(offset + FLAGS);
+        long nanos = buffer.getLong(offset);
+        byte[] id = new byte[buffer.get(offset + 61)];
+        buffer.get(offset + VEHICLE_ID, id);
+
+        VehicleData data = new VehicleData();
+        data.setVehicleId(id.length > 0 ? new String(id, StandardCharsets.UTF_8) : null);
+        data.setTimestamp((flags & FLAG_TIMESTAMP) != 0 ? Instant.ofEpochSecond(0, nanos) : null);
+        data.setLatitude(buffer.getDouble(offset + 8));
+        data.setLongitude(buffer.getDouble(offset + 16));
+        data.setSpeed(buffer.getFloat(offset + 24));
+        data.setPreviousSpeed(buffer.getFloat(offset + 28));
+        data.setAcceleration(buffer.getFloat(offset + 32));
+        data.setTemperature(buffer.getFloat(offset + 36));
+        data.setBattery(buffer.getFloat(offset + 40));
+        data.setFuelLevel(buffer.getFloat(offset + 44));
+        data.setSpeedLimit(buffer.getFloat(offset + 48));
+        byte[] overflow = new byte[buffer.get(offset + OVERFLOW)];
+        buffer.get(offset + OVERFLOW + 1, overflow);
+        ByteBuffer literals = ByteBuffer.wrap(overflow);
+        data.setWeather(dictionaryValue(VehicleDataCodec.WEATHER, buffer.get(offset + 57), literals));
+        data.setRoadType(dictionaryValue(VehicleDataCodec.ROAD_TYPE, buffer.get(offset + 58), literals));
+        data.setAnomalyType(dictionaryValue(VehicleDataCodec.ANOMALY_TYPE, buffer.get(offset + 59), literals));
+        data.setTrafficLevel(buffer.get(offset + 60));
+        data.setNight((flags & FLAG_NIGHT) != 0);
+        data.setAnomaly((flags & FLAG_ANOMALY) != 0);
+        data.setScoreStatus(scoreStatus(flags));
+        return new ArchivedTelemetry(data, buffer.getFloat(offset + 52));
+    }
+
+    private static ScoreStatus scoreStatus(int flags) {
+        if ((flags & FLAG_RULE) != 0) {
+            return ScoreStatus.RULE;
+        }
+        return (flags & FLAG_UNSCORED) != 0 ? ScoreStatus.UNSCORED : ScoreStatus.SCORED;
+    }
+
+    private static String dictionaryValue(VehicleDataCodec.Dictionary dictionary, byte code, ByteBuffer literals) {
+        if (code == VehicleDataCodec.Dictionary.LITERAL) {
+            byte[] text = new byte[literals.get() & 0xFF];
+            literals.get(text);
+            return new String(text, StandardCharsets.UTF_8);
+        }
+        return (code & 0xFF) > dictionary.size() ? null : dictionary.value(code);
+    }
+}
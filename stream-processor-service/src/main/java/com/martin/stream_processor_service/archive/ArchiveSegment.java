@@ -0,0 +1,208 @@
+package com.martin.stream_processor_service.archive;
+
+import com.martin.model.VehicleData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Un archivo de segmento mapeado en memoria: cabecera de 64 bytes + registros de tamaño fijo.
+// El índice disperso guarda el timestamp mínimo y máximo de cada bloque de indexInterval registros
+// (no se asume orden temporal estricto) y se persiste en un .idx al cerrar el segmento.
+//
+// Cabecera: magic (int), versión (short), tamaño de registro (short), createdAt epoch millis (long),
+// cantidad de registros (int, -1 mientras el segmento está abierto), indexInterval (int).
+final class ArchiveSegment {
+
+    static final int HEADER_SIZE = 64;
+
+    private static final int MAGIC = 0x464C5441; // "FLTA"
+    private static final short VERSION = 2;
+    private static final int COUNT_OFFSET = 16;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long createdAtMillis;
+    private final int capacity;
+    private final int indexInterval;
+    private final long[] blockMin;
+    private final long[] blockMax;
+    // Escrito sólo por el hilo escritor; los lectores leen los registros [0, count)
+    private volatile int count;
+    private volatile boolean sealed;
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer, long createdAtMillis, int indexInterval) {
+        this.path = path;
+        this.buffer = buffer;
+        this.createdAtMillis = createdAtMillis;
+        this.capacity = (buffer.capacity() - HEADER_SIZE) / ArchiveRecordCodec.RECORD_SIZE;
+        this.indexInterval = indexInterval;
+        int blocks = (capacity + indexInterval - 1) / indexInterval;
+        this.blockMin = new long[blocks];
+        this.blockMax = new long[blocks];
+        Arrays.fill(blockMin, Long.MAX_VALUE);
+        Arrays.fill(blockMax, Long.MIN_VALUE);
+    }
+
+    static ArchiveSegment create(Path path, long createdAtMillis, long segmentBytes, int indexInterval) {
+        long records = (segmentBytes - HEADER_SIZE) / ArchiveRecordCodec.RECORD_SIZE;
+        if (records <= 0) {
+            throw new IllegalArgumentException("stream.archive.segment-size demasiado chico");
+        }
+        long size = HEADER_SIZE + Math.min(records, Integer.MAX_VALUE / ArchiveRecordCodec.RECORD_SIZE) * ArchiveRecordCodec.RECORD_SIZE;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC)
+                    .putShort(4, VERSION)
+                    .putShort(6, (short) ArchiveRecordCodec.RECORD_SIZE)
+                    .putLong(8, createdAtMillis)
+                    .putInt(COUNT_OFFSET, -1)
+                    .putInt(20, indexInterval);
+            return new ArchiveSegment(path, buffer, createdAtMillis, indexInterval);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el segmento " + path, e);
+        }
+    }
+
+    // Abre un segmento existente; si quedó abierto (caída del proceso) recupera los registros válidos y lo cierra
+    static ArchiveSegment open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("No es un segmento de archivo: " + path);
+            }
+            if (buffer.getShort(4) != VERSION || buffer.getShort(6) != ArchiveRecordCodec.RECORD_SIZE) {
+                throw new IOException("Versión de segmento no soportada: " + path);
+            }
+            ArchiveSegment segment = new ArchiveSegment(path, buffer, buffer.getLong(8), buffer.getInt(20));
+            segment.recover(buffer.getInt(COUNT_OFFSET));
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    private void recover(int storedCount) throws IOException {
+        int n = storedCount;
+        if (n < 0) {
+            n = 0;
+            while (n < capacity && ArchiveRecordCodec.isValid(buffer, offset(n))) {
+                n++;
+            }
+        }
+        Path index = indexPath();
+        if (storedCount >= 0 && Files.exists(index)) {
+            ByteBuffer idx = ByteBuffer.wrap(Files.readAllBytes(index));
+            for (int b = 0; b < blockMin.length && idx.remaining() >= 2 * Long.BYTES; b++) {
+                blockMin[b] = idx.getLong();
+                blockMax[b] = idx.getLong();
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                track(i, ArchiveRecordCodec.timestampAt(buffer, offset(i)));
+            }
+        }
+        count = n;
+        seal();
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long createdAtMillis() {
+        return createdAtMillis;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    // Sólo desde el hilo escritor
+    void append(VehicleData data, byte[] vehicleId, byte[] overflow, long timestampNanos, float reconstructionError) {
+        int i = count;
+        ArchiveRecordCodec.encode(buffer, offset(i), data, vehicleId, overflow, timestampNanos, reconstructionError);
+        track(i, timestampNanos);
+        count = i + 1;
+    }
+
+    void seal() throws IOException {
+        if (sealed) {
+            return;
+        }
+        buffer.putInt(COUNT_OFFSET, count);
+        int blocks = (count + indexInterval - 1) / indexInterval;
+        ByteBuffer idx = ByteBuffer.allocate(blocks * 2 * Long.BYTES);
+        for (int b = 0; b < blocks; b++) {
+            idx.putLong(blockMin[b]).putLong(blockMax[b]);
+        }
+        Files.write(indexPath(), idx.array());
+        buffer.force();
+        sealed = true;
+    }
+
+    boolean overlaps(long fromNanos, long toNanos) {
+        int blocks = (count + indexInterval - 1) / indexInterval;
+        for (int b = 0; b < blocks; b++) {
+            if (blockMin[b] <= toNanos && blockMax[b] >= fromNanos) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Lee sólo los bloques cuyo rango [min, max] se cruza con la ventana
+    Stream<ArchivedTelemetry> read(long fromNanos, long toNanos) {
+        int n = count;
+        int blocks = (n + indexInterval - 1) / indexInterval;
+        ByteBuffer view = buffer.duplicate();
+        return IntStream.range(0, blocks)
+                .filter(b -> blockMin[b] <= toNanos && blockMax[b] >= fromNanos)
+                .flatMap(b -> IntStream.range(b * indexInterval, Math.min(n, (b + 1) * indexInterval)))
+                .filter(i -> {
+                    long ts = ArchiveRecordCodec.timestampAt(view, offset(i));
+                    return ts >= fromNanos && ts <= toNanos;
+                })
+                .mapToObj(i -> ArchiveRecordCodec.decode(view, offset(i)));
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(indexPath());
+        Files.deleteIfExists(path);
+    }
+
+    private void track(int i, long timestampNanos) {
+        int b = i / indexInterval;
+        if (timestampNanos < blockMin[b]) {
+            blockMin[b] = timestampNanos;
+        }
+        if (timestampNanos > blockMax[b]) {
+            blockMax[b] = timestampNanos;
+        }
+    }
+
+    private Path indexPath() {
+        String name = path.getFileName().toString();
+        return path.resolveSibling(name.substring(0, name.lastIndexOf('.')) + ".idx");
+    }
+
+    private static int offset(int record) {
+        return HEADER_SIZE + record * ArchiveRecordCodec.RECORD_SIZE;
+    }
+}
@@ -0,0 +1,7 @@
+package com.martin.stream_processor_service.archive;
+
+import com.martin.model.VehicleData;
+
+// Registro enriquecido tal como quedó archivado: data.anomaly es el veredicto del modelo
+public record ArchivedTelemetry(VehicleData data, float reconstructionError) {
+}
@@ -0,0 +1,226 @@
+package com.martin.stream_processor_service.archive;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.ArchiveProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Archivo append-only de la telemetría enriquecida en segmentos mapeados en memoria.
+// append() sólo encola (nunca bloquea al llamador); un hilo escritor dedicado codifica, escribe y rota
+// los segmentos por tamaño y por tiempo. No garantiza guardar todo: con la cola llena el registro se pierde
+// (stream.archive.dropped) y uno que no entra en el formato fijo también (stream.archive.rejected).
+@Slf4j
+@Component
+public class TelemetryArchive {
+
+    private record Pending(VehicleData data, float reconstructionError, long receivedNanos) {
+    }
+
+    private final ArchiveProperties properties;
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Pending> queue;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter rejected;
+    private final AtomicLong lastDropWarning = new AtomicLong();
+    private Path directory;
+    private Thread writer;
+    private ArchiveSegment active;
+    private long nextSequence;
+    private volatile boolean running;
+
+    public TelemetryArchive(ArchiveProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.written = Counter.builder("stream.archive.written").register(meterRegistry);
+        this.dropped = Counter.builder("stream.archive.dropped")
+                .description("Registros descartados porque la cola del archivo estaba llena")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("stream.archive.rejected")
+                .description("Registros que no entran en el formato fijo (vehicleId o textos fuera de diccionario demasiado largos)")
+                .register(meterRegistry);
+        Gauge.builder("stream.archive.queue", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("stream.archive.segments", segments, List::size).register(meterRegistry);
+
+        if (properties.isEnabled()) {
+            start();
+        }
+    }
+
+    private void start() {
+        directory = Paths.get(properties.getDirectory());
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".seg")).sorted().toList()) {
+                    segments.add(ArchiveSegment.open(file));
+                    nextSequence = Math.max(nextSequence, sequenceOf(file) + 1);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el archivo de telemetría en " + directory, e);
+        }
+
+        running = true;
+        writer = new Thread(this::writeLoop, "telemetry-archive");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("✅ Archivo de telemetría en {} ({} segmentos existentes)", directory.toAbsolutePath(), segments.size());
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    public void append(VehicleData data, double reconstructionError) {
+        if (!running) {
+            return;
+        }
+        if (!queue.offer(new Pending(data, (float) reconstructionError, System.currentTimeMillis() * 1_000_000L))) {
+            dropped.increment();
+            long last = lastDropWarning.get();
+            long now = System.currentTimeMillis();
+            if (now - last >= 10_000 && lastDropWarning.compareAndSet(last, now)) {
+                log.warn("⚠️ Cola del archivo llena ({} registros): se descartan registros, total {}",
+                        properties.getQueueCapacity(), (long) dropped.count());
+            }
+        }
+    }
+
+    // Registros con timestamp en [from, to], segmento por segmento; el Stream es perezoso
+    public Stream<ArchivedTelemetry> read(Instant from, Instant to) {
+        long fromNanos = toNanos(from);
+        long toNanos = toNanos(to);
+        return List.copyOf(segments).stream()
+                .filter(segment -> segment.overlaps(fromNanos, toNanos))
+                .flatMap(segment -> segment.read(fromNanos, toNanos));
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(1024);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 1023);
+                for (Pending pending : batch) {
+                    write(pending);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    queue.drainTo(batch);
+                    batch.forEach(this::write);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("❌ Error escribiendo el archivo de telemetría: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(Pending pending) {
+        byte[] vehicleId = ArchiveRecordCodec.vehicleId(pending.data());
+        byte[] overflow = ArchiveRecordCodec.overflow(pending.data());
+        if (vehicleId.length > ArchiveRecordCodec.MAX_VEHICLE_ID_BYTES || overflow.length > ArchiveRecordCodec.MAX_OVERFLOW_BYTES) {
+            rejected.increment();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (active == null || active.isFull() || now - active.createdAtMillis() >= properties.getSegmentDuration().toMillis()) {
+            roll(now);
+        }
+        active.append(pending.data(), vehicleId, overflow, ArchiveRecordCodec.timestamp(pending.data(), pending.receivedNanos()),
+                pending.reconstructionError());
+        written.increment();
+    }
+
+    private void roll(long now) {
+        try {
+            if (active != null) {
+                active.seal();
+            }
+            Path file = directory.resolve(String.format("segment-%012d.seg", nextSequence++));
+            active = ArchiveSegment.create(file, now, properties.getSegmentSize().toBytes(), properties.getIndexInterval());
+            segments.add(active);
+            applyRetention(now);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Un segmento se borra cuando el siguiente empezó antes del límite: todos sus registros son más viejos
+    private void applyRetention(long now) throws IOException {
+        long cutoff = now - properties.getRetention().toMillis();
+        while (segments.size() > 1) {
+            ArchiveSegment oldest = segments.get(0);
+            if (oldest == active || !oldest.isSealed() || segments.get(1).createdAtMillis() >= cutoff) {
+                return;
+            }
+            segments.remove(0);
+            oldest.delete();
+            log.info("Segmento {} eliminado por retención", oldest.path().getFileName());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (active != null) {
+                active.seal();
+            }
+        } catch (IOException e) {
+            log.error("❌ No se pudo cerrar el segmento {}: {}", active.path(), e.getMessage());
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring("segment-".length(), name.length() - ".seg".length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static long toNanos(Instant instant) {
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        } catch (ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+}
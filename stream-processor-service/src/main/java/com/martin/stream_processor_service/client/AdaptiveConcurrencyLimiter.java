@@ -0,0 +1,81 @@
+package com.martin.stream_processor_service.client;
+
+import com.martin.stream_processor_service.config.PredictionClientProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Límite AIMD de llamadas en vuelo. tryAcquire() no bloquea: si no hay cupo la llamada se rechaza
+// y el registro sigue por el camino degradado. Cada permiso adquirido se libera con exactamente
+// uno de onSuccess / onDropped / onIgnore.
+class AdaptiveConcurrencyLimiter {
+
+    private final int min;
+    private final int max;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    AdaptiveConcurrencyLimiter(PredictionClientProperties.Limit properties) {
+        if (properties.getMin() < 1 || properties.getMax() < properties.getMin()) {
+            throw new IllegalArgumentException("prediction.client.limit: se requiere 1 <= min <= max");
+        }
+        this.min = properties.getMin();
+        this.max = properties.getMax();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+        this.limit = Math.clamp(properties.getInitial(), min, max);
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Respuesta a tiempo: +1/limit (≈ +1 por ventana completa); lenta: se reduce como un fallo
+    void onSuccess(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else {
+            increase();
+        }
+    }
+
+    // Timeout, error de conexión o 5xx: señal de saturación
+    void onDropped() {
+        inFlight.decrementAndGet();
+        decrease();
+    }
+
+    // Cancelada o error que no dice nada de la carga del servicio (p. ej. respuesta ilegible)
+    void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void increase() {
+        // Sólo crece si el límite se está usando; si no, no hay evidencia de que más concurrencia sea segura
+        if (inFlight.get() + 1 >= (int) limit / 2) {
+            limit = Math.min(max, limit + 1.0 / limit);
+        }
+    }
+
+    private synchronized void decrease() {
+        limit = Math.max(min, limit * backoffRatio);
+    }
+}
@@ -0,0 +1,12 @@
+package com.martin.stream_processor_service.client;
+
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import reactor.core.publisher.Mono;
+
+// Motor que puntúa un registro: el servicio de ML remoto (PredictionClient) o el autoencoder
+// en proceso (NativeAnomalyScorer). Se elige con prediction.engine=remote|native.
+public interface AnomalyScorer {
+
+    Mono<PredictionResponse> predict(PredictionRequest request);
+}
@@ -0,0 +1,162 @@
+package com.martin.stream_processor_service.client;
+
+import com.martin.stream_processor_service.config.PredictionCacheProperties;
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Cache LRU + TTL delante del motor de ML, con clave en las 10 características cuantizadas.
+// Un acierto devuelve el error del registro que llenó la entrada; el veredicto es el mismo para toda la celda
+// siempre que cellErrorBound acote de verdad la variación del error dentro de ella.
+// Particionada en segmentos (LinkedHashMap en orden de acceso con su propio lock) para no serializar
+// todos los hilos del pipeline en un único monitor.
+public class CachingAnomalyScorer implements AnomalyScorer {
+
+    private static final int SEGMENTS = 16;
+
+    private final AnomalyScorer delegate;
+    private final PredictionCacheProperties.Steps steps;
+    private final long ttlNanos;
+    private final double cellErrorBound;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+
+    public CachingAnomalyScorer(AnomalyScorer delegate, PredictionCacheProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getMaxSize() < SEGMENTS) {
+            throw new IllegalArgumentException("prediction.cache.max-size debe ser >= " + SEGMENTS);
+        }
+        if (!(properties.getCellErrorBound() > 0) || Double.isInfinite(properties.getCellErrorBound())) {
+            throw new IllegalArgumentException("prediction.cache.cell-error-bound debe ser > 0 y finito");
+        }
+        this.delegate = delegate;
+        this.steps = properties.getSteps();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.cellErrorBound = properties.getCellErrorBound();
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(properties.getMaxSize() / SEGMENTS);
+        }
+
+        this.hits = Counter.builder("prediction.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("prediction.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("prediction.cache.evictions").tag("cause", "size").register(meterRegistry);
+        this.expirations = Counter.builder("prediction.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        Gauge.builder("prediction.cache.size", this, CachingAnomalyScorer::size).register(meterRegistry);
+    }
+
+    @Override
+    public Mono<PredictionResponse> predict(PredictionRequest request) {
+        FeatureKey key = key(request);
+        Segment segment = segments[Math.floorMod(key.hashCode(), SEGMENTS)];
+
+        CachedScore cached = segment.get(key, System.nanoTime());
+        if (cached != null) {
+            hits.increment();
+            return Mono.just(cached.toResponse());
+        }
+        misses.increment();
+        return delegate.predict(request).doOnNext(response -> {
+            if (isCacheable(response)) {
+                segment.put(key, new CachedScore(response, System.nanoTime() + ttlNanos));
+            }
+        });
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    // Ningún registro de la celda puede cruzar el umbral (un error NaN nunca se cachea)
+    private boolean isCacheable(PredictionResponse response) {
+        return Math.abs(response.getReconstructionError() - response.getAnomalyThreshold()) > cellErrorBound;
+    }
+
+    private FeatureKey key(PredictionRequest request) {
+        return new FeatureKey(
+                quantize(request.getLatitude(), steps.getLatitude()),
+                quantize(request.getLongitude(), steps.getLongitude()),
+                quantize(request.getSpeed(), steps.getSpeed()),
+                quantize(request.getPreviousSpeed(), steps.getPreviousSpeed()),
+                quantize(request.getAcceleration(), steps.getAcceleration()),
+                quantize(request.getTemperature(), steps.getTemperature()),
+                quantize(request.getBattery(), steps.getBattery()),
+                quantize(request.getFuelLevel(), steps.getFuelLevel()),
+                quantize(request.getSpeedLimit(), steps.getSpeedLimit()),
+                quantize(request.getTrafficLevel(), steps.getTrafficLevel()));
+    }
+
+    private static long quantize(Double value, double step) {
+        if (value == null) {
+            return Long.MIN_VALUE;
+        }
+        return step > 0 ? Math.round(value / step) : Double.doubleToLongBits(value);
+    }
+
+    private record FeatureKey(long latitude, long longitude, long speed, long previousSpeed, long acceleration,
+                      long temperature, long battery, long fuelLevel, long speedLimit, long trafficLevel) {
+    }
+
+    // Sólo el veredicto; cada acierto devuelve su propia copia porque PredictionResponse es mutable
+    private record CachedScore(double reconstructionError, double anomalyThreshold, boolean anomaly, long expiresAt) {
+
+        CachedScore(PredictionResponse response, long expiresAt) {
+            this(response.getReconstructionError(), response.getAnomalyThreshold(), response.isAnomaly(), expiresAt);
+        }
+
+        PredictionResponse toResponse() {
+            PredictionResponse response = new PredictionResponse();
+            response.setReconstructionError(reconstructionError);
+            response.setAnomalyThreshold(anomalyThreshold);
+            response.setAnomaly(anomaly);
+            return response;
+        }
+    }
+
+    private final class Segment {
+
+        private final LinkedHashMap<FeatureKey, CachedScore> entries;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<FeatureKey, CachedScore> eldest) {
+                    if (size() > capacity) {
+                        sizeEvictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized CachedScore get(FeatureKey key, long now) {
+            CachedScore cached = entries.get(key);
+            if (cached != null && cached.expiresAt() - now <= 0) {
+                entries.remove(key);
+                expirations.increment();
+                return null;
+            }
+            return cached;
+        }
+
+        synchronized void put(FeatureKey key, CachedScore score) {
+            entries.put(key, score);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.martin.stream_processor_service.client;
+
+import com.martin.stream_processor_service.config.PredictionClientProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongSupplier;
+
+// CLOSED -> (failureThreshold fallos seguidos) -> OPEN -> (openDuration) -> HALF_OPEN -> CLOSED u OPEN
+// según el resultado de las llamadas de prueba. Igual que el limiter, cada permiso se cierra con
+// exactamente uno de onSuccess / onFailure / onIgnore.
+@Slf4j
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+
+    CircuitBreaker(PredictionClientProperties.CircuitBreaker properties) {
+        this(properties, System::nanoTime);
+    }
+
+    CircuitBreaker(PredictionClientProperties.CircuitBreaker properties, LongSupplier clock) {
+        this.failureThreshold = properties.getFailureThreshold();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenProbes = Math.max(1, properties.getHalfOpenProbes());
+        this.clock = clock;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            log.info("⏸️ Circuito del modelo semiabierto: probando con {} llamada(s)", halfOpenProbes);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    // Rechazo barato antes de encolar en el batcher; el permiso real se pide por llamada HTTP
+    synchronized boolean isOpen() {
+        return state == State.OPEN && clock.getAsLong() - openedAt < openNanos;
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            log.info("✅ Circuito del modelo cerrado: el servicio de ML responde de nuevo");
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    synchronized void onIgnore() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        consecutiveFailures = 0;
+        log.warn("❌ Circuito del modelo abierto durante {} ms: los registros se entregan sin puntuar",
+                openNanos / 1_000_000);
+    }
+}
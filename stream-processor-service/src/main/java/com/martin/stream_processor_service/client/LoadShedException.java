@@ -0,0 +1,9 @@
+package com.martin.stream_processor_service.client;
+
+// Registro de bajo riesgo descartado por PredictionScheduler durante una sobrecarga: se entrega sin puntuar
+public class LoadShedException extends ScoringUnavailableException {
+
+    public LoadShedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,140 @@
+package com.martin.stream_processor_service.client;
+
+import com.martin.stream_processor_service.config.PredictionClientProperties;
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Agrupa las predicciones individuales en lotes (por tamaño o por tiempo) y devuelve
+// a cada llamador la respuesta que le corresponde según su posición en el lote.
+@Slf4j
+class PredictionBatcher implements AutoCloseable {
+
+    private final BlockingQueue<PendingPrediction> queue;
+    private final int maxSize;
+    private final long maxWaitNanos;
+    private final Function<List<PredictionRequest>, Mono<List<PredictionResponse>>> sender;
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    PredictionBatcher(PredictionClientProperties.Batch properties,
+                      Function<List<PredictionRequest>, Mono<List<PredictionResponse>>> sender,
+                      MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.maxSize = properties.getMaxSize();
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+        this.sender = sender;
+        this.batchSize = DistributionSummary.builder("prediction.batch.size")
+                .description("Registros enviados por llamada a /predict/batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchWait = Timer.builder("prediction.batch.wait")
+                .description("Tiempo que un registro espera en el batcher antes de enviarse")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flusher = Thread.ofPlatform()
+                .name("prediction-batcher")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    Mono<PredictionResponse> submit(PredictionRequest request) {
+        return Mono.create(sink -> {
+            if (!queue.offer(new PendingPrediction(request, sink, System.nanoTime()))) {
+                sink.error(new IllegalStateException("Prediction batch queue is full"));
+            }
+        });
+    }
+
+    private void run() {
+        List<PendingPrediction> batch = new ArrayList<>(maxSize);
+        while (running) {
+            try {
+                PendingPrediction first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedAt() + maxWaitNanos;
+                while (batch.size() < maxSize) {
+                    queue.drainTo(batch, maxSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingPrediction next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatch(List.copyOf(batch));
+                batch.clear();
+            } catch (InterruptedException e) {
+                // close() durante el poll: lo ya juntado no se despacha, pero sus llamadores no pueden quedar esperando
+                batch.forEach(pending -> pending.sink().error(new IllegalStateException("Prediction batcher is shutting down")));
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("❌ Batch dispatch failed: {}", e.getMessage());
+                batch.forEach(pending -> pending.sink().error(e));
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<PendingPrediction> batch) {
+        long now = System.nanoTime();
+        batchSize.record(batch.size());
+        List<PredictionRequest> requests = new ArrayList<>(batch.size());
+        for (PendingPrediction pending : batch) {
+            batchWait.record(now - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+            requests.add(pending.request());
+        }
+
+        // Un Mono vacío dejaría a todos los llamadores esperando hasta su timeout
+        sender.apply(requests)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Batch response was empty")))
+                .subscribe(
+                responses -> {
+                    if (responses.size() != batch.size()) {
+                        IllegalStateException error = new IllegalStateException(
+                                "Batch response size " + responses.size() + " does not match request size " + batch.size());
+                        batch.forEach(pending -> pending.sink().error(error));
+                        return;
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).sink().success(responses.get(i));
+                    }
+                },
+                error -> batch.forEach(pending -> pending.sink().error(error))
+        );
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        flusher.interrupt();
+        PendingPrediction pending;
+        while ((pending = queue.poll()) != null) {
+            pending.sink().error(new IllegalStateException("Prediction batcher is shutting down"));
+        }
+    }
+
+    private record PendingPrediction(PredictionRequest request, MonoSink<PredictionResponse> sink, long enqueuedAt) {
+    }
+}
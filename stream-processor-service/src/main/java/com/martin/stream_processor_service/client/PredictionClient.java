@@ -1,33 +1,206 @@
 package com.martin.stream_processor_service.client;
 
+import com.martin.stream_processor_service.config.PredictionClientProperties;
 import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
 @Service
 @Slf4j
-public class PredictionClient {
+@ConditionalOnProperty(name = "prediction.engine", havingValue = "remote", matchIfMissing = true)
+public class PredictionClient implements AnomalyScorer {
 
+    private static final ParameterizedTypeReference<List<PredictionResponse>> BATCH_RESPONSE =
+            new ParameterizedTypeReference<>() {};
 
     private final WebClient webClient;
+    private final PredictionBatcher batcher;
+    private final Duration timeout;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker breaker;
+    private final Counter rejectedByLimit;
+    private final Counter rejectedByCircuit;
+    private final Counter timeouts;
 
-    public PredictionClient(WebClient.Builder builder) {
-        // Usamos localhost mientras el ML está corriendo localmente
+    public PredictionClient(WebClient.Builder builder,
+                            PredictionClientProperties properties,
+                            MeterRegistry meterRegistry) {
+        // Usamos localhost mientras el ML está corriendo localmente (configurable en prediction.client.base-url)
         this.webClient = builder
-                .baseUrl("http://localhost:9000")
+                .baseUrl(properties.getBaseUrl())
                 .build();
+        this.batcher = properties.getBatch().isEnabled()
+                ? new PredictionBatcher(properties.getBatch(), this::predictBatch, meterRegistry)
+                : null;
+        this.timeout = properties.getTimeout();
+        this.limiter = properties.getLimit().isEnabled() ? new AdaptiveConcurrencyLimiter(properties.getLimit()) : null;
+        this.breaker = properties.getCircuitBreaker().isEnabled() ? new CircuitBreaker(properties.getCircuitBreaker()) : null;
+
+        this.rejectedByLimit = Counter.builder("prediction.client.rejected").tag("reason", "limit").register(meterRegistry);
+        this.rejectedByCircuit = Counter.builder("prediction.client.rejected").tag("reason", "circuit_open").register(meterRegistry);
+        this.timeouts = Counter.builder("prediction.client.timeouts").register(meterRegistry);
+        if (limiter != null) {
+            Gauge.builder("prediction.client.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("Llamadas HTTP en vuelo permitidas por el limiter adaptativo")
+                    .register(meterRegistry);
+            Gauge.builder("prediction.client.in.flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .register(meterRegistry);
+        }
+        if (breaker != null) {
+            Gauge.builder("prediction.client.circuit.state", breaker, b -> b.state().ordinal())
+                    .description("0 = cerrado, 1 = abierto, 2 = semiabierto")
+                    .register(meterRegistry);
+        }
     }
 
-    public Mono<String> predict(PredictionRequest request) {
-        return webClient.post()
+    @Override
+    public Mono<PredictionResponse> predict(PredictionRequest request) {
+        // Con el circuito abierto ni siquiera se encola en el batcher
+        if (breaker != null && breaker.isOpen()) {
+            rejectedByCircuit.increment();
+            return Mono.error(new ScoringUnavailableException("ML circuit open"));
+        }
+        if (batcher != null) {
+            return batcher.submit(request);
+        }
+        return guarded(() -> webClient.post()
                 .uri("/predict")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(request)
                 .retrieve()
-                .bodyToMono(String.class)
-                .doOnError(error -> log.error("❌ ML request failed: {}", error.getMessage()));
+                .bodyToMono(PredictionResponse.class))
+                .doOnError(error -> logFailure(error, "❌ ML request failed: {}", error.getMessage()));
+    }
+
+    Mono<List<PredictionResponse>> predictBatch(List<PredictionRequest> requests) {
+        return guarded(() -> webClient.post()
+                .uri("/predict/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requests)
+                .retrieve()
+                .bodyToMono(BATCH_RESPONSE))
+                .doOnError(error -> logFailure(error, "❌ ML batch request failed ({} records): {}", requests.size(), error.getMessage()));
+    }
+
+    // Circuit breaker + limiter + timeout alrededor de cada llamada HTTP. Sólo los timeouts, errores de
+    // conexión, 5xx y 429 cuentan como saturación; el resto libera el permiso sin ajustar nada.
+    private <T> Mono<T> guarded(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            if (breaker != null && !breaker.tryAcquire()) {
+                rejectedByCircuit.increment();
+                return Mono.error(new ScoringUnavailableException("ML circuit open"));
+            }
+            if (limiter != null && !limiter.tryAcquire()) {
+                if (breaker != null) {
+                    breaker.onIgnore();
+                }
+                rejectedByLimit.increment();
+                return Mono.error(new ScoringUnavailableException("ML concurrency limit reached"));
+            }
+
+            Permit permit = new Permit(System.nanoTime());
+            return call.get()
+                    .timeout(timeout)
+                    .doOnSuccess(result -> permit.success())
+                    .doOnError(permit::failure)
+                    .doOnCancel(permit::ignore);
+        });
+    }
+
+    private static boolean isOverload(Throwable error) {
+        if (error instanceof TimeoutException || error instanceof WebClientRequestException) {
+            return true;
+        }
+        return error instanceof WebClientResponseException response
+                && (response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429);
+    }
+
+    // Cierra el permiso del limiter y del circuit breaker una sola vez (un cancel puede llegar después del valor)
+    private final class Permit {
+
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(long start) {
+            this.start = start;
+        }
+
+        void success() {
+            if (released.compareAndSet(false, true)) {
+                if (limiter != null) {
+                    limiter.onSuccess(System.nanoTime() - start);
+                }
+                if (breaker != null) {
+                    breaker.onSuccess();
+                }
+            }
+        }
+
+        void failure(Throwable error) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            boolean overload = isOverload(error);
+            if (error instanceof TimeoutException) {
+                timeouts.increment();
+            }
+            if (limiter != null) {
+                if (overload) {
+                    limiter.onDropped();
+                } else {
+                    limiter.onIgnore();
+                }
+            }
+            if (breaker != null) {
+                if (overload) {
+                    breaker.onFailure();
+                } else {
+                    breaker.onIgnore();
+                }
+            }
+        }
+
+        void ignore() {
+            if (released.compareAndSet(false, true)) {
+                if (limiter != null) {
+                    limiter.onIgnore();
+                }
+                if (breaker != null) {
+                    breaker.onIgnore();
+                }
+            }
+        }
+    }
+
+    // Los rechazos del limiter / circuito ya se cuentan en métricas; loguearlos uno por uno inundaría el log
+    private static void logFailure(Throwable error, String message, Object... args) {
+        if (!(error instanceof ScoringUnavailableException)) {
+            log.error(message, args);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
     }
 }
@@ -0,0 +1,9 @@
+package com.martin.stream_processor_service.client;
+
+// El modelo no se consultó: circuito abierto o límite de concurrencia alcanzado
+public class ScoringUnavailableException extends RuntimeException {
+
+    public ScoringUnavailableException(String message) {
+        super(message, null, false, false);
+    }
+}
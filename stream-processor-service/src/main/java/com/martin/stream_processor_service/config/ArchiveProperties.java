@@ -0,0 +1,29 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stream.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = false;
+
+    private String directory = "data/archive";
+
+    // Se abre un segmento nuevo al llenarse o al cumplir segmentDuration, lo que ocurra primero
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private Duration segmentDuration = Duration.ofHours(1);
+
+    // Una entrada del índice (min/max timestamp) cada indexInterval registros
+    private int indexInterval = 1024;
+
+    // Registros esperando al hilo escritor; si se llena se descartan (stream.archive.dropped) en vez de bloquear
+    private int queueCapacity = 65_536;
+
+    // Los segmentos cerrados más viejos que esto se borran
+    private Duration retention = Duration.ofDays(7);
+}
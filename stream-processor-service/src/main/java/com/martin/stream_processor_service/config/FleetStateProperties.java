@@ -0,0 +1,15 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "stream.state")
+public class FleetStateProperties {
+
+    // Lado de las celdas del índice espacial; 0.01 grados ≈ 1 km
+    private double cellSizeDegrees = 0.01;
+
+    // Máximo de vehículos devueltos por consulta
+    private int maxResults = 10_000;
+}
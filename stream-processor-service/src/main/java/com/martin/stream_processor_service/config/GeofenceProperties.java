@@ -0,0 +1,33 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+
+// Geocercas (GeoJSON) evaluadas con la posición de cada registro; sólo se publican las entradas y salidas
+@Data
+@ConfigurationProperties(prefix = "stream.geofences")
+public class GeofenceProperties {
+
+    private boolean enabled = false;
+
+    // FeatureCollection GeoJSON; con file: se recarga en caliente al cambiar el archivo
+    private Resource location;
+
+    // Cada reloadInterval se mira la fecha de modificación; 0 = sin recarga
+    private Duration reloadInterval = Duration.ofSeconds(10);
+
+    // Celdas de la grilla del índice, en grados (0.01 ≈ 1 km)
+    private double cellSizeDegrees = 0.01;
+
+    // Cercas que cubren más celdas se evalúan aparte en cada registro (sólo su bounding box al principio)
+    private int maxCellsPerFence = 4096;
+
+    // Sólo ocupan memoria los vehículos dentro de alguna cerca; pasado el límite los nuevos se ignoran
+    private int maxVehicles = 100_000;
+
+    // Topic de entradas/salidas (clave = vehicleId); vacío = sólo WebSocket (/ws/geofences)
+    private String topic = "geofence-events";
+}
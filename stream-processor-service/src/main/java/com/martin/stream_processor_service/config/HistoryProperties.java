@@ -0,0 +1,25 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stream.history")
+public class HistoryProperties {
+
+    private boolean enabled = true;
+
+    // Memoria máxima = maxVehicles * capacity * 24 bytes (timestamp + 4 métricas float)
+    private int maxVehicles = 20_000;
+
+    // Con el cupo lleno, los vehículos sin registros hace idleTimeout liberan su buffer para uno nuevo
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // Muestras por vehículo; al llenarse se pisan las más viejas
+    private int capacity = 240;
+
+    // true = buffers fuera del heap (ByteBuffer.allocateDirect), no los recorre el GC
+    private boolean offHeap = false;
+}
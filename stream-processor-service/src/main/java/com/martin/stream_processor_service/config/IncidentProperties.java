@@ -0,0 +1,34 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Incidentes por vehículo y anomalyType (IncidentTracker): sólo se publican las transiciones, no cada lectura anómala
+@Data
+@ConfigurationProperties(prefix = "stream.incidents")
+public class IncidentProperties {
+
+    private boolean enabled = false;
+
+    // Lecturas anómalas seguidas del mismo tipo para abrir un incidente (debounce); las sueltas no generan alertas
+    private int openAfter = 3;
+
+    // Lecturas normales seguidas para resolverlo (histéresis): un valor que oscila en el umbral no abre y cierra
+    private int resolveAfter = 5;
+
+    // Mientras siga abierto se publica un ONGOING como mucho una vez por intervalo; 0 = sólo OPEN y RESOLVED
+    private Duration updateInterval = Duration.ofMinutes(1);
+
+    // Vehículo sin lecturas durante este tiempo: sus incidentes abiertos se resuelven y los pendientes se olvidan
+    private Duration idleTimeout = Duration.ofMinutes(2);
+
+    // Sólo ocupan memoria los vehículos con incidentes abiertos o pendientes; pasado el límite los nuevos se ignoran
+    private int maxVehicles = 20_000;
+
+    // Topic compactado (clave = vehicleId/anomalyType); vacío = sólo WebSocket (/ws/incidents)
+    private String topic = "vehicle-incidents";
+
+    private int topicPartitions = 3;
+}
@@ -0,0 +1,58 @@
+package com.martin.stream_processor_service.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.martin.stream_processor_service.incident.Incident;
+import com.martin.stream_processor_service.websocket.WebSocketFanOut;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+// /ws/incidents: sólo transiciones de incidentes (OPEN, ONGOING, RESOLVED), todas las sesiones reciben lo mismo
+@Component
+@Slf4j
+public class IncidentWebSocketHandler extends TextWebSocketHandler {
+
+    private final WebSocketFanOut fanOut;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    public IncidentWebSocketHandler(WebSocketProperties properties, MeterRegistry meterRegistry) {
+        this.fanOut = new WebSocketFanOut(properties, meterRegistry, "incidents");
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        fanOut.register(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        fanOut.unregister(session);
+    }
+
+    public void sendIncident(Incident incident) {
+        if (fanOut.isEmpty()) {
+            return;
+        }
+        try {
+            fanOut.broadcast(new TextMessage(mapper.writeValueAsString(incident)));
+        } catch (JsonProcessingException e) {
+            log.error("Error de serialización: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        fanOut.close();
+    }
+}
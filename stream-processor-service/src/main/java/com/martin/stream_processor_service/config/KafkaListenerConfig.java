@@ -0,0 +1,21 @@
+package com.martin.stream_processor_service.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ContainerCustomizer;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+
+@Configuration
+public class KafkaListenerConfig {
+
+    // Los registros se confirman desde el callback de inferencia (otro hilo y fuera de orden).
+    // Con asyncAcks el contenedor sólo avanza el commit de cada partición hasta el último offset contiguo confirmado.
+    @Bean
+    public ContainerCustomizer<Object, Object, ConcurrentMessageListenerContainer<Object, Object>> manualAckContainerCustomizer() {
+        return container -> {
+            container.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            container.getContainerProperties().setAsyncAcks(true);
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.martin.stream_processor_service.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    // El resto de los topics los crea el broker al primer envío; el de incidentes tiene que nacer compactado
+    @Bean
+    public KafkaAdmin.NewTopics incidentTopics(IncidentProperties properties) {
+        if (!properties.isEnabled() || properties.getTopic() == null || properties.getTopic().isBlank()) {
+            return new KafkaAdmin.NewTopics();
+        }
+        NewTopic topic = TopicBuilder.name(properties.getTopic())
+                .partitions(properties.getTopicPartitions())
+                .compact()
+                .build();
+        return new KafkaAdmin.NewTopics(topic);
+    }
+}
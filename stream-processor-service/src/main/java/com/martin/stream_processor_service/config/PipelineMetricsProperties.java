@@ -0,0 +1,23 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Timers por etapa del pipeline (stream.pipeline.stage) y de punta a punta (stream.pipeline.latency)
+@Data
+@ConfigurationProperties(prefix = "stream.metrics")
+public class PipelineMetricsProperties {
+
+    // Percentiles calculados en proceso y publicados como stream.pipeline.*.percentile{phi=...}
+    private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.99, 0.999));
+
+    // Umbrales de latencia de punta a punta: se cuenta cuántos registros quedan por debajo de cada uno
+    private List<Duration> latencySlos = new ArrayList<>(List.of(Duration.ofMillis(500), Duration.ofSeconds(1)));
+
+    // Ventana de los percentiles (Micrometer rota buffers dentro de esta ventana)
+    private Duration percentileWindow = Duration.ofMinutes(1);
+}
@@ -0,0 +1,25 @@
+package com.martin.stream_processor_service.config;
+
+import com.martin.stream_processor_service.client.AnomalyScorer;
+import com.martin.stream_processor_service.client.CachingAnomalyScorer;
+import com.martin.stream_processor_service.client.PredictionClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+// Sólo para el motor remoto: con el autoencoder en proceso una predicción cuesta lo mismo que el lookup
+@Configuration
+@ConditionalOnProperty(name = "prediction.engine", havingValue = "remote", matchIfMissing = true)
+public class PredictionCacheConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "prediction.cache.enabled", havingValue = "true")
+    public AnomalyScorer cachingAnomalyScorer(PredictionClient predictionClient,
+                                              PredictionCacheProperties properties,
+                                              MeterRegistry meterRegistry) {
+        return new CachingAnomalyScorer(predictionClient, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,40 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Cache de predicciones delante de PredictionClient (CachingAnomalyScorer)
+@Data
+@ConfigurationProperties(prefix = "prediction.cache")
+public class PredictionCacheProperties {
+
+    private boolean enabled = false;
+
+    private int maxSize = 100_000;
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    // Cota de cuánto puede cambiar el error de reconstrucción entre dos registros de la misma celda (mismas
+    // características cuantizadas). Sólo se cachean resultados a más de esa distancia del umbral: así toda la
+    // celda queda del mismo lado y el veredicto cacheado es el que daría el modelo. Obligatoria con la cache activa
+    private double cellErrorBound = 0;
+
+    private Steps steps = new Steps();
+
+    // Paso de cuantización por característica, en sus unidades; <= 0 = valor exacto
+    @Data
+    public static class Steps {
+        private double latitude = 0.001;
+        private double longitude = 0.001;
+        private double speed = 0.5;
+        private double previousSpeed = 0.5;
+        private double acceleration = 0.5;
+        private double temperature = 0.5;
+        private double battery = 0.5;
+        private double fuelLevel = 0.5;
+        private double speedLimit = 0;
+        private double trafficLevel = 0;
+    }
+}
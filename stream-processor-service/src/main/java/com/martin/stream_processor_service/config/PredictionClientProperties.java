@@ -0,0 +1,53 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "prediction.client")
+public class PredictionClientProperties {
+
+    private String baseUrl = "http://localhost:9000";
+
+    // Tiempo máximo de cada llamada HTTP (/predict o /predict/batch)
+    private Duration timeout = Duration.ofSeconds(2);
+
+    private Batch batch = new Batch();
+
+    private Limit limit = new Limit();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Data
+    public static class Batch {
+        private boolean enabled = true;
+        // Se envía el lote cuando llega a maxSize o cuando el primer registro lleva maxWait esperando
+        private int maxSize = 256;
+        private Duration maxWait = Duration.ofMillis(5);
+        private int queueCapacity = 65_536;
+    }
+
+    // Límite adaptativo (AIMD) de llamadas HTTP en vuelo: crece +1 por ventana mientras las respuestas
+    // llegan antes de latencyThreshold y se multiplica por backoffRatio ante timeouts, errores o lentitud
+    @Data
+    public static class Limit {
+        private boolean enabled = true;
+        private int initial = 16;
+        private int min = 1;
+        private int max = 256;
+        private double backoffRatio = 0.9;
+        private Duration latencyThreshold = Duration.ofMillis(500);
+    }
+
+    // Tras failureThreshold fallos seguidos no se llama al modelo durante openDuration;
+    // después se dejan pasar halfOpenProbes llamadas de prueba
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        private int failureThreshold = 10;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenProbes = 1;
+    }
+}
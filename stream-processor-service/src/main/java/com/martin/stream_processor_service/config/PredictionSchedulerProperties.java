@@ -0,0 +1,21 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Cola con prioridad delante del motor de ML (PredictionScheduler)
+@Data
+@ConfigurationProperties(prefix = "prediction.scheduler")
+public class PredictionSchedulerProperties {
+
+    private boolean enabled = false;
+
+    // Predicciones en curso a la vez; el resto espera en la cola de su prioridad (HIGH primero)
+    private int maxConcurrent = 128;
+
+    // Con esta cantidad de registros en cola se considera sobrecarga y los LOW se descartan (sin puntuar)
+    private int shedQueueDepth = 256;
+
+    // Fracción de registros LOW que igual se puntúan durante la sobrecarga
+    private double lowSampleRate = 0.1;
+}
@@ -0,0 +1,22 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Agregados de la flota por roadType x weather x trafficLevel en ventanas fijas (RollupAggregator)
+@Data
+@ConfigurationProperties(prefix = "stream.rollups")
+public class RollupProperties {
+
+    private boolean enabled = false;
+
+    // Una ventana fija por duración, alineadas a múltiplos de la duración desde epoch
+    private List<Duration> windows = new ArrayList<>(List.of(Duration.ofSeconds(1), Duration.ofMinutes(1)));
+
+    // Topic donde se publica cada ventana cerrada; vacío = sólo WebSocket (/ws/rollups)
+    private String topic = "fleet-rollups";
+}
@@ -0,0 +1,58 @@
+package com.martin.stream_processor_service.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.martin.stream_processor_service.rollup.FleetRollup;
+import com.martin.stream_processor_service.websocket.WebSocketFanOut;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+// /ws/rollups: sólo ventanas cerradas de FleetRollups, un frame por ventana y todas las sesiones reciben lo mismo
+@Component
+@Slf4j
+public class RollupWebSocketHandler extends TextWebSocketHandler {
+
+    private final WebSocketFanOut fanOut;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    public RollupWebSocketHandler(WebSocketProperties properties, MeterRegistry meterRegistry) {
+        this.fanOut = new WebSocketFanOut(properties, meterRegistry, "rollups");
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        fanOut.register(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        fanOut.unregister(session);
+    }
+
+    public void sendRollup(FleetRollup rollup) {
+        if (fanOut.isEmpty()) {
+            return;
+        }
+        try {
+            fanOut.broadcast(new TextMessage(mapper.writeValueAsString(rollup)));
+        } catch (JsonProcessingException e) {
+            log.error("Error de serialización: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        fanOut.close();
+    }
+}
@@ -0,0 +1,34 @@
+package com.martin.stream_processor_service.config;
+
+import com.martin.stream_processor_service.rules.RuleField;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Reglas de umbral evaluadas antes del modelo (RuleEngine). La primera que se cumple marca el registro
+// como anomalía con anomalyType = name y el registro no se envía al modelo.
+@Data
+@ConfigurationProperties(prefix = "stream.rules")
+public class RuleProperties {
+
+    private boolean enabled = false;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    // field [/ per] ABOVE|BELOW threshold
+    @Data
+    public static class Rule {
+        private String name;
+        private RuleField field;
+        // Opcional: compara field / per (p. ej. speed / speedLimit); si per <= 0 la regla no se cumple
+        private RuleField per;
+        private Operator operator = Operator.ABOVE;
+        private double threshold;
+    }
+
+    public enum Operator {
+        ABOVE, BELOW
+    }
+}
@@ -0,0 +1,36 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+// Registros que no se pudieron puntuar (modelo caído, circuito abierto, errores tras los reintentos):
+// en vez del DLT van a una cola en disco (SpillQueue) que se vacía sola cuando el modelo vuelve
+@Data
+@ConfigurationProperties(prefix = "stream.spill")
+public class SpillProperties {
+
+    private boolean enabled = false;
+
+    private String directory = "data/spill";
+
+    // Segmentos mapeados en memoria de este tamaño; se borran al terminar de leerlos
+    private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+    // Con la cola llena los registros vuelven a ir al DLT
+    private DataSize maxSize = DataSize.ofGigabytes(1);
+
+    // Registros que el drainer manda al modelo a la vez (como prioridad LOW del scheduler)
+    private int drainBatch = 256;
+
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+    // Espera entre tandas mientras el modelo sigue sin responder; se duplica hasta maxRetryBackoff
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    private Duration maxRetryBackoff = Duration.ofSeconds(30);
+
+    // Intentos con error del modelo (no por indisponibilidad) antes de mandar el registro al DLT
+    private int maxAttempts = 5;
+}
@@ -0,0 +1,36 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stream.processor")
+public class StreamProcessingProperties {
+
+    public enum Mode {
+        // Comportamiento original: se confirma el offset al recibir el registro y no hay límite de llamadas
+        FIRE_AND_FORGET,
+        // Límite de predicciones en vuelo y commit del offset sólo cuando el registro terminó de procesarse
+        BOUNDED,
+        // Como BOUNDED, pero cada registro se procesa en un carril por vehicleId (KeyOrderedExecutor):
+        // paralelo entre vehículos y en orden dentro de cada uno
+        ORDERED
+    }
+
+    private Mode mode = Mode.BOUNDED;
+
+    // Al llegar a maxInFlight se pausa el listener de Kafka; se reanuda al bajar a resumeInFlight
+    private int maxInFlight = 1024;
+    private int resumeInFlight = 512;
+
+    // Sólo ORDERED: carriles (= registros procesándose a la vez como máximo) y si usan virtual threads
+    private int lanes = 64;
+    private boolean virtualThreads = true;
+
+    private int maxAttempts = 3;
+    private Duration retryBackoff = Duration.ofMillis(200);
+
+    private String deadLetterTopic = "vehicle-telemetry.DLT";
+}
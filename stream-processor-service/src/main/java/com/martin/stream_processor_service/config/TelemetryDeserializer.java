@@ -0,0 +1,38 @@
+package com.martin.stream_processor_service.config;
+
+import com.martin.model.VehicleData;
+import com.martin.model.codec.VehicleDataCodec;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Acepta tanto el formato binario de vehicle-data como el JSON anterior (según el primer byte),
+// así productores con distinto formato por topic pueden convivir durante la migración
+public class TelemetryDeserializer implements Deserializer<VehicleData> {
+
+    private final JsonDeserializer<VehicleData> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Map<String, Object> jsonConfigs = new HashMap<>(configs);
+        jsonConfigs.putIfAbsent(JsonDeserializer.VALUE_DEFAULT_TYPE, VehicleData.class.getName());
+        jsonConfigs.putIfAbsent(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        jsonConfigs.putIfAbsent(JsonDeserializer.TRUSTED_PACKAGES, "com.martin.model");
+        json.configure(jsonConfigs, isKey);
+    }
+
+    @Override
+    public VehicleData deserialize(String topic, byte[] data) {
+        if (VehicleDataCodec.isBinary(data)) {
+            return VehicleDataCodec.decode(data);
+        }
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -6,63 +6,111 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.model.dto.SubscriptionRequest;
+import com.martin.stream_processor_service.websocket.Subscription;
+import com.martin.stream_processor_service.websocket.TelemetryConflator;
+import com.martin.stream_processor_service.websocket.WebSocketFanOut;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
-import java.io.IOException;
+
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 @Component
 @Slf4j
 public class TelemetryWebSocketHandler extends TextWebSocketHandler {
-    private final List<WebSocketSession> sessions = new CopyOnWriteArrayList<>();
+
+    private final WebSocketFanOut fanOut;
+    private final TelemetryConflator conflator;
 
     private final ObjectMapper mapper = new ObjectMapper()
             .registerModule(new JavaTimeModule())
             .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
+    public TelemetryWebSocketHandler(WebSocketFanOut fanOut, WebSocketProperties properties) {
+        this.fanOut = fanOut;
+        WebSocketProperties.Conflation conflation = properties.getConflation();
+        this.conflator = conflation.isEnabled() ? new TelemetryConflator(conflation.getTick(), this::publishBatch) : null;
+    }
+
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        sessions.add(session);
+        fanOut.register(session);
+    }
+
+    // {"type":"subscribe","vehicleIds":[...],"anomaliesOnly":true,"bounds":{"minLat":..,"maxLat":..,"minLon":..,"maxLon":..}}
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        try {
+            SubscriptionRequest request = mapper.readValue(message.getPayload(), SubscriptionRequest.class);
+            if (!"subscribe".equals(request.getType())) {
+                log.warn("Mensaje desconocido de la sesión {}: {}", session.getId(), request.getType());
+                return;
+            }
+            Subscription subscription = Subscription.from(request);
+            fanOut.subscribe(session, subscription);
+            log.info("✅ Sesión {} suscrita: {}", session.getId(), subscription);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Suscripción inválida de la sesión {}: {}", session.getId(), e.getMessage());
+        }
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-        sessions.remove(session);
+        fanOut.unregister(session);
     }
 
 
+    // Con conflación, los registros normales esperan al próximo tick; las anomalías salen en el momento
     public void sendTelemetry(VehicleData data) {
-        if (sessions.isEmpty()) {
-            log.warn("No hay sesiones activas. Ignorando envío.");
+        if (fanOut.isEmpty()) {
+            log.debug("No hay sesiones activas. Ignorando envío.");
             return;
         }
 
+        if (conflator == null || data.getVehicleId() == null) {
+            publish(data);
+        } else if (data.isAnomaly()) {
+            conflator.publishNow(data.getVehicleId(), () -> publish(data));
+        } else {
+            conflator.offer(data);
+        }
+    }
+
+    // Se serializa una sola vez y el envío a cada sesión lo hace su propio sender, sin bloquear este hilo
+    private void publish(VehicleData data) {
         try {
-            String payload = mapper.writeValueAsString(data);
-            sessions.removeIf(session -> !session.isOpen());
-
-            for (WebSocketSession session : sessions) {
-                synchronized (session) {
-                    if (session.isOpen()) {
-                        try {
-                            session.sendMessage(new TextMessage(payload));
-                        } catch (IllegalStateException e) {
-                            log.error("La sesión WebSocket {} está en un estado inválido: {}", session.getId(), e.getMessage());
-                        } catch (IOException e) {
-                            log.error("Error al enviar mensaje a la sesión {}: {}", session.getId(), e.getMessage());
-                        }
-                    } else {
-                        log.warn("Sesión cerrada omitida: {}", session.getId());
-                    }
-                }
+            fanOut.route(data, new TextMessage(mapper.writeValueAsString(data)));
+        } catch (JsonProcessingException e) {
+            log.error("Error de serialización: {}", e.getMessage());
+        }
+    }
+
+    private void publishBatch(List<VehicleData> batch) {
+        if (fanOut.isEmpty()) {
+            return;
+        }
+        List<String> encoded = new ArrayList<>(batch.size());
+        try {
+            for (VehicleData data : batch) {
+                encoded.add(mapper.writeValueAsString(data));
             }
         } catch (JsonProcessingException e) {
             log.error("Error de serialización: {}", e.getMessage());
+            return;
+        }
+        fanOut.routeBatch(batch, encoded);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (conflator != null) {
+            conflator.close();
         }
     }
 
@@ -0,0 +1,28 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stream.stats")
+public class VehicleStatsProperties {
+
+    private boolean enabled = false;
+
+    // Memoria máxima ≈ maxVehicles * (window * 37 + 200) bytes; pasado el límite los vehículos nuevos no tienen stats
+    private int maxVehicles = 20_000;
+
+    // Con el cupo lleno, los vehículos sin lecturas hace idleTimeout liberan su ventana para uno nuevo
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // Lecturas por ventana (mean, stdDev, min, max y eventos bruscos)
+    private int window = 30;
+
+    // Peso de la lectura nueva en la EWMA, entre 0 y 1
+    private double ewmaAlpha = 0.2;
+
+    // |acceleration| a partir del cual una lectura cuenta como aceleración / frenada brusca (km/h entre lecturas)
+    private double harshAccelerationThreshold = 25;
+}
@@ -10,14 +10,27 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final TelemetryWebSocketHandler telemetryWebSocketHandler;
+    private final RollupWebSocketHandler rollupWebSocketHandler;
+    private final IncidentWebSocketHandler incidentWebSocketHandler;
+    private final GeofenceWebSocketHandler geofenceWebSocketHandler;
 
-    public WebSocketConfig(TelemetryWebSocketHandler telemetryWebSocketHandler) {
+    public WebSocketConfig(TelemetryWebSocketHandler telemetryWebSocketHandler, RollupWebSocketHandler rollupWebSocketHandler,
+                           IncidentWebSocketHandler incidentWebSocketHandler, GeofenceWebSocketHandler geofenceWebSocketHandler) {
         this.telemetryWebSocketHandler = telemetryWebSocketHandler;
+        this.rollupWebSocketHandler = rollupWebSocketHandler;
+        this.incidentWebSocketHandler = incidentWebSocketHandler;
+        this.geofenceWebSocketHandler = geofenceWebSocketHandler;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(telemetryWebSocketHandler, "/ws/telemetry")
                 .setAllowedOrigins("*");
+        registry.addHandler(rollupWebSocketHandler, "/ws/rollups")
+                .setAllowedOrigins("*");
+        registry.addHandler(incidentWebSocketHandler, "/ws/incidents")
+                .setAllowedOrigins("*");
+        registry.addHandler(geofenceWebSocketHandler, "/ws/geofences")
+                .setAllowedOrigins("*");
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.martin.stream_processor_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stream.websocket")
+public class WebSocketProperties {
+
+    // Qué hacer cuando la cola de salida de una sesión se llena (cliente lento)
+    public enum SlowConsumerPolicy {
+        // Se descarta el frame más viejo de la cola
+        DROP_OLDEST,
+        // Se cierra la sesión; el cliente puede reconectarse y empezar de cero
+        DISCONNECT,
+        // Se vacía la cola y sólo queda el frame más reciente
+        LATEST_ONLY
+    }
+
+    // Frames pendientes por sesión
+    private int queueCapacity = 256;
+
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP_OLDEST;
+
+    private Conflation conflation = new Conflation();
+
+    private Routing routing = new Routing();
+
+    // Último estado por vehículo, enviado en un único frame (array JSON) por tick; las anomalías no esperan
+    @Data
+    public static class Conflation {
+        private boolean enabled = true;
+        private Duration tick = Duration.ofMillis(250);
+    }
+
+    // Índice espacial de las suscripciones por área: grilla de cellSizeDegrees grados
+    @Data
+    public static class Routing {
+        private double cellSizeDegrees = 0.05;
+        // Áreas que ocupan más celdas se evalúan contra cada registro en lugar de indexarse
+        private int maxCellsPerBounds = 4096;
+    }
+}
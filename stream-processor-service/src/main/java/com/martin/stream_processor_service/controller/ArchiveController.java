@@ -0,0 +1,70 @@
+package com.martin.stream_processor_service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.stream_processor_service.archive.ArchivedTelemetry;
+import com.martin.stream_processor_service.archive.TelemetryArchive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@RestController
+@RequestMapping("/api/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final TelemetryArchive archive;
+    private final ObjectMapper objectMapper;
+
+    // Una línea JSON por registro archivado: {"data":{...},"reconstructionError":..}
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> read(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                      @RequestParam(required = false) String vehicleId,
+                                                      @RequestParam(defaultValue = "10000") long limit) {
+        if (!archive.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from es posterior a to");
+        }
+
+        StreamingResponseBody body = out -> {
+            try (Stream<ArchivedTelemetry> records = archive.read(from, to)) {
+                Iterator<ArchivedTelemetry> it = records
+                        .filter(r -> vehicleId == null || vehicleId.equals(r.data().getVehicleId()))
+                        .limit(limit)
+                        .iterator();
+                while (it.hasNext()) {
+                    writeLine(out, it.next());
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private void writeLine(OutputStream out, ArchivedTelemetry record) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(record));
+        out.write('\n');
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
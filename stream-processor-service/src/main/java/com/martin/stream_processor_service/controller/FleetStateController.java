@@ -0,0 +1,59 @@
+package com.martin.stream_processor_service.controller;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.state.FleetStateStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/fleet")
+@RequiredArgsConstructor
+public class FleetStateController {
+
+    private final FleetStateStore stateStore;
+
+    @GetMapping
+    public Map<String, Integer> summary() {
+        return Map.of("vehicles", stateStore.size(), "anomalous", stateStore.anomalousCount());
+    }
+
+    @GetMapping("/vehicles/{vehicleId}")
+    public ResponseEntity<VehicleData> vehicle(@PathVariable String vehicleId) {
+        return ResponseEntity.of(stateStore.get(vehicleId));
+    }
+
+    // /api/fleet/vehicles?minLat=..&maxLat=..&minLon=..&maxLon=..
+    @GetMapping("/vehicles")
+    public List<VehicleData> withinBounds(@RequestParam double minLat, @RequestParam double maxLat,
+                                          @RequestParam double minLon, @RequestParam double maxLon,
+                                          @RequestParam(defaultValue = "0") int limit) {
+        return stateStore.withinBounds(minLat, maxLat, minLon, maxLon, limit);
+    }
+
+    // /api/fleet/vehicles/near?lat=..&lon=..&radiusKm=..
+    @GetMapping("/vehicles/near")
+    public List<VehicleData> withinRadius(@RequestParam double lat, @RequestParam double lon,
+                                          @RequestParam double radiusKm,
+                                          @RequestParam(defaultValue = "0") int limit) {
+        return stateStore.withinRadius(lat, lon, radiusKm, limit);
+    }
+
+    @GetMapping("/anomalies")
+    public List<VehicleData> anomalies(@RequestParam(defaultValue = "0") int limit) {
+        return stateStore.anomalous(limit);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.martin.stream_processor_service.controller;
+
+import com.martin.stream_processor_service.history.HistoryBucket;
+import com.martin.stream_processor_service.history.HistorySeries;
+import com.martin.stream_processor_service.history.VehicleHistoryStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/fleet/vehicles/{vehicleId}/history")
+@RequiredArgsConstructor
+public class VehicleHistoryController {
+
+    private static final Duration DEFAULT_WINDOW = Duration.ofMinutes(15);
+
+    private final VehicleHistoryStore historyStore;
+
+    // Muestras crudas (columnar)
+    @GetMapping
+    public ResponseEntity<HistorySeries> history(@PathVariable String vehicleId,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        Instant end = end(to);
+        return ResponseEntity.of(historyStore.query(vehicleId, start(from, end), end));
+    }
+
+    // Con bucket (ej. PT1M): min/max/avg por intervalo
+    @GetMapping(params = "bucket")
+    public ResponseEntity<List<HistoryBucket>> downsampled(@PathVariable String vehicleId,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                           @RequestParam Duration bucket) {
+        Instant end = end(to);
+        return ResponseEntity.of(historyStore.downsample(vehicleId, start(from, end), end, bucket));
+    }
+
+    private static Instant end(Instant to) {
+        return to != null ? to : Instant.now();
+    }
+
+    private static Instant start(Instant from, Instant end) {
+        Instant start = from != null ? from : end.minus(DEFAULT_WINDOW);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from es posterior a to");
+        }
+        return start;
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.martin.stream_processor_service.geo;
+
+// Grilla regular lat/lon: cada celda mide cellSize grados de lado y se identifica con un long
+public final class GeoGrid {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    public static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellSize;
+
+    public GeoGrid(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize debe ser > 0");
+        }
+        this.cellSize = cellSize;
+    }
+
+    public long cell(double degrees) {
+        return (long) Math.floor(degrees / cellSize);
+    }
+
+    public long cellKey(double lat, double lon) {
+        return key(cell(lat), cell(lon));
+    }
+
+    public static long key(long latCell, long lonCell) {
+        return (latCell << 32) | (lonCell & 0xFFFFFFFFL);
+    }
+
+    // Cantidad de celdas que cubre un rectángulo; Long.MAX_VALUE si no entra en un long
+    public long cellCount(double minLat, double maxLat, double minLon, double maxLon) {
+        try {
+            return Math.multiplyExact(
+                    Math.addExact(Math.subtractExact(cell(maxLat), cell(minLat)), 1),
+                    Math.addExact(Math.subtractExact(cell(maxLon), cell(minLon)), 1));
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    public static double latDegrees(double km) {
+        return km / KM_PER_DEGREE;
+    }
+
+    public static double lonDegrees(double km, double atLat) {
+        double cos = Math.cos(Math.toRadians(atLat));
+        return cos < 1e-6 ? 360 : km / (KM_PER_DEGREE * cos);
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,230 @@
+package com.martin.stream_processor_service.geofence;
+
+import com.martin.stream_processor_service.geo.GeoGrid;
+
+import java.util.List;
+
+// Una geocerca: círculo (centro + radio) o polígono con uno o más anillos en grados.
+// Los anillos se evalúan todos juntos con par-impar (ray casting): los agujeros y los MultiPolygon sin
+// solapamientos salen solos. Lat/lon se tratan como un plano local; para cercas de pocos km el error es despreciable.
+// key es un entero estable por id (GeofenceTracker.key) que sobrevive a las recargas.
+public final class Geofence {
+
+    static final int OUTSIDE = 0;
+    static final int INSIDE = 1;
+    static final int BOUNDARY = 2;
+
+    private final int key;
+    private final String id;
+    private final String name;
+    private final String kind;
+    private final boolean circle;
+    private final double centerLat;
+    private final double centerLon;
+    private final double radiusKm;
+    private final double cosLat;
+    // Vértices de todos los anillos intercalados (lat, lon); el anillo r va de ringStarts[r] a ringStarts[r + 1]
+    private final double[] coords;
+    private final int[] ringStarts;
+    private final double minLat;
+    private final double maxLat;
+    private final double minLon;
+    private final double maxLon;
+
+    private Geofence(int key, String id, String name, String kind, boolean circle, double centerLat, double centerLon,
+                     double radiusKm, double[] coords, int[] ringStarts,
+                     double minLat, double maxLat, double minLon, double maxLon) {
+        this.key = key;
+        this.id = id;
+        this.name = name;
+        this.kind = kind;
+        this.circle = circle;
+        this.centerLat = centerLat;
+        this.centerLon = centerLon;
+        this.radiusKm = radiusKm;
+        this.cosLat = Math.cos(Math.toRadians(centerLat));
+        this.coords = coords;
+        this.ringStarts = ringStarts;
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        this.minLon = minLon;
+        this.maxLon = maxLon;
+    }
+
+    public static Geofence circle(int key, String id, String name, String kind, double lat, double lon, double radiusMeters) {
+        if (!(radiusMeters > 0) || !Double.isFinite(radiusMeters) || !inWorld(lat, lon)) {
+            throw new IllegalArgumentException("Geocerca " + id + ": centro o radio inválido");
+        }
+        double radiusKm = radiusMeters / 1000;
+        double dLat = GeoGrid.latDegrees(radiusKm);
+        double dLon = GeoGrid.lonDegrees(radiusKm, lat);
+        return new Geofence(key, id, name, kind, true, lat, lon, radiusKm, null, null,
+                lat - dLat, lat + dLat, lon - dLon, lon + dLon);
+    }
+
+    // Cada anillo es una lista de {lat, lon}; el último vértice puede repetir el primero (GeoJSON) o no
+    public static Geofence polygon(int key, String id, String name, String kind, List<double[][]> rings) {
+        int vertices = 0;
+        for (double[][] ring : rings) {
+            vertices += ring.length;
+        }
+        double[] coords = new double[vertices * 2];
+        int[] ringStarts = new int[rings.size() + 1];
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        int n = 0;
+        for (int r = 0; r < rings.size(); r++) {
+            double[][] ring = rings.get(r);
+            if (ring.length < 3) {
+                throw new IllegalArgumentException("Geocerca " + id + ": cada anillo necesita al menos 3 vértices");
+            }
+            ringStarts[r] = n;
+            for (double[] vertex : ring) {
+                if (!inWorld(vertex[0], vertex[1])) {
+                    throw new IllegalArgumentException("Geocerca " + id + ": vértice fuera de rango (" + vertex[0] + ", " + vertex[1] + ")");
+                }
+                coords[n * 2] = vertex[0];
+                coords[n * 2 + 1] = vertex[1];
+                minLat = Math.min(minLat, vertex[0]);
+                maxLat = Math.max(maxLat, vertex[0]);
+                minLon = Math.min(minLon, vertex[1]);
+                maxLon = Math.max(maxLon, vertex[1]);
+                n++;
+            }
+        }
+        if (rings.isEmpty()) {
+            throw new IllegalArgumentException("Geocerca " + id + ": polígono sin anillos");
+        }
+        ringStarts[rings.size()] = n;
+        return new Geofence(key, id, name, kind, false, Double.NaN, Double.NaN, Double.NaN, coords, ringStarts,
+                minLat, maxLat, minLon, maxLon);
+    }
+
+    // Falso también para NaN
+    private static boolean inWorld(double lat, double lon) {
+        return lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180;
+    }
+
+    public boolean contains(double lat, double lon) {
+        if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) {
+            return false;
+        }
+        if (circle) {
+            double dy = (lat - centerLat) * GeoGrid.KM_PER_DEGREE;
+            double dx = (lon - centerLon) * GeoGrid.KM_PER_DEGREE * cosLat;
+            return dx * dx + dy * dy <= radiusKm * radiusKm;
+        }
+        boolean inside = false;
+        for (int r = 0; r + 1 < ringStarts.length; r++) {
+            int end = ringStarts[r + 1];
+            for (int i = ringStarts[r], j = end - 1; i < end; j = i++) {
+                double latI = coords[i * 2];
+                double latJ = coords[j * 2];
+                if ((latI > lat) != (latJ > lat)) {
+                    double lonI = coords[i * 2 + 1];
+                    if (lon < (coords[j * 2 + 1] - lonI) * (lat - latI) / (latJ - latI) + lonI) {
+                        inside = !inside;
+                    }
+                }
+            }
+        }
+        return inside;
+    }
+
+    // Relación con una celda del índice: OUTSIDE (no se indexa), INSIDE (todo punto de la celda está dentro,
+    // no hace falta evaluar) o BOUNDARY (hay que evaluar cada punto). Sólo al construir el índice.
+    int classify(double cellMinLat, double cellMinLon, double cellMaxLat, double cellMaxLon) {
+        if (cellMaxLat < minLat || cellMinLat > maxLat || cellMaxLon < minLon || cellMinLon > maxLon) {
+            return OUTSIDE;
+        }
+        if (circle) {
+            double nearLat = Math.clamp(centerLat, cellMinLat, cellMaxLat);
+            double nearLon = Math.clamp(centerLon, cellMinLon, cellMaxLon);
+            double farLat = Math.abs(cellMinLat - centerLat) > Math.abs(cellMaxLat - centerLat) ? cellMinLat : cellMaxLat;
+            double farLon = Math.abs(cellMinLon - centerLon) > Math.abs(cellMaxLon - centerLon) ? cellMinLon : cellMaxLon;
+            if (planarKm2(nearLat, nearLon) > radiusKm * radiusKm) {
+                return OUTSIDE;
+            }
+            return planarKm2(farLat, farLon) <= radiusKm * radiusKm ? INSIDE : BOUNDARY;
+        }
+        // Si ningún lado cruza la celda, la celda entera queda de un mismo lado: alcanza con mirar su centro
+        for (int r = 0; r + 1 < ringStarts.length; r++) {
+            int end = ringStarts[r + 1];
+            for (int i = ringStarts[r], j = end - 1; i < end; j = i++) {
+                if (segmentHitsRect(coords[j * 2], coords[j * 2 + 1], coords[i * 2], coords[i * 2 + 1], cellMinLat, cellMinLon, cellMaxLat, cellMaxLon)) {
+                    return BOUNDARY;
+                }
+            }
+        }
+        return contains((cellMinLat + cellMaxLat) / 2, (cellMinLon + cellMaxLon) / 2) ? INSIDE : OUTSIDE;
+    }
+
+    private double planarKm2(double lat, double lon) {
+        double dy = (lat - centerLat) * GeoGrid.KM_PER_DEGREE;
+        double dx = (lon - centerLon) * GeoGrid.KM_PER_DEGREE * cosLat;
+        return dx * dx + dy * dy;
+    }
+
+    // Liang-Barsky: recorta el segmento contra el rectángulo cerrado
+    private static boolean segmentHitsRect(double lat0, double lon0, double lat1, double lon1,
+                                           double minLat, double minLon, double maxLat, double maxLon) {
+        double dLat = lat1 - lat0;
+        double dLon = lon1 - lon0;
+        double[] range = {0, 1};
+        return clip(-dLat, lat0 - minLat, range) && clip(dLat, maxLat - lat0, range)
+                && clip(-dLon, lon0 - minLon, range) && clip(dLon, maxLon - lon0, range);
+    }
+
+    private static boolean clip(double p, double q, double[] range) {
+        if (p == 0) {
+            return q >= 0;
+        }
+        double t = q / p;
+        if (p < 0) {
+            if (t > range[1]) {
+                return false;
+            }
+            range[0] = Math.max(range[0], t);
+        } else {
+            if (t < range[0]) {
+                return false;
+            }
+            range[1] = Math.min(range[1], t);
+        }
+        return true;
+    }
+
+    public int key() {
+        return key;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String kind() {
+        return kind;
+    }
+
+    public double minLat() {
+        return minLat;
+    }
+
+    public double maxLat() {
+        return maxLat;
+    }
+
+    public double minLon() {
+        return minLon;
+    }
+
+    public double maxLon() {
+        return maxLon;
+    }
+}
@@ -0,0 +1,18 @@
+package com.martin.stream_processor_service.geofence;
+
+import java.time.Instant;
+
+// Entrada o salida de un vehículo de una geocerca, con la lectura que la produjo
+public record GeofenceEvent(Type type,
+                            String vehicleId,
+                            String fenceId,
+                            String fenceName,
+                            String kind,
+                            Instant timestamp,
+                            double latitude,
+                            double longitude) {
+
+    public enum Type {
+        ENTER, EXIT
+    }
+}
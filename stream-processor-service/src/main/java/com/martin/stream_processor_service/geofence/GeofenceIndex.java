@@ -0,0 +1,187 @@
+package com.martin.stream_processor_service.geofence;
+
+import com.martin.stream_processor_service.geo.GeoGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Índice inmutable de geocercas sobre una grilla regular (GeoGrid). Cada celda guarda las cercas que la tocan,
+// marcando las que la cubren por completo: para esas no hace falta el point-in-polygon.
+// Las celdas viven en una tabla de direccionamiento abierto long -> rango de entries, sin boxing en la consulta.
+// Las cercas de más de maxCellsPerFence celdas van a una lista aparte que se evalúa en cada consulta.
+public final class GeofenceIndex {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final GeoGrid grid;
+    private final Geofence[] fences;
+    private final Geofence[] large;
+    // Bounding box de cada cerca (minLat, maxLat, minLon, maxLon) en un solo arreglo: descarta candidatas sin
+    // ir a buscar cada Geofence a otra parte del heap
+    private final double[] boxes;
+    private final long[] cellKeys;
+    // [inicio, fin) de las entries de cada slot
+    private final int[] ranges;
+    // (posición en fences << 1) | 1 si la cerca cubre toda la celda; ordenadas por key dentro de cada celda
+    private final int[] entries;
+    private final int mask;
+
+    private GeofenceIndex(GeoGrid grid, Geofence[] fences, Geofence[] large, long[] cellKeys, int[] ranges, int[] entries) {
+        this.grid = grid;
+        this.fences = fences;
+        this.large = large;
+        this.boxes = new double[fences.length * 4];
+        for (int f = 0; f < fences.length; f++) {
+            boxes[f * 4] = fences[f].minLat();
+            boxes[f * 4 + 1] = fences[f].maxLat();
+            boxes[f * 4 + 2] = fences[f].minLon();
+            boxes[f * 4 + 3] = fences[f].maxLon();
+        }
+        this.cellKeys = cellKeys;
+        this.ranges = ranges;
+        this.entries = entries;
+        this.mask = cellKeys.length - 1;
+    }
+
+    public static GeofenceIndex build(List<Geofence> definitions, double cellSize, int maxCellsPerFence) {
+        GeoGrid grid = new GeoGrid(cellSize);
+        Geofence[] fences = definitions.stream()
+                .sorted(Comparator.comparingInt(Geofence::key))
+                .toArray(Geofence[]::new);
+        List<Geofence> large = new ArrayList<>();
+        Map<Long, List<Integer>> cells = new HashMap<>();
+
+        for (int f = 0; f < fences.length; f++) {
+            Geofence fence = fences[f];
+            if (grid.cellCount(fence.minLat(), fence.maxLat(), fence.minLon(), fence.maxLon()) > maxCellsPerFence) {
+                large.add(fence);
+                continue;
+            }
+            for (long latCell = grid.cell(fence.minLat()); latCell <= grid.cell(fence.maxLat()); latCell++) {
+                for (long lonCell = grid.cell(fence.minLon()); lonCell <= grid.cell(fence.maxLon()); lonCell++) {
+                    int relation = fence.classify(latCell * cellSize, lonCell * cellSize,
+                            (latCell + 1) * cellSize, (lonCell + 1) * cellSize);
+                    if (relation != Geofence.OUTSIDE) {
+                        cells.computeIfAbsent(GeoGrid.key(latCell, lonCell), k -> new ArrayList<>())
+                                .add(f << 1 | (relation == Geofence.INSIDE ? 1 : 0));
+                    }
+                }
+            }
+        }
+
+        // Las cercas ya están ordenadas por key, y cada celda las recibió en ese orden
+        int capacity = Integer.highestOneBit(Math.max(2, cells.size() * 2 - 1)) << 1;
+        long[] cellKeys = new long[capacity];
+        Arrays.fill(cellKeys, EMPTY);
+        int[] ranges = new int[capacity * 2];
+        int[] entries = new int[cells.values().stream().mapToInt(List::size).sum()];
+        int n = 0;
+        for (Map.Entry<Long, List<Integer>> cell : cells.entrySet()) {
+            int slot = slot(cell.getKey(), capacity - 1);
+            while (cellKeys[slot] != EMPTY) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            cellKeys[slot] = cell.getKey();
+            ranges[slot * 2] = n;
+            for (int entry : cell.getValue()) {
+                entries[n++] = entry;
+            }
+            ranges[slot * 2 + 1] = n;
+        }
+        return new GeofenceIndex(grid, fences, large.toArray(Geofence[]::new), cellKeys, ranges, entries);
+    }
+
+    public static GeofenceIndex empty(double cellSize) {
+        return build(List.of(), cellSize, 1);
+    }
+
+    // Keys (ordenadas) de las cercas que contienen el punto; sin asignar memoria salvo que hits tenga que crecer
+    public int query(double lat, double lon, Hits hits) {
+        hits.size = 0;
+        if (!Double.isFinite(lat) || !Double.isFinite(lon)) {
+            return 0;
+        }
+        long key = grid.cellKey(lat, lon);
+        int slot = slot(key, mask);
+        long found;
+        while ((found = cellKeys[slot]) != EMPTY) {
+            if (found == key) {
+                for (int i = ranges[slot * 2], end = ranges[slot * 2 + 1]; i < end; i++) {
+                    int entry = entries[i];
+                    int f = entry >>> 1;
+                    if ((entry & 1) != 0) {
+                        hits.add(fences[f].key());
+                    } else if (lat >= boxes[f * 4] && lat <= boxes[f * 4 + 1] && lon >= boxes[f * 4 + 2] && lon <= boxes[f * 4 + 3]
+                            && fences[f].contains(lat, lon)) {
+                        hits.add(fences[f].key());
+                    }
+                }
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (large.length > 0) {
+            int before = hits.size;
+            for (Geofence fence : large) {
+                if (fence.contains(lat, lon)) {
+                    hits.add(fence.key());
+                }
+            }
+            if (hits.size > before && before > 0) {
+                hits.sort();
+            }
+        }
+        return hits.size;
+    }
+
+    public int size() {
+        return fences.length;
+    }
+
+    public List<Geofence> fences() {
+        return List.of(fences);
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    // Buffer reutilizable por hilo para el resultado de query
+    public static final class Hits {
+
+        private int[] keys = new int[8];
+        private int size;
+
+        void add(int key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+        }
+
+        void sort() {
+            Arrays.sort(keys, 0, size);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int key(int i) {
+            return keys[i];
+        }
+
+        public boolean matches(int[] sorted) {
+            return Arrays.equals(keys, 0, size, sorted, 0, sorted.length);
+        }
+
+        public int[] toArray() {
+            return Arrays.copyOf(keys, size);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.martin.stream_processor_service.geofence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+// GeoJSON FeatureCollection: Polygon y MultiPolygon (coordenadas [lon, lat]) o Point con properties.radiusMeters.
+// properties.id es obligatorio y único; name y kind (depot, restricted, district...) son opcionales.
+// Cualquier error invalida el archivo entero: al recargar se sigue con las cercas anteriores.
+public final class GeofenceLoader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private GeofenceLoader() {
+    }
+
+    public static List<Geofence> parse(InputStream in, ToIntFunction<String> keys) throws IOException {
+        JsonNode root = MAPPER.readTree(in);
+        if (root == null || !"FeatureCollection".equals(root.path("type").asText())) {
+            throw new IllegalArgumentException("Se esperaba una FeatureCollection GeoJSON");
+        }
+        List<Geofence> fences = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (JsonNode feature : root.path("features")) {
+            JsonNode properties = feature.path("properties");
+            String id = properties.path("id").asText(null);
+            if (id == null || id.isBlank()) {
+                throw new IllegalArgumentException("Geocerca sin properties.id");
+            }
+            if (!ids.add(id)) {
+                throw new IllegalArgumentException("Geocerca duplicada: " + id);
+            }
+            String name = properties.path("name").asText(id);
+            String kind = properties.path("kind").asText(null);
+            fences.add(fence(keys.applyAsInt(id), id, name, kind, feature.path("geometry"), properties));
+        }
+        return fences;
+    }
+
+    private static Geofence fence(int key, String id, String name, String kind, JsonNode geometry, JsonNode properties) {
+        JsonNode coordinates = geometry.path("coordinates");
+        return switch (geometry.path("type").asText()) {
+            case "Point" -> Geofence.circle(key, id, name, kind, coordinates.path(1).asDouble(Double.NaN),
+                    coordinates.path(0).asDouble(Double.NaN), properties.path("radiusMeters").asDouble(Double.NaN));
+            case "Polygon" -> Geofence.polygon(key, id, name, kind, rings(coordinates, new ArrayList<>()));
+            case "MultiPolygon" -> {
+                List<double[][]> rings = new ArrayList<>();
+                for (JsonNode polygon : coordinates) {
+                    rings(polygon, rings);
+                }
+                yield Geofence.polygon(key, id, name, kind, rings);
+            }
+            default -> throw new IllegalArgumentException("Geocerca " + id + ": geometría no soportada " + geometry.path("type").asText());
+        };
+    }
+
+    private static List<double[][]> rings(JsonNode polygon, List<double[][]> rings) {
+        for (JsonNode ring : polygon) {
+            double[][] vertices = new double[ring.size()][];
+            for (int i = 0; i < ring.size(); i++) {
+                vertices[i] = new double[]{ring.path(i).path(1).asDouble(Double.NaN), ring.path(i).path(0).asDouble(Double.NaN)};
+            }
+            rings.add(vertices);
+        }
+        return rings;
+    }
+}
@@ -0,0 +1,117 @@
+package com.martin.stream_processor_service.geofence;
+
+import com.martin.model.VehicleData;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Estado dentro/fuera por vehículo: las keys (ordenadas) de las cercas que lo contenían en su última lectura.
+// Sólo los vehículos dentro de alguna cerca tienen estado, y una lectura que no cambia nada (el caso común)
+// no asigna memoria ni toma locks. Con un cambio, la diferencia se calcula dentro de compute(), así dos lecturas
+// del mismo vehículo en paralelo no emiten el mismo evento dos veces (el orden lo garantiza el modo ORDERED).
+//
+// replace() arma el índice nuevo fuera del camino del pipeline y lo publica con una escritura volatile:
+// las lecturas siguen con el índice anterior mientras tanto. Al salir de una cerca borrada se emite EXIT.
+public class GeofenceTracker {
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, int[]> inside = new ConcurrentHashMap<>();
+    private final Map<String, Integer> keys = new ConcurrentHashMap<>();
+    // Última definición de cada key, también de cercas ya borradas (para sus EXIT)
+    private final Map<Integer, Geofence> definitions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextKey = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final ThreadLocal<GeofenceIndex.Hits> scratch = ThreadLocal.withInitial(GeofenceIndex.Hits::new);
+    private final double cellSize;
+    private final int maxCellsPerFence;
+    private final int maxVehicles;
+    private final Consumer<GeofenceEvent> sink;
+    private volatile GeofenceIndex index;
+
+    public GeofenceTracker(double cellSize, int maxCellsPerFence, int maxVehicles, Consumer<GeofenceEvent> sink) {
+        if (maxCellsPerFence <= 0 || maxVehicles <= 0) {
+            throw new IllegalArgumentException("stream.geofences.max-cells-per-fence y max-vehicles deben ser > 0");
+        }
+        this.cellSize = cellSize;
+        this.maxCellsPerFence = maxCellsPerFence;
+        this.maxVehicles = maxVehicles;
+        this.sink = sink;
+        this.index = GeofenceIndex.empty(cellSize);
+    }
+
+    // Key estable por id de cerca: la misma cerca conserva su key entre recargas
+    public int key(String fenceId) {
+        return keys.computeIfAbsent(fenceId, id -> nextKey.getAndIncrement());
+    }
+
+    public void replace(List<Geofence> fences) {
+        GeofenceIndex next = GeofenceIndex.build(fences, cellSize, maxCellsPerFence);
+        for (Geofence fence : fences) {
+            definitions.put(fence.key(), fence);
+        }
+        index = next;
+    }
+
+    public void update(VehicleData data) {
+        String vehicleId = data.getVehicleId();
+        if (vehicleId == null) {
+            return;
+        }
+        GeofenceIndex.Hits hits = scratch.get();
+        index.query(data.getLatitude(), data.getLongitude(), hits);
+        int[] previous = inside.getOrDefault(vehicleId, NONE);
+        if (hits.matches(previous)) {
+            return;
+        }
+        if (previous == NONE && inside.size() >= maxVehicles) {
+            rejected.increment();
+            return;
+        }
+
+        int[] current = hits.toArray();
+        List<GeofenceEvent> events = new ArrayList<>(2);
+        inside.compute(vehicleId, (id, before) -> {
+            int[] old = before == null ? NONE : before;
+            diff(old, current, GeofenceEvent.Type.EXIT, data, events);
+            diff(current, old, GeofenceEvent.Type.ENTER, data, events);
+            return current.length == 0 ? null : current;
+        });
+        events.forEach(sink);
+    }
+
+    // Keys de from que no están en other (ambos ordenados)
+    private void diff(int[] from, int[] other, GeofenceEvent.Type type, VehicleData data, List<GeofenceEvent> events) {
+        int j = 0;
+        for (int key : from) {
+            while (j < other.length && other[j] < key) {
+                j++;
+            }
+            if (j < other.length && other[j] == key) {
+                continue;
+            }
+            Geofence fence = definitions.get(key);
+            Instant timestamp = data.getTimestamp() != null ? data.getTimestamp() : Instant.now();
+            events.add(new GeofenceEvent(type, data.getVehicleId(), fence.id(), fence.name(), fence.kind(),
+                    timestamp, data.getLatitude(), data.getLongitude()));
+        }
+    }
+
+    public int fences() {
+        return index.size();
+    }
+
+    public int vehicles() {
+        return inside.size();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,166 @@
+package com.martin.stream_processor_service.geofence;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.GeofenceProperties;
+import com.martin.stream_processor_service.config.GeofenceWebSocketHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Geocercas cargadas de stream.geofences.location; las entradas y salidas van a /ws/geofences y al topic.
+// Un hilo aparte mira la fecha de modificación del archivo y, si cambió, arma el índice nuevo y lo reemplaza
+// sin frenar el consumo. Un archivo inválido se descarta y quedan las cercas anteriores.
+@Slf4j
+@Component
+public class Geofences {
+
+    private final GeofenceProperties properties;
+    private final GeofenceTracker tracker;
+    private final GeofenceWebSocketHandler wsHandler;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final Map<GeofenceEvent.Type, Counter> events = new EnumMap<>(GeofenceEvent.Type.class);
+    private final Counter reloads;
+    private final Counter reloadFailures;
+    private final ScheduledExecutorService reloader;
+    private long lastModified = Long.MIN_VALUE;
+
+    public Geofences(GeofenceProperties properties, GeofenceWebSocketHandler wsHandler,
+                     KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.wsHandler = wsHandler;
+        this.kafkaTemplate = kafkaTemplate;
+        for (GeofenceEvent.Type type : GeofenceEvent.Type.values()) {
+            events.put(type, Counter.builder("stream.geofences.events")
+                    .description("Entradas y salidas de geocercas publicadas")
+                    .tag("type", type.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        this.reloads = Counter.builder("stream.geofences.reloads")
+                .description("Recargas del archivo de geocercas")
+                .register(meterRegistry);
+        this.reloadFailures = Counter.builder("stream.geofences.reload.failures")
+                .description("Recargas descartadas por un archivo inválido")
+                .register(meterRegistry);
+        if (!properties.isEnabled()) {
+            this.tracker = null;
+            this.reloader = null;
+            return;
+        }
+        if (properties.getLocation() == null) {
+            throw new IllegalArgumentException("stream.geofences.location es obligatorio con stream.geofences.enabled=true");
+        }
+
+        this.tracker = new GeofenceTracker(properties.getCellSizeDegrees(), properties.getMaxCellsPerFence(),
+                properties.getMaxVehicles(), this::publish);
+        Gauge.builder("stream.geofences.fences", tracker, GeofenceTracker::fences)
+                .description("Geocercas cargadas")
+                .register(meterRegistry);
+        Gauge.builder("stream.geofences.vehicles", tracker, GeofenceTracker::vehicles)
+                .description("Vehículos dentro de alguna geocerca")
+                .register(meterRegistry);
+        FunctionCounter.builder("stream.geofences.rejected", tracker, GeofenceTracker::rejected)
+                .description("Lecturas ignoradas por superar stream.geofences.max-vehicles")
+                .register(meterRegistry);
+
+        // Al arrancar un archivo inválido es un error de configuración
+        if (!reload()) {
+            throw new IllegalStateException("No se pudieron cargar las geocercas de " + properties.getLocation());
+        }
+        long intervalMillis = properties.getReloadInterval().toMillis();
+        if (intervalMillis <= 0) {
+            this.reloader = null;
+            return;
+        }
+        this.reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "geofence-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(this::reloadIfModified, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return tracker != null;
+    }
+
+    public void update(VehicleData data) {
+        if (tracker != null) {
+            tracker.update(data);
+        }
+    }
+
+    // Vuelve a leer el archivo; false si era inválido (se siguen usando las cercas anteriores)
+    public synchronized boolean reload() {
+        Resource location = properties.getLocation();
+        try {
+            long modified = lastModified(location);
+            List<Geofence> fences;
+            try (InputStream in = location.getInputStream()) {
+                fences = GeofenceLoader.parse(in, tracker::key);
+            }
+            tracker.replace(fences);
+            lastModified = modified;
+            reloads.increment();
+            log.info("✅ {} geocercas cargadas de {}", fences.size(), location.getDescription());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            reloadFailures.increment();
+            log.error("❌ Geocercas inválidas en {}: {}", location.getDescription(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void reloadIfModified() {
+        try {
+            long modified = lastModified(properties.getLocation());
+            if (modified != lastModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            log.debug("No se pudo leer la fecha de {}: {}", properties.getLocation().getDescription(), e.getMessage());
+        }
+    }
+
+    // Recursos dentro de un jar no tienen fecha: se cargan una vez
+    private static long lastModified(Resource location) throws IOException {
+        return location.isFile() ? location.lastModified() : 0;
+    }
+
+    private void publish(GeofenceEvent event) {
+        events.get(event.type()).increment();
+        wsHandler.sendEvent(event);
+        String topic = properties.getTopic();
+        if (topic == null || topic.isBlank()) {
+            return;
+        }
+        kafkaTemplate.send(topic, event.vehicleId(), event)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.error("❌ Could not send geofence event {} {} to {}: {}", event.vehicleId(), event.fenceId(), topic, error.getMessage());
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void close() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+}
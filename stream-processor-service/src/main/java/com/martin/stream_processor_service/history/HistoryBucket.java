@@ -0,0 +1,15 @@
+package com.martin.stream_processor_service.history;
+
+import java.time.Instant;
+
+// Resumen min/max/avg de las muestras de un intervalo
+public record HistoryBucket(Instant start,
+                            int count,
+                            Stats speed,
+                            Stats temperature,
+                            Stats battery,
+                            Stats fuelLevel) {
+
+    public record Stats(double min, double max, double avg) {
+    }
+}
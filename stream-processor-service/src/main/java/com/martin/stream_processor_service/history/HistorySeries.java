@@ -0,0 +1,10 @@
+package com.martin.stream_processor_service.history;
+
+// Muestras crudas en formato columnar: timestamps[i] corresponde a speed[i], temperature[i], etc.
+public record HistorySeries(String vehicleId,
+                            long[] timestamps,
+                            float[] speed,
+                            float[] temperature,
+                            float[] battery,
+                            float[] fuelLevel) {
+}
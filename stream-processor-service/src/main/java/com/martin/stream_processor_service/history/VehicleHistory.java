@@ -0,0 +1,92 @@
+package com.martin.stream_processor_service.history;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Ring buffer columnar de un vehículo: [timestamps long][speed float][temperature][battery][fuelLevel].
+// Un único ByteBuffer por vehículo (heap o directo), sin objetos por muestra.
+final class VehicleHistory {
+
+    static final int BYTES_PER_SAMPLE = Long.BYTES + 4 * Float.BYTES;
+
+    static final int SPEED = 0;
+    static final int TEMPERATURE = 1;
+    static final int BATTERY = 2;
+    static final int FUEL_LEVEL = 3;
+    static final int METRICS = 4;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private int next;
+    private int size;
+    // Último registro recibido (reloj del procesador), para liberar vehículos inactivos
+    volatile long lastSeen;
+
+    VehicleHistory(int capacity, boolean offHeap) {
+        this.capacity = capacity;
+        this.buffer = offHeap
+                ? ByteBuffer.allocateDirect(capacity * BYTES_PER_SAMPLE)
+                : ByteBuffer.allocate(capacity * BYTES_PER_SAMPLE);
+    }
+
+    synchronized void append(long epochMillis, float speed, float temperature, float battery, float fuelLevel) {
+        int slot = next;
+        buffer.putLong(slot * Long.BYTES, epochMillis);
+        buffer.putFloat(metricOffset(SPEED, slot), speed);
+        buffer.putFloat(metricOffset(TEMPERATURE, slot), temperature);
+        buffer.putFloat(metricOffset(BATTERY, slot), battery);
+        buffer.putFloat(metricOffset(FUEL_LEVEL, slot), fuelLevel);
+        next = slot + 1 == capacity ? 0 : slot + 1;
+        if (size < capacity) {
+            size++;
+        }
+    }
+
+    // Recorre las muestras en orden de llegada con timestamp en [from, to]
+    synchronized void forEach(long from, long to, SampleVisitor visitor) {
+        int start = size < capacity ? 0 : next;
+        for (int i = 0; i < size; i++) {
+            int slot = start + i < capacity ? start + i : start + i - capacity;
+            long ts = buffer.getLong(slot * Long.BYTES);
+            if (ts >= from && ts <= to) {
+                visitor.visit(ts,
+                        buffer.getFloat(metricOffset(SPEED, slot)),
+                        buffer.getFloat(metricOffset(TEMPERATURE, slot)),
+                        buffer.getFloat(metricOffset(BATTERY, slot)),
+                        buffer.getFloat(metricOffset(FUEL_LEVEL, slot)));
+            }
+        }
+    }
+
+    // Copia las muestras con timestamp en [from, to] bajo el mismo lock: un append concurrente no puede
+    // agregar una muestra entre que se dimensionan los arrays y se llenan
+    synchronized HistorySeries copy(String vehicleId, long from, long to) {
+        long[] timestamps = new long[size];
+        float[][] metrics = new float[METRICS][size];
+        int[] n = {0};
+        forEach(from, to, (ts, speed, temperature, battery, fuel) -> {
+            int i = n[0]++;
+            timestamps[i] = ts;
+            metrics[SPEED][i] = speed;
+            metrics[TEMPERATURE][i] = temperature;
+            metrics[BATTERY][i] = battery;
+            metrics[FUEL_LEVEL][i] = fuel;
+        });
+
+        int count = n[0];
+        return new HistorySeries(vehicleId,
+                Arrays.copyOf(timestamps, count),
+                Arrays.copyOf(metrics[SPEED], count),
+                Arrays.copyOf(metrics[TEMPERATURE], count),
+                Arrays.copyOf(metrics[BATTERY], count),
+                Arrays.copyOf(metrics[FUEL_LEVEL], count));
+    }
+
+    private int metricOffset(int metric, int slot) {
+        return capacity * Long.BYTES + (metric * capacity + slot) * Float.BYTES;
+    }
+
+    interface SampleVisitor {
+        void visit(long epochMillis, float speed, float temperature, float battery, float fuelLevel);
+    }
+}
@@ -0,0 +1,184 @@
+package com.martin.stream_processor_service.history;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.HistoryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Historial reciente por vehículo (speed, temperature, battery, fuelLevel) en ring buffers primitivos.
+// Los buffers se crean al ver cada vehículo por primera vez; pasado maxVehicles los nuevos se ignoran,
+// así la memoria nunca supera maxVehicles * capacity * 24 bytes. Con el cupo lleno se liberan antes los
+// vehículos que no reportan hace idleTimeout (a lo sumo un barrido por segundo).
+@Slf4j
+@Component
+public class VehicleHistoryStore {
+
+    private static final long SWEEP_INTERVAL_MILLIS = 1_000;
+
+    private final Map<String, VehicleHistory> histories = new ConcurrentHashMap<>();
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final AtomicLong lastSweep = new AtomicLong();
+    private final HistoryProperties properties;
+    private final long idleMillis;
+    private final Clock clock;
+    private final Counter rejected;
+    private final Counter evicted;
+
+    @Autowired
+    public VehicleHistoryStore(HistoryProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    VehicleHistoryStore(HistoryProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        if (properties.getCapacity() <= 0 || properties.getMaxVehicles() <= 0) {
+            throw new IllegalArgumentException("stream.history.capacity y stream.history.max-vehicles deben ser > 0");
+        }
+        if (properties.getIdleTimeout().toMillis() <= 0) {
+            throw new IllegalArgumentException("stream.history.idle-timeout debe ser > 0");
+        }
+        this.properties = properties;
+        this.idleMillis = properties.getIdleTimeout().toMillis();
+        this.clock = clock;
+        this.rejected = Counter.builder("stream.history.rejected")
+                .description("Muestras descartadas por superar stream.history.max-vehicles")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("stream.history.evicted")
+                .description("Vehículos inactivos liberados para dar lugar a otros")
+                .register(meterRegistry);
+        Gauge.builder("stream.history.vehicles", histories, Map::size).register(meterRegistry);
+        Gauge.builder("stream.history.bytes", allocated,
+                        count -> (double) count.get() * properties.getCapacity() * VehicleHistory.BYTES_PER_SAMPLE)
+                .register(meterRegistry);
+    }
+
+    public void record(VehicleData data) {
+        if (!properties.isEnabled() || data.getVehicleId() == null) {
+            return;
+        }
+        long now = clock.millis();
+        VehicleHistory history = histories.get(data.getVehicleId());
+        if (history == null) {
+            if (allocated.get() >= properties.getMaxVehicles()) {
+                evictIdle(now);
+            }
+            history = histories.computeIfAbsent(data.getVehicleId(), id -> allocate());
+            if (history == null) {
+                rejected.increment();
+                return;
+            }
+        }
+        history.lastSeen = now;
+        long ts = data.getTimestamp() != null ? data.getTimestamp().toEpochMilli() : now;
+        history.append(ts, (float) data.getSpeed(), (float) data.getTemperature(),
+                (float) data.getBattery(), (float) data.getFuelLevel());
+    }
+
+    public Optional<HistorySeries> query(String vehicleId, Instant from, Instant to) {
+        VehicleHistory history = histories.get(vehicleId);
+        if (history == null) {
+            return Optional.empty();
+        }
+        return Optional.of(history.copy(vehicleId, from.toEpochMilli(), to.toEpochMilli()));
+    }
+
+    // Agrupa las muestras en intervalos de bucket (alineados a múltiplos de bucket desde epoch)
+    public Optional<List<HistoryBucket>> downsample(String vehicleId, Instant from, Instant to, Duration bucket) {
+        long bucketMillis = bucket.toMillis();
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("bucket debe ser de al menos 1ms");
+        }
+        VehicleHistory history = histories.get(vehicleId);
+        if (history == null) {
+            return Optional.empty();
+        }
+
+        TreeMap<Long, Accumulator> buckets = new TreeMap<>();
+        history.forEach(from.toEpochMilli(), to.toEpochMilli(), (ts, speed, temperature, battery, fuel) ->
+                buckets.computeIfAbsent(Math.floorDiv(ts, bucketMillis) * bucketMillis, k -> new Accumulator())
+                        .add(speed, temperature, battery, fuel));
+
+        List<HistoryBucket> result = new ArrayList<>(buckets.size());
+        buckets.forEach((start, acc) -> result.add(acc.toBucket(Instant.ofEpochMilli(start))));
+        return Optional.of(result);
+    }
+
+    public int vehicles() {
+        return histories.size();
+    }
+
+    // Fuera de computeIfAbsent: el mapa no admite modificarse desde la función de otro compute
+    private void evictIdle(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_MILLIS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (String vehicleId : histories.keySet()) {
+            histories.computeIfPresent(vehicleId, (id, history) -> {
+                if (now - history.lastSeen < idleMillis) {
+                    return history;
+                }
+                allocated.decrementAndGet();
+                evicted.increment();
+                return null;
+            });
+        }
+    }
+
+    private VehicleHistory allocate() {
+        if (allocated.incrementAndGet() > properties.getMaxVehicles()) {
+            allocated.decrementAndGet();
+            if (rejected.count() == 0) {
+                log.warn("⏸️ Historial lleno ({} vehículos), los vehículos nuevos no se guardan", properties.getMaxVehicles());
+            }
+            return null;
+        }
+        return new VehicleHistory(properties.getCapacity(), properties.isOffHeap());
+    }
+
+    private static final class Accumulator {
+        private int count;
+        private final double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        private final double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        private final double[] sum = new double[VehicleHistory.METRICS];
+
+        void add(float speed, float temperature, float battery, float fuel) {
+            count++;
+            add(VehicleHistory.SPEED, speed);
+            add(VehicleHistory.TEMPERATURE, temperature);
+            add(VehicleHistory.BATTERY, battery);
+            add(VehicleHistory.FUEL_LEVEL, fuel);
+        }
+
+        private void add(int metric, double value) {
+            min[metric] = Math.min(min[metric], value);
+            max[metric] = Math.max(max[metric], value);
+            sum[metric] += value;
+        }
+
+        HistoryBucket toBucket(Instant start) {
+            return new HistoryBucket(start, count,
+                    stats(VehicleHistory.SPEED), stats(VehicleHistory.TEMPERATURE),
+                    stats(VehicleHistory.BATTERY), stats(VehicleHistory.FUEL_LEVEL));
+        }
+
+        private HistoryBucket.Stats stats(int metric) {
+            return new HistoryBucket.Stats(min[metric], max[metric], sum[metric] / count);
+        }
+    }
+}
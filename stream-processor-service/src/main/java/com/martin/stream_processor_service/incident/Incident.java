@@ -0,0 +1,17 @@
+package com.martin.stream_processor_service.incident;
+
+import java.time.Instant;
+
+// Una transición de un incidente. id = vehicleId/anomalyType, también es la clave en Kafka.
+// readings cuenta las lecturas anómalas desde openedAt; la posición es la de la última de ellas.
+public record Incident(String id,
+                       String vehicleId,
+                       String anomalyType,
+                       IncidentStatus status,
+                       Instant openedAt,
+                       Instant updatedAt,
+                       Instant resolvedAt,
+                       long readings,
+                       double latitude,
+                       double longitude) {
+}
@@ -0,0 +1,10 @@
+package com.martin.stream_processor_service.incident;
+
+public enum IncidentStatus {
+    // Superó el debounce (stream.incidents.open-after lecturas anómalas seguidas)
+    OPEN,
+    // Sigue abierto; como mucho uno por stream.incidents.update-interval
+    ONGOING,
+    // stream.incidents.resolve-after lecturas normales seguidas, o el vehículo dejó de reportar
+    RESOLVED
+}
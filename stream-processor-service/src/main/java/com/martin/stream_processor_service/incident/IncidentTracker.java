@@ -0,0 +1,245 @@
+package com.martin.stream_processor_service.incident;
+
+import com.martin.model.ScoreStatus;
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.IncidentProperties;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Máquina de estados por vehículo y anomalyType: pendiente -> OPEN -> (ONGOING)* -> RESOLVED.
+// Sólo los vehículos con algún incidente abierto o pendiente tienen estado; las lecturas normales del resto
+// salen sin tocar el mapa. Las transiciones de un vehículo se calculan dentro de compute(), así dos hilos
+// con lecturas del mismo vehículo no pisan su estado, y se entregan al sink al salir.
+public class IncidentTracker {
+
+    // Anomalías del modelo sin tipo (el modelo sólo dice anomaly = true)
+    static final String UNTYPED = "model";
+
+    private final Map<String, VehicleIncidents> vehicles = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder staleLate = new LongAdder();
+    private final int openAfter;
+    private final int resolveAfter;
+    private final long updateMillis;
+    private final long idleMillis;
+    private final int maxVehicles;
+    private final Clock clock;
+    private final Consumer<Incident> sink;
+
+    public IncidentTracker(IncidentProperties properties, Clock clock, Consumer<Incident> sink) {
+        if (properties.getOpenAfter() <= 0 || properties.getResolveAfter() <= 0 || properties.getMaxVehicles() <= 0) {
+            throw new IllegalArgumentException("stream.incidents.open-after, resolve-after y max-vehicles deben ser > 0");
+        }
+        if (properties.getIdleTimeout().toMillis() <= 0) {
+            throw new IllegalArgumentException("stream.incidents.idle-timeout debe ser > 0");
+        }
+        this.openAfter = properties.getOpenAfter();
+        this.resolveAfter = properties.getResolveAfter();
+        this.updateMillis = properties.getUpdateInterval().toMillis();
+        this.idleMillis = properties.getIdleTimeout().toMillis();
+        this.maxVehicles = properties.getMaxVehicles();
+        this.clock = clock;
+        this.sink = sink;
+    }
+
+    public void record(VehicleData data) {
+        record(data, false);
+    }
+
+    // Veredicto tardío (re-puntuado desde el spill): sólo se aplica si no es más viejo que la última lectura que
+    // ya vio el vehículo, así la histéresis nunca cuenta lecturas fuera de orden. Sin estado no hay nada que pisar
+    public void recordLate(VehicleData data) {
+        record(data, true);
+    }
+
+    private void record(VehicleData data, boolean late) {
+        String vehicleId = data.getVehicleId();
+        // Sin veredicto no se sabe si la lectura es normal: no abre ni resuelve nada
+        if (vehicleId == null || data.getScoreStatus() == ScoreStatus.UNSCORED) {
+            return;
+        }
+        if (!data.isAnomaly() && !vehicles.containsKey(vehicleId)) {
+            return;
+        }
+        String anomalyType = data.isAnomaly() ? anomalyType(data) : null;
+        Instant at = data.getTimestamp() != null ? data.getTimestamp() : clock.instant();
+        long now = clock.millis();
+        List<Incident> transitions = new ArrayList<>(1);
+
+        vehicles.compute(vehicleId, (id, state) -> {
+            if (late && state != null && at.isBefore(state.lastReading)) {
+                staleLate.increment();
+                return state;
+            }
+            if (state == null) {
+                if (anomalyType == null) {
+                    return null;
+                }
+                if (vehicles.size() >= maxVehicles) {
+                    rejected.increment();
+                    return null;
+                }
+                state = new VehicleIncidents();
+            }
+            state.lastSeen = now;
+            if (state.lastReading == null || at.isAfter(state.lastReading)) {
+                state.lastReading = at;
+            }
+            state.record(id, anomalyType, at, now, data, transitions);
+            return state.trackers.isEmpty() ? null : state;
+        });
+
+        transitions.forEach(sink);
+    }
+
+    // Resuelve los incidentes de los vehículos que no reportan hace idleTimeout (lo llama el sweeper de Incidents)
+    public void expire() {
+        long now = clock.millis();
+        List<Incident> transitions = new ArrayList<>();
+        for (String vehicleId : vehicles.keySet()) {
+            vehicles.computeIfPresent(vehicleId, (id, state) -> {
+                if (now - state.lastSeen < idleMillis) {
+                    return state;
+                }
+                for (Tracker tracker : state.trackers) {
+                    if (tracker.open) {
+                        transitions.add(tracker.resolve(id, tracker.updatedAt));
+                    }
+                }
+                return null;
+            });
+        }
+        transitions.forEach(sink);
+    }
+
+    public int open() {
+        return open.get();
+    }
+
+    public int vehicles() {
+        return vehicles.size();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long staleLate() {
+        return staleLate.sum();
+    }
+
+    private static String anomalyType(VehicleData data) {
+        String anomalyType = data.getAnomalyType();
+        return anomalyType == null || anomalyType.isBlank() ? UNTYPED : anomalyType;
+    }
+
+    // Pocos tipos por vehículo: una lista chica es más barata que un mapa
+    private final class VehicleIncidents {
+
+        private final List<Tracker> trackers = new ArrayList<>(2);
+        private long lastSeen;
+        // Timestamp de la lectura más nueva registrada (guarda de recordLate)
+        private Instant lastReading;
+
+        // La lectura cuenta como anómala para su tipo y como normal para los demás
+        void record(String vehicleId, String anomalyType, Instant at, long now, VehicleData data, List<Incident> transitions) {
+            boolean seen = false;
+            for (Iterator<Tracker> it = trackers.iterator(); it.hasNext(); ) {
+                Tracker tracker = it.next();
+                Incident transition;
+                if (tracker.anomalyType.equals(anomalyType)) {
+                    seen = true;
+                    transition = tracker.anomalous(vehicleId, at, now, data);
+                } else {
+                    transition = tracker.normal(vehicleId, at);
+                    if (!tracker.open) {
+                        it.remove();
+                    }
+                }
+                if (transition != null) {
+                    transitions.add(transition);
+                }
+            }
+            if (!seen && anomalyType != null) {
+                Tracker tracker = new Tracker(anomalyType);
+                trackers.add(tracker);
+                Incident transition = tracker.anomalous(vehicleId, at, now, data);
+                if (transition != null) {
+                    transitions.add(transition);
+                }
+            }
+        }
+    }
+
+    private final class Tracker {
+
+        private final String anomalyType;
+        private boolean open;
+        private int hits;
+        private int clears;
+        private long readings;
+        private long lastPublished;
+        private Instant openedAt;
+        private Instant updatedAt;
+        private double latitude;
+        private double longitude;
+
+        Tracker(String anomalyType) {
+            this.anomalyType = anomalyType;
+        }
+
+        Incident anomalous(String vehicleId, Instant at, long now, VehicleData data) {
+            if (openedAt == null) {
+                openedAt = at;
+            }
+            updatedAt = at;
+            latitude = data.getLatitude();
+            longitude = data.getLongitude();
+            readings++;
+            clears = 0;
+            if (!open) {
+                if (++hits < openAfter) {
+                    return null;
+                }
+                open = true;
+                IncidentTracker.this.open.incrementAndGet();
+                lastPublished = now;
+                return incident(vehicleId, IncidentStatus.OPEN, null);
+            }
+            if (updateMillis > 0 && now - lastPublished >= updateMillis) {
+                lastPublished = now;
+                return incident(vehicleId, IncidentStatus.ONGOING, null);
+            }
+            return null;
+        }
+
+        // Devuelve RESOLVED al completar la histéresis; un pendiente (sin abrir) se descarta con la primera lectura normal
+        Incident normal(String vehicleId, Instant at) {
+            if (!open || ++clears < resolveAfter) {
+                return null;
+            }
+            return resolve(vehicleId, at);
+        }
+
+        Incident resolve(String vehicleId, Instant at) {
+            open = false;
+            IncidentTracker.this.open.decrementAndGet();
+            return incident(vehicleId, IncidentStatus.RESOLVED, at);
+        }
+
+        private Incident incident(String vehicleId, IncidentStatus status, Instant resolvedAt) {
+            return new Incident(vehicleId + "/" + anomalyType, vehicleId, anomalyType, status,
+                    openedAt, updatedAt, resolvedAt, readings, latitude, longitude);
+        }
+    }
+}
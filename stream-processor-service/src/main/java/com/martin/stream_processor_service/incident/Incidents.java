@@ -0,0 +1,125 @@
+package com.martin.stream_processor_service.incident;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.IncidentProperties;
+import com.martin.stream_processor_service.config.IncidentWebSocketHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Transiciones de incidentes a /ws/incidents y al topic compactado. Después de cada RESOLVED va un tombstone
+// con la misma clave: al compactarse el topic sólo quedan los incidentes abiertos, y un consumidor que lo
+// lee desde el principio arma la vista "incidentes abiertos ahora" sin recorrer todas las alertas.
+@Slf4j
+@Component
+public class Incidents {
+
+    private final IncidentTracker tracker;
+    private final IncidentWebSocketHandler wsHandler;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String topic;
+    private final Map<IncidentStatus, Counter> transitions = new EnumMap<>(IncidentStatus.class);
+    private final ScheduledExecutorService sweeper;
+
+    public Incidents(IncidentProperties properties, IncidentWebSocketHandler wsHandler,
+                     KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.wsHandler = wsHandler;
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = properties.getTopic();
+        for (IncidentStatus status : IncidentStatus.values()) {
+            transitions.put(status, Counter.builder("stream.incidents.transitions")
+                    .description("Transiciones de incidentes publicadas")
+                    .tag("status", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        if (!properties.isEnabled()) {
+            this.tracker = null;
+            this.sweeper = null;
+            return;
+        }
+
+        this.tracker = new IncidentTracker(properties, Clock.systemUTC(), this::publish);
+        Gauge.builder("stream.incidents.open", tracker, IncidentTracker::open)
+                .description("Incidentes abiertos")
+                .register(meterRegistry);
+        Gauge.builder("stream.incidents.vehicles", tracker, IncidentTracker::vehicles)
+                .description("Vehículos con incidentes abiertos o pendientes")
+                .register(meterRegistry);
+        FunctionCounter.builder("stream.incidents.rejected", tracker, IncidentTracker::rejected)
+                .description("Lecturas anómalas ignoradas por superar stream.incidents.max-vehicles")
+                .register(meterRegistry);
+        FunctionCounter.builder("stream.incidents.late.stale", tracker, IncidentTracker::staleLate)
+                .description("Veredictos tardíos ignorados por ser más viejos que la última lectura del vehículo")
+                .register(meterRegistry);
+
+        long sweepMillis = Math.max(100, properties.getIdleTimeout().toMillis() / 4);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "incident-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::expire, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void record(VehicleData data) {
+        if (tracker != null) {
+            tracker.record(data);
+        }
+    }
+
+    public void recordLate(VehicleData data) {
+        if (tracker != null) {
+            tracker.recordLate(data);
+        }
+    }
+
+    private void expire() {
+        try {
+            tracker.expire();
+        } catch (RuntimeException e) {
+            log.error("❌ Error resolviendo incidentes inactivos: {}", e.getMessage());
+        }
+    }
+
+    private void publish(Incident incident) {
+        log.debug("Incidente {} {}", incident.id(), incident.status());
+        transitions.get(incident.status()).increment();
+        wsHandler.sendIncident(incident);
+        if (topic == null || topic.isBlank()) {
+            return;
+        }
+        send(incident.id(), incident);
+        if (incident.status() == IncidentStatus.RESOLVED) {
+            send(incident.id(), null);
+        }
+    }
+
+    private void send(String key, Incident incident) {
+        kafkaTemplate.send(topic, key, incident)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.error("❌ Could not send incident {} to {}: {}", key, topic, error.getMessage());
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.martin.stream_processor_service.inference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+// Autoencoder exportado por llm-anomalies-detection/export_model.py: StandardScaler + capas densas + umbral.
+// Los pesos se guardan en arrays primitivos (kernel traspuesto para recorrerlo en orden) y la inferencia
+// reproduce las operaciones en float32 del modelo Python sin reservar memoria por registro.
+public final class AutoencoderModel {
+
+    static final String FORMAT = "fleet-autoencoder";
+    static final int VERSION = 1;
+
+    private static final int LINEAR = 0;
+    private static final int RELU = 1;
+    private static final int SIGMOID = 2;
+    private static final int TANH = 3;
+
+    private final int features;
+    private final List<String> featureNames;
+    private final double[] mean;
+    private final double[] scale;
+    private final int[] inputs;
+    private final int[] units;
+    private final float[][] kernels;
+    private final float[][] biases;
+    private final int[] activations;
+    private final double threshold;
+
+    private AutoencoderModel(Export export) {
+        if (!FORMAT.equals(export.format()) || export.version() != VERSION) {
+            throw new IllegalArgumentException("Unsupported model export " + export.format() + " v" + export.version());
+        }
+        this.features = export.features().size();
+        this.featureNames = List.copyOf(export.features());
+        this.mean = toDoubles(export.scaler().mean(), features, "scaler.mean");
+        this.scale = toDoubles(export.scaler().scale(), features, "scaler.scale");
+        this.threshold = export.threshold();
+
+        int layerCount = export.layers().size();
+        this.inputs = new int[layerCount];
+        this.units = new int[layerCount];
+        this.kernels = new float[layerCount][];
+        this.biases = new float[layerCount][];
+        this.activations = new int[layerCount];
+
+        int width = features;
+        for (int l = 0; l < layerCount; l++) {
+            Layer layer = export.layers().get(l);
+            int out = layer.bias().size();
+            if (layer.kernel().size() != width) {
+                throw new IllegalArgumentException("Layer " + l + " expects " + layer.kernel().size() + " inputs, got " + width);
+            }
+            // kernel[entrada][unidad] -> kernelT[unidad * width + entrada]
+            float[] kernelT = new float[out * width];
+            for (int i = 0; i < width; i++) {
+                List<Double> row = layer.kernel().get(i);
+                if (row.size() != out) {
+                    throw new IllegalArgumentException("Layer " + l + " kernel row " + i + " has " + row.size() + " units, expected " + out);
+                }
+                for (int j = 0; j < out; j++) {
+                    kernelT[j * width + i] = row.get(j).floatValue();
+                }
+            }
+            inputs[l] = width;
+            units[l] = out;
+            kernels[l] = kernelT;
+            biases[l] = toFloats(layer.bias());
+            activations[l] = activation(layer.activation());
+            width = out;
+        }
+        if (width != features) {
+            throw new IllegalArgumentException("Last layer has " + width + " units, expected " + features);
+        }
+    }
+
+    public static AutoencoderModel load(InputStream in, ObjectMapper mapper) throws IOException {
+        return new AutoencoderModel(mapper.readValue(in, Export.class));
+    }
+
+    public int features() {
+        return features;
+    }
+
+    // Nombres de las características en el orden en que el modelo las espera (export.features)
+    public List<String> featureNames() {
+        return featureNames;
+    }
+
+    public double threshold() {
+        return threshold;
+    }
+
+    public Workspace newWorkspace() {
+        return new Workspace(this);
+    }
+
+    // workspace.input() debe contener las características en el orden de export.features
+    public double reconstructionError(Workspace workspace) {
+        float[] raw = workspace.input;
+        float[] scaled = workspace.scaled;
+        for (int i = 0; i < features; i++) {
+            // sklearn opera en float64 sobre la entrada float32 y guarda cada paso en float32
+            float centered = (float) (raw[i] - mean[i]);
+            scaled[i] = (float) (centered / scale[i]);
+        }
+
+        float[] in = scaled;
+        for (int l = 0; l < kernels.length; l++) {
+            float[] out = workspace.activations[l];
+            float[] kernel = kernels[l];
+            float[] bias = biases[l];
+            int width = inputs[l];
+            int activation = activations[l];
+            for (int j = 0, offset = 0; j < units[l]; j++, offset += width) {
+                float sum = 0f;
+                for (int i = 0; i < width; i++) {
+                    sum += in[i] * kernel[offset + i];
+                }
+                out[j] = activate(sum + bias[j], activation);
+            }
+            in = out;
+        }
+
+        float squared = 0f;
+        for (int i = 0; i < features; i++) {
+            float diff = scaled[i] - in[i];
+            squared += diff * diff;
+        }
+        return squared / features;
+    }
+
+    private static float activate(float value, int activation) {
+        return switch (activation) {
+            case RELU -> Math.max(0f, value);
+            case SIGMOID -> (float) (1.0 / (1.0 + Math.exp(-value)));
+            case TANH -> (float) Math.tanh(value);
+            default -> value;
+        };
+    }
+
+    private static int activation(String name) {
+        return switch (name) {
+            case "linear" -> LINEAR;
+            case "relu" -> RELU;
+            case "sigmoid" -> SIGMOID;
+            case "tanh" -> TANH;
+            default -> throw new IllegalArgumentException("Unsupported activation " + name);
+        };
+    }
+
+    private static double[] toDoubles(List<Double> values, int expected, String name) {
+        if (values.size() != expected) {
+            throw new IllegalArgumentException(name + " has " + values.size() + " values, expected " + expected);
+        }
+        return values.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    private static float[] toFloats(List<Double> values) {
+        float[] result = new float[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i).floatValue();
+        }
+        return result;
+    }
+
+    // Buffers reutilizables de una inferencia; no es thread-safe, se usa uno por hilo
+    public static final class Workspace {
+        private final float[] input;
+        private final float[] scaled;
+        private final float[][] activations;
+
+        private Workspace(AutoencoderModel model) {
+            this.input = new float[model.features];
+            this.scaled = new float[model.features];
+            this.activations = new float[model.units.length][];
+            for (int l = 0; l < model.units.length; l++) {
+                activations[l] = new float[model.units[l]];
+            }
+        }
+
+        public float[] input() {
+            return input;
+        }
+    }
+
+    record Export(String format, int version, List<String> features, Scaler scaler, List<Layer> layers, double threshold) {
+    }
+
+    record Scaler(List<Double> mean, List<Double> scale) {
+    }
+
+    record Layer(String activation, List<List<Double>> kernel, List<Double> bias) {
+    }
+}
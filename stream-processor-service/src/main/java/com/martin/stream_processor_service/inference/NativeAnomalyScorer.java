@@ -0,0 +1,103 @@
+package com.martin.stream_processor_service.inference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.stream_processor_service.client.AnomalyScorer;
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+// Reemplazo en proceso de PredictionClient: mismo contrato, sin salto de red al servicio de ML
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "prediction.engine", havingValue = "native")
+public class NativeAnomalyScorer implements AnomalyScorer {
+
+    // Campos de PredictionRequest por nombre, como los lista export_model.py en "features"
+    private static final Map<String, ToDoubleFunction<PredictionRequest>> FIELDS = Map.of(
+            "latitude", PredictionRequest::getLatitude,
+            "longitude", PredictionRequest::getLongitude,
+            "speed", PredictionRequest::getSpeed,
+            "previousSpeed", PredictionRequest::getPreviousSpeed,
+            "acceleration", PredictionRequest::getAcceleration,
+            "temperature", PredictionRequest::getTemperature,
+            "battery", PredictionRequest::getBattery,
+            "fuelLevel", PredictionRequest::getFuelLevel,
+            "speedLimit", PredictionRequest::getSpeedLimit,
+            "trafficLevel", PredictionRequest::getTrafficLevel);
+
+    private final AutoencoderModel model;
+    private final ToDoubleFunction<PredictionRequest>[] fields;
+    private final ThreadLocal<AutoencoderModel.Workspace> workspaces;
+
+    @Autowired
+    public NativeAnomalyScorer(@Value("${prediction.native.model-location:classpath:model/autoencoder.json}") Resource modelLocation,
+                               ObjectMapper mapper) throws IOException {
+        this(load(modelLocation, mapper));
+        log.info("✅ Autoencoder nativo cargado desde {} (umbral {})", modelLocation, model.threshold());
+    }
+
+    public NativeAnomalyScorer(AutoencoderModel model) {
+        this.model = model;
+        this.fields = fields(model.featureNames());
+        this.workspaces = ThreadLocal.withInitial(model::newWorkspace);
+    }
+
+    @Override
+    public Mono<PredictionResponse> predict(PredictionRequest request) {
+        return Mono.fromSupplier(() -> score(request));
+    }
+
+    public PredictionResponse score(PredictionRequest request) {
+        double error = reconstructionError(request);
+
+        PredictionResponse response = new PredictionResponse();
+        response.setReconstructionError(error);
+        response.setAnomalyThreshold(model.threshold());
+        response.setAnomaly(error > model.threshold());
+        return response;
+    }
+
+    public double reconstructionError(PredictionRequest request) {
+        AutoencoderModel.Workspace workspace = workspaces.get();
+        float[] input = workspace.input();
+        // Mismo orden de características que en el entrenamiento, tomado del export
+        for (int i = 0; i < fields.length; i++) {
+            input[i] = (float) fields[i].applyAsDouble(request);
+        }
+        return model.reconstructionError(workspace);
+    }
+
+    private static AutoencoderModel load(Resource modelLocation, ObjectMapper mapper) throws IOException {
+        try (InputStream in = modelLocation.getInputStream()) {
+            return AutoencoderModel.load(in, mapper);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ToDoubleFunction<PredictionRequest>[] fields(List<String> names) {
+        if (new HashSet<>(names).size() != names.size()) {
+            throw new IllegalStateException("Model export lists a feature more than once: " + names);
+        }
+        ToDoubleFunction<PredictionRequest>[] fields = new ToDoubleFunction[names.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = FIELDS.get(names.get(i));
+            if (fields[i] == null) {
+                throw new IllegalStateException("Model expects feature '" + names.get(i) + "', PredictionRequest provides " + FIELDS.keySet());
+            }
+        }
+        return fields;
+    }
+}
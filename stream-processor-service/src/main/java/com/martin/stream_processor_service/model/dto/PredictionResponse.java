@@ -1,11 +1,14 @@
 package com.martin.stream_processor_service.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
+// Sólo el veredicto del modelo. El servicio también devuelve el input (eco del request): el decoder
+// lo saltea token a token sin crear objetos, y el registro se enriquece a partir del VehicleData original.
 @Data
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class PredictionResponse {
-    private PredictionRequest input;
 
     @JsonProperty("reconstruction_error")
     private double reconstructionError;
@@ -15,4 +18,4 @@ public class PredictionResponse {
 
     @JsonProperty("is_anomaly")
     private boolean isAnomaly;
-}
\ No newline at end of file
+}
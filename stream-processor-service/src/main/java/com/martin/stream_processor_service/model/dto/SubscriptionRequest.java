@@ -0,0 +1,25 @@
+package com.martin.stream_processor_service.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.Set;
+
+// Mensaje que envía el cliente por /ws/telemetry para elegir qué recibir; sin filtros = toda la flota
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SubscriptionRequest {
+
+    private String type = "subscribe";
+    private Set<String> vehicleIds;
+    private boolean anomaliesOnly;
+    private Bounds bounds;
+
+    @Data
+    public static class Bounds {
+        private Double minLat;
+        private Double maxLat;
+        private Double minLon;
+        private Double maxLon;
+    }
+}
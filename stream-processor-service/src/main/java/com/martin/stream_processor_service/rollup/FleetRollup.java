@@ -0,0 +1,20 @@
+package com.martin.stream_processor_service.rollup;
+
+import java.time.Instant;
+import java.util.List;
+
+// Ventana cerrada [start, end). Los grupos vacíos no se incluyen; los valores fuera de los diccionarios
+// de VehicleDataCodec (o trafficLevel fuera de 1..5) se agrupan como "other" / 0.
+public record FleetRollup(String type,
+                          String window,
+                          Instant start,
+                          Instant end,
+                          Totals fleet,
+                          List<Group> groups) {
+
+    public record Totals(long count, double avgSpeed, double overspeedRate, double anomalyRate) {
+    }
+
+    public record Group(String roadType, String weather, int trafficLevel, Totals totals) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.martin.stream_processor_service.rollup;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.RollupProperties;
+import com.martin.stream_processor_service.config.RollupWebSocketHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+// Agregados de la flota calculados una vez en el servidor: cada ventana cerrada va a /ws/rollups
+// y, si stream.rollups.topic no está vacío, a Kafka (clave = ventana, p. ej. "1m")
+@Slf4j
+@Component
+public class FleetRollups {
+
+    private final RollupAggregator aggregator;
+    private final RollupWebSocketHandler wsHandler;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String topic;
+    private final Counter published;
+
+    public FleetRollups(RollupProperties properties, RollupWebSocketHandler wsHandler,
+                        KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.wsHandler = wsHandler;
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = properties.getTopic();
+        this.published = Counter.builder("stream.rollups.published")
+                .description("Ventanas de agregados de la flota publicadas")
+                .register(meterRegistry);
+        this.aggregator = properties.isEnabled() ? new RollupAggregator(properties.getWindows(), this::publish) : null;
+    }
+
+    public void record(VehicleData data) {
+        if (aggregator != null) {
+            aggregator.record(data);
+        }
+    }
+
+    private void publish(FleetRollup rollup) {
+        if (rollup.fleet().count() == 0) {
+            return;
+        }
+        wsHandler.sendRollup(rollup);
+        if (topic != null && !topic.isBlank()) {
+            kafkaTemplate.send(topic, rollup.window(), rollup)
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.error("❌ Could not send rollup {} to {}: {}", rollup.window(), topic, error.getMessage());
+                        }
+                    });
+        }
+        published.increment();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (aggregator != null) {
+            aggregator.close();
+        }
+    }
+}
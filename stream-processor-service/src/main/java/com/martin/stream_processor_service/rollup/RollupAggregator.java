@@ -0,0 +1,193 @@
+package com.martin.stream_processor_service.rollup;
+
+import com.martin.model.VehicleData;
+import com.martin.model.codec.VehicleDataCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Ventanas fijas (tumbling) de toda la flota. Cada grupo roadType x weather x trafficLevel tiene sus
+// LongAdder/DoubleAdder, así los hilos del pipeline suman sin pelear por el mismo contador.
+// Al cerrar una ventana se cambia el juego de contadores por uno nuevo y el viejo se resume y se entrega al sink.
+// Un registro que tomó la ventana justo antes del cambio puede no llegar a contarse en ella.
+@Slf4j
+public class RollupAggregator implements AutoCloseable {
+
+    private static final int ROAD_TYPES = VehicleDataCodec.ROAD_TYPE.size() + 1;
+    private static final int WEATHERS = VehicleDataCodec.WEATHER.size() + 1;
+    private static final int TRAFFIC_LEVELS = 6;
+    static final int GROUPS = ROAD_TYPES * WEATHERS * TRAFFIC_LEVELS;
+
+    private final List<Window> windows = new ArrayList<>();
+    private final Consumer<FleetRollup> sink;
+    private final ScheduledExecutorService scheduler;
+
+    public RollupAggregator(List<Duration> durations, Consumer<FleetRollup> sink) {
+        this.sink = sink;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "fleet-rollups");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long now = System.currentTimeMillis();
+        for (Duration duration : durations) {
+            long millis = duration.toMillis();
+            if (millis <= 0) {
+                throw new IllegalArgumentException("stream.rollups.windows debe ser de al menos 1ms");
+            }
+            long start = Math.floorDiv(now, millis) * millis;
+            Window window = new Window(label(duration), millis, start);
+            windows.add(window);
+            scheduler.scheduleAtFixedRate(() -> flush(window), start + millis - now, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void record(VehicleData data) {
+        int group = group(data);
+        boolean overspeed = data.getSpeedLimit() > 0 && data.getSpeed() > data.getSpeedLimit();
+        for (Window window : windows) {
+            window.current.get().add(group, data.getSpeed(), overspeed, data.isAnomaly());
+        }
+    }
+
+    // Para tests: cierra todas las ventanas sin esperar al scheduler
+    void flushAll() {
+        windows.forEach(this::flush);
+    }
+
+    private void flush(Window window) {
+        try {
+            Counters closed = window.current.get();
+            long end = closed.start + window.millis;
+            window.current.set(new Counters(end));
+            sink.accept(closed.summarize(window.label, end));
+        } catch (RuntimeException e) {
+            log.error("❌ Error publicando el rollup de {}: {}", window.label, e.getMessage());
+        }
+    }
+
+    static int group(VehicleData data) {
+        int road = code(VehicleDataCodec.ROAD_TYPE, data.getRoadType());
+        int weather = code(VehicleDataCodec.WEATHER, data.getWeather());
+        int traffic = data.getTrafficLevel() >= 1 && data.getTrafficLevel() <= 5 ? data.getTrafficLevel() : 0;
+        return (road * WEATHERS + weather) * TRAFFIC_LEVELS + traffic;
+    }
+
+    // 0 = null o fuera del diccionario
+    private static int code(VehicleDataCodec.Dictionary dictionary, String value) {
+        byte code = dictionary.code(value);
+        return code == VehicleDataCodec.Dictionary.LITERAL ? 0 : code;
+    }
+
+    private static String value(VehicleDataCodec.Dictionary dictionary, int code) {
+        return code == 0 ? "other" : dictionary.value((byte) code);
+    }
+
+    static String label(Duration duration) {
+        long millis = duration.toMillis();
+        if (millis % 3_600_000 == 0) {
+            return millis / 3_600_000 + "h";
+        }
+        if (millis % 60_000 == 0) {
+            return millis / 60_000 + "m";
+        }
+        if (millis % 1_000 == 0) {
+            return millis / 1_000 + "s";
+        }
+        return millis + "ms";
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private static final class Window {
+        private final String label;
+        private final long millis;
+        private final AtomicReference<Counters> current;
+
+        Window(String label, long millis, long start) {
+            this.label = label;
+            this.millis = millis;
+            this.current = new AtomicReference<>(new Counters(start));
+        }
+    }
+
+    // Contadores de una ventana: 4 adders por grupo (un LongAdder sin contención es un único long)
+    private static final class Counters {
+        private final long start;
+        private final LongAdder[] counts = new LongAdder[GROUPS];
+        private final LongAdder[] overspeeds = new LongAdder[GROUPS];
+        private final LongAdder[] anomalies = new LongAdder[GROUPS];
+        private final DoubleAdder[] speeds = new DoubleAdder[GROUPS];
+
+        Counters(long start) {
+            this.start = start;
+            for (int g = 0; g < GROUPS; g++) {
+                counts[g] = new LongAdder();
+                overspeeds[g] = new LongAdder();
+                anomalies[g] = new LongAdder();
+                speeds[g] = new DoubleAdder();
+            }
+        }
+
+        void add(int group, double speed, boolean overspeed, boolean anomaly) {
+            counts[group].increment();
+            speeds[group].add(speed);
+            if (overspeed) {
+                overspeeds[group].increment();
+            }
+            if (anomaly) {
+                anomalies[group].increment();
+            }
+        }
+
+        FleetRollup summarize(String label, long end) {
+            List<FleetRollup.Group> groups = new ArrayList<>();
+            long count = 0;
+            long overspeed = 0;
+            long anomaly = 0;
+            double speed = 0;
+            for (int g = 0; g < GROUPS; g++) {
+                long n = counts[g].sum();
+                if (n == 0) {
+                    continue;
+                }
+                long o = overspeeds[g].sum();
+                long a = anomalies[g].sum();
+                double s = speeds[g].sum();
+                count += n;
+                overspeed += o;
+                anomaly += a;
+                speed += s;
+
+                int traffic = g % TRAFFIC_LEVELS;
+                int weather = (g / TRAFFIC_LEVELS) % WEATHERS;
+                int road = g / (TRAFFIC_LEVELS * WEATHERS);
+                groups.add(new FleetRollup.Group(value(VehicleDataCodec.ROAD_TYPE, road),
+                        value(VehicleDataCodec.WEATHER, weather), traffic, totals(n, s, o, a)));
+            }
+            return new FleetRollup("rollup", label, Instant.ofEpochMilli(start), Instant.ofEpochMilli(end),
+                    totals(count, speed, overspeed, anomaly), groups);
+        }
+
+        private static FleetRollup.Totals totals(long count, double speed, long overspeed, long anomaly) {
+            if (count == 0) {
+                return new FleetRollup.Totals(0, 0, 0, 0);
+            }
+            return new FleetRollup.Totals(count, speed / count, (double) overspeed / count, (double) anomaly / count);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.martin.stream_processor_service.rules;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.RuleProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Fast-path delante del modelo: las reglas de stream.rules se compilan una vez a arrays paralelos
+// (campo, divisor, signo, umbral) y cada registro se evalúa con un bucle sin interpretar nada. Cada regla lee
+// sólo sus campos del registro, sin copias por registro.
+// "field / per ABOVE t" se evalúa como field > t * per (per > 0) y BELOW invierte el signo de ambos lados,
+// así todas las reglas son la misma comparación.
+@Slf4j
+@Component
+public class RuleEngine {
+
+    public static final int NO_MATCH = -1;
+
+    private final boolean enabled;
+    private final String[] names;
+    private final RuleField[] fields;
+    // null = sin divisor
+    private final RuleField[] divisors;
+    private final double[] signs;
+    private final double[] thresholds;
+    private final Counter[] matches;
+
+    public RuleEngine(RuleProperties properties, MeterRegistry meterRegistry) {
+        List<RuleProperties.Rule> rules = properties.isEnabled() ? properties.getRules() : List.of();
+        int n = rules.size();
+        this.enabled = n > 0;
+        this.names = new String[n];
+        this.fields = new RuleField[n];
+        this.divisors = new RuleField[n];
+        this.signs = new double[n];
+        this.thresholds = new double[n];
+        this.matches = new Counter[n];
+
+        for (int i = 0; i < n; i++) {
+            RuleProperties.Rule rule = rules.get(i);
+            if (rule.getName() == null || rule.getName().isBlank() || rule.getField() == null
+                    || rule.getOperator() == null || !Double.isFinite(rule.getThreshold())) {
+                throw new IllegalArgumentException("stream.rules.rules[" + i + "]: name, field, operator y threshold son obligatorios");
+            }
+            double sign = rule.getOperator() == RuleProperties.Operator.ABOVE ? 1 : -1;
+            names[i] = rule.getName();
+            fields[i] = rule.getField();
+            divisors[i] = rule.getPer();
+            signs[i] = sign;
+            thresholds[i] = sign * rule.getThreshold();
+            matches[i] = Counter.builder("stream.rules.matches")
+                    .description("Registros marcados por una regla sin pasar por el modelo")
+                    .tag("rule", rule.getName())
+                    .register(meterRegistry);
+        }
+        if (enabled) {
+            log.info("✅ Fast-path de reglas activo: {}", String.join(", ", names));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Índice de la primera regla que se cumple o NO_MATCH
+    public int match(VehicleData data) {
+        if (!enabled) {
+            return NO_MATCH;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            double divisor = divisors[i] != null ? divisors[i].read(data) : 1;
+            if (divisor > 0 && signs[i] * fields[i].read(data) > thresholds[i] * divisor) {
+                matches[i].increment();
+                return i;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    public String name(int rule) {
+        return names[rule];
+    }
+}
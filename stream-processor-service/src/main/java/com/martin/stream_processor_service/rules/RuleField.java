@@ -0,0 +1,48 @@
+package com.martin.stream_processor_service.rules;
+
+import com.martin.model.VehicleData;
+import com.martin.model.VehicleStats;
+
+import java.util.function.ToDoubleFunction;
+
+// Campos numéricos de VehicleData que pueden usar las reglas. Los derivados de la ventana por vehículo
+// (VehicleStats) valen NaN si el registro no tiene stats, y una comparación con NaN nunca se cumple.
+public enum RuleField {
+    LATITUDE(VehicleData::getLatitude),
+    LONGITUDE(VehicleData::getLongitude),
+    SPEED(VehicleData::getSpeed),
+    PREVIOUS_SPEED(VehicleData::getPreviousSpeed),
+    ACCELERATION(VehicleData::getAcceleration),
+    TEMPERATURE(VehicleData::getTemperature),
+    BATTERY(VehicleData::getBattery),
+    FUEL_LEVEL(VehicleData::getFuelLevel),
+    SPEED_LIMIT(VehicleData::getSpeedLimit),
+    TRAFFIC_LEVEL(VehicleData::getTrafficLevel),
+    SPEED_MEAN(stats(stats -> stats.getSpeed().getMean())),
+    SPEED_STD_DEV(stats(stats -> stats.getSpeed().getStdDev())),
+    TEMPERATURE_MEAN(stats(stats -> stats.getTemperature().getMean())),
+    TEMPERATURE_EWMA(stats(stats -> stats.getTemperature().getEwma())),
+    TEMPERATURE_MAX(stats(stats -> stats.getTemperature().getMax())),
+    BATTERY_MEAN(stats(stats -> stats.getBattery().getMean())),
+    BATTERY_EWMA(stats(stats -> stats.getBattery().getEwma())),
+    HARSH_ACCELERATIONS(stats(VehicleStats::getHarshAccelerations)),
+    HARSH_BRAKINGS(stats(VehicleStats::getHarshBrakings));
+
+    private final ToDoubleFunction<VehicleData> accessor;
+
+    RuleField(ToDoubleFunction<VehicleData> accessor) {
+        this.accessor = accessor;
+    }
+
+    // Lee sólo este campo: RuleEngine resuelve los campos de cada regla al compilarlas
+    double read(VehicleData data) {
+        return accessor.applyAsDouble(data);
+    }
+
+    private static ToDoubleFunction<VehicleData> stats(ToDoubleFunction<VehicleStats> metric) {
+        return data -> {
+            VehicleStats stats = data.getStats();
+            return stats != null && stats.getSamples() > 0 ? metric.applyAsDouble(stats) : Double.NaN;
+        };
+    }
+}
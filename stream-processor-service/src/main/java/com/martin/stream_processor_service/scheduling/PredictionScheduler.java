@@ -0,0 +1,248 @@
+package com.martin.stream_processor_service.scheduling;
+
+import com.martin.stream_processor_service.client.LoadShedException;
+import com.martin.stream_processor_service.config.PredictionSchedulerProperties;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Delante del motor de ML: como mucho maxConcurrent predicciones a la vez y el resto espera en una cola
+// por prioridad (RiskPrior), atendida HIGH -> MEDIUM -> LOW y FIFO dentro de cada una.
+// Con shedQueueDepth registros en cola, los LOW nuevos se descartan con LoadShedException salvo
+// una muestra de lowSampleRate; los HIGH y MEDIUM nunca se descartan.
+// En modo ORDERED cada carril espera a su registro, así que el atraso real queda en los carriles y no en
+// esta cola: el servicio llama a admit() al entrar al carril, contando también ese atraso.
+@Slf4j
+@Component
+public class PredictionScheduler {
+
+    private static final ThreadLocal<ArrayDeque<Waiter>> DISPATCHING = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int shedQueueDepth;
+    private final double lowSampleRate;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Priority, ArrayDeque<Waiter>> queues = new EnumMap<>(Priority.class);
+    private int queued;
+    private int running;
+
+    private final Map<Priority, Timer> queueDelay = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+
+    public PredictionScheduler(PredictionSchedulerProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getMaxConcurrent() <= 0) {
+            throw new IllegalArgumentException("prediction.scheduler.max-concurrent debe ser > 0");
+        }
+        this.enabled = properties.isEnabled();
+        this.maxConcurrent = properties.getMaxConcurrent();
+        this.shedQueueDepth = properties.getShedQueueDepth();
+        this.lowSampleRate = properties.getLowSampleRate();
+
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            ArrayDeque<Waiter> queue = new ArrayDeque<>();
+            queues.put(priority, queue);
+            queueDelay.put(priority, Timer.builder("prediction.scheduler.queue.delay")
+                    .description("Espera en la cola del scheduler antes de llamar al modelo")
+                    .tag("priority", tag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+            shed.put(priority, Counter.builder("prediction.scheduler.shed")
+                    .description("Registros entregados sin puntuar por sobrecarga")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+            Gauge.builder("prediction.scheduler.queued", this, s -> s.queued(priority))
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // call se suscribe cuando le toca el turno; el turno se libera al terminar (valor, error o cancelación)
+    public Mono<PredictionResponse> schedule(Priority priority, Supplier<Mono<PredictionResponse>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(priority, call, sink, System.nanoTime());
+            sink.onCancel(waiter::cancel);
+            submit(waiter);
+        });
+    }
+
+    private void submit(Waiter waiter) {
+        boolean start = false;
+        boolean drop = false;
+        lock.lock();
+        try {
+            if (running < maxConcurrent && queued == 0) {
+                running++;
+                start = true;
+            } else if (shouldShed(waiter.priority, queued)) {
+                drop = true;
+            } else {
+                queues.get(waiter.priority).addLast(waiter);
+                queued++;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (start) {
+            dispatch(waiter);
+        } else if (drop) {
+            shed.get(waiter.priority).increment();
+            waiter.sink.error(new LoadShedException("ML overloaded, low-risk record shed"));
+        }
+    }
+
+    // Decide el descarte antes de que el registro entre a esta cola; backlog son los que esperan antes de llegar
+    // (p. ej. en los carriles de KeyOrderedExecutor). false significa descartado y ya contado en shed{priority}.
+    public boolean admit(Priority priority, int backlog) {
+        if (!enabled) {
+            return true;
+        }
+        int depth;
+        lock.lock();
+        try {
+            depth = queued;
+        } finally {
+            lock.unlock();
+        }
+        if (!shouldShed(priority, depth + backlog)) {
+            return true;
+        }
+        shed.get(priority).increment();
+        return false;
+    }
+
+    private boolean shouldShed(Priority priority, int depth) {
+        return priority == Priority.LOW && depth >= shedQueueDepth
+                && ThreadLocalRandom.current().nextDouble() >= lowSampleRate;
+    }
+
+    // Trampolín: si la llamada termina en el mismo hilo (p. ej. un acierto de la cache), release() no vuelve
+    // a entrar en run() recursivamente sino que deja el siguiente para este bucle
+    private void dispatch(Waiter waiter) {
+        ArrayDeque<Waiter> pending = DISPATCHING.get();
+        if (pending != null) {
+            pending.addLast(waiter);
+            return;
+        }
+        pending = new ArrayDeque<>();
+        DISPATCHING.set(pending);
+        try {
+            for (Waiter next = waiter; next != null; next = pending.pollFirst()) {
+                run(next);
+            }
+        } finally {
+            DISPATCHING.remove();
+        }
+    }
+
+    private void run(Waiter waiter) {
+        queueDelay.get(waiter.priority).record(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+        if (waiter.cancelled) {
+            release();
+            return;
+        }
+        Mono<PredictionResponse> call;
+        try {
+            call = waiter.call.get();
+        } catch (RuntimeException e) {
+            release();
+            waiter.sink.error(e);
+            return;
+        }
+        Disposable subscription = call
+                .doFinally(signal -> release())
+                .subscribe(waiter.sink::success, waiter.sink::error, waiter.sink::success);
+        waiter.sink.onDispose(subscription);
+    }
+
+    // El turno pasa al primero de la cola de mayor prioridad (los cancelados se saltean)
+    private void release() {
+        Waiter next = null;
+        lock.lock();
+        try {
+            while (next == null && queued > 0) {
+                for (Priority priority : Priority.values()) {
+                    Waiter head = queues.get(priority).pollFirst();
+                    if (head != null) {
+                        queued--;
+                        if (!head.cancelled) {
+                            next = head;
+                        }
+                        break;
+                    }
+                }
+            }
+            if (next == null) {
+                running--;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (next != null) {
+            dispatch(next);
+        }
+    }
+
+    public int queued(Priority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int running() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Waiter {
+        private final Priority priority;
+        private final Supplier<Mono<PredictionResponse>> call;
+        private final MonoSink<PredictionResponse> sink;
+        private final long enqueuedAt;
+        private volatile boolean cancelled;
+
+        Waiter(Priority priority, Supplier<Mono<PredictionResponse>> call, MonoSink<PredictionResponse> sink, long enqueuedAt) {
+            this.priority = priority;
+            this.call = call;
+            this.sink = sink;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.martin.stream_processor_service.scheduling;
+
+// En orden de atención: la cola HIGH se vacía antes de mirar MEDIUM y LOW
+public enum Priority {
+    HIGH,
+    MEDIUM,
+    LOW
+}
@@ -0,0 +1,43 @@
+package com.martin.stream_processor_service.scheduling;
+
+import com.martin.model.VehicleData;
+
+// Riesgo a priori de un registro, sin el modelo: unos puntos por señal y la suma decide la prioridad.
+//   speed > speedLimit: 2 (+1 por encima de 1.2x)   temperature > 100: 3 (> 90: 1)   battery < 20: 2
+//   weather "storm": 1   night: 1
+// HIGH desde 3 puntos, MEDIUM con 1 o 2, LOW sin ninguna señal.
+public final class RiskPrior {
+
+    private RiskPrior() {
+    }
+
+    public static int points(VehicleData data) {
+        int points = 0;
+        if (data.getSpeedLimit() > 0 && data.getSpeed() > data.getSpeedLimit()) {
+            points += data.getSpeed() > data.getSpeedLimit() * 1.2 ? 3 : 2;
+        }
+        if (data.getTemperature() > 100) {
+            points += 3;
+        } else if (data.getTemperature() > 90) {
+            points += 1;
+        }
+        if (data.getBattery() < 20) {
+            points += 2;
+        }
+        if ("storm".equals(data.getWeather())) {
+            points += 1;
+        }
+        if (data.isNight()) {
+            points += 1;
+        }
+        return points;
+    }
+
+    public static Priority classify(VehicleData data) {
+        int points = points(data);
+        if (points >= 3) {
+            return Priority.HIGH;
+        }
+        return points > 0 ? Priority.MEDIUM : Priority.LOW;
+    }
+}
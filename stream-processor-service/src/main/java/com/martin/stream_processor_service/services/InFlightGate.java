@@ -0,0 +1,72 @@
+package com.martin.stream_processor_service.services;
+
+import com.martin.stream_processor_service.config.StreamProcessingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Cuenta los registros en vuelo y pausa el listener de Kafka al llegar al máximo.
+// Los registros ya entregados por el poll en curso se siguen aceptando, por lo que el
+// pico real es maxInFlight + max.poll.records.
+@Slf4j
+@Component
+public class InFlightGate {
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final int maxInFlight;
+    private final int resumeInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean paused;
+
+    public InFlightGate(KafkaListenerEndpointRegistry registry,
+                        StreamProcessingProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.maxInFlight = properties.getMaxInFlight();
+        this.resumeInFlight = Math.min(properties.getResumeInFlight(), properties.getMaxInFlight() - 1);
+        Gauge.builder("stream.processor.in.flight", inFlight, AtomicInteger::get)
+                .description("Registros recibidos de Kafka cuyo procesamiento aún no terminó")
+                .register(meterRegistry);
+        Gauge.builder("stream.processor.paused", this, gate -> gate.paused ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public void acquire() {
+        if (inFlight.incrementAndGet() >= maxInFlight && !paused) {
+            updateState();
+        }
+    }
+
+    public void release() {
+        if (inFlight.decrementAndGet() <= resumeInFlight && paused) {
+            updateState();
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    // Se vuelve a leer el contador dentro del lock para no quedar pausados si todo terminó entre medio
+    private synchronized void updateState() {
+        int current = inFlight.get();
+        MessageListenerContainer container = registry.getListenerContainer(StreamProcessorService.LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+        if (!paused && current >= maxInFlight) {
+            container.pause();
+            paused = true;
+            log.warn("⏸️ {} registros en vuelo, pausando el consumo de Kafka", current);
+        } else if (paused && current <= resumeInFlight) {
+            container.resume();
+            paused = false;
+            log.info("▶️ {} registros en vuelo, reanudando el consumo de Kafka", current);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.martin.stream_processor_service.services;
+
+import com.martin.stream_processor_service.config.StreamProcessingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Modo ORDERED: los registros de cada partición se reparten en `lanes` carriles de un solo hilo según
+// hash(vehicleId). Vehículos distintos se procesan en paralelo (más allá de la cantidad de particiones)
+// y los de un mismo vehículo siempre en orden de llegada, porque caen en el mismo carril.
+@Slf4j
+@Component
+public class KeyOrderedExecutor {
+
+    private final ExecutorService[] lanes;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public KeyOrderedExecutor(StreamProcessingProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getMode() != StreamProcessingProperties.Mode.ORDERED) {
+            this.lanes = new ExecutorService[0];
+            return;
+        }
+        int count = properties.getLanes();
+        if (count <= 0) {
+            throw new IllegalArgumentException("stream.processor.lanes debe ser > 0");
+        }
+        ThreadFactory threads = properties.isVirtualThreads()
+                ? Thread.ofVirtual().name("processor-lane-", 0).factory()
+                : Thread.ofPlatform().daemon().name("processor-lane-", 0).factory();
+        this.lanes = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(threads);
+        }
+        Gauge.builder("stream.processor.lanes.queued", queued, AtomicInteger::get)
+                .description("Registros esperando su turno en un carril")
+                .register(meterRegistry);
+        log.info("✅ Procesamiento ORDERED con {} carriles ({} threads)", count, properties.isVirtualThreads() ? "virtual" : "platform");
+    }
+
+    public int lanes() {
+        return lanes.length;
+    }
+
+    // Registros esperando detrás del que ocupa su carril
+    public int queued() {
+        return queued.get();
+    }
+
+    // La tarea corre en el carril de la clave, detrás de las anteriores con la misma clave
+    public void execute(String key, Runnable task) {
+        queued.incrementAndGet();
+        lanes[lane(key)].execute(() -> {
+            queued.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("❌ Error en el carril de {}: {}", key, e.getMessage(), e);
+            }
+        });
+    }
+
+    int lane(String key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), lanes.length);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.martin.stream_processor_service.services;
+
+import com.martin.stream_processor_service.config.PipelineMetricsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Latencia por etapa de cada registro. Los percentiles los calcula Micrometer en proceso
+// (histograma HdrHistogram con ventana deslizante) y se leen en /actuator/metrics/stream.pipeline.stage.percentile.
+// Las etapas medidas contra el timestamp de Kafka dependen de que los relojes de productor y procesador estén sincronizados.
+@Component
+public class PipelineMetrics {
+
+    public enum Stage {
+        // Timestamp del registro en Kafka (CreateTime del productor) -> recibido por el listener
+        KAFKA,
+        // Entradas/salidas de geocercas (GeofenceTracker); sólo con stream.geofences.enabled=true
+        GEOFENCE,
+        // Ventana de estadísticas por vehículo (VehicleStatsStore); sólo con stream.stats.enabled=true
+        STATS,
+        // Fast-path de reglas (RuleEngine); sólo se mide con stream.rules.enabled=true
+        RULES,
+        // Llamada al modelo: cola del scheduler, batching, reintentos, HTTP y parseo de la respuesta
+        ML,
+        // Copiar el veredicto (anomaly, SCORED) sobre el mismo VehicleData, sin convertir el registro
+        ENRICH,
+        // Estado de la flota, historial, archivo, rollups e incidentes (en publishLate: estado, archivo e incidentes)
+        SINKS,
+        // Serializar y encolar en las sesiones WebSocket (o en el conflator)
+        FANOUT
+    }
+
+    public enum Outcome {
+        PROCESSED, RULE_FLAGGED, UNSCORED, SHED, SPILLED, DEAD_LETTERED, DEAD_LETTER_FAILED
+    }
+
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+    private final Timer endToEnd;
+
+    public PipelineMetrics(PipelineMetricsProperties properties, MeterRegistry meterRegistry) {
+        double[] percentiles = properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("stream.pipeline.stage")
+                    .description("Tiempo de cada registro en una etapa del pipeline")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(percentiles)
+                    .distributionStatisticExpiry(properties.getPercentileWindow())
+                    .register(meterRegistry));
+        }
+        this.endToEnd = Timer.builder("stream.pipeline.latency")
+                .description("Desde que el productor envió el registro a Kafka hasta que se entregó al fan-out WebSocket")
+                .publishPercentiles(percentiles)
+                .serviceLevelObjectives(properties.getLatencySlos().toArray(Duration[]::new))
+                .distributionStatisticExpiry(properties.getPercentileWindow())
+                .register(meterRegistry);
+
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("stream.pipeline.records")
+                    .description("Registros terminados por resultado")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    public void record(Stage stage, long startNanos) {
+        stages.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // producedAtMillis: timestamp del registro en Kafka; los valores negativos (relojes desfasados) cuentan como 0
+    public void recordSinceProduced(Stage stage, long producedAtMillis) {
+        stages.get(stage).record(Math.max(0, System.currentTimeMillis() - producedAtMillis), TimeUnit.MILLISECONDS);
+    }
+
+    public void recordEndToEnd(long producedAtMillis) {
+        endToEnd.record(Math.max(0, System.currentTimeMillis() - producedAtMillis), TimeUnit.MILLISECONDS);
+    }
+
+    public void count(Outcome outcome) {
+        outcomes.get(outcome).increment();
+    }
+}
@@ -1,15 +1,41 @@
 package com.martin.stream_processor_service.services;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.model.ScoreStatus;
 import com.martin.model.VehicleData;
-import com.martin.stream_processor_service.client.PredictionClient;
+import com.martin.stream_processor_service.archive.TelemetryArchive;
+import com.martin.stream_processor_service.client.AnomalyScorer;
+import com.martin.stream_processor_service.client.LoadShedException;
+import com.martin.stream_processor_service.client.ScoringUnavailableException;
+import com.martin.stream_processor_service.config.StreamProcessingProperties;
 import com.martin.stream_processor_service.config.TelemetryWebSocketHandler;
+import com.martin.stream_processor_service.geofence.Geofences;
+import com.martin.stream_processor_service.history.VehicleHistoryStore;
+import com.martin.stream_processor_service.incident.Incidents;
 import com.martin.stream_processor_service.model.dto.PredictionRequest;
 import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import com.martin.stream_processor_service.rollup.FleetRollups;
+import com.martin.stream_processor_service.rules.RuleEngine;
+import com.martin.stream_processor_service.scheduling.PredictionScheduler;
+import com.martin.stream_processor_service.scheduling.Priority;
+import com.martin.stream_processor_service.scheduling.RiskPrior;
+import com.martin.stream_processor_service.services.PipelineMetrics.Outcome;
+import com.martin.stream_processor_service.services.PipelineMetrics.Stage;
+import com.martin.stream_processor_service.spill.InferenceSpill;
+import com.martin.stream_processor_service.state.FleetStateStore;
+import com.martin.stream_processor_service.stats.VehicleStatsStore;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.retry.Retry;
 
 
 @Slf4j
@@ -17,38 +43,242 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class StreamProcessorService {
 
-    private final PredictionClient predictionClient;
+    public static final String LISTENER_ID = "vehicle-telemetry-listener";
+
+    private final AnomalyScorer anomalyScorer;
+    private final PredictionScheduler predictionScheduler;
+    private final RuleEngine ruleEngine;
+    private final VehicleStatsStore statsStore;
+    private final Geofences geofences;
     private final TelemetryWebSocketHandler wsHandler;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final FleetStateStore stateStore;
+    private final VehicleHistoryStore historyStore;
+    private final TelemetryArchive archive;
+    private final FleetRollups rollups;
+    private final Incidents incidents;
+    private final InFlightGate inFlightGate;
+    private final KeyOrderedExecutor lanes;
+    private final InferenceSpill spill;
+    private final PipelineMetrics metrics;
+    private final StreamProcessingProperties properties;
+    private final KafkaTemplate<String, VehicleData> kafkaTemplate;
+
+    @PostConstruct
+    void startSpillDrain() {
+        spill.start(this::rescore);
+    }
+
+    @KafkaListener(id = LISTENER_ID, topics = "vehicle-telemetry", groupId = "vehicle-processor-group")
+    public void consumeVehicleData(VehicleData data, Acknowledgment ack,
+                                   @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long producedAt) {
+        metrics.recordSinceProduced(Stage.KAFKA, producedAt);
+
+        if (properties.getMode() == StreamProcessingProperties.Mode.FIRE_AND_FORGET) {
+            ack.acknowledge();
+            process(data, producedAt, true).subscribe();
+            return;
+        }
+
+        // El offset se confirma cuando el registro fue enviado al WebSocket (o al DLT si falló)
+        inFlightGate.acquire();
+        if (properties.getMode() == StreamProcessingProperties.Mode.ORDERED) {
+            // El atraso está en los carriles y no llega a la cola del scheduler: el descarte se decide acá,
+            // pero el registro igual pasa por su carril para no adelantarse a los anteriores del vehículo
+            boolean admitted = predictionScheduler.admit(RiskPrior.classify(data), lanes.queued());
+            // El carril espera a que termine el registro antes de tomar el siguiente del mismo vehículo
+            lanes.execute(data.getVehicleId(), () -> {
+                try {
+                    // process() ya resuelve sus errores: si block() lanza es porque el carril fue interrumpido y no se confirma
+                    process(data, producedAt, admitted).block();
+                    ack.acknowledge();
+                } finally {
+                    inFlightGate.release();
+                }
+            });
+            return;
+        }
+        process(data, producedAt, true)
+                .doFinally(signal -> {
+                    inFlightGate.release();
+                    // Cancelado (p. ej. al apagar) no cuenta como procesado: el offset queda para el próximo consumidor
+                    if (signal != SignalType.CANCEL) {
+                        ack.acknowledge();
+                    }
+                })
+                .subscribe();
+    }
+
+    // admitted == false: descartado por sobrecarga antes del carril; se publica sin puntuar después de las reglas
+    private Mono<Void> process(VehicleData data, long producedAt, boolean admitted) {
+        // Sólo depende de la posición: las entradas/salidas salen aunque el modelo no responda
+        if (geofences.isEnabled()) {
+            long geofenceStart = System.nanoTime();
+            geofences.update(data);
+            metrics.record(Stage.GEOFENCE, geofenceStart);
+        }
+
+        // Ventana por vehículo antes de las reglas, así pueden usar tendencias (RuleField.TEMPERATURE_EWMA, HARSH_BRAKINGS...)
+        if (statsStore.isEnabled()) {
+            long statsStart = System.nanoTime();
+            data.setStats(statsStore.update(data));
+            metrics.record(Stage.STATS, statsStart);
+        }
 
-    @KafkaListener(topics = "vehicle-telemetry", groupId = "vehicle-processor-group")
-    public void consumeVehicleData(VehicleData data) {
+        // Anomalías evidentes (reglas de umbral): se publican ya, sin esperar al modelo
+        if (ruleEngine.isEnabled()) {
+            long rulesStart = System.nanoTime();
+            int rule = ruleEngine.match(data);
+            metrics.record(Stage.RULES, rulesStart);
+            if (rule != RuleEngine.NO_MATCH) {
+                return Mono.<Void>fromRunnable(() -> publishFlagged(data, ruleEngine.name(rule), producedAt))
+                        .onErrorResume(error -> {
+                            log.error("❌ Could not publish flagged vehicle {}: {}", data.getVehicleId(), error.getMessage());
+                            return deadLetter(data);
+                        });
+            }
+        }
+
+        if (!admitted) {
+            return Mono.fromRunnable(() -> publishUnscored(data, producedAt, Outcome.SHED));
+        }
 
         PredictionRequest request = PredictionRequest.fromVehicleData(data);
 
-        predictionClient.predict(request)
-                .subscribe(
-                        response -> {
-                            try {
-                                PredictionResponse predictionResponse = mapper.readValue(response, PredictionResponse.class);
-                                VehicleData vehicleData = mapper.convertValue(predictionResponse.getInput(), VehicleData.class);
-
-                                // Copy missing fields from the original data
-                                vehicleData.setVehicleId(data.getVehicleId());
-                                vehicleData.setTimestamp(data.getTimestamp());
-                                vehicleData.setWeather(data.getWeather());
-                                vehicleData.setRoadType(data.getRoadType());
-                                vehicleData.setAnomaly(predictionResponse.isAnomaly());
-                                vehicleData.setAnomalyType(data.getAnomalyType());
-
-                                wsHandler.sendTelemetry(vehicleData);
-                            } catch (Exception e) {
-                                log.error("❌ Failed to parse response to VehicleData: {}", e.getMessage());
-                            }
-                        },
-                        error -> log.error("❌ ML error vehicle {}: {}", data.getVehicleId(), error.getMessage())
-                );
+        // Con el scheduler activo el registro espera su turno según su riesgo a priori (incluido en la etapa ML)
+        return Mono.defer(() -> {
+                    long mlStart = System.nanoTime();
+                    return predictionScheduler.schedule(RiskPrior.classify(data), () -> anomalyScorer.predict(request)
+                                    .retryWhen(Retry.backoff(properties.getMaxAttempts() - 1L, properties.getRetryBackoff())
+                                            .filter(error -> !(error instanceof DecodingException || error instanceof ScoringUnavailableException))
+                                            .onRetryExhaustedThrow((spec, signal) -> signal.failure())))
+                            .doOnNext(predictionResponse -> metrics.record(Stage.ML, mlStart));
+                })
+                .doOnNext(predictionResponse -> {
+                    long enrichStart = System.nanoTime();
+                    VehicleData enriched = enrich(data, predictionResponse);
+                    metrics.record(Stage.ENRICH, enrichStart);
+                    publish(enriched, predictionResponse.getReconstructionError());
+                    metrics.recordEndToEnd(producedAt);
+                    metrics.count(Outcome.PROCESSED);
+                })
+                .then()
+                .onErrorResume(error -> {
+                    // Descartado a propósito por sobrecarga (bajo riesgo): sin puntuar y sin DLT
+                    if (error instanceof LoadShedException) {
+                        publishUnscored(data, producedAt, Outcome.SHED);
+                        return Mono.empty();
+                    }
+                    // Circuito abierto, sin cupo en el limiter o error tras los reintentos: se entrega sin puntuar,
+                    // así todos los sinks lo cuentan una vez, y va a puntuarse más tarde
+                    if (error instanceof ScoringUnavailableException) {
+                        log.debug("Vehicle {} sin puntuar: {}", data.getVehicleId(), error.getMessage());
+                    } else {
+                        log.error("❌ ML error vehicle {}: {}", data.getVehicleId(), error.getMessage());
+                    }
+                    publishUnscored(data, producedAt, Outcome.UNSCORED);
+                    return scoreLater(data);
+                });
+    }
+
+    // Con stream.spill.enabled el registro espera en disco a que vuelva el modelo; si no (o si la cola está llena), al DLT
+    private Mono<Void> scoreLater(VehicleData data) {
+        if (spill.offer(data)) {
+            metrics.count(Outcome.SPILLED);
+            return Mono.empty();
+        }
+        return deadLetter(data);
     }
-}
 
+    // Drainer de InferenceSpill: como prioridad LOW para no quitarle turnos al tráfico en vivo.
+    // Sólo se publica el veredicto tardío (publishLate), no pasa de nuevo por todos los sinks.
+    private Mono<Void> rescore(VehicleData data) {
+        PredictionRequest request = PredictionRequest.fromVehicleData(data);
+        return predictionScheduler.schedule(Priority.LOW, () -> anomalyScorer.predict(request))
+                .doOnNext(predictionResponse -> publishLate(enrich(data, predictionResponse), predictionResponse.getReconstructionError()))
+                .then();
+    }
 
+    private void publish(VehicleData enriched, double reconstructionError) {
+        long sinksStart = System.nanoTime();
+        stateStore.update(enriched);
+        historyStore.record(enriched);
+        archive.append(enriched, reconstructionError);
+        rollups.record(enriched);
+        incidents.record(enriched);
+        metrics.record(Stage.SINKS, sinksStart);
+
+        long fanOutStart = System.nanoTime();
+        wsHandler.sendTelemetry(enriched);
+        metrics.record(Stage.FANOUT, fanOutStart);
+    }
+
+    // Un registro re-puntuado desde el spill ya es viejo: historial y rollups lo contaron como UNSCORED y no lo
+    // vuelven a recibir. Va al archivo, a incidentes sólo si no es más viejo que lo que ya vio el vehículo
+    // (recordLate), y al estado y al WebSocket sólo si sigue siendo su última lectura (reemplaza al UNSCORED).
+    private void publishLate(VehicleData enriched, double reconstructionError) {
+        long sinksStart = System.nanoTime();
+        boolean latest = stateStore.update(enriched);
+        archive.append(enriched, reconstructionError);
+        incidents.recordLate(enriched);
+        metrics.record(Stage.SINKS, sinksStart);
+
+        if (latest) {
+            long fanOutStart = System.nanoTime();
+            wsHandler.sendTelemetry(enriched);
+            metrics.record(Stage.FANOUT, fanOutStart);
+        }
+    }
+
+    // Camino degradado: sin veredicto del modelo el registro igual llega a los dashboards, marcado UNSCORED.
+    // Salvo los descartados por el scheduler (SHED), también va a puntuarse más tarde (scoreLater).
+    private void publishUnscored(VehicleData data, long producedAt, Outcome outcome) {
+        try {
+            publish(unscored(data), Double.NaN);
+            metrics.recordEndToEnd(producedAt);
+            metrics.count(outcome);
+        } catch (RuntimeException e) {
+            log.error("❌ Could not publish unscored vehicle {}: {}", data.getVehicleId(), e.getMessage());
+        }
+    }
+
+    private void publishFlagged(VehicleData data, String anomalyType, long producedAt) {
+        publish(flagged(data, anomalyType), Double.NaN);
+        metrics.recordEndToEnd(producedAt);
+        metrics.count(Outcome.RULE_FLAGGED);
+    }
+
+    private static VehicleData flagged(VehicleData data, String anomalyType) {
+        return data.toBuilder()
+                .anomaly(true)
+                .anomalyType(anomalyType)
+                .scoreStatus(ScoreStatus.RULE)
+                .build();
+    }
+
+    private static VehicleData unscored(VehicleData data) {
+        return data.toBuilder()
+                .anomaly(false)
+                .scoreStatus(ScoreStatus.UNSCORED)
+                .build();
+    }
+
+    // Package-private para PredictionPathBenchmark (módulo benchmarks).
+    // El registro original se enriquece en el lugar: sólo cambian el veredicto y el estado, sin una segunda copia.
+    static VehicleData enrich(VehicleData data, PredictionResponse predictionResponse) {
+        data.setAnomaly(predictionResponse.isAnomaly());
+        data.setScoreStatus(ScoreStatus.SCORED);
+        return data;
+    }
+
+    // Los registros que no se pudieron procesar no se pierden: van al DLT para reprocesarlos
+    private Mono<Void> deadLetter(VehicleData data) {
+        return Mono.fromFuture(() -> kafkaTemplate.send(properties.getDeadLetterTopic(), data.getVehicleId(), data))
+                .doOnSuccess(result -> metrics.count(Outcome.DEAD_LETTERED))
+                .then()
+                .onErrorResume(error -> {
+                    metrics.count(Outcome.DEAD_LETTER_FAILED);
+                    log.error("❌ Could not send vehicle {} to {}: {}", data.getVehicleId(), properties.getDeadLetterTopic(), error.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,237 @@
+package com.martin.stream_processor_service.spill;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.client.ScoringUnavailableException;
+import com.martin.stream_processor_service.config.SpillProperties;
+import com.martin.stream_processor_service.config.StreamProcessingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+// Registros pendientes de inferencia en disco (SpillQueue) y el hilo que los vuelve a puntuar.
+// El drainer toma tandas de drainBatch registros y las manda al modelo con rescore (StreamProcessorService):
+// - todas sin modelo (circuito abierto, sin cupo, timeout): la tanda vuelve a la cola y se espera con backoff
+// - las que salieron bien se publican; las demás se reencolan al final (o al DLT tras maxAttempts errores)
+@Slf4j
+@Component
+public class InferenceSpill {
+
+    private final SpillProperties properties;
+    private final StreamProcessingProperties processingProperties;
+    private final KafkaTemplate<String, VehicleData> kafkaTemplate;
+    private final SpillQueue queue;
+    private final Counter spilled;
+    private final Counter overflowed;
+    private final Counter drained;
+    private final Counter retried;
+    private final Counter deadLettered;
+    private Function<VehicleData, Mono<Void>> rescore;
+    private Thread drainer;
+    private volatile boolean running;
+
+    public InferenceSpill(SpillProperties properties, StreamProcessingProperties processingProperties,
+                          KafkaTemplate<String, VehicleData> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.processingProperties = processingProperties;
+        this.kafkaTemplate = kafkaTemplate;
+        this.spilled = Counter.builder("stream.spill.spilled")
+                .description("Registros sin puntuar guardados en la cola en disco")
+                .register(meterRegistry);
+        this.overflowed = Counter.builder("stream.spill.overflowed")
+                .description("Registros que fueron al DLT porque la cola estaba llena")
+                .register(meterRegistry);
+        this.drained = Counter.builder("stream.spill.drained")
+                .description("Registros de la cola puntuados y publicados")
+                .register(meterRegistry);
+        this.retried = Counter.builder("stream.spill.retried")
+                .description("Registros reencolados tras un error del modelo")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("stream.spill.dead_lettered")
+                .description("Registros de la cola enviados al DLT tras stream.spill.max-attempts errores")
+                .register(meterRegistry);
+
+        if (!properties.isEnabled()) {
+            this.queue = null;
+            return;
+        }
+        if (properties.getDrainBatch() <= 0 || properties.getMaxAttempts() <= 0) {
+            throw new IllegalArgumentException("stream.spill.drain-batch y stream.spill.max-attempts deben ser > 0");
+        }
+        this.queue = new SpillQueue(Paths.get(properties.getDirectory()),
+                properties.getSegmentSize().toBytes(), properties.getMaxSize().toBytes());
+        Gauge.builder("stream.spill.depth", queue, SpillQueue::pending)
+                .description("Registros esperando en la cola en disco")
+                .register(meterRegistry);
+        FunctionCounter.builder("stream.spill.skipped", queue, SpillQueue::skipped)
+                .description("Registros ilegibles de la cola que se descartaron")
+                .register(meterRegistry);
+        Gauge.builder("stream.spill.bytes", queue, SpillQueue::bytes)
+                .description("Tamaño en disco de los segmentos de la cola")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        log.info("✅ Cola de inferencia en {} ({} registros pendientes)",
+                Paths.get(properties.getDirectory()).toAbsolutePath(), queue.pending());
+    }
+
+    public boolean isEnabled() {
+        return queue != null;
+    }
+
+    // false con la cola desactivada o llena: el registro sigue yendo al DLT
+    public boolean offer(VehicleData data) {
+        if (queue == null) {
+            return false;
+        }
+        if (queue.offer(data, 0)) {
+            spilled.increment();
+            return true;
+        }
+        if (overflowed.count() == 0) {
+            log.warn("⏸️ Cola de inferencia llena ({}), los registros vuelven al DLT", properties.getMaxSize());
+        }
+        overflowed.increment();
+        return false;
+    }
+
+    // StreamProcessorService pasa cómo puntuar y publicar un registro; recién ahí arranca el drainer
+    public synchronized void start(Function<VehicleData, Mono<Void>> rescore) {
+        if (queue == null || running) {
+            return;
+        }
+        this.rescore = rescore;
+        running = true;
+        drainer = new Thread(this::drainLoop, "inference-spill");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    private void drainLoop() {
+        long initialBackoff = properties.getRetryBackoff().toMillis();
+        long backoff = initialBackoff;
+        while (running) {
+            try {
+                List<SpillQueue.Spilled> batch = queue.poll(properties.getDrainBatch());
+                if (batch.isEmpty()) {
+                    Thread.sleep(100);
+                    continue;
+                }
+                if (drain(batch)) {
+                    backoff = initialBackoff;
+                } else {
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, properties.getMaxRetryBackoff().toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                queue.rewind();
+                if (!running) {
+                    return;
+                }
+                log.error("❌ Error vaciando la cola de inferencia: {}", e.getMessage(), e);
+                // Mismo backoff que con el modelo caído: un error que se repite no gira en un bucle caliente
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, properties.getMaxRetryBackoff().toMillis());
+            }
+        }
+    }
+
+    // true si hubo progreso (algo se publicó o se resolvió); false si el modelo sigue sin responder
+    boolean drain(List<SpillQueue.Spilled> batch) {
+        List<Optional<Throwable>> results = Flux.fromIterable(batch)
+                .flatMapSequential(spilled -> rescore.apply(spilled.data())
+                        .timeout(properties.getDrainTimeout())
+                        .thenReturn(Optional.<Throwable>empty())
+                        .onErrorResume(error -> Mono.just(Optional.of(error))), batch.size())
+                .collectList()
+                .block();
+
+        List<SpillQueue.Spilled> later = new ArrayList<>();
+        int succeeded = 0;
+        boolean progress = false;
+        for (int i = 0; i < batch.size(); i++) {
+            SpillQueue.Spilled spilled = batch.get(i);
+            Throwable error = results.get(i).orElse(null);
+            if (error == null) {
+                succeeded++;
+            } else if (isUnavailable(error)) {
+                later.add(spilled);
+            } else if (spilled.attempts() + 1 >= properties.getMaxAttempts()) {
+                log.error("❌ Vehicle {} sin puntuar tras {} intentos: {}", spilled.data().getVehicleId(),
+                        properties.getMaxAttempts(), error.getMessage());
+                deadLettered.increment();
+                deadLetter(spilled.data());
+                progress = true;
+            } else {
+                later.add(new SpillQueue.Spilled(spilled.data(), spilled.attempts() + 1));
+                retried.increment();
+                progress = true;
+            }
+        }
+
+        if (succeeded == 0 && !progress) {
+            // El modelo sigue caído: nada se reescribe, la misma tanda se vuelve a intentar
+            queue.rewind();
+            return false;
+        }
+        for (SpillQueue.Spilled spilled : later) {
+            if (!queue.offer(spilled.data(), spilled.attempts())) {
+                overflowed.increment();
+                deadLetter(spilled.data());
+            }
+        }
+        drained.increment(succeeded);
+        queue.commit();
+        return later.isEmpty();
+    }
+
+    private static boolean isUnavailable(Throwable error) {
+        return error instanceof ScoringUnavailableException || error instanceof TimeoutException;
+    }
+
+    private void deadLetter(VehicleData data) {
+        kafkaTemplate.send(processingProperties.getDeadLetterTopic(), data.getVehicleId(), data)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.error("❌ Could not send vehicle {} to {}: {}", data.getVehicleId(),
+                                processingProperties.getDeadLetterTopic(), error.getMessage());
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        if (drainer != null) {
+            drainer.interrupt();
+            try {
+                drainer.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (queue != null) {
+            queue.close();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.martin.stream_processor_service.spill;
+
+import com.martin.model.VehicleData;
+import com.martin.model.codec.VehicleDataCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Cola FIFO append-only en segmentos mapeados en memoria (SpillSegment). En el heap sólo quedan los
+// descriptores de los segmentos, así que una caída del modelo de cualquier duración no hace crecer la memoria.
+//
+// poll() avanza un cursor de lectura en memoria; commit() lo persiste en el checkpoint y borra los segmentos
+// ya leídos, rewind() lo devuelve al último commit. Si el proceso cae entre poll() y commit() la tanda se
+// vuelve a leer al arrancar (al menos una vez). Escritura y lectura comparten el monitor de la cola.
+@Slf4j
+public class SpillQueue implements AutoCloseable {
+
+    public record Spilled(VehicleData data, int attempts) {
+    }
+
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final List<SpillSegment> segments = new ArrayList<>();
+    private final MappedByteBuffer checkpoint;
+    private long nextSequence;
+    // Cursor confirmado: segments.get(0) en committedPosition
+    private int committedPosition;
+    private int readIndex;
+    private int readPosition;
+    // Registros desde el cursor confirmado (incluye los de la tanda sin confirmar)
+    private long pending;
+    private int polled;
+    // Frames ilegibles salteados; cada uno se cuenta una vez aunque se relea tras un rewind()
+    private long skipped;
+    private long skippedSequence = -1;
+    private int skippedPosition;
+
+    public SpillQueue(Path directory, long segmentSize, long maxSize) {
+        if (segmentSize > Integer.MAX_VALUE || SpillSegment.maxPayload((int) segmentSize) < 1024) {
+            throw new IllegalArgumentException("stream.spill.segment-size debe estar entre 2KB y 2GB");
+        }
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize;
+        this.maxSegments = (int) Math.max(2, maxSize / segmentSize);
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(directory.resolve(CHECKPOINT),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                this.checkpoint = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES + Integer.BYTES);
+            }
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir la cola en " + directory, e);
+        }
+    }
+
+    private void recover() throws IOException {
+        long committedSequence = checkpoint.getLong(0);
+        int position = checkpoint.getInt(Long.BYTES);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".spill")).sorted().toList()) {
+                SpillSegment segment = SpillSegment.open(file);
+                nextSequence = Math.max(nextSequence, segment.sequence() + 1);
+                // Leído por completo antes de la caída (el checkpoint se escribe antes de borrar)
+                if (segment.sequence() < committedSequence) {
+                    segment.delete();
+                } else {
+                    segments.add(segment);
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add(SpillSegment.create(directory, nextSequence++, segmentSize));
+        }
+        committedPosition = segments.get(0).sequence() == committedSequence && position >= SpillSegment.HEADER_SIZE
+                ? position : SpillSegment.HEADER_SIZE;
+        rewind();
+        while (next() != null) {
+            pending++;
+        }
+        rewind();
+    }
+
+    // false si el registro no entra (cola llena); el llamador decide a dónde va
+    public synchronized boolean offer(VehicleData data, int attempts) {
+        byte[] payload = VehicleDataCodec.encode(data);
+        if (payload.length > SpillSegment.maxPayload(segmentSize)) {
+            return false;
+        }
+        SpillSegment tail = segments.get(segments.size() - 1);
+        if (!tail.append(payload, attempts)) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            tail.seal();
+            tail = SpillSegment.create(directory, nextSequence++, segmentSize);
+            segments.add(tail);
+            tail.append(payload, attempts);
+        }
+        pending++;
+        return true;
+    }
+
+    // Hasta max registros a partir del cursor de lectura, sin confirmar
+    public synchronized List<Spilled> poll(int max) {
+        List<Spilled> batch = new ArrayList<>(Math.min(max, 1024));
+        while (batch.size() < max) {
+            Spilled spilled = next();
+            if (spilled == null) {
+                break;
+            }
+            batch.add(spilled);
+        }
+        polled += batch.size();
+        return batch;
+    }
+
+    public synchronized void commit() {
+        pending -= polled;
+        polled = 0;
+        committedPosition = readPosition;
+        SpillSegment current = segments.get(readIndex);
+        checkpoint.putLong(0, current.sequence()).putInt(Long.BYTES, committedPosition);
+        for (; readIndex > 0; readIndex--) {
+            try {
+                segments.remove(0).delete();
+            } catch (IOException e) {
+                log.error("❌ No se pudo borrar un segmento de la cola: {}", e.getMessage());
+            }
+        }
+    }
+
+    public synchronized void rewind() {
+        readIndex = 0;
+        readPosition = committedPosition;
+        polled = 0;
+    }
+
+    public synchronized long pending() {
+        return pending;
+    }
+
+    public synchronized long skipped() {
+        return skipped;
+    }
+
+    public synchronized long bytes() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    private Spilled next() {
+        while (true) {
+            SpillSegment segment = segments.get(readIndex);
+            int length = segment.lengthAt(readPosition);
+            if (length > 0) {
+                int position = readPosition;
+                readPosition += SpillSegment.FRAME_HEADER + length;
+                try {
+                    return new Spilled(VehicleDataCodec.decode(segment.payloadAt(position, length)), segment.attemptsAt(position));
+                } catch (RuntimeException e) {
+                    // Cualquier falla, no sólo SerializationException: un frame que siempre falla trabaría la cola
+                    skip(segment.sequence(), position, length, e);
+                    continue;
+                }
+            }
+            // Fin de lo escrito en el segmento de escritura
+            if (readIndex + 1 >= segments.size()) {
+                return null;
+            }
+            readIndex++;
+            readPosition = SpillSegment.HEADER_SIZE;
+        }
+    }
+
+    private void skip(long sequence, int position, int length, RuntimeException error) {
+        if (sequence < skippedSequence || (sequence == skippedSequence && position <= skippedPosition)) {
+            return;
+        }
+        skippedSequence = sequence;
+        skippedPosition = position;
+        skipped++;
+        log.error("❌ Registro ilegible en la cola ({} bytes), se saltea: {}", length, error.toString());
+    }
+
+    @Override
+    public synchronized void close() {
+        segments.forEach(SpillSegment::force);
+        checkpoint.force();
+    }
+}
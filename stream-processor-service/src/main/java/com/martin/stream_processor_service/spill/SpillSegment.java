@@ -0,0 +1,129 @@
+package com.martin.stream_processor_service.spill;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Un segmento de la cola: cabecera de 16 bytes y frames [longitud (int)][intentos (byte)][VehicleDataCodec].
+// El escritor pone primero el contenido y por último la longitud: un frame con longitud 0 todavía no existe,
+// así que tras una caída el segmento termina en el último frame completo. END marca un segmento cerrado.
+//
+// Cabecera: magic (int), versión (short), reservado (short), secuencia (long).
+final class SpillSegment {
+
+    static final int HEADER_SIZE = 16;
+    static final int FRAME_HEADER = Integer.BYTES + 1;
+    static final int END = -1;
+
+    private static final int MAGIC = 0x464C5453; // "FLTS"
+    private static final short VERSION = 1;
+
+    private final Path path;
+    private final long sequence;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+
+    private SpillSegment(Path path, long sequence, MappedByteBuffer buffer, int writePosition) {
+        this.path = path;
+        this.sequence = sequence;
+        this.buffer = buffer;
+        this.writePosition = writePosition;
+    }
+
+    static SpillSegment create(Path directory, long sequence, int size) {
+        Path path = directory.resolve(String.format("%020d.spill", sequence));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC)
+                    .putShort(4, VERSION)
+                    .putLong(8, sequence);
+            return new SpillSegment(path, sequence, buffer, HEADER_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el segmento " + path, e);
+        }
+    }
+
+    // Abre un segmento existente y ubica el final de lo escrito
+    static SpillSegment open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("No es un segmento de la cola: " + path);
+            }
+            if (buffer.getShort(4) != VERSION) {
+                throw new IOException("Versión de segmento no soportada: " + path);
+            }
+            SpillSegment segment = new SpillSegment(path, buffer.getLong(8), buffer, HEADER_SIZE);
+            int position = HEADER_SIZE;
+            int length;
+            while ((length = segment.lengthAt(position)) > 0) {
+                position += FRAME_HEADER + length;
+            }
+            segment.writePosition = position;
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    // Siempre deja lugar para la marca END
+    static int maxPayload(int segmentSize) {
+        return segmentSize - HEADER_SIZE - FRAME_HEADER - Integer.BYTES;
+    }
+
+    // false si el frame no entra; el llamador cierra el segmento y abre otro
+    boolean append(byte[] payload, int attempts) {
+        int position = writePosition;
+        if (position + FRAME_HEADER + payload.length + Integer.BYTES > buffer.capacity()) {
+            return false;
+        }
+        buffer.put(position + Integer.BYTES, (byte) Math.min(attempts, Byte.MAX_VALUE));
+        buffer.put(position + FRAME_HEADER, payload);
+        buffer.putInt(position, payload.length);
+        writePosition = position + FRAME_HEADER + payload.length;
+        return true;
+    }
+
+    void seal() {
+        buffer.putInt(writePosition, END);
+    }
+
+    // Longitud del frame en position: 0 = no hay más por ahora, END = segmento cerrado.
+    // Una longitud imposible (archivo dañado) se toma como fin del segmento.
+    int lengthAt(int position) {
+        if (position + FRAME_HEADER > buffer.capacity()) {
+            return END;
+        }
+        int length = buffer.getInt(position);
+        if (length > buffer.capacity() - position - FRAME_HEADER || length < END) {
+            return END;
+        }
+        return length;
+    }
+
+    int attemptsAt(int position) {
+        return buffer.get(position + Integer.BYTES);
+    }
+
+    byte[] payloadAt(int position, int length) {
+        byte[] payload = new byte[length];
+        buffer.get(position + FRAME_HEADER, payload);
+        return payload;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
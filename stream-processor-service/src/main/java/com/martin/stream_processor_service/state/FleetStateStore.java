@@ -0,0 +1,213 @@
+package com.martin.stream_processor_service.state;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.FleetStateProperties;
+import com.martin.stream_processor_service.geo.GeoGrid;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Último estado enriquecido de cada vehículo, con índice espacial por celdas y conjunto de anómalos.
+// Las escrituras de un mismo vehículo se serializan con compute() (lock por bucket del ConcurrentHashMap);
+// las lecturas nunca bloquean y validan contra el estado vigente, así un vehículo que se está moviendo
+// de celda no aparece dos veces.
+@Component
+public class FleetStateStore {
+
+    private record Entry(VehicleData data, long cell) {
+    }
+
+    private final Map<String, Entry> latest = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> cells = new ConcurrentHashMap<>();
+    private final Set<String> anomalous = ConcurrentHashMap.newKeySet();
+    private final GeoGrid grid;
+    private final int maxResults;
+
+    public FleetStateStore(FleetStateProperties properties, MeterRegistry meterRegistry) {
+        this.grid = new GeoGrid(properties.getCellSizeDegrees());
+        this.maxResults = properties.getMaxResults();
+        Gauge.builder("stream.state.vehicles", latest, Map::size).register(meterRegistry);
+        Gauge.builder("stream.state.anomalous", anomalous, Set::size).register(meterRegistry);
+    }
+
+    // true si el registro quedó como estado actual del vehículo (no era más viejo que el guardado)
+    public boolean update(VehicleData data) {
+        String id = data.getVehicleId();
+        if (id == null) {
+            return false;
+        }
+        long cell = grid.cellKey(data.getLatitude(), data.getLongitude());
+
+        Entry current = latest.compute(id, (key, previous) -> {
+            // Registros atrasados (reintentos, particiones) no pisan un estado más nuevo
+            if (previous != null && isOlder(data, previous.data())) {
+                return previous;
+            }
+            if (previous == null || previous.cell() != cell) {
+                addToCell(cell, id);
+                if (previous != null) {
+                    removeFromCell(previous.cell(), id);
+                }
+            }
+            if (data.isAnomaly()) {
+                anomalous.add(id);
+            } else {
+                anomalous.remove(id);
+            }
+            return new Entry(data, cell);
+        });
+        return current.data() == data;
+    }
+
+    public Optional<VehicleData> get(String vehicleId) {
+        Entry entry = latest.get(vehicleId);
+        return entry == null ? Optional.empty() : Optional.of(entry.data());
+    }
+
+    public int size() {
+        return latest.size();
+    }
+
+    public int anomalousCount() {
+        return anomalous.size();
+    }
+
+    public List<VehicleData> anomalous(int limit) {
+        int max = cap(limit);
+        List<VehicleData> result = new ArrayList<>();
+        for (String id : anomalous) {
+            if (result.size() >= max) {
+                break;
+            }
+            Entry entry = latest.get(id);
+            if (entry != null && entry.data().isAnomaly()) {
+                result.add(entry.data());
+            }
+        }
+        return result;
+    }
+
+    public List<VehicleData> withinBounds(double minLat, double maxLat, double minLon, double maxLon, int limit) {
+        checkLatitude(minLat);
+        checkLatitude(maxLat);
+        checkLongitude(minLon);
+        checkLongitude(maxLon);
+        if (minLat > maxLat || minLon > maxLon) {
+            throw new IllegalArgumentException("bounds inválido: el mínimo es mayor que el máximo");
+        }
+        List<VehicleData> result = new ArrayList<>();
+        scan(minLat, maxLat, minLon, maxLon, cap(limit), result,
+                data -> data.getLatitude() >= minLat && data.getLatitude() <= maxLat
+                        && data.getLongitude() >= minLon && data.getLongitude() <= maxLon);
+        return result;
+    }
+
+    public List<VehicleData> withinRadius(double lat, double lon, double radiusKm, int limit) {
+        checkLatitude(lat);
+        checkLongitude(lon);
+        if (!(radiusKm >= 0) || Double.isInfinite(radiusKm)) {
+            throw new IllegalArgumentException("radiusKm debe ser >= 0");
+        }
+        double dLat = GeoGrid.latDegrees(radiusKm);
+        double dLon = GeoGrid.lonDegrees(radiusKm, lat);
+        List<VehicleData> result = new ArrayList<>();
+        // El rectángulo se recorta al mundo; no da la vuelta por el antimeridiano
+        scan(Math.max(-90, lat - dLat), Math.min(90, lat + dLat), Math.max(-180, lon - dLon), Math.min(180, lon + dLon), cap(limit), result,
+                data -> GeoGrid.distanceKm(lat, lon, data.getLatitude(), data.getLongitude()) <= radiusKm);
+        return result;
+    }
+
+    private interface Filter {
+        boolean accept(VehicleData data);
+    }
+
+    // Recorre las celdas del rectángulo; si son más que las celdas ocupadas, recorre las ocupadas.
+    // Así el costo queda acotado por min(celdas del rectángulo, celdas ocupadas) sea cual sea la consulta.
+    private void scan(double minLat, double maxLat, double minLon, double maxLon, int max,
+                      List<VehicleData> result, Filter filter) {
+        long minX = grid.cell(minLat);
+        long maxX = grid.cell(maxLat);
+        long minY = grid.cell(minLon);
+        long maxY = grid.cell(maxLon);
+
+        if (grid.cellCount(minLat, maxLat, minLon, maxLon) > cells.size()) {
+            for (Map.Entry<Long, Set<String>> e : cells.entrySet()) {
+                long key = e.getKey();
+                long x = key >> 32;
+                long y = (int) key;
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY && !collect(key, e.getValue(), max, result, filter)) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        for (long x = minX; x <= maxX; x++) {
+            for (long y = minY; y <= maxY; y++) {
+                long key = GeoGrid.key(x, y);
+                Set<String> ids = cells.get(key);
+                if (ids != null && !collect(key, ids, max, result, filter)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // false cuando se llegó al máximo de resultados
+    private boolean collect(long cell, Set<String> ids, int max, List<VehicleData> result, Filter filter) {
+        for (String id : ids) {
+            Entry entry = latest.get(id);
+            if (entry != null && entry.cell() == cell && filter.accept(entry.data())) {
+                result.add(entry.data());
+                if (result.size() >= max) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Alta y baja dentro de compute() para no agregar a un conjunto que otro hilo acaba de descartar
+    private void addToCell(long cell, String id) {
+        cells.compute(cell, (k, ids) -> {
+            Set<String> set = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            set.add(id);
+            return set;
+        });
+    }
+
+    private void removeFromCell(long cell, String id) {
+        cells.computeIfPresent(cell, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static void checkLatitude(double lat) {
+        if (!(lat >= -90 && lat <= 90)) {
+            throw new IllegalArgumentException("latitud fuera de [-90, 90]: " + lat);
+        }
+    }
+
+    private static void checkLongitude(double lon) {
+        if (!(lon >= -180 && lon <= 180)) {
+            throw new IllegalArgumentException("longitud fuera de [-180, 180]: " + lon);
+        }
+    }
+
+    private int cap(int limit) {
+        return limit <= 0 ? maxResults : Math.min(limit, maxResults);
+    }
+
+    private static boolean isOlder(VehicleData data, VehicleData current) {
+        return data.getTimestamp() != null && current.getTimestamp() != null
+                && data.getTimestamp().isBefore(current.getTimestamp());
+    }
+}
@@ -0,0 +1,126 @@
+package com.martin.stream_processor_service.stats;
+
+import com.martin.model.VehicleData;
+import com.martin.model.VehicleStats;
+import com.martin.stream_processor_service.config.VehicleStatsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Estadísticas por vehículo sobre sus últimas stream.stats.window lecturas (VehicleWindow).
+// Igual que el historial, las ventanas se crean al ver cada vehículo y pasado maxVehicles los nuevos se ignoran,
+// salvo que haya vehículos sin lecturas hace idleTimeout: esos liberan su ventana (a lo sumo un barrido por segundo).
+@Slf4j
+@Component
+public class VehicleStatsStore {
+
+    private static final long SWEEP_INTERVAL_MILLIS = 1_000;
+
+    private final Map<String, VehicleWindow> windows = new ConcurrentHashMap<>();
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final AtomicLong lastSweep = new AtomicLong();
+    private final VehicleStatsProperties properties;
+    private final long idleMillis;
+    private final Clock clock;
+    private final Counter rejected;
+    private final Counter evicted;
+
+    @Autowired
+    public VehicleStatsStore(VehicleStatsProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    VehicleStatsStore(VehicleStatsProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        if (properties.getWindow() <= 0 || properties.getMaxVehicles() <= 0) {
+            throw new IllegalArgumentException("stream.stats.window y stream.stats.max-vehicles deben ser > 0");
+        }
+        if (properties.getIdleTimeout().toMillis() <= 0) {
+            throw new IllegalArgumentException("stream.stats.idle-timeout debe ser > 0");
+        }
+        if (properties.getEwmaAlpha() <= 0 || properties.getEwmaAlpha() > 1) {
+            throw new IllegalArgumentException("stream.stats.ewma-alpha debe estar en (0, 1]");
+        }
+        this.properties = properties;
+        this.idleMillis = properties.getIdleTimeout().toMillis();
+        this.clock = clock;
+        this.rejected = Counter.builder("stream.stats.rejected")
+                .description("Lecturas sin estadísticas por superar stream.stats.max-vehicles")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("stream.stats.evicted")
+                .description("Vehículos inactivos liberados para dar lugar a otros")
+                .register(meterRegistry);
+        Gauge.builder("stream.stats.vehicles", windows, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Agrega la lectura a la ventana del vehículo y devuelve las estadísticas resultantes (null si no hay ventana)
+    public VehicleStats update(VehicleData data) {
+        if (!properties.isEnabled() || data.getVehicleId() == null) {
+            return null;
+        }
+        long now = clock.millis();
+        VehicleWindow window = windows.get(data.getVehicleId());
+        if (window == null) {
+            if (allocated.get() >= properties.getMaxVehicles()) {
+                evictIdle(now);
+            }
+            window = windows.computeIfAbsent(data.getVehicleId(), id -> allocate());
+            if (window == null) {
+                rejected.increment();
+                return null;
+            }
+        }
+        window.lastSeen = now;
+        // Un NaN no saldría nunca de la media móvil: esas lecturas no entran en la ventana
+        if (!Double.isFinite(data.getSpeed()) || !Double.isFinite(data.getTemperature())
+                || !Double.isFinite(data.getBattery()) || !Double.isFinite(data.getAcceleration())) {
+            return window.snapshot();
+        }
+        return window.add(data.getSpeed(), data.getTemperature(), data.getBattery(), data.getAcceleration());
+    }
+
+    public int vehicles() {
+        return windows.size();
+    }
+
+    // Fuera de computeIfAbsent: el mapa no admite modificarse desde la función de otro compute
+    private void evictIdle(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_MILLIS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (String vehicleId : windows.keySet()) {
+            windows.computeIfPresent(vehicleId, (id, window) -> {
+                if (now - window.lastSeen < idleMillis) {
+                    return window;
+                }
+                allocated.decrementAndGet();
+                evicted.increment();
+                return null;
+            });
+        }
+    }
+
+    private VehicleWindow allocate() {
+        if (allocated.incrementAndGet() > properties.getMaxVehicles()) {
+            allocated.decrementAndGet();
+            if (rejected.count() == 0) {
+                log.warn("⏸️ Estadísticas llenas ({} vehículos), los vehículos nuevos no se agregan", properties.getMaxVehicles());
+            }
+            return null;
+        }
+        return new VehicleWindow(properties.getWindow(), properties.getEwmaAlpha(), properties.getHarshAccelerationThreshold());
+    }
+}
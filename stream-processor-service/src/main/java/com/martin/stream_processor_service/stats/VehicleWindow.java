@@ -0,0 +1,166 @@
+package com.martin.stream_processor_service.stats;
+
+import com.martin.model.VehicleStats;
+
+// Ventana deslizante de las últimas `capacity` lecturas de un vehículo, todo en arrays primitivos
+// reservados al crearla. Cada lectura se agrega en O(1):
+// - media y varianza con Welford, sumando la lectura nueva y restando la que sale de la ventana
+// - min/max con colas monótonas de posiciones (O(1) amortizado)
+// - EWMA y contadores de aceleraciones / frenadas bruscas
+final class VehicleWindow {
+
+    static final int SPEED = 0;
+    static final int TEMPERATURE = 1;
+    static final int BATTERY = 2;
+    static final int METRICS = 3;
+
+    // Cada cuántas ventanas completas se recalculan media y varianza desde cero para no acumular error de redondeo
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final int capacity;
+    private final double alpha;
+    private final double harshThreshold;
+
+    private final float[][] values;
+    private final double[] mean = new double[METRICS];
+    private final double[] m2 = new double[METRICS];
+    private final double[] ewma = new double[METRICS];
+    private final MonotonicQueue[] minima = new MonotonicQueue[METRICS];
+    private final MonotonicQueue[] maxima = new MonotonicQueue[METRICS];
+
+    // +1 aceleración brusca, -1 frenada brusca, 0 normal
+    private final byte[] harsh;
+    private int harshAccelerations;
+    private int harshBrakings;
+
+    private long seq;
+
+    // Última lectura recibida (reloj del procesador), para liberar vehículos inactivos
+    volatile long lastSeen;
+
+    VehicleWindow(int capacity, double alpha, double harshThreshold) {
+        this.capacity = capacity;
+        this.alpha = alpha;
+        this.harshThreshold = harshThreshold;
+        this.values = new float[METRICS][capacity];
+        this.harsh = new byte[capacity];
+        for (int m = 0; m < METRICS; m++) {
+            minima[m] = new MonotonicQueue(capacity, false);
+            maxima[m] = new MonotonicQueue(capacity, true);
+        }
+    }
+
+    synchronized VehicleStats add(double speed, double temperature, double battery, double acceleration) {
+        int slot = (int) (seq % capacity);
+        boolean full = seq >= capacity;
+
+        add(SPEED, slot, full, (float) speed);
+        add(TEMPERATURE, slot, full, (float) temperature);
+        add(BATTERY, slot, full, (float) battery);
+
+        if (full) {
+            harshAccelerations -= harsh[slot] > 0 ? 1 : 0;
+            harshBrakings -= harsh[slot] < 0 ? 1 : 0;
+        }
+        harsh[slot] = (byte) (acceleration >= harshThreshold ? 1 : acceleration <= -harshThreshold ? -1 : 0);
+        harshAccelerations += harsh[slot] > 0 ? 1 : 0;
+        harshBrakings += harsh[slot] < 0 ? 1 : 0;
+
+        seq++;
+        if (seq % ((long) capacity * RECOMPUTE_EVERY) == 0) {
+            recompute();
+        }
+        return snapshot();
+    }
+
+    private void add(int metric, int slot, boolean full, float value) {
+        float[] ring = values[metric];
+        double x = value;
+        if (full) {
+            double old = ring[slot];
+            double newMean = mean[metric] + (x - old) / capacity;
+            m2[metric] += (x - old) * (x - newMean + old - mean[metric]);
+            mean[metric] = newMean;
+        } else {
+            double delta = x - mean[metric];
+            mean[metric] += delta / (seq + 1);
+            m2[metric] += delta * (x - mean[metric]);
+        }
+        ewma[metric] = seq == 0 ? x : ewma[metric] + alpha * (x - ewma[metric]);
+
+        // La posición que se pisa es la lectura que sale de la ventana: si encabeza una cola, se descarta
+        minima[metric].expire(slot, full);
+        maxima[metric].expire(slot, full);
+        ring[slot] = value;
+        minima[metric].push(ring, slot);
+        maxima[metric].push(ring, slot);
+    }
+
+    private void recompute() {
+        for (int m = 0; m < METRICS; m++) {
+            double sum = 0;
+            for (float v : values[m]) {
+                sum += v;
+            }
+            double exactMean = sum / capacity;
+            double sq = 0;
+            for (float v : values[m]) {
+                sq += (v - exactMean) * (v - exactMean);
+            }
+            mean[m] = exactMean;
+            m2[m] = sq;
+        }
+    }
+
+    synchronized VehicleStats snapshot() {
+        int n = (int) Math.min(seq, capacity);
+        return new VehicleStats(n, metric(SPEED, n), metric(TEMPERATURE, n), metric(BATTERY, n),
+                harshAccelerations, harshBrakings);
+    }
+
+    private VehicleStats.Metric metric(int m, int n) {
+        if (n == 0) {
+            return new VehicleStats.Metric(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        return new VehicleStats.Metric(mean[m], Math.sqrt(Math.max(0, m2[m]) / n),
+                values[m][minima[m].head()], values[m][maxima[m].head()], ewma[m]);
+    }
+
+    // Cola monótona de posiciones del ring: la cabeza es siempre la posición del mínimo (o máximo) de la ventana.
+    // Como mucho guarda `capacity` posiciones, en orden de llegada.
+    private static final class MonotonicQueue {
+        private final int[] slots;
+        private final boolean max;
+        private int head;
+        private int size;
+
+        MonotonicQueue(int capacity, boolean max) {
+            this.slots = new int[capacity];
+            this.max = max;
+        }
+
+        void expire(int slot, boolean full) {
+            if (full && size > 0 && slots[head] == slot) {
+                head = (head + 1) % slots.length;
+                size--;
+            }
+        }
+
+        void push(float[] ring, int slot) {
+            float value = ring[slot];
+            while (size > 0) {
+                float last = ring[slots[(head + size - 1) % slots.length]];
+                if (max ? last > value : last < value) {
+                    break;
+                }
+                size--;
+            }
+            slots[(head + size) % slots.length] = slot;
+            size++;
+        }
+
+        int head() {
+            return slots[head];
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.martin.stream_processor_service.websocket;
+
+import com.martin.stream_processor_service.config.WebSocketProperties.SlowConsumerPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Cola de salida acotada de una sesión, vaciada por su propio hilo virtual.
+// sendMessage bloquea sólo a este hilo, así un cliente lento no frena a los demás.
+@Slf4j
+class SessionSender {
+
+    private final WebSocketSession session;
+    private final int capacity;
+    private final SlowConsumerPolicy policy;
+    private final ArrayDeque<TextMessage> queue;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Counter dropped;
+    private final Counter sent;
+    private final List<Meter> meters;
+    private final MeterRegistry registry;
+    private final Thread thread;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // Métricas por sesión y canal (telemetry, rollups, incidents, geofences); se eliminan en close()
+    SessionSender(WebSocketSession session, String channel, int capacity, SlowConsumerPolicy policy, MeterRegistry registry) {
+        this.session = session;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.queue = new ArrayDeque<>(Math.min(capacity, 1024));
+        this.registry = registry;
+
+        Gauge depth = Gauge.builder("stream.websocket.queue.depth", this, SessionSender::depth)
+                .description("Frames pendientes en la cola de salida de la sesión")
+                .tag("session", session.getId())
+                .tag("channel", channel)
+                .register(registry);
+        this.dropped = Counter.builder("stream.websocket.frames.dropped")
+                .description("Frames descartados por cliente lento")
+                .tag("session", session.getId())
+                .tag("channel", channel)
+                .register(registry);
+        this.sent = Counter.builder("stream.websocket.frames.sent")
+                .tag("session", session.getId())
+                .tag("channel", channel)
+                .register(registry);
+        this.meters = List.of(depth, dropped, sent);
+
+        this.thread = Thread.ofVirtual().name("ws-sender-" + session.getId()).unstarted(this::drain);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // No bloquea: si la cola está llena se aplica la política de cliente lento
+    void offer(TextMessage frame) {
+        if (closed.get()) {
+            return;
+        }
+        boolean disconnect = false;
+        lock.lock();
+        try {
+            if (queue.size() >= capacity) {
+                switch (policy) {
+                    case DROP_OLDEST -> {
+                        queue.pollFirst();
+                        dropped.increment();
+                    }
+                    case LATEST_ONLY -> {
+                        dropped.increment(queue.size());
+                        queue.clear();
+                    }
+                    case DISCONNECT -> disconnect = true;
+                }
+            }
+            if (!disconnect) {
+                queue.addLast(frame);
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (disconnect) {
+            log.warn("❌ Sesión {} no consume a tiempo ({} frames pendientes), desconectando", session.getId(), capacity);
+            closeSession(CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+
+    int depth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        thread.interrupt();
+        lock.lock();
+        try {
+            queue.clear();
+        } finally {
+            lock.unlock();
+        }
+        meters.forEach(registry::remove);
+    }
+
+    private void drain() {
+        while (!closed.get()) {
+            TextMessage frame;
+            lock.lock();
+            try {
+                while (queue.isEmpty()) {
+                    notEmpty.await();
+                }
+                frame = queue.pollFirst();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                session.sendMessage(frame);
+                sent.increment();
+            } catch (IOException | IllegalStateException e) {
+                if (!closed.get()) {
+                    log.error("Error al enviar mensaje a la sesión {}: {}", session.getId(), e.getMessage());
+                    closeSession(CloseStatus.SERVER_ERROR);
+                }
+                return;
+            }
+        }
+    }
+
+    private void closeSession(CloseStatus status) {
+        close();
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Error cerrando la sesión {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.martin.stream_processor_service.websocket;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.model.dto.SubscriptionRequest;
+
+import java.util.Set;
+
+// Filtro de una sesión. Los criterios presentes se combinan con AND.
+public record Subscription(Set<String> vehicleIds, boolean anomaliesOnly, Bounds bounds) {
+
+    public static final Subscription ALL = new Subscription(Set.of(), false, null);
+
+    public record Bounds(double minLat, double maxLat, double minLon, double maxLon) {
+
+        public boolean contains(double lat, double lon) {
+            return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+        }
+    }
+
+    public static Subscription from(SubscriptionRequest request) {
+        Set<String> ids = request.getVehicleIds() == null ? Set.of() : Set.copyOf(request.getVehicleIds());
+        Bounds bounds = null;
+
+        SubscriptionRequest.Bounds b = request.getBounds();
+        if (b != null) {
+            if (b.getMinLat() == null || b.getMaxLat() == null || b.getMinLon() == null || b.getMaxLon() == null) {
+                throw new IllegalArgumentException("bounds requiere minLat, maxLat, minLon y maxLon");
+            }
+            if (!inRange(b.getMinLat(), 90) || !inRange(b.getMaxLat(), 90) || !inRange(b.getMinLon(), 180) || !inRange(b.getMaxLon(), 180)) {
+                throw new IllegalArgumentException("bounds fuera de rango: latitud en [-90, 90] y longitud en [-180, 180]");
+            }
+            if (b.getMinLat() > b.getMaxLat() || b.getMinLon() > b.getMaxLon()) {
+                throw new IllegalArgumentException("bounds inválido: el mínimo es mayor que el máximo");
+            }
+            bounds = new Bounds(b.getMinLat(), b.getMaxLat(), b.getMinLon(), b.getMaxLon());
+        }
+        return new Subscription(ids, request.isAnomaliesOnly(), bounds);
+    }
+
+    private static boolean inRange(double value, double limit) {
+        return value >= -limit && value <= limit;
+    }
+
+    public boolean matches(VehicleData data) {
+        return (!anomaliesOnly || data.isAnomaly())
+                && (vehicleIds.isEmpty() || vehicleIds.contains(data.getVehicleId()))
+                && (bounds == null || bounds.contains(data.getLatitude(), data.getLongitude()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.martin.stream_processor_service.websocket;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.geo.GeoGrid;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Índices de ruteo: cada registro se compara sólo con las sesiones indexadas por su vehículo o por su celda
+// (grilla lat/lon), más las que no filtran. Las suscripciones cambian poco, así que ante cada cambio se arma
+// un snapshot inmutable nuevo y la lectura no toma locks.
+final class SubscriptionIndex<T> {
+
+    private record Entry<T>(T target, Subscription subscription) {
+    }
+
+    private record Snapshot<T>(List<Entry<T>> all,
+                               List<Entry<T>> anomalies,
+                               Map<String, List<Entry<T>>> byVehicle,
+                               Map<Long, List<Entry<T>>> byCell,
+                               List<Entry<T>> broad) {
+    }
+
+    private final GeoGrid grid;
+    private final int maxCellsPerBounds;
+    private final Map<T, Subscription> subscriptions = new LinkedHashMap<>();
+    private volatile Snapshot<T> snapshot = new Snapshot<>(List.of(), List.of(), Map.of(), Map.of(), List.of());
+
+    SubscriptionIndex(double cellSize, int maxCellsPerBounds) {
+        this.grid = new GeoGrid(cellSize);
+        this.maxCellsPerBounds = maxCellsPerBounds;
+    }
+
+    synchronized void put(T target, Subscription subscription) {
+        subscriptions.put(target, subscription);
+        rebuild();
+    }
+
+    synchronized void remove(T target) {
+        if (subscriptions.remove(target) != null) {
+            rebuild();
+        }
+    }
+
+    // Cada destino aparece en un solo índice, así que no hay duplicados
+    void forEachMatch(VehicleData data, Consumer<T> action) {
+        Snapshot<T> s = snapshot;
+
+        for (Entry<T> e : s.all()) {
+            action.accept(e.target());
+        }
+        if (data.isAnomaly()) {
+            for (Entry<T> e : s.anomalies()) {
+                action.accept(e.target());
+            }
+        }
+        if (data.getVehicleId() != null && !s.byVehicle().isEmpty()) {
+            accept(s.byVehicle().get(data.getVehicleId()), data, action);
+        }
+        if (!s.byCell().isEmpty()) {
+            accept(s.byCell().get(grid.cellKey(data.getLatitude(), data.getLongitude())), data, action);
+        }
+        accept(s.broad(), data, action);
+    }
+
+    private static <T> void accept(List<Entry<T>> entries, VehicleData data, Consumer<T> action) {
+        if (entries == null) {
+            return;
+        }
+        for (Entry<T> e : entries) {
+            if (e.subscription().matches(data)) {
+                action.accept(e.target());
+            }
+        }
+    }
+
+    private void rebuild() {
+        List<Entry<T>> all = new ArrayList<>();
+        List<Entry<T>> anomalies = new ArrayList<>();
+        Map<String, List<Entry<T>>> byVehicle = new HashMap<>();
+        Map<Long, List<Entry<T>>> byCell = new HashMap<>();
+        List<Entry<T>> broad = new ArrayList<>();
+
+        subscriptions.forEach((target, subscription) -> {
+            Entry<T> entry = new Entry<>(target, subscription);
+            Subscription.Bounds bounds = subscription.bounds();
+
+            if (!subscription.vehicleIds().isEmpty()) {
+                for (String id : subscription.vehicleIds()) {
+                    byVehicle.computeIfAbsent(id, k -> new ArrayList<>()).add(entry);
+                }
+            } else if (bounds != null) {
+                long minX = grid.cell(bounds.minLat());
+                long maxX = grid.cell(bounds.maxLat());
+                long minY = grid.cell(bounds.minLon());
+                long maxY = grid.cell(bounds.maxLon());
+                // Un área demasiado grande se evalúa aparte en vez de registrarla en miles de celdas
+                if (grid.cellCount(bounds.minLat(), bounds.maxLat(), bounds.minLon(), bounds.maxLon()) > maxCellsPerBounds) {
+                    broad.add(entry);
+                } else {
+                    for (long x = minX; x <= maxX; x++) {
+                        for (long y = minY; y <= maxY; y++) {
+                            byCell.computeIfAbsent(GeoGrid.key(x, y), k -> new ArrayList<>()).add(entry);
+                        }
+                    }
+                }
+            } else if (subscription.anomaliesOnly()) {
+                anomalies.add(entry);
+            } else {
+                all.add(entry);
+            }
+        });
+
+        snapshot = new Snapshot<>(List.copyOf(all), List.copyOf(anomalies), copy(byVehicle), copy(byCell), List.copyOf(broad));
+    }
+
+    private static <K, T> Map<K, List<Entry<T>>> copy(Map<K, List<Entry<T>>> map) {
+        Map<K, List<Entry<T>>> copy = new HashMap<>(map.size() * 2);
+        map.forEach((k, v) -> copy.put(k, List.copyOf(v)));
+        return copy;
+    }
+}
@@ -0,0 +1,93 @@
+package com.martin.stream_processor_service.websocket;
+
+import com.martin.model.VehicleData;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Guarda sólo el último estado de cada vehículo y en cada tick entrega los que cambiaron, todos juntos.
+// La cantidad de frames por segundo queda fija sin importar cuántos mensajes lleguen de Kafka.
+@Slf4j
+public class TelemetryConflator implements AutoCloseable {
+
+    private final Map<String, VehicleData> pending = new ConcurrentHashMap<>();
+    private final Consumer<List<VehicleData>> sink;
+    private final ScheduledExecutorService scheduler;
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    public TelemetryConflator(Duration tick, Consumer<List<VehicleData>> sink) {
+        this.sink = sink;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-conflation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickNanos = tick.toNanos();
+        scheduler.scheduleAtFixedRate(this::flush, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Reemplaza cualquier estado pendiente del mismo vehículo
+    public void offer(VehicleData data) {
+        pending.put(data.getVehicleId(), data);
+    }
+
+    // Para registros que se envían por fuera (anomalías): el pendiente ya quedó viejo y se descarta.
+    // Nunca corre en medio de un flush, así un normal más viejo ya tomado por el tick no sale después.
+    // Entre sí (read lock) no se bloquean; sólo esperan a que termine el flush en curso.
+    public void publishNow(String vehicleId, Runnable send) {
+        flushLock.readLock().lock();
+        try {
+            pending.remove(vehicleId);
+            send.run();
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    public int pendingVehicles() {
+        return pending.size();
+    }
+
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.writeLock().lock();
+        try {
+            drainAndSend();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    private void drainAndSend() {
+        List<VehicleData> batch = new ArrayList<>(pending.size());
+        // remove(key) devuelve el valor vigente, así no se pierde una actualización que llegue mientras tanto
+        for (String vehicleId : pending.keySet()) {
+            VehicleData data = pending.remove(vehicleId);
+            if (data != null) {
+                batch.add(data);
+            }
+        }
+        try {
+            sink.accept(batch);
+        } catch (RuntimeException e) {
+            log.error("Error enviando {} vehículos conflacionados: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,127 @@
+package com.martin.stream_processor_service.websocket;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.WebSocketProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Reparte frames ya serializados a las sesiones interesadas sin bloquear al llamador
+@Component
+public class WebSocketFanOut {
+
+    private final Map<String, SessionSender> senders = new ConcurrentHashMap<>();
+    private final SubscriptionIndex<SessionSender> index;
+    private final WebSocketProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String channel;
+
+    @Autowired
+    public WebSocketFanOut(WebSocketProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, "telemetry");
+    }
+
+    // Otros canales (p. ej. /ws/rollups) tienen su propio fan-out, con las mismas colas por sesión
+    public WebSocketFanOut(WebSocketProperties properties, MeterRegistry meterRegistry, String channel) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.channel = channel;
+        this.index = new SubscriptionIndex<>(properties.getRouting().getCellSizeDegrees(),
+                properties.getRouting().getMaxCellsPerBounds());
+        Gauge.builder("stream.websocket.sessions", senders, Map::size)
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    // Una sesión nueva recibe toda la flota hasta que mande su suscripción
+    public void register(WebSocketSession session) {
+        SessionSender sender = new SessionSender(session, channel, properties.getQueueCapacity(),
+                properties.getSlowConsumerPolicy(), meterRegistry);
+        SessionSender previous = senders.put(session.getId(), sender);
+        if (previous != null) {
+            index.remove(previous);
+            previous.close();
+        }
+        index.put(sender, Subscription.ALL);
+        sender.start();
+    }
+
+    public void unregister(WebSocketSession session) {
+        SessionSender sender = senders.remove(session.getId());
+        if (sender != null) {
+            index.remove(sender);
+            sender.close();
+        }
+    }
+
+    public void subscribe(WebSocketSession session, Subscription subscription) {
+        SessionSender sender = senders.get(session.getId());
+        if (sender != null) {
+            index.put(sender, subscription);
+        }
+    }
+
+    public boolean isEmpty() {
+        return senders.isEmpty();
+    }
+
+    public int size() {
+        return senders.size();
+    }
+
+    // TextMessage es inmutable: la misma instancia se encola en todas las sesiones
+    public void broadcast(TextMessage frame) {
+        for (SessionSender sender : senders.values()) {
+            sender.offer(frame);
+        }
+    }
+
+    // Un registro: el mismo frame para cada sesión cuyo filtro lo acepta
+    public void route(VehicleData data, TextMessage frame) {
+        index.forEachMatch(data, sender -> sender.offer(frame));
+    }
+
+    // Un lote (tick de conflación): cada sesión recibe un array sólo con sus registros.
+    // encoded.get(i) es el JSON de batch.get(i); cada registro se serializa una sola vez
+    // y las sesiones que aceptan el lote completo comparten el mismo frame.
+    public void routeBatch(List<VehicleData> batch, List<String> encoded) {
+        Map<SessionSender, List<String>> perSession = new IdentityHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            String json = encoded.get(i);
+            index.forEachMatch(batch.get(i), sender -> perSession.computeIfAbsent(sender, k -> new ArrayList<>()).add(json));
+        }
+
+        TextMessage full = null;
+        for (Map.Entry<SessionSender, List<String>> entry : perSession.entrySet()) {
+            List<String> parts = entry.getValue();
+            if (parts.size() == encoded.size()) {
+                if (full == null) {
+                    full = arrayFrame(encoded);
+                }
+                entry.getKey().offer(full);
+            } else {
+                entry.getKey().offer(arrayFrame(parts));
+            }
+        }
+    }
+
+    private static TextMessage arrayFrame(List<String> parts) {
+        return new TextMessage("[" + String.join(",", parts) + "]");
+    }
+
+    @PreDestroy
+    public void close() {
+        senders.values().forEach(SessionSender::close);
+        senders.clear();
+    }
+}
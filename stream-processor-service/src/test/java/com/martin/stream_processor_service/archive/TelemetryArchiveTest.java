@@ -0,0 +1,229 @@
+package com.martin.stream_processor_service.archive;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.ArchiveProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class TelemetryArchiveTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-08T12:00:00.123456789Z");
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<TelemetryArchive> archives = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        archives.forEach(TelemetryArchive::close);
+    }
+
+    @Test
+    void shouldRoundTripEnrichedRecords() {
+        TelemetryArchive archive = archive(DataSize.ofMegabytes(1), 16);
+        VehicleData data = sample("K7Q2ZD", 0);
+
+        archive.append(data, 0.9123);
+        awaitWritten(1);
+
+        List<ArchivedTelemetry> records = read(archive, T0, T0);
+        assertThat(records).hasSize(1);
+        ArchivedTelemetry record = records.get(0);
+        assertThat(record.reconstructionError()).isEqualTo(0.9123f);
+        assertThat(record.data().getVehicleId()).isEqualTo("K7Q2ZD");
+        assertThat(record.data().getTimestamp()).isEqualTo(T0);
+        assertThat(record.data().getLatitude()).isEqualTo(-31.4183);
+        assertThat(record.data().getSpeed()).isEqualTo(123.4f);
+        assertThat(record.data().getWeather()).isEqualTo("storm");
+        assertThat(record.data().getRoadType()).isEqualTo("highway");
+        assertThat(record.data().getAnomalyType()).isEqualTo("overspeed");
+        assertThat(record.data().isAnomaly()).isTrue();
+        assertThat(record.data().isNight()).isTrue();
+        assertThat(record.data().getTrafficLevel()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldReturnOnlyTheRequestedWindowAcrossRolledSegments() {
+        // cabecera + 20 registros por segmento
+        TelemetryArchive archive = archive(DataSize.ofBytes(2624), 4);
+        for (int i = 0; i < 100; i++) {
+            archive.append(sample("V" + i, i), i);
+        }
+        awaitWritten(100);
+
+        List<ArchivedTelemetry> window = read(archive, T0.plusSeconds(25), T0.plusSeconds(64));
+
+        assertThat(window).extracting(r -> r.data().getVehicleId())
+                .containsExactlyElementsOf(range(25, 65));
+        assertThat(registry.get("stream.archive.segments").gauge().value()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldReopenExistingSegmentsAfterRestart() {
+        TelemetryArchive first = archive(DataSize.ofBytes(2048), 4);
+        for (int i = 0; i < 30; i++) {
+            first.append(sample("V" + i, i), i);
+        }
+        awaitWritten(30);
+        first.close();
+
+        TelemetryArchive second = archive(DataSize.ofBytes(2048), 4);
+        second.append(sample("V30", 30), 30);
+        awaitWritten(31);
+
+        assertThat(read(second, T0, T0.plusSeconds(60))).hasSize(31);
+    }
+
+    @Test
+    void shouldRecoverSegmentsThatWereNotClosed() throws Exception {
+        ArchiveSegment segment = ArchiveSegment.create(dir.resolve("segment-000000000000.seg"), 0, 4096, 4);
+        for (int i = 0; i < 10; i++) {
+            VehicleData data = sample("V" + i, i);
+            segment.append(data, ArchiveRecordCodec.vehicleId(data), ArchiveRecordCodec.overflow(data),
+                    ArchiveRecordCodec.timestamp(data, 0), 0.5f);
+        }
+
+        ArchiveSegment recovered = ArchiveSegment.open(segment.path());
+
+        assertThat(recovered.count()).isEqualTo(10);
+        assertThat(recovered.isSealed()).isTrue();
+        assertThat(Files.exists(dir.resolve("segment-000000000000.idx"))).isTrue();
+        try (Stream<ArchivedTelemetry> records = recovered.read(Long.MIN_VALUE, Long.MAX_VALUE)) {
+            assertThat(records).hasSize(10);
+        }
+    }
+
+    @Test
+    void shouldRejectVehicleIdsThatDoNotFitTheFixedLayout() {
+        TelemetryArchive archive = archive(DataSize.ofMegabytes(1), 16);
+
+        archive.append(sample("X".repeat(40), 0), 0);
+        archive.append(sample("OK", 1), 0);
+        awaitWritten(1);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> registry.get("stream.archive.rejected").counter().count() == 1);
+        assertThat(read(archive, T0, T0.plusSeconds(1))).extracting(r -> r.data().getVehicleId()).containsExactly("OK");
+    }
+
+    @Test
+    void shouldKeepValuesOutsideTheDictionaries() {
+        TelemetryArchive archive = archive(DataSize.ofMegabytes(1), 16);
+        VehicleData data = sample("K7Q2ZD", 0);
+        data.setWeather("hail");
+        data.setRoadType("highway");
+        data.setAnomalyType("sensor_failure");
+
+        archive.append(data, 0.5);
+        awaitWritten(1);
+
+        VehicleData archived = read(archive, T0, T0).get(0).data();
+        assertThat(archived.getWeather()).isEqualTo("hail");
+        assertThat(archived.getRoadType()).isEqualTo("highway");
+        assertThat(archived.getAnomalyType()).isEqualTo("sensor_failure");
+    }
+
+    @Test
+    void shouldRejectValuesThatDoNotFitTheOverflowColumn() {
+        TelemetryArchive archive = archive(DataSize.ofMegabytes(1), 16);
+        VehicleData data = sample("K7Q2ZD", 0);
+        data.setWeather("w".repeat(20));
+        data.setAnomalyType("a".repeat(20));
+
+        archive.append(data, 0.5);
+        archive.append(sample("OK", 1), 0);
+        awaitWritten(1);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> registry.get("stream.archive.rejected").counter().count() == 1);
+        assertThat(read(archive, T0, T0.plusSeconds(1))).extracting(r -> r.data().getVehicleId()).containsExactly("OK");
+    }
+
+    @Test
+    void shouldCountRecordsDroppedByAFullQueue() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(dir.toString());
+        properties.setQueueCapacity(1);
+        TelemetryArchive archive = new TelemetryArchive(properties, registry);
+        archives.add(archive);
+
+        for (int i = 0; i < 10_000; i++) {
+            archive.append(sample("V" + i, i), 0);
+        }
+        archive.close();
+
+        double written = registry.get("stream.archive.written").counter().count();
+        double dropped = registry.get("stream.archive.dropped").counter().count();
+        assertThat(dropped).isPositive();
+        assertThat(written + dropped).isEqualTo(10_000);
+    }
+
+    private TelemetryArchive archive(DataSize segmentSize, int indexInterval) {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(dir.toString());
+        properties.setSegmentSize(segmentSize);
+        properties.setSegmentDuration(Duration.ofHours(1));
+        properties.setIndexInterval(indexInterval);
+        TelemetryArchive archive = new TelemetryArchive(properties, registry);
+        archives.add(archive);
+        return archive;
+    }
+
+    private void awaitWritten(int count) {
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> registry.get("stream.archive.written").counter().count() >= count);
+    }
+
+    private static List<ArchivedTelemetry> read(TelemetryArchive archive, Instant from, Instant to) {
+        try (Stream<ArchivedTelemetry> records = archive.read(from, to)) {
+            return records.toList();
+        }
+    }
+
+    private static List<String> range(int from, int to) {
+        List<String> ids = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            ids.add("V" + i);
+        }
+        return ids;
+    }
+
+    private static VehicleData sample(String id, int second) {
+        return VehicleData.builder()
+                .vehicleId(id)
+                .timestamp(T0.plusSeconds(second))
+                .latitude(-31.4183)
+                .longitude(-64.1832)
+                .speed(123.4)
+                .previousSpeed(118.2)
+                .acceleration(5.2)
+                .temperature(71.3)
+                .battery(79.8)
+                .fuelLevel(99.6)
+                .weather("storm")
+                .roadType("highway")
+                .speedLimit(120)
+                .night(true)
+                .trafficLevel(4)
+                .anomaly(true)
+                .anomalyType("overspeed")
+                .build();
+    }
+}
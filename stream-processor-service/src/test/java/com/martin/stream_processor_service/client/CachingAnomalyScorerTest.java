@@ -0,0 +1,205 @@
+package com.martin.stream_processor_service.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.stream_processor_service.config.PredictionCacheProperties;
+import com.martin.stream_processor_service.inference.NativeAnomalyScorer;
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingAnomalyScorerTest {
+
+    private static NativeAnomalyScorer model;
+    private static List<PredictionRequest> bases;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger modelCalls = new AtomicInteger();
+
+    @BeforeAll
+    static void load() throws Exception {
+        model = new NativeAnomalyScorer(new ClassPathResource("model/autoencoder.json"), new ObjectMapper());
+        bases = sampleInputs(64, new SplittableRandom(42));
+    }
+
+    @Test
+    void shouldCutModelCallsWithoutChangingVerdictsOnSteadyTraffic() {
+        CachingAnomalyScorer cache = new CachingAnomalyScorer(counting(model::predict), properties(), registry);
+        SplittableRandom random = new SplittableRandom(3);
+
+        int records = 0;
+        int anomalies = 0;
+        // Cada muestra es un vehículo que manda 50 lecturas casi iguales
+        for (int reading = 0; reading < 50; reading++) {
+            for (PredictionRequest base : bases) {
+                PredictionRequest request = drift(base, random);
+
+                PredictionResponse expected = model.score(request);
+                PredictionResponse actual = cache.predict(request).block();
+
+                assertThat(actual.isAnomaly()).as("veredicto de %s", request).isEqualTo(expected.isAnomaly());
+                records++;
+                anomalies += expected.isAnomaly() ? 1 : 0;
+            }
+        }
+
+        assertThat(anomalies).isPositive();
+        assertThat(modelCalls.get()).isLessThan(records / 4);
+        assertThat(registry.get("prediction.cache.requests").tag("result", "hit").counter().count())
+                .isEqualTo(records - modelCalls.get());
+    }
+
+    @Test
+    void shouldAlwaysAskTheModelNearTheThreshold() {
+        CachingAnomalyScorer cache = new CachingAnomalyScorer(counting(request -> Mono.just(response(0.86, 0.8574))),
+                properties(), registry);
+
+        for (int i = 0; i < 5; i++) {
+            cache.predict(bases.get(0)).block();
+        }
+
+        assertThat(modelCalls).hasValue(5);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTheTtl() throws Exception {
+        PredictionCacheProperties properties = properties();
+        properties.setTtl(Duration.ofMillis(20));
+        CachingAnomalyScorer cache = new CachingAnomalyScorer(counting(model::predict), properties, registry);
+
+        cache.predict(bases.get(0)).block();
+        cache.predict(bases.get(0)).block();
+        Thread.sleep(40);
+        cache.predict(bases.get(0)).block();
+
+        assertThat(modelCalls).hasValue(2);
+        assertThat(registry.get("prediction.cache.evictions").tag("cause", "expired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntriesWhenFull() {
+        PredictionCacheProperties properties = properties();
+        properties.setMaxSize(64);
+        CachingAnomalyScorer cache = new CachingAnomalyScorer(counting(request -> Mono.just(response(0.1, 0.8574))),
+                properties, registry);
+
+        for (int i = 0; i < 1_000; i++) {
+            PredictionRequest request = copy(bases.get(0));
+            request.setSpeed((double) i);
+            cache.predict(request).block();
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(64);
+        assertThat(registry.get("prediction.cache.evictions").tag("cause", "size").counter().count())
+                .isEqualTo(1_000 - cache.size());
+    }
+
+    // error = 0.02 * speed + 0.01 * temperature: dentro de una celda (paso 0.5) cambia menos de 0.015.
+    // Con esa cota cada registro recibe el veredicto que le daría el modelo, aunque su celda toque el umbral
+    @Test
+    void shouldKeepEveryVerdictWhenTheBoundHolds() {
+        AnomalyScorer linear = request -> Mono.just(response(0.02 * request.getSpeed() + 0.01 * request.getTemperature(), 2.0));
+        PredictionCacheProperties properties = properties();
+        properties.setCellErrorBound(0.015);
+        CachingAnomalyScorer cache = new CachingAnomalyScorer(counting(linear), properties, registry);
+        SplittableRandom random = new SplittableRandom(7);
+
+        int anomalies = 0;
+        for (int i = 0; i < 5_000; i++) {
+            PredictionRequest request = copy(bases.get(0));
+            request.setSpeed(random.nextDouble(65, 70));
+            request.setTemperature(random.nextDouble(60, 65));
+
+            boolean expected = linear.predict(request).block().isAnomaly();
+            assertThat(cache.predict(request).block().isAnomaly()).as("veredicto de %s", request).isEqualTo(expected);
+            anomalies += expected ? 1 : 0;
+        }
+
+        assertThat(anomalies).isBetween(1, 4_999);
+        assertThat(modelCalls.get()).isLessThan(5_000 / 4);
+    }
+
+    @Test
+    void shouldRequireACellErrorBound() {
+        assertThatThrownBy(() -> new CachingAnomalyScorer(model::predict, new PredictionCacheProperties(), registry))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cell-error-bound");
+    }
+
+    private static PredictionCacheProperties properties() {
+        PredictionCacheProperties properties = new PredictionCacheProperties();
+        properties.setCellErrorBound(0.05);
+        return properties;
+    }
+
+    private AnomalyScorer counting(AnomalyScorer delegate) {
+        return request -> {
+            modelCalls.incrementAndGet();
+            return delegate.predict(request);
+        };
+    }
+
+    // Ruido de sensor: décimas de km/h y de grado, posición casi fija
+    private static PredictionRequest drift(PredictionRequest base, SplittableRandom random) {
+        PredictionRequest request = copy(base);
+        request.setLatitude(base.getLatitude() + random.nextDouble(-0.00005, 0.00005));
+        request.setLongitude(base.getLongitude() + random.nextDouble(-0.00005, 0.00005));
+        request.setSpeed(base.getSpeed() + random.nextDouble(-0.1, 0.1));
+        request.setPreviousSpeed(base.getPreviousSpeed() + random.nextDouble(-0.1, 0.1));
+        request.setTemperature(base.getTemperature() + random.nextDouble(-0.05, 0.05));
+        request.setBattery(base.getBattery() - random.nextDouble(0.02));
+        request.setFuelLevel(base.getFuelLevel() - random.nextDouble(0.02));
+        return request;
+    }
+
+    // Mismas distribuciones que export_model.sample_inputs (TelemetrySimulator más sus anomalías)
+    private static List<PredictionRequest> sampleInputs(int count, SplittableRandom random) {
+        double[] limits = {60, 90, 120};
+        List<PredictionRequest> inputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double limit = limits[random.nextInt(limits.length)];
+            double speed = Math.max(0, limit * 0.6 + random.nextGaussian() * 10);
+            double previousSpeed = Math.max(0, limit * 0.6 + random.nextGaussian() * 10);
+            double temperature = 70 + random.nextGaussian() * 5;
+            double battery = 80 - random.nextDouble() * 0.5;
+            switch (i % 8) {
+                case 5 -> speed = limit + 50 + random.nextDouble() * 30;
+                case 6 -> temperature = 110 + random.nextDouble() * 30;
+                case 7 -> battery = 10 + random.nextDouble() * 5;
+                default -> {
+                }
+            }
+            inputs.add(new PredictionRequest(-31.4201 + random.nextDouble() / 100, -64.1888 + random.nextDouble() / 100,
+                    speed, previousSpeed, speed - previousSpeed, temperature, battery, 100 - random.nextDouble() * 0.8,
+                    limit, (double) random.nextInt(1, 6)));
+        }
+        return inputs;
+    }
+
+    private static PredictionRequest copy(PredictionRequest r) {
+        return new PredictionRequest(r.getLatitude(), r.getLongitude(), r.getSpeed(), r.getPreviousSpeed(),
+                r.getAcceleration(), r.getTemperature(), r.getBattery(), r.getFuelLevel(), r.getSpeedLimit(),
+                r.getTrafficLevel());
+    }
+
+    private static PredictionResponse response(double error, double threshold) {
+        PredictionResponse response = new PredictionResponse();
+        response.setReconstructionError(error);
+        response.setAnomalyThreshold(threshold);
+        response.setAnomaly(error > threshold);
+        return response;
+    }
+}
@@ -0,0 +1,124 @@
+package com.martin.stream_processor_service.client;
+
+import com.martin.stream_processor_service.config.PredictionClientProperties;
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PredictionClientBatchingTest {
+
+    private StubPredictionServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private PredictionClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubPredictionServer();
+        meterRegistry = new SimpleMeterRegistry();
+
+        PredictionClientProperties properties = new PredictionClientProperties();
+        properties.setBaseUrl(server.baseUrl());
+        properties.getBatch().setMaxSize(64);
+        properties.getBatch().setMaxWait(Duration.ofMillis(20));
+
+        client = new PredictionClient(WebClient.builder(), properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void shouldGroupConcurrentRequestsAndRouteEachResponseToItsCaller() {
+        int records = 500;
+
+        // Cada respuesta junto al índice del request que la pidió
+        List<Map.Entry<Integer, PredictionResponse>> responses = Flux.range(0, records)
+                .flatMap(i -> client.predict(request(i)).map(response -> Map.entry(i, response)), records)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(responses).hasSize(records);
+        responses.forEach(entry -> assertThat(entry.getValue().getReconstructionError())
+                .isEqualTo(StubPredictionServer.expectedError(request(entry.getKey()).getSpeed())));
+
+        assertThat(server.batchSizes()).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(64));
+        assertThat(server.batchSizes().stream().mapToInt(Integer::intValue).sum()).isEqualTo(records);
+        assertThat(server.batchSizes().size()).isLessThan(records / 4);
+
+        assertThat(meterRegistry.get("prediction.batch.size").summary().totalAmount()).isEqualTo(records);
+        assertThat(meterRegistry.get("prediction.batch.wait").timer().count()).isEqualTo(records);
+    }
+
+    @Test
+    void shouldFlushPartialBatchAfterMaxWait() {
+        PredictionResponse response = client.predict(request(150)).block(Duration.ofSeconds(2));
+
+        assertThat(response).isNotNull();
+        assertThat(response.isAnomaly()).isTrue();
+        assertThat(server.batchSizes()).containsExactly(1);
+    }
+
+    @Test
+    void shouldPropagateBatchFailureToEveryCaller() {
+        server.setFailing(true);
+
+        Mono<List<PredictionResponse>> all = Flux.range(0, 10)
+                .flatMap(i -> client.predict(request(i)))
+                .collectList();
+
+        assertThatThrownBy(() -> all.block(Duration.ofSeconds(5)))
+                .hasMessageContaining("500");
+    }
+
+    @Test
+    void shouldFailEveryCallerWhenBatchResponseIsEmpty() {
+        PredictionClientProperties.Batch properties = new PredictionClientProperties.Batch();
+        properties.setMaxWait(Duration.ofMillis(20));
+
+        try (PredictionBatcher batcher = new PredictionBatcher(properties, requests -> Mono.empty(), meterRegistry)) {
+            Mono<List<PredictionResponse>> all = Flux.range(0, 3)
+                    .flatMap(i -> batcher.submit(request(i)))
+                    .collectList();
+
+            assertThatThrownBy(() -> all.block(Duration.ofSeconds(2)))
+                    .hasMessageContaining("empty");
+        }
+    }
+
+    @Test
+    void shouldFailTheCollectedBatchWhenClosedWhileWaitingForMore() throws Exception {
+        PredictionClientProperties.Batch properties = new PredictionClientProperties.Batch();
+        properties.setMaxWait(Duration.ofSeconds(30));
+        PredictionBatcher batcher = new PredictionBatcher(properties, requests -> Mono.never(), meterRegistry);
+
+        CompletableFuture<PredictionResponse> pending = batcher.submit(request(0)).toFuture();
+        // El flusher ya sacó el registro de la cola y espera al resto del lote
+        Thread.sleep(200);
+        batcher.close();
+
+        assertThatThrownBy(() -> pending.get(2, TimeUnit.SECONDS))
+                .hasMessageContaining("shutting down");
+    }
+
+    private static PredictionRequest request(int i) {
+        return new PredictionRequest(-31.42, -64.18, (double) i, 50.0, 0.5, 70.0, 80.0, 99.5, 90.0, 3.0);
+    }
+}
@@ -0,0 +1,138 @@
+package com.martin.stream_processor_service.client;
+
+import com.martin.stream_processor_service.config.PredictionClientProperties;
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PredictionClientResilienceTest {
+
+    private StubPredictionServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private PredictionClientProperties properties;
+    private PredictionClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubPredictionServer();
+        meterRegistry = new SimpleMeterRegistry();
+
+        properties = new PredictionClientProperties();
+        properties.setBaseUrl(server.baseUrl());
+        properties.getBatch().setEnabled(false);
+        properties.setTimeout(Duration.ofMillis(200));
+        properties.getCircuitBreaker().setFailureThreshold(3);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMillis(300));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        server.close();
+    }
+
+    @Test
+    void shouldTimeOutSlowCalls() {
+        client = new PredictionClient(WebClient.builder(), properties, meterRegistry);
+        server.setDelay(Duration.ofMillis(1_000));
+
+        assertThatThrownBy(() -> client.predict(request()).block(Duration.ofSeconds(2)))
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(meterRegistry.get("prediction.client.timeouts").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldOpenTheCircuitAfterRepeatedFailuresAndCloseItAfterASuccessfulProbe() throws Exception {
+        client = new PredictionClient(WebClient.builder(), properties, meterRegistry);
+        server.setFailing(true);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> client.predict(request()).block(Duration.ofSeconds(2))).hasMessageContaining("500");
+        }
+        assertThat(circuitState()).isEqualTo(CircuitBreaker.State.OPEN.ordinal());
+
+        // Abierto: se rechaza sin llamar al servicio
+        assertThatThrownBy(() -> client.predict(request()).block(Duration.ofSeconds(2)))
+                .isInstanceOf(ScoringUnavailableException.class);
+        assertThat(server.requests()).isEqualTo(3);
+        assertThat(meterRegistry.get("prediction.client.rejected").tag("reason", "circuit_open").counter().count())
+                .isEqualTo(1);
+
+        server.setFailing(false);
+        Thread.sleep(350);
+
+        assertThat(client.predict(request()).block(Duration.ofSeconds(2))).isNotNull();
+        assertThat(circuitState()).isEqualTo(CircuitBreaker.State.CLOSED.ordinal());
+    }
+
+    @Test
+    void shouldRejectCallsBeyondTheConcurrencyLimit() {
+        properties.getLimit().setInitial(2);
+        properties.getLimit().setMax(2);
+        properties.setTimeout(Duration.ofSeconds(2));
+        client = new PredictionClient(WebClient.builder(), properties, meterRegistry);
+        server.setDelay(Duration.ofMillis(300));
+
+        var first = client.predict(request()).toFuture();
+        var second = client.predict(request()).toFuture();
+
+        assertThatThrownBy(() -> client.predict(request()).block(Duration.ofSeconds(2)))
+                .isInstanceOf(ScoringUnavailableException.class)
+                .hasMessageContaining("limit");
+        assertThat(first.join()).isNotNull();
+        assertThat(second.join()).isNotNull();
+        assertThat(meterRegistry.get("prediction.client.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void limiterShouldBackOffOnOverloadAndGrowBackWhenFast() {
+        PredictionClientProperties.Limit limit = new PredictionClientProperties.Limit();
+        limit.setInitial(20);
+        limit.setMin(2);
+        limit.setMax(24);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limit);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.onDropped();
+        }
+        assertThat(limiter.limit()).isEqualTo(2);
+
+        // Respuestas rápidas con el límite en uso: vuelve a crecer hasta el máximo
+        for (int i = 0; i < 2_000; i++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int j = 0; j < acquired; j++) {
+                limiter.onSuccess(Duration.ofMillis(5).toNanos());
+            }
+        }
+        assertThat(limiter.limit()).isEqualTo(24);
+
+        // Respuestas lentas también reducen el límite
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.onSuccess(Duration.ofSeconds(1).toNanos());
+        assertThat(limiter.limit()).isLessThan(24);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    private double circuitState() {
+        return meterRegistry.get("prediction.client.circuit.state").gauge().value();
+    }
+
+    private static PredictionRequest request() {
+        return new PredictionRequest(-31.42, -64.18, 50.0, 50.0, 0.5, 70.0, 80.0, 99.5, 90.0, 3.0);
+    }
+}
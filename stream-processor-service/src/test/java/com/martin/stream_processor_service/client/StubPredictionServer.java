@@ -0,0 +1,110 @@
+package com.martin.stream_processor_service.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Servidor local que imita /predict y /predict/batch del servicio de ML sin cargar el modelo.
+// El error de reconstrucción es determinista (speed / 100) para poder comprobar qué respuesta recibe cada llamador.
+class StubPredictionServer implements AutoCloseable {
+
+    static final double THRESHOLD = 0.8574146914949173;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile boolean failing;
+    private volatile long delayMillis;
+
+    StubPredictionServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/predict/batch", this::handleBatch);
+        server.createContext("/predict", this::handleSingle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    List<Integer> batchSizes() {
+        return batchSizes;
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    void setDelay(Duration delay) {
+        this.delayMillis = delay.toMillis();
+    }
+
+    int requests() {
+        return requests.get();
+    }
+
+    static double expectedError(double speed) {
+        return speed / 100;
+    }
+
+    private void handleSingle(HttpExchange exchange) throws IOException {
+        JsonNode input = mapper.readTree(exchange.getRequestBody());
+        respond(exchange, score(input));
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        JsonNode inputs = mapper.readTree(exchange.getRequestBody());
+        batchSizes.add(inputs.size());
+        ArrayNode responses = mapper.createArrayNode();
+        inputs.forEach(input -> responses.add(score(input)));
+        respond(exchange, responses);
+    }
+
+    private ObjectNode score(JsonNode input) {
+        double error = expectedError(input.get("speed").asDouble());
+        ObjectNode response = mapper.createObjectNode();
+        response.set("input", input);
+        response.put("reconstruction_error", error);
+        response.put("anomaly_threshold", THRESHOLD);
+        response.put("is_anomaly", error > THRESHOLD);
+        return response;
+    }
+
+    private void respond(HttpExchange exchange, JsonNode body) throws IOException {
+        requests.incrementAndGet();
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] bytes = failing
+                ? "{\"detail\":\"stub failure\"}".getBytes()
+                : mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(failing ? 500 : 200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
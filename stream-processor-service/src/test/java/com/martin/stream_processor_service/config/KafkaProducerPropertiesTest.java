@@ -0,0 +1,43 @@
+package com.martin.stream_processor_service.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// El procesador no define ProducerFactory propio: el KafkaTemplate del DLT, rollups, incidentes y geocercas
+// es el de Spring Boot y toma los spring.kafka.producer.* del archivo que se despliega
+class KafkaProducerPropertiesTest {
+
+    @Test
+    void shouldBuildTheSharedTemplateFromTheShippedProducerProperties() throws Exception {
+        Properties shipped = PropertiesLoaderUtils.loadProperties(new FileSystemResource("src/main/resources/application.properties"));
+        String[] producer = shipped.stringPropertyNames().stream()
+                .filter(name -> name.startsWith("spring.kafka.producer."))
+                .map(name -> name + "=" + shipped.getProperty(name))
+                .toArray(String[]::new);
+
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(KafkaAutoConfiguration.class))
+                .withPropertyValues(producer)
+                .run(context -> {
+                    assertThat(context).hasSingleBean(KafkaTemplate.class);
+                    DefaultKafkaProducerFactory<?, ?> factory = (DefaultKafkaProducerFactory<?, ?>) context.getBean(KafkaTemplate.class).getProducerFactory();
+                    assertThat(factory.getConfigurationProperties())
+                            .containsEntry(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class)
+                            .containsEntry(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class)
+                            .containsEntry(JsonSerializer.ADD_TYPE_INFO_HEADERS, "false");
+                });
+    }
+}
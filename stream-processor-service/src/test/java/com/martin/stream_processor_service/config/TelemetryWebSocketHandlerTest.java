@@ -0,0 +1,117 @@
+package com.martin.stream_processor_service.config;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.websocket.WebSocketFanOut;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TelemetryWebSocketHandlerTest {
+
+    private final List<String> frames = new CopyOnWriteArrayList<>();
+    private WebSocketFanOut fanOut;
+    private TelemetryWebSocketHandler handler;
+    private WebSocketSession session;
+
+    @AfterEach
+    void tearDown() {
+        handler.close();
+        fanOut.close();
+    }
+
+    @Test
+    void shouldBatchNormalRecordsIntoOneFramePerTick() throws Exception {
+        connect(Duration.ofMillis(300));
+
+        for (int i = 0; i < 50; i++) {
+            handler.sendTelemetry(vehicle("A", i, false));
+            handler.sendTelemetry(vehicle("B", i, false));
+        }
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> frames.size() == 1);
+        assertThat(frames.get(0)).startsWith("[").contains("\"speed\":49.0").doesNotContain("\"speed\":48.0");
+    }
+
+    @Test
+    void shouldSendAnomaliesWithoutWaitingForTheTick() throws Exception {
+        connect(Duration.ofHours(1));
+
+        handler.sendTelemetry(vehicle("A", 1, false));
+        handler.sendTelemetry(vehicle("A", 180, true));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> frames.size() == 1);
+        assertThat(frames.get(0)).startsWith("{").contains("\"anomaly\":true");
+    }
+
+    @Test
+    void shouldSendEveryRecordWhenConflationIsDisabled() throws Exception {
+        WebSocketProperties properties = new WebSocketProperties();
+        properties.getConflation().setEnabled(false);
+        connect(properties);
+
+        handler.sendTelemetry(vehicle("A", 1, false));
+        handler.sendTelemetry(vehicle("A", 2, false));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> frames.size() == 2);
+    }
+
+    @Test
+    void shouldOnlySendWhatEachSessionSubscribedTo() throws Exception {
+        connect(Duration.ofMillis(100));
+        handler.handleTextMessage(session, new TextMessage("{\"type\":\"subscribe\",\"vehicleIds\":[\"B\"]}"));
+
+        handler.sendTelemetry(vehicle("A", 1, false));
+        handler.sendTelemetry(vehicle("B", 2, false));
+        handler.sendTelemetry(vehicle("A", 180, true));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> frames.size() == 1);
+        assertThat(frames.get(0)).startsWith("[").contains("\"vehicleId\":\"B\"").doesNotContain("\"vehicleId\":\"A\"");
+    }
+
+    @Test
+    void shouldIgnoreInvalidSubscriptions() throws Exception {
+        connect(Duration.ofHours(1));
+        handler.handleTextMessage(session, new TextMessage("{\"bounds\":{\"minLat\":10,\"maxLat\":0}}"));
+        handler.handleTextMessage(session, new TextMessage("not json"));
+
+        handler.sendTelemetry(vehicle("A", 180, true));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> frames.size() == 1);
+    }
+
+    private void connect(Duration tick) throws Exception {
+        WebSocketProperties properties = new WebSocketProperties();
+        properties.getConflation().setTick(tick);
+        connect(properties);
+    }
+
+    private void connect(WebSocketProperties properties) throws Exception {
+        fanOut = new WebSocketFanOut(properties, new SimpleMeterRegistry());
+        handler = new TelemetryWebSocketHandler(fanOut, properties);
+
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("dashboard");
+        doAnswer(inv -> frames.add(((WebSocketMessage<?>) inv.getArgument(0)).getPayload().toString()))
+                .when(session).sendMessage(any());
+        handler.afterConnectionEstablished(session);
+    }
+
+    private static VehicleData vehicle(String id, double speed, boolean anomaly) {
+        return VehicleData.builder().vehicleId(id).speed(speed).anomaly(anomaly).build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.martin.stream_processor_service.geofence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeofenceIndexTest {
+
+    @Test
+    void shouldMatchABruteForceScan() {
+        SplittableRandom random = new SplittableRandom(11);
+        List<Geofence> fences = randomFences(random, 2000);
+        // Cercas más grandes que maxCellsPerFence van a la lista aparte
+        fences.add(Geofence.circle(2000, "big-circle", "big", null, -31.5, -64.2, 30_000));
+        fences.add(square(2001, -31.9, -64.7, 0.8));
+        GeofenceIndex index = GeofenceIndex.build(fences, 0.01, 64);
+        GeofenceIndex.Hits hits = new GeofenceIndex.Hits();
+
+        for (int i = 0; i < 50_000; i++) {
+            double lat = -32 + random.nextDouble();
+            double lon = -64.7 + random.nextDouble();
+            index.query(lat, lon, hits);
+
+            List<Integer> expected = fences.stream().filter(f -> f.contains(lat, lon)).map(Geofence::key).sorted().toList();
+            List<Integer> actual = new ArrayList<>();
+            for (int h = 0; h < hits.size(); h++) {
+                actual.add(hits.key(h));
+            }
+            assertThat(actual).as("(%s, %s)", lat, lon).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldHonourHolesAndMultiPolygons() {
+        double[][] outer = ring(-31.50, -64.20, 0.10);
+        double[][] hole = ring(-31.47, -64.17, 0.04);
+        double[][] island = ring(-31.30, -64.00, 0.02);
+        Geofence fence = Geofence.polygon(0, "park", "park", "district", List.of(outer, hole, island));
+        GeofenceIndex index = GeofenceIndex.build(List.of(fence), 0.01, 4096);
+        GeofenceIndex.Hits hits = new GeofenceIndex.Hits();
+
+        assertThat(index.query(-31.48, -64.19, hits)).isEqualTo(1);
+        assertThat(index.query(-31.45, -64.15, hits)).isZero();
+        assertThat(index.query(-31.29, -63.99, hits)).isEqualTo(1);
+        assertThat(index.query(-31.35, -64.05, hits)).isZero();
+        assertThat(index.query(Double.NaN, -64.19, hits)).isZero();
+    }
+
+    @Test
+    void shouldMeasureCirclesInMeters() {
+        Geofence depot = Geofence.circle(0, "depot", "depot", "depot", -31.4150, -64.1840, 250);
+        GeofenceIndex index = GeofenceIndex.build(List.of(depot), 0.001, 4096);
+        GeofenceIndex.Hits hits = new GeofenceIndex.Hits();
+
+        // 0.002 grados de latitud ≈ 223 m, 0.0025 ≈ 278 m
+        assertThat(index.query(-31.4170, -64.1840, hits)).isEqualTo(1);
+        assertThat(index.query(-31.4175, -64.1840, hits)).isZero();
+    }
+
+    @Test
+    void shouldRejectCoordinatesOutsideTheWorld() {
+        // [lon, lat] de GeoJSON leído al revés (California)
+        double[][] swapped = {{-120.50, 35.30}, {-120.50, 35.40}, {-120.40, 35.40}};
+        double[][] pastTheAntimeridian = {{-31.50, 179.9}, {-31.40, 180.1}, {-31.40, 179.8}};
+
+        assertThatThrownBy(() -> Geofence.polygon(0, "swapped", "swapped", null, List.<double[][]>of(swapped)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("fuera de rango");
+        assertThatThrownBy(() -> Geofence.polygon(0, "wrap", "wrap", null, List.<double[][]>of(pastTheAntimeridian)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Geofence.circle(0, "c", "c", null, 91, -64.18, 250))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Geofence.circle(0, "c", "c", null, -31.41, -181, 250))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Geofence.circle(0, "c", "c", null, -31.41, -64.18, Double.POSITIVE_INFINITY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Geofence> randomFences(SplittableRandom random, int count) {
+        List<Geofence> fences = new ArrayList<>();
+        for (int key = 0; key < count; key++) {
+            double lat = -32 + random.nextDouble();
+            double lon = -64.7 + random.nextDouble();
+            if (key % 3 == 0) {
+                fences.add(Geofence.circle(key, "c" + key, "c" + key, null, lat, lon, 50 + random.nextDouble() * 3000));
+            } else {
+                // Polígono estrellado (no convexo) de 5 a 24 vértices
+                int vertices = 5 + random.nextInt(20);
+                double[][] ring = new double[vertices][];
+                for (int v = 0; v < vertices; v++) {
+                    double angle = 2 * Math.PI * v / vertices;
+                    double radius = 0.002 + random.nextDouble() * 0.03;
+                    ring[v] = new double[]{lat + radius * Math.sin(angle), lon + radius * Math.cos(angle)};
+                }
+                fences.add(Geofence.polygon(key, "p" + key, "p" + key, null, List.<double[][]>of(ring)));
+            }
+        }
+        return fences;
+    }
+
+    private static Geofence square(int key, double lat, double lon, double side) {
+        return Geofence.polygon(key, "sq" + key, "sq" + key, null, List.<double[][]>of(ring(lat, lon, side)));
+    }
+
+    private static double[][] ring(double lat, double lon, double side) {
+        return new double[][]{{lat, lon}, {lat, lon + side}, {lat + side, lon + side}, {lat + side, lon}, {lat, lon}};
+    }
+}
@@ -0,0 +1,94 @@
+package com.martin.stream_processor_service.geofence;
+
+import com.martin.model.VehicleData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class GeofenceTrackerTest {
+
+    private static final String FENCES = """
+            {"type": "FeatureCollection", "features": [
+              {"type": "Feature", "properties": {"id": "depot", "name": "Depósito", "kind": "depot", "radiusMeters": 250},
+               "geometry": {"type": "Point", "coordinates": [-64.1840, -31.4150]}},
+              {"type": "Feature", "properties": {"id": "norte", "kind": "district"},
+               "geometry": {"type": "Polygon", "coordinates": [[[-64.19, -31.415], [-64.177, -31.415], [-64.177, -31.408], [-64.19, -31.408], [-64.19, -31.415]]]}}
+            ]}
+            """;
+
+    private final List<GeofenceEvent> events = new ArrayList<>();
+    private final GeofenceTracker tracker = new GeofenceTracker(0.01, 4096, 1000, events::add);
+
+    @Test
+    void shouldEmitEnterAndExitOnlyOnTransitions() throws IOException {
+        tracker.replace(parse(FENCES));
+
+        tracker.update(at(-31.4300, -64.1840));
+        tracker.update(at(-31.4140, -64.1840));
+        tracker.update(at(-31.4141, -64.1841));
+        tracker.update(at(-31.4100, -64.1800));
+        tracker.update(at(-31.4300, -64.1840));
+
+        assertThat(events).extracting(GeofenceEvent::type, GeofenceEvent::fenceId).containsExactly(
+                tuple(GeofenceEvent.Type.ENTER, "depot"),
+                tuple(GeofenceEvent.Type.ENTER, "norte"),
+                tuple(GeofenceEvent.Type.EXIT, "depot"),
+                tuple(GeofenceEvent.Type.EXIT, "norte"));
+        assertThat(events.get(0).fenceName()).isEqualTo("Depósito");
+        assertThat(events.get(0).timestamp()).isEqualTo(Instant.parse("2026-01-08T12:00:00Z"));
+        assertThat(tracker.vehicles()).isZero();
+    }
+
+    @Test
+    void shouldKeepStateAcrossReloads() throws IOException {
+        tracker.replace(parse(FENCES));
+        tracker.update(at(-31.4140, -64.1840));
+        events.clear();
+
+        // El depósito se borra y el distrito se agranda: la misma cerca conserva su key, sin eventos repetidos
+        tracker.replace(parse("""
+                {"type": "FeatureCollection", "features": [
+                  {"type": "Feature", "properties": {"id": "norte", "kind": "district"},
+                   "geometry": {"type": "Polygon", "coordinates": [[[-64.2, -31.42], [-64.17, -31.42], [-64.17, -31.40], [-64.2, -31.40], [-64.2, -31.42]]]}}
+                ]}
+                """));
+        assertThat(tracker.fences()).isEqualTo(1);
+        tracker.update(at(-31.4140, -64.1840));
+
+        assertThat(events).extracting(GeofenceEvent::type, GeofenceEvent::fenceId)
+                .containsExactly(tuple(GeofenceEvent.Type.EXIT, "depot"));
+    }
+
+    @Test
+    void shouldRejectInvalidFiles() {
+        assertThatThrownBy(() -> parse("{\"type\": \"FeatureCollection\", \"features\": [{\"properties\": {}, \"geometry\": {}}]}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("id");
+        assertThatThrownBy(() -> parse(FENCES.replace("\"norte\"", "\"depot\"")))
+                .hasMessageContaining("duplicada");
+        assertThatThrownBy(() -> parse(FENCES.replace("\"Polygon\"", "\"LineString\"")))
+                .hasMessageContaining("LineString");
+    }
+
+    private List<Geofence> parse(String json) throws IOException {
+        return GeofenceLoader.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), tracker::key);
+    }
+
+    private static VehicleData at(double lat, double lon) {
+        return VehicleData.builder()
+                .vehicleId("K7Q2ZD")
+                .timestamp(Instant.parse("2026-01-08T12:00:00Z"))
+                .latitude(lat)
+                .longitude(lon)
+                .build();
+    }
+}
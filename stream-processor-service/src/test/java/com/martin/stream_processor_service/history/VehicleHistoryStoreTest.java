@@ -0,0 +1,170 @@
+package com.martin.stream_processor_service.history;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.HistoryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VehicleHistoryStoreTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-08T12:00:00Z");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldReturnSamplesInsideTheTimeRange() {
+        VehicleHistoryStore store = store(100, 10, false);
+        for (int i = 0; i < 10; i++) {
+            store.record(sample("A", i, 50 + i));
+        }
+
+        HistorySeries series = store.query("A", T0.plusSeconds(3), T0.plusSeconds(5)).orElseThrow();
+
+        assertThat(series.timestamps()).containsExactly(
+                T0.plusSeconds(3).toEpochMilli(), T0.plusSeconds(4).toEpochMilli(), T0.plusSeconds(5).toEpochMilli());
+        assertThat(series.speed()).containsExactly(53f, 54f, 55f);
+        assertThat(series.temperature()).containsExactly(73f, 74f, 75f);
+        assertThat(store.query("B", T0, T0.plusSeconds(10))).isEmpty();
+    }
+
+    @Test
+    void shouldOverwriteTheOldestSamplesWhenFull() {
+        VehicleHistoryStore store = store(4, 10, true);
+        for (int i = 0; i < 10; i++) {
+            store.record(sample("A", i, i));
+        }
+
+        HistorySeries series = store.query("A", T0, T0.plusSeconds(60)).orElseThrow();
+
+        assertThat(series.speed()).containsExactly(6f, 7f, 8f, 9f);
+    }
+
+    @Test
+    void shouldQueryWhileTheBufferIsStillFilling() throws Exception {
+        VehicleHistoryStore store = store(100_000, 10, false);
+        store.record(sample("A", 0, 0));
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i < 100_000; i++) {
+                store.record(sample("A", i, i));
+            }
+        });
+
+        writer.start();
+        while (writer.isAlive()) {
+            HistorySeries series = store.query("A", T0, T0.plusSeconds(100_000)).orElseThrow();
+            assertThat(series.speed()).hasSameSizeAs(series.timestamps());
+        }
+        writer.join();
+
+        assertThat(store.query("A", T0, T0.plusSeconds(100_000)).orElseThrow().timestamps()).hasSize(100_000);
+    }
+
+    @Test
+    void shouldDownsampleIntoMinMaxAvgBuckets() {
+        VehicleHistoryStore store = store(100, 10, false);
+        for (int i = 0; i < 6; i++) {
+            store.record(sample("A", i * 10, 10 * (i + 1)));
+        }
+
+        List<HistoryBucket> buckets = store.downsample("A", T0, T0.plusSeconds(60), Duration.ofSeconds(30)).orElseThrow();
+
+        assertThat(buckets).hasSize(2);
+        assertThat(buckets.get(0).start()).isEqualTo(T0);
+        assertThat(buckets.get(0).count()).isEqualTo(3);
+        assertThat(buckets.get(0).speed()).isEqualTo(new HistoryBucket.Stats(10, 30, 20));
+        assertThat(buckets.get(1).speed()).isEqualTo(new HistoryBucket.Stats(40, 60, 50));
+    }
+
+    @Test
+    void shouldStopTrackingNewVehiclesAtTheLimit() {
+        VehicleHistoryStore store = store(8, 2, false);
+        store.record(sample("A", 0, 1));
+        store.record(sample("B", 0, 1));
+        store.record(sample("C", 0, 1));
+
+        assertThat(store.vehicles()).isEqualTo(2);
+        assertThat(store.query("C", T0, T0.plusSeconds(1))).isEmpty();
+        assertThat(registry.get("stream.history.rejected").counter().count()).isEqualTo(1);
+        assertThat(registry.get("stream.history.bytes").gauge().value()).isEqualTo(2 * 8 * VehicleHistory.BYTES_PER_SAMPLE);
+    }
+
+    // Con el cupo lleno, un vehículo que dejó de reportar cede su lugar; uno activo no
+    @Test
+    void shouldFreeIdleVehiclesWhenTheLimitIsReached() {
+        TestClock clock = new TestClock();
+        HistoryProperties properties = new HistoryProperties();
+        properties.setCapacity(8);
+        properties.setMaxVehicles(2);
+        properties.setIdleTimeout(Duration.ofMinutes(10));
+        VehicleHistoryStore store = new VehicleHistoryStore(properties, registry, clock);
+        store.record(sample("A", 0, 1));
+        store.record(sample("B", 0, 1));
+
+        clock.advance(Duration.ofMinutes(9));
+        store.record(sample("B", 540, 2));
+        store.record(sample("C", 540, 1));
+        assertThat(store.query("C", T0, T0.plusSeconds(600))).isEmpty();
+
+        clock.advance(Duration.ofMinutes(2));
+        store.record(sample("D", 660, 1));
+
+        assertThat(store.vehicles()).isEqualTo(2);
+        assertThat(store.query("A", T0, T0.plusSeconds(600))).isEmpty();
+        assertThat(store.query("B", T0, T0.plusSeconds(600))).isPresent();
+        assertThat(store.query("D", T0, T0.plusSeconds(700))).isPresent();
+        assertThat(registry.get("stream.history.evicted").counter().count()).isEqualTo(1);
+        assertThat(registry.get("stream.history.bytes").gauge().value()).isEqualTo(2 * 8 * VehicleHistory.BYTES_PER_SAMPLE);
+    }
+
+    private VehicleHistoryStore store(int capacity, int maxVehicles, boolean offHeap) {
+        HistoryProperties properties = new HistoryProperties();
+        properties.setCapacity(capacity);
+        properties.setMaxVehicles(maxVehicles);
+        properties.setOffHeap(offHeap);
+        return new VehicleHistoryStore(properties, registry);
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now = T0;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static VehicleData sample(String id, int second, double speed) {
+        return VehicleData.builder()
+                .vehicleId(id)
+                .timestamp(T0.plusSeconds(second))
+                .speed(speed)
+                .temperature(20 + speed)
+                .battery(80)
+                .fuelLevel(90)
+                .build();
+    }
+}
@@ -0,0 +1,200 @@
+package com.martin.stream_processor_service.incident;
+
+import com.martin.model.ScoreStatus;
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.IncidentProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class IncidentTrackerTest {
+
+    private final TestClock clock = new TestClock();
+    private final List<Incident> published = new ArrayList<>();
+    private final IncidentTracker tracker = new IncidentTracker(properties(), clock, published::add);
+
+    @Test
+    void shouldOpenOnlyAfterTheDebounce() {
+        // Dos lecturas anómalas sueltas no abren nada
+        tracker.record(reading("K7Q2ZD", "engine_overheat"));
+        tracker.record(reading("K7Q2ZD", "engine_overheat"));
+        tracker.record(reading("K7Q2ZD", null));
+        assertThat(published).isEmpty();
+        assertThat(tracker.vehicles()).isZero();
+
+        for (int i = 0; i < 3; i++) {
+            tracker.record(reading("K7Q2ZD", "engine_overheat"));
+        }
+
+        assertThat(published).singleElement().satisfies(incident -> {
+            assertThat(incident.id()).isEqualTo("K7Q2ZD/engine_overheat");
+            assertThat(incident.status()).isEqualTo(IncidentStatus.OPEN);
+            assertThat(incident.readings()).isEqualTo(3);
+        });
+        assertThat(tracker.open()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCollapseALongEpisodeIntoAFewTransitions() {
+        // 5 minutos de sobretemperatura, una lectura por segundo, con alguna lectura normal suelta en el medio
+        for (int second = 0; second < 300; second++) {
+            clock.advance(Duration.ofSeconds(1));
+            tracker.record(reading("K7Q2ZD", second % 50 == 49 ? null : "engine_overheat"));
+        }
+        for (int i = 0; i < 5; i++) {
+            tracker.record(reading("K7Q2ZD", null));
+        }
+
+        assertThat(published).extracting(Incident::status).containsExactly(
+                IncidentStatus.OPEN, IncidentStatus.ONGOING, IncidentStatus.ONGOING, IncidentStatus.ONGOING,
+                IncidentStatus.ONGOING, IncidentStatus.RESOLVED);
+        assertThat(published.get(5).resolvedAt()).isNotNull();
+        assertThat(tracker.open()).isZero();
+        assertThat(tracker.vehicles()).isZero();
+    }
+
+    @Test
+    void shouldTrackEachAnomalyTypeSeparately() {
+        for (int i = 0; i < 3; i++) {
+            tracker.record(reading("K7Q2ZD", "engine_overheat"));
+        }
+        for (int i = 0; i < 3; i++) {
+            tracker.record(reading("K7Q2ZD", "overspeed"));
+        }
+        // Sin tipo (veredicto del modelo) va a su propio incidente
+        for (int i = 0; i < 3; i++) {
+            tracker.record(reading("K7Q2ZD", ""));
+        }
+
+        assertThat(published).extracting(Incident::id, Incident::status).containsExactly(
+                tuple("K7Q2ZD/engine_overheat", IncidentStatus.OPEN),
+                tuple("K7Q2ZD/overspeed", IncidentStatus.OPEN),
+                tuple("K7Q2ZD/engine_overheat", IncidentStatus.RESOLVED),
+                tuple("K7Q2ZD/model", IncidentStatus.OPEN));
+    }
+
+    @Test
+    void shouldIgnoreUnscoredReadings() {
+        for (int i = 0; i < 3; i++) {
+            tracker.record(reading("K7Q2ZD", "battery_low"));
+        }
+        for (int i = 0; i < 10; i++) {
+            VehicleData unscored = reading("K7Q2ZD", null);
+            unscored.setScoreStatus(ScoreStatus.UNSCORED);
+            tracker.record(unscored);
+        }
+
+        assertThat(published).extracting(Incident::status).containsExactly(IncidentStatus.OPEN);
+        assertThat(tracker.open()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldOpenFromLateVerdictsOfReadingsThatWentOutUnscored() {
+        // El modelo estuvo caído: las lecturas salieron UNSCORED y sus veredictos llegan después, en orden
+        for (int second = 0; second < 3; second++) {
+            tracker.recordLate(reading("K7Q2ZD", "model", second));
+        }
+
+        assertThat(published).singleElement().satisfies(incident -> {
+            assertThat(incident.status()).isEqualTo(IncidentStatus.OPEN);
+            assertThat(incident.openedAt()).isEqualTo(Instant.parse("2026-01-08T12:00:00Z"));
+        });
+        assertThat(tracker.staleLate()).isZero();
+    }
+
+    @Test
+    void shouldIgnoreLateVerdictsOlderThanTheLastReading() {
+        for (int second = 10; second < 13; second++) {
+            tracker.record(reading("K7Q2ZD", "overspeed", second));
+        }
+        for (int second = 13; second < 17; second++) {
+            tracker.record(reading("K7Q2ZD", null, second));
+        }
+
+        // Anteriores a lo que ya pasó en vivo: no reinician la histéresis de resolución
+        tracker.recordLate(reading("K7Q2ZD", "overspeed", 5));
+        tracker.recordLate(reading("K7Q2ZD", "overspeed", 12));
+        tracker.record(reading("K7Q2ZD", null, 17));
+
+        assertThat(published).extracting(Incident::status).containsExactly(IncidentStatus.OPEN, IncidentStatus.RESOLVED);
+        assertThat(tracker.staleLate()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldResolveIncidentsOfSilentVehicles() {
+        for (int i = 0; i < 3; i++) {
+            tracker.record(reading("K7Q2ZD", "overspeed"));
+        }
+        tracker.record(reading("X1Y2Z3", "overspeed"));
+
+        clock.advance(Duration.ofSeconds(59));
+        tracker.expire();
+        assertThat(tracker.vehicles()).isEqualTo(2);
+
+        clock.advance(Duration.ofSeconds(1));
+        tracker.expire();
+
+        assertThat(published).extracting(Incident::status).containsExactly(IncidentStatus.OPEN, IncidentStatus.RESOLVED);
+        assertThat(tracker.vehicles()).isZero();
+        assertThat(tracker.open()).isZero();
+    }
+
+    private static VehicleData reading(String vehicleId, String anomalyType) {
+        return reading(vehicleId, anomalyType, 0);
+    }
+
+    private static VehicleData reading(String vehicleId, String anomalyType, int second) {
+        return VehicleData.builder()
+                .vehicleId(vehicleId)
+                .timestamp(Instant.parse("2026-01-08T12:00:00Z").plusSeconds(second))
+                .latitude(-31.4183)
+                .longitude(-64.1832)
+                .anomaly(anomalyType != null)
+                .anomalyType(anomalyType)
+                .scoreStatus(ScoreStatus.SCORED)
+                .build();
+    }
+
+    private static IncidentProperties properties() {
+        IncidentProperties properties = new IncidentProperties();
+        properties.setEnabled(true);
+        properties.setOpenAfter(3);
+        properties.setResolveAfter(5);
+        properties.setUpdateInterval(Duration.ofMinutes(1));
+        properties.setIdleTimeout(Duration.ofMinutes(1));
+        return properties;
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-08T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
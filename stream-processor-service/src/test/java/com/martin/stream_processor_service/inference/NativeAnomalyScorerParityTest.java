@@ -0,0 +1,95 @@
+package com.martin.stream_processor_service.inference;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+// Compara el motor nativo con las puntuaciones que registra Keras con export_model.py --parity.
+// El fixture se genera junto con autoencoder.json (ver el docstring de export_model.py) y sin él el test falla.
+// Corre con el perfil model-parity (mvn -Pmodel-parity test), que necesita el fixture commiteado.
+@Tag("model-parity")
+class NativeAnomalyScorerParityTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static NativeAnomalyScorer scorer;
+    private static JsonNode parity;
+
+    @BeforeAll
+    static void load() throws Exception {
+        ClassPathResource fixture = new ClassPathResource("model/autoencoder-parity.json");
+        assertThat(fixture.exists())
+                .as("Sin src/test/resources/model/autoencoder-parity.json: correr export_model.py --parity junto a model.pkl")
+                .isTrue();
+
+        ClassPathResource export = new ClassPathResource("model/autoencoder.json");
+        scorer = new NativeAnomalyScorer(export, mapper);
+        try (InputStream in = fixture.getInputStream()) {
+            parity = mapper.readTree(in);
+        }
+        assertThat(parity.path("generator").asText()).as("origen del fixture").startsWith("keras");
+        try (InputStream in = export.getInputStream()) {
+            String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(in.readAllBytes()));
+            assertThat(sha256).as("autoencoder.json tiene que ser el export que generó el fixture")
+                    .isEqualTo(parity.path("export_sha256").asText());
+        }
+    }
+
+    @Test
+    void shouldMatchPythonReconstructionErrors() {
+        for (JsonNode sample : parity.get("samples")) {
+            double expected = sample.get("reconstruction_error").asDouble();
+
+            double actual = scorer.reconstructionError(request(sample.get("input")));
+
+            assertThat(actual).isCloseTo(expected, within(1e-5 * Math.max(1.0, expected)));
+        }
+    }
+
+    @Test
+    void shouldMatchPythonVerdicts() {
+        int anomalies = 0;
+        for (JsonNode sample : parity.get("samples")) {
+            PredictionResponse response = scorer.score(request(sample.get("input")));
+
+            assertThat(response.getAnomalyThreshold()).isEqualTo(parity.get("threshold").asDouble());
+            assertThat(response.isAnomaly()).isEqualTo(sample.get("is_anomaly").asBoolean());
+            anomalies += response.isAnomaly() ? 1 : 0;
+        }
+        assertThat(anomalies).isPositive();
+    }
+
+    // Las entradas del fixture van en el orden de su lista "features"
+    private static PredictionRequest request(JsonNode input) {
+        PredictionRequest request = new PredictionRequest();
+        JsonNode features = parity.get("features");
+        for (int i = 0; i < features.size(); i++) {
+            double value = input.get(i).asDouble();
+            switch (features.get(i).asText()) {
+                case "latitude" -> request.setLatitude(value);
+                case "longitude" -> request.setLongitude(value);
+                case "speed" -> request.setSpeed(value);
+                case "previousSpeed" -> request.setPreviousSpeed(value);
+                case "acceleration" -> request.setAcceleration(value);
+                case "temperature" -> request.setTemperature(value);
+                case "battery" -> request.setBattery(value);
+                case "fuelLevel" -> request.setFuelLevel(value);
+                case "speedLimit" -> request.setSpeedLimit(value);
+                case "trafficLevel" -> request.setTrafficLevel(value);
+                default -> throw new IllegalArgumentException("Unknown feature " + features.get(i));
+            }
+        }
+        return request;
+    }
+}
@@ -0,0 +1,85 @@
+package com.martin.stream_processor_service.inference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Modelo chico con resultados calculados a mano: no depende de ningún fixture generado
+class NativeAnomalyScorerTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // features en otro orden que PredictionRequest: speed, latitude
+    // escalado: speed (70 - 50) / 10 = 2, latitude (-30.5 + 31) / 0.5 = 1
+    // relu([2*1 + 1*0, 2*-1 + 1*1]) = [2, 0]
+    // linear([2*0.5, 0*3 + 1]) = [1, 1] -> error ((2-1)^2 + (1-1)^2) / 2 = 0.5
+    private static final String MODEL = """
+            {
+              "format": "fleet-autoencoder",
+              "version": 1,
+              "features": ["speed", "latitude"],
+              "scaler": {"mean": [50.0, -31.0], "scale": [10.0, 0.5]},
+              "layers": [
+                {"activation": "relu", "kernel": [[1.0, -1.0], [0.0, 1.0]], "bias": [0.0, 0.0]},
+                {"activation": "linear", "kernel": [[0.5, 0.0], [0.0, 3.0]], "bias": [0.0, 1.0]}
+              ],
+              "threshold": 0.4
+            }
+            """;
+
+    @Test
+    void shouldScoreWithTheFeatureOrderOfTheExport() throws Exception {
+        NativeAnomalyScorer scorer = new NativeAnomalyScorer(model(MODEL));
+
+        PredictionResponse response = scorer.score(request(70.0, -30.5));
+
+        assertThat(response.getReconstructionError()).isEqualTo(0.5);
+        assertThat(response.getAnomalyThreshold()).isEqualTo(0.4);
+        assertThat(response.isAnomaly()).isTrue();
+    }
+
+    @Test
+    void shouldRejectFeaturesThatPredictionRequestDoesNotHave() {
+        String unknown = MODEL.replace("\"latitude\"]", "\"altitude\"]");
+
+        assertThatThrownBy(() -> new NativeAnomalyScorer(model(unknown)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("altitude");
+    }
+
+    @Test
+    void shouldNotAllocatePerRecordOnceWarm() throws Exception {
+        NativeAnomalyScorer scorer = new NativeAnomalyScorer(model(MODEL));
+        PredictionRequest request = request(70.0, -30.5);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 20_000; i++) {
+            scorer.reconstructionError(request);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        double sink = 0;
+        for (int i = 0; i < 100_000; i++) {
+            sink += scorer.reconstructionError(request);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(sink).isPositive();
+        assertThat(allocated).isLessThan(100_000L);
+    }
+
+    private static AutoencoderModel model(String json) throws Exception {
+        return AutoencoderModel.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), mapper);
+    }
+
+    private static PredictionRequest request(double speed, double latitude) {
+        return new PredictionRequest(latitude, -64.18, speed, 50.0, 0.5, 70.0, 80.0, 99.5, 90.0, 3.0);
+    }
+}
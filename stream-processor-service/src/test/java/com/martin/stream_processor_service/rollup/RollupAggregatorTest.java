@@ -0,0 +1,106 @@
+package com.martin.stream_processor_service.rollup;
+
+import com.martin.model.VehicleData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RollupAggregatorTest {
+
+    private final List<FleetRollup> published = new CopyOnWriteArrayList<>();
+    // Ventana larga: el scheduler no cierra nada durante el test, se cierra con flushAll
+    private final RollupAggregator aggregator = new RollupAggregator(List.of(Duration.ofHours(1)), published::add);
+
+    @AfterEach
+    void close() {
+        aggregator.close();
+    }
+
+    @Test
+    void shouldAggregatePerGroupAndForTheFleet() {
+        aggregator.record(vehicle("highway", "rain", 3, 100, 120, false));
+        aggregator.record(vehicle("highway", "rain", 3, 140, 120, true));
+        aggregator.record(vehicle("urban", "clear", 1, 50, 60, false));
+
+        aggregator.flushAll();
+
+        FleetRollup rollup = published.get(0);
+        assertThat(rollup.type()).isEqualTo("rollup");
+        assertThat(rollup.window()).isEqualTo("1h");
+        assertThat(Duration.between(rollup.start(), rollup.end())).isEqualTo(Duration.ofHours(1));
+        assertThat(rollup.fleet().count()).isEqualTo(3);
+        assertThat(rollup.fleet().avgSpeed()).isCloseTo(290 / 3.0, within(1e-9));
+        assertThat(rollup.fleet().overspeedRate()).isCloseTo(1 / 3.0, within(1e-9));
+
+        assertThat(rollup.groups()).hasSize(2);
+        FleetRollup.Group highway = rollup.groups().stream().filter(g -> g.roadType().equals("highway")).findFirst().orElseThrow();
+        assertThat(highway.weather()).isEqualTo("rain");
+        assertThat(highway.trafficLevel()).isEqualTo(3);
+        assertThat(highway.totals()).isEqualTo(new FleetRollup.Totals(2, 120, 0.5, 0.5));
+    }
+
+    @Test
+    void shouldStartEachWindowFromZero() {
+        aggregator.record(vehicle("urban", "clear", 1, 50, 60, false));
+        aggregator.flushAll();
+        aggregator.flushAll();
+
+        assertThat(published).hasSize(2);
+        assertThat(published.get(1).fleet().count()).isZero();
+        assertThat(published.get(1).groups()).isEmpty();
+        assertThat(published.get(1).start()).isEqualTo(published.get(0).end());
+    }
+
+    @Test
+    void shouldGroupUnknownValuesAsOther() {
+        aggregator.record(vehicle("dirt track", null, 9, 30, 40, false));
+        aggregator.flushAll();
+
+        FleetRollup.Group group = published.get(0).groups().get(0);
+        assertThat(group.roadType()).isEqualTo("other");
+        assertThat(group.weather()).isEqualTo("other");
+        assertThat(group.trafficLevel()).isZero();
+    }
+
+    @Test
+    void shouldNotLoseCountsUnderConcurrentWriters() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    aggregator.record(vehicle("rural", "fog", 1 + i % 5, 80, 90, i % 10 == 0));
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        aggregator.flushAll();
+
+        FleetRollup rollup = published.get(0);
+        assertThat(rollup.fleet().count()).isEqualTo(80_000);
+        assertThat(rollup.fleet().anomalyRate()).isCloseTo(0.1, within(1e-9));
+        assertThat(rollup.groups()).hasSize(5);
+    }
+
+    private static VehicleData vehicle(String roadType, String weather, int traffic, double speed, double speedLimit, boolean anomaly) {
+        return VehicleData.builder()
+                .vehicleId("K7Q2ZD")
+                .roadType(roadType)
+                .weather(weather)
+                .trafficLevel(traffic)
+                .speed(speed)
+                .speedLimit(speedLimit)
+                .anomaly(anomaly)
+                .build();
+    }
+}
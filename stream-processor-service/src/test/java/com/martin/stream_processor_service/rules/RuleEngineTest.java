@@ -0,0 +1,124 @@
+package com.martin.stream_processor_service.rules;
+
+import com.martin.model.VehicleData;
+import com.martin.model.VehicleStats;
+import com.martin.stream_processor_service.config.RuleProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleEngineTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldFlagObviousAnomalies() {
+        RuleEngine engine = new RuleEngine(simulatorRules(), registry);
+
+        assertThat(name(engine, vehicle(170, 120, 70, 80))).isEqualTo("overspeed");
+        assertThat(name(engine, vehicle(40, 60, 125, 80))).isEqualTo("engine_overheat");
+        assertThat(name(engine, vehicle(40, 60, 70, 12))).isEqualTo("battery_low");
+        assertThat(registry.get("stream.rules.matches").tag("rule", "overspeed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLeaveAmbiguousRecordsToTheModel() {
+        RuleEngine engine = new RuleEngine(simulatorRules(), registry);
+
+        // 80 km/h en zona urbana (ratio 1.33), 100 °C, 25% de batería: ninguno supera su umbral
+        assertThat(engine.match(vehicle(80, 60, 100, 25))).isEqualTo(RuleEngine.NO_MATCH);
+        assertThat(engine.match(vehicle(72, 120, 70, 80))).isEqualTo(RuleEngine.NO_MATCH);
+    }
+
+    @Test
+    void shouldUseTheFirstMatchingRuleInConfigurationOrder() {
+        RuleEngine engine = new RuleEngine(simulatorRules(), registry);
+
+        assertThat(name(engine, vehicle(170, 120, 125, 12))).isEqualTo("overspeed");
+    }
+
+    @Test
+    void shouldNotMatchRatioRulesWithoutAPositiveDivisor() {
+        RuleEngine engine = new RuleEngine(simulatorRules(), registry);
+
+        assertThat(engine.match(vehicle(50, 0, 70, 80))).isEqualTo(RuleEngine.NO_MATCH);
+    }
+
+    @Test
+    void shouldOnlyMatchStatsRulesWhenTheRecordHasAWindow() {
+        RuleProperties properties = new RuleProperties();
+        properties.setEnabled(true);
+        properties.setRules(List.of(rule("overheating_trend", RuleField.TEMPERATURE_EWMA, null, RuleProperties.Operator.ABOVE, 100)));
+        RuleEngine engine = new RuleEngine(properties, registry);
+        VehicleData data = vehicle(40, 60, 70, 80);
+
+        assertThat(engine.match(data)).isEqualTo(RuleEngine.NO_MATCH);
+
+        VehicleStats.Metric metric = new VehicleStats.Metric(0, 0, 0, 0, 0);
+        data.setStats(new VehicleStats(10, metric, new VehicleStats.Metric(98, 1, 96, 110, 104), metric, 0, 0));
+        assertThat(name(engine, data)).isEqualTo("overheating_trend");
+
+        data.getStats().setSamples(0);
+        assertThat(engine.match(data)).isEqualTo(RuleEngine.NO_MATCH);
+    }
+
+    @Test
+    void shouldMatchNothingWhenDisabled() {
+        RuleProperties properties = simulatorRules();
+        properties.setEnabled(false);
+        RuleEngine engine = new RuleEngine(properties, registry);
+
+        assertThat(engine.isEnabled()).isFalse();
+        assertThat(engine.match(vehicle(170, 120, 125, 12))).isEqualTo(RuleEngine.NO_MATCH);
+    }
+
+    @Test
+    void shouldRejectIncompleteRules() {
+        RuleProperties properties = new RuleProperties();
+        properties.setEnabled(true);
+        properties.setRules(List.of(rule("overspeed", null, null, RuleProperties.Operator.ABOVE, 1.35)));
+
+        assertThatThrownBy(() -> new RuleEngine(properties, registry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String name(RuleEngine engine, VehicleData data) {
+        int rule = engine.match(data);
+        return rule == RuleEngine.NO_MATCH ? null : engine.name(rule);
+    }
+
+    private static RuleProperties simulatorRules() {
+        RuleProperties properties = new RuleProperties();
+        properties.setEnabled(true);
+        properties.setRules(List.of(
+                rule("overspeed", RuleField.SPEED, RuleField.SPEED_LIMIT, RuleProperties.Operator.ABOVE, 1.35),
+                rule("engine_overheat", RuleField.TEMPERATURE, null, RuleProperties.Operator.ABOVE, 105),
+                rule("battery_low", RuleField.BATTERY, null, RuleProperties.Operator.BELOW, 20)));
+        return properties;
+    }
+
+    private static RuleProperties.Rule rule(String name, RuleField field, RuleField per, RuleProperties.Operator operator, double threshold) {
+        RuleProperties.Rule rule = new RuleProperties.Rule();
+        rule.setName(name);
+        rule.setField(field);
+        rule.setPer(per);
+        rule.setOperator(operator);
+        rule.setThreshold(threshold);
+        return rule;
+    }
+
+    private static VehicleData vehicle(double speed, double speedLimit, double temperature, double battery) {
+        return VehicleData.builder()
+                .vehicleId("K7Q2ZD")
+                .speed(speed)
+                .speedLimit(speedLimit)
+                .temperature(temperature)
+                .battery(battery)
+                .fuelLevel(99)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.martin.stream_processor_service.scheduling;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.client.LoadShedException;
+import com.martin.stream_processor_service.config.PredictionSchedulerProperties;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PredictionSchedulerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldServeHighRiskRecordsFirst() {
+        PredictionScheduler scheduler = new PredictionScheduler(properties(1, 100, 0), registry);
+        List<String> order = new CopyOnWriteArrayList<>();
+        Sinks.One<PredictionResponse> blocker = Sinks.one();
+
+        // Ocupa el único turno; los siguientes quedan en cola
+        scheduler.schedule(Priority.LOW, blocker::asMono).subscribe();
+        scheduler.schedule(Priority.LOW, () -> call(order, "low")).subscribe();
+        scheduler.schedule(Priority.MEDIUM, () -> call(order, "medium")).subscribe();
+        scheduler.schedule(Priority.HIGH, () -> call(order, "high")).subscribe();
+        assertThat(scheduler.queued(Priority.HIGH)).isEqualTo(1);
+
+        blocker.tryEmitValue(new PredictionResponse());
+
+        assertThat(order).containsExactly("high", "medium", "low");
+        assertThat(scheduler.running()).isZero();
+        assertThat(registry.get("prediction.scheduler.queue.delay").tag("priority", "high").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldShedLowRiskRecordsOnlyUnderOverload() {
+        PredictionScheduler scheduler = new PredictionScheduler(properties(1, 2, 0), registry);
+        Sinks.One<PredictionResponse> blocker = Sinks.one();
+        scheduler.schedule(Priority.HIGH, blocker::asMono).subscribe();
+
+        List<Mono<PredictionResponse>> queued = new ArrayList<>();
+        queued.add(scheduler.schedule(Priority.LOW, () -> Mono.just(new PredictionResponse())).cache());
+        queued.add(scheduler.schedule(Priority.LOW, () -> Mono.just(new PredictionResponse())).cache());
+        queued.forEach(mono -> mono.subscribe(r -> { }, e -> { }));
+
+        // Dos en cola = sobrecarga: el LOW siguiente se descarta, los HIGH/MEDIUM no
+        assertThatThrownBy(() -> scheduler.schedule(Priority.LOW, () -> Mono.just(new PredictionResponse())).block(Duration.ofSeconds(1)))
+                .isInstanceOf(LoadShedException.class);
+        scheduler.schedule(Priority.MEDIUM, () -> Mono.just(new PredictionResponse())).subscribe();
+        assertThat(scheduler.queued(Priority.MEDIUM)).isEqualTo(1);
+        assertThat(registry.get("prediction.scheduler.shed").tag("priority", "low").counter().count()).isEqualTo(1);
+
+        blocker.tryEmitValue(new PredictionResponse());
+        queued.forEach(mono -> assertThat(mono.block(Duration.ofSeconds(1))).isNotNull());
+    }
+
+    @Test
+    void shouldReleaseTheTurnOnErrorsAndCancellation() {
+        PredictionScheduler scheduler = new PredictionScheduler(properties(1, 100, 0), registry);
+
+        assertThatThrownBy(() -> scheduler.schedule(Priority.HIGH, () -> Mono.error(new IllegalStateException("boom"))).block())
+                .hasMessage("boom");
+        scheduler.schedule(Priority.HIGH, Mono::never).subscribe().dispose();
+
+        assertThat(scheduler.schedule(Priority.LOW, () -> Mono.just(new PredictionResponse())).block(Duration.ofSeconds(1))).isNotNull();
+        assertThat(scheduler.running()).isZero();
+    }
+
+    @Test
+    void shouldDrainLongQueuesOfSynchronousCallsWithoutRecursion() {
+        PredictionScheduler scheduler = new PredictionScheduler(properties(1, 1_000_000, 0), registry);
+        Sinks.One<PredictionResponse> blocker = Sinks.one();
+        scheduler.schedule(Priority.HIGH, blocker::asMono).subscribe();
+        int[] done = {0};
+        for (int i = 0; i < 50_000; i++) {
+            scheduler.schedule(Priority.MEDIUM, () -> Mono.just(new PredictionResponse())).subscribe(r -> done[0]++);
+        }
+
+        blocker.tryEmitValue(new PredictionResponse());
+
+        assertThat(done[0]).isEqualTo(50_000);
+    }
+
+    @Test
+    void shouldClassifyByPriorRisk() {
+        VehicleData cruising = VehicleData.builder().speed(50).speedLimit(60).temperature(70).battery(80).weather("clear").build();
+        VehicleData stormyNight = VehicleData.builder().speed(50).speedLimit(60).temperature(70).battery(80).weather("storm").night(true).build();
+        VehicleData overheating = VehicleData.builder().speed(50).speedLimit(60).temperature(140).battery(80).weather("clear").build();
+
+        assertThat(RiskPrior.classify(cruising)).isEqualTo(Priority.LOW);
+        assertThat(RiskPrior.classify(stormyNight)).isEqualTo(Priority.MEDIUM);
+        assertThat(RiskPrior.classify(overheating)).isEqualTo(Priority.HIGH);
+    }
+
+    private static Mono<PredictionResponse> call(List<String> order, String name) {
+        return Mono.fromSupplier(() -> {
+            order.add(name);
+            return new PredictionResponse();
+        });
+    }
+
+    private static PredictionSchedulerProperties properties(int maxConcurrent, int shedQueueDepth, double lowSampleRate) {
+        PredictionSchedulerProperties properties = new PredictionSchedulerProperties();
+        properties.setEnabled(true);
+        properties.setMaxConcurrent(maxConcurrent);
+        properties.setShedQueueDepth(shedQueueDepth);
+        properties.setLowSampleRate(lowSampleRate);
+        return properties;
+    }
+}
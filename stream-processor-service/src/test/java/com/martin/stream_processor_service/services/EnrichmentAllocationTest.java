@@ -0,0 +1,103 @@
+package com.martin.stream_processor_service.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.model.ScoreStatus;
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Presupuesto de memoria por registro del camino respuesta de /predict -> registro enriquecido,
+// con el mismo decoder (DataBuffer -> PredictionResponse) que usa WebClient
+class EnrichmentAllocationTest {
+
+    // Medido: ~1.6 KB por registro (casi todo el parser de Jackson); con el input + convertValue eran ~4.2 KB
+    private static final long BYTES_PER_RECORD_BUDGET = 2048;
+    private static final int RECORDS = 20_000;
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Jackson2JsonDecoder decoder = new Jackson2JsonDecoder(mapper);
+    private final DefaultDataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+    private final ResolvableType type = ResolvableType.forClass(PredictionResponse.class);
+
+    @Test
+    void shouldDecodeTheVerdictAndEnrichInPlace() throws Exception {
+        VehicleData data = sample();
+        byte[] body = body(data, true);
+
+        VehicleData enriched = decodeAndEnrich(data, body);
+
+        assertThat(enriched).isSameAs(data);
+        assertThat(enriched.isAnomaly()).isTrue();
+        assertThat(enriched.getScoreStatus()).isEqualTo(ScoreStatus.SCORED);
+        assertThat(enriched.isNight()).isTrue();
+        assertThat(enriched.getSpeed()).isEqualTo(123.4);
+    }
+
+    @Test
+    void shouldStayWithinThePerRecordAllocationBudget() throws Exception {
+        VehicleData[] records = new VehicleData[64];
+        byte[][] bodies = new byte[records.length][];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = sample();
+            records[i].setSpeed(60 + i);
+            bodies[i] = body(records[i], i % 2 == 0);
+        }
+
+        // Calentamiento para que el JIT y los buffers reciclados de Jackson no cuenten
+        for (int i = 0; i < RECORDS; i++) {
+            decodeAndEnrich(records[i & 63], bodies[i & 63]);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < RECORDS; i++) {
+            decodeAndEnrich(records[i & 63], bodies[i & 63]);
+        }
+        long perRecord = (threads.getCurrentThreadAllocatedBytes() - before) / RECORDS;
+
+        assertThat(perRecord).isLessThan(BYTES_PER_RECORD_BUDGET);
+    }
+
+    private VehicleData decodeAndEnrich(VehicleData data, byte[] body) {
+        PredictionResponse response = (PredictionResponse) decoder.decode(buffers.wrap(body), type,
+                MediaType.APPLICATION_JSON, null);
+        return StreamProcessorService.enrich(data, response);
+    }
+
+    // Forma de la respuesta de llm-anomalies-detection: el input se devuelve tal cual
+    private byte[] body(VehicleData data, boolean anomaly) throws Exception {
+        return ("{\"input\":" + mapper.writeValueAsString(PredictionRequest.fromVehicleData(data))
+                + ",\"reconstruction_error\":0.0123,\"anomaly_threshold\":0.05,\"is_anomaly\":" + anomaly + "}").getBytes();
+    }
+
+    private static VehicleData sample() {
+        return VehicleData.builder()
+                .vehicleId("K7Q2ZD")
+                .timestamp(Instant.parse("2026-01-08T12:34:56.789012Z"))
+                .latitude(-31.4183)
+                .longitude(-64.1832)
+                .speed(123.4)
+                .previousSpeed(118.2)
+                .acceleration(5.2)
+                .temperature(71.3)
+                .battery(79.8)
+                .fuelLevel(99.6)
+                .weather("storm")
+                .roadType("highway")
+                .speedLimit(120)
+                .night(true)
+                .trafficLevel(4)
+                .build();
+    }
+}
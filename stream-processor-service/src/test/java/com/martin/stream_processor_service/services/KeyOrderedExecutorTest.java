@@ -0,0 +1,118 @@
+package com.martin.stream_processor_service.services;
+
+import com.martin.stream_processor_service.config.StreamProcessingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedExecutorTest {
+
+    private KeyOrderedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldKeepPerKeyOrderWhileRunningKeysInParallel() throws InterruptedException {
+        executor = new KeyOrderedExecutor(properties(16, true), new SimpleMeterRegistry());
+        int vehicles = 200;
+        int perVehicle = 50;
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(vehicles * perVehicle);
+
+        // Intercalados como llegarían de una partición
+        for (int i = 0; i < perVehicle; i++) {
+            for (int v = 0; v < vehicles; v++) {
+                String vehicleId = "V" + v;
+                int sequence = i;
+                executor.execute(vehicleId, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    if (ThreadLocalRandom.current().nextInt(20) == 0) {
+                        sleep(1);
+                    }
+                    seen.computeIfAbsent(vehicleId, k -> new CopyOnWriteArrayList<>()).add(sequence);
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+        }
+
+        assertThat(done.await(20, TimeUnit.SECONDS)).isTrue();
+        assertThat(seen).hasSize(vehicles);
+        seen.values().forEach(sequence -> assertThat(sequence).isSorted().hasSize(perVehicle));
+        assertThat(maxRunning.get()).isGreaterThan(1);
+    }
+
+    @Test
+    void shouldRouteTheSameKeyToTheSameLane() throws InterruptedException {
+        executor = new KeyOrderedExecutor(properties(8, false), new SimpleMeterRegistry());
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(100);
+
+        for (int i = 0; i < 100; i++) {
+            executor.execute("K7Q2ZD", () -> {
+                threads.add(Thread.currentThread().getName());
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(threads).hasSize(1);
+        assertThat(executor.lane(null)).isZero();
+    }
+
+    @Test
+    void shouldKeepGoingAfterAFailingTask() throws InterruptedException {
+        executor = new KeyOrderedExecutor(properties(1, true), new SimpleMeterRegistry());
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute("K7Q2ZD", () -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.execute("K7Q2ZD", done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldNotStartLanesOutsideOrderedMode() {
+        StreamProcessingProperties properties = properties(8, true);
+        properties.setMode(StreamProcessingProperties.Mode.BOUNDED);
+
+        executor = new KeyOrderedExecutor(properties, new SimpleMeterRegistry());
+
+        assertThat(executor.lanes()).isZero();
+    }
+
+    private static StreamProcessingProperties properties(int lanes, boolean virtualThreads) {
+        StreamProcessingProperties properties = new StreamProcessingProperties();
+        properties.setMode(StreamProcessingProperties.Mode.ORDERED);
+        properties.setLanes(lanes);
+        properties.setVirtualThreads(virtualThreads);
+        return properties;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.martin.stream_processor_service.services;
+
+import com.martin.stream_processor_service.config.PredictionSchedulerProperties;
+import com.martin.stream_processor_service.config.StreamProcessingProperties;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import com.martin.stream_processor_service.scheduling.PredictionScheduler;
+import com.martin.stream_processor_service.scheduling.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// Con la configuración que se despliega (ORDERED): el modelo colgado llena los carriles, no la cola del
+// scheduler, y aun así los LOW tienen que poder descartarse
+class OrderedLoadSheddingTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private StreamProcessingProperties processing;
+    private PredictionSchedulerProperties scheduling;
+    private KeyOrderedExecutor lanes;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // El application.properties de test pisa al de main en el classpath: se lee el archivo que se despliega
+        Properties shipped = PropertiesLoaderUtils.loadProperties(new FileSystemResource("src/main/resources/application.properties"));
+        Binder binder = new Binder(new MapConfigurationPropertySource(shipped));
+        processing = binder.bind("stream.processor", StreamProcessingProperties.class).get();
+        scheduling = binder.bind("prediction.scheduler", PredictionSchedulerProperties.class).get();
+        lanes = new KeyOrderedExecutor(processing, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.close();
+    }
+
+    @Test
+    void shouldShedLowRiskRecordsWhileTheLanesAreBackedUp() {
+        assertThat(processing.getMode()).isEqualTo(StreamProcessingProperties.Mode.ORDERED);
+        assertThat(scheduling.isEnabled()).isTrue();
+        PredictionScheduler scheduler = new PredictionScheduler(scheduling, registry);
+
+        // Hasta max-in-flight registros a la vez (InFlightGate), todos esperando a un modelo que no responde
+        for (int i = 0; i < processing.getMaxInFlight(); i++) {
+            lanes.execute("V" + i, () -> awaitModel(scheduler));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> scheduler.running() == scheduling.getMaxConcurrent());
+
+        // La cola del scheduler nunca pasa de un registro por carril bloqueado
+        int schedulerQueue = scheduler.queued(Priority.MEDIUM);
+        assertThat(schedulerQueue).isLessThanOrEqualTo(processing.getLanes() - scheduling.getMaxConcurrent());
+        assertThat(lanes.queued()).isGreaterThanOrEqualTo(processing.getMaxInFlight() - processing.getLanes());
+
+        int admitted = 0;
+        for (int i = 0; i < 1_000; i++) {
+            admitted += scheduler.admit(Priority.LOW, lanes.queued()) ? 1 : 0;
+        }
+
+        assertThat(admitted).isLessThan(1_000);
+        assertThat(registry.get("prediction.scheduler.shed").tag("priority", "low").counter().count())
+                .isEqualTo(1_000 - admitted);
+        assertThat(scheduler.admit(Priority.HIGH, lanes.queued())).isTrue();
+        assertThat(scheduler.admit(Priority.MEDIUM, lanes.queued())).isTrue();
+    }
+
+    @Test
+    void shouldAdmitEverythingWhileTheLanesKeepUp() {
+        PredictionScheduler scheduler = new PredictionScheduler(scheduling, registry);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(scheduler.admit(Priority.LOW, lanes.queued())).isTrue();
+        }
+    }
+
+    // close() interrumpe los carriles al terminar el test
+    private static void awaitModel(PredictionScheduler scheduler) {
+        try {
+            scheduler.schedule(Priority.MEDIUM, Mono::<PredictionResponse>never).block();
+        } catch (RuntimeException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
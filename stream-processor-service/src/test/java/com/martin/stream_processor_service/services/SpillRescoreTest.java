@@ -0,0 +1,165 @@
+package com.martin.stream_processor_service.services;
+
+import com.martin.model.ScoreStatus;
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.archive.TelemetryArchive;
+import com.martin.stream_processor_service.client.AnomalyScorer;
+import com.martin.stream_processor_service.config.FleetStateProperties;
+import com.martin.stream_processor_service.config.HistoryProperties;
+import com.martin.stream_processor_service.config.StreamProcessingProperties;
+import com.martin.stream_processor_service.config.TelemetryWebSocketHandler;
+import com.martin.stream_processor_service.geofence.Geofences;
+import com.martin.stream_processor_service.history.HistorySeries;
+import com.martin.stream_processor_service.history.VehicleHistoryStore;
+import com.martin.stream_processor_service.incident.Incidents;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
+import com.martin.stream_processor_service.rollup.FleetRollups;
+import com.martin.stream_processor_service.rules.RuleEngine;
+import com.martin.stream_processor_service.scheduling.PredictionScheduler;
+import com.martin.stream_processor_service.spill.InferenceSpill;
+import com.martin.stream_processor_service.state.FleetStateStore;
+import com.martin.stream_processor_service.stats.VehicleStatsStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Un registro que vuelve del spill ya salió en vivo como UNSCORED y es más viejo que los que pasaron después:
+// sólo aporta su veredicto
+class SpillRescoreTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-08T12:00:00Z");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AnomalyScorer scorer = mock(AnomalyScorer.class);
+    private final PredictionScheduler scheduler = mock(PredictionScheduler.class);
+    private final TelemetryWebSocketHandler wsHandler = mock(TelemetryWebSocketHandler.class);
+    private final TelemetryArchive archive = mock(TelemetryArchive.class);
+    private final FleetRollups rollups = mock(FleetRollups.class);
+    private final Incidents incidents = mock(Incidents.class);
+    private final InferenceSpill spill = mock(InferenceSpill.class);
+    private final FleetStateStore stateStore = new FleetStateStore(new FleetStateProperties(), registry);
+    private final VehicleHistoryStore historyStore = new VehicleHistoryStore(new HistoryProperties(), registry);
+    private Function<VehicleData, Mono<Void>> rescore;
+    private StreamProcessorService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(scheduler.schedule(any(), any())).thenAnswer(inv -> Mono.defer(inv.<Supplier<Mono<PredictionResponse>>>getArgument(1)));
+        StreamProcessingProperties properties = new StreamProcessingProperties();
+        properties.setMode(StreamProcessingProperties.Mode.FIRE_AND_FORGET);
+        service = new StreamProcessorService(scorer, scheduler, mock(RuleEngine.class), mock(VehicleStatsStore.class),
+                mock(Geofences.class), wsHandler, stateStore, historyStore, archive, rollups, incidents,
+                mock(InFlightGate.class), mock(KeyOrderedExecutor.class), spill, mock(PipelineMetrics.class),
+                properties, mock(KafkaTemplate.class));
+
+        service.startSpillDrain();
+        ArgumentCaptor<Function<VehicleData, Mono<Void>>> drainer = ArgumentCaptor.forClass(Function.class);
+        verify(spill).start(drainer.capture());
+        rescore = drainer.getValue();
+    }
+
+    @Test
+    void shouldOnlyPublishTheVerdictOfAStaleRecord() {
+        when(scorer.predict(any())).thenReturn(Mono.just(verdict(false)));
+        service.consumeVehicleData(vehicle(10, 50), mock(Acknowledgment.class), 0);
+        service.consumeVehicleData(vehicle(20, 55), mock(Acknowledgment.class), 0);
+
+        VehicleData stale = vehicle(5, 130);
+        when(scorer.predict(any())).thenReturn(Mono.just(verdict(true)));
+        rescore.apply(stale).block();
+
+        HistorySeries history = historyStore.query("K7Q2ZD", T0, T0.plusSeconds(60)).orElseThrow();
+        assertThat(history.timestamps()).containsExactly(T0.plusSeconds(10).toEpochMilli(), T0.plusSeconds(20).toEpochMilli());
+        verify(rollups, times(2)).record(any());
+        verify(rollups, never()).record(stale);
+        verify(incidents, never()).record(stale);
+        // IncidentTracker decide con el timestamp si el veredicto tardío todavía cuenta
+        verify(incidents).recordLate(stale);
+        verify(wsHandler, never()).sendTelemetry(stale);
+        assertThat(stateStore.get("K7Q2ZD").orElseThrow().getSpeed()).isEqualTo(55);
+        // El archivo sí guarda el veredicto tardío
+        verify(archive).append(stale, 0.9);
+    }
+
+    @Test
+    void shouldReplaceTheUnscoredStateWhenItIsStillTheLatestReading() {
+        VehicleData unscored = vehicle(10, 130).toBuilder().scoreStatus(ScoreStatus.UNSCORED).build();
+        stateStore.update(unscored);
+        VehicleData late = vehicle(10, 130);
+        when(scorer.predict(any())).thenReturn(Mono.just(verdict(true)));
+
+        rescore.apply(late).block();
+
+        VehicleData state = stateStore.get("K7Q2ZD").orElseThrow();
+        assertThat(state.getScoreStatus()).isEqualTo(ScoreStatus.SCORED);
+        assertThat(state.isAnomaly()).isTrue();
+        verify(wsHandler).sendTelemetry(late);
+        verify(rollups, never()).record(any());
+        verify(incidents, never()).record(any());
+        verify(incidents).recordLate(late);
+        verify(archive).append(any(), anyDouble());
+    }
+
+    @Test
+    void shouldPublishUnscoredAndSpillWhenTheModelFailsAfterTheRetries() {
+        when(scorer.predict(any())).thenReturn(Mono.error(new IllegalStateException("504 Gateway Timeout")));
+        when(spill.offer(any())).thenReturn(true);
+        VehicleData data = vehicle(10, 130);
+
+        service.consumeVehicleData(data, mock(Acknowledgment.class), 0);
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> verify(spill).offer(data));
+        ArgumentCaptor<VehicleData> sent = ArgumentCaptor.forClass(VehicleData.class);
+        verify(wsHandler).sendTelemetry(sent.capture());
+        assertThat(sent.getValue().getScoreStatus()).isEqualTo(ScoreStatus.UNSCORED);
+        verify(rollups).record(sent.getValue());
+        verify(incidents).record(sent.getValue());
+        assertThat(historyStore.query("K7Q2ZD", T0, T0.plusSeconds(60)).orElseThrow().timestamps()).hasSize(1);
+        assertThat(stateStore.get("K7Q2ZD").orElseThrow().getScoreStatus()).isEqualTo(ScoreStatus.UNSCORED);
+    }
+
+    private static PredictionResponse verdict(boolean anomaly) {
+        PredictionResponse response = new PredictionResponse();
+        response.setAnomaly(anomaly);
+        response.setReconstructionError(anomaly ? 0.9 : 0.1);
+        response.setAnomalyThreshold(0.5);
+        return response;
+    }
+
+    private static VehicleData vehicle(int second, double speed) {
+        return VehicleData.builder()
+                .vehicleId("K7Q2ZD")
+                .timestamp(T0.plusSeconds(second))
+                .latitude(-31.4183)
+                .longitude(-64.1832)
+                .speed(speed)
+                .temperature(70)
+                .battery(80)
+                .fuelLevel(90)
+                .weather("clear")
+                .roadType("urban")
+                .speedLimit(60)
+                .trafficLevel(2)
+                .build();
+    }
+}
@@ -1,16 +1,19 @@
 package com.martin.stream_processor_service.services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.model.ScoreStatus;
 import com.martin.model.VehicleData;
 import com.martin.stream_processor_service.client.PredictionClient;
 import com.martin.stream_processor_service.config.TelemetryWebSocketHandler;
 import com.martin.stream_processor_service.model.dto.PredictionRequest;
+import com.martin.stream_processor_service.model.dto.PredictionResponse;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -91,7 +94,7 @@ class StreamProcessorServiceTest {
 
 
         Mockito.when(predictionClient.predict(Mockito.any()))
-                .thenReturn(Mono.just(mlResponseJson));
+                .thenReturn(Mono.just(objectMapper.readValue(mlResponseJson, PredictionResponse.class)));
 
         kafkaTemplate.send(TOPIC, data);
         kafkaTemplate.flush();
@@ -150,7 +153,7 @@ class StreamProcessorServiceTest {
 
 
         Mockito.when(predictionClient.predict(Mockito.any()))
-                .thenReturn(Mono.just(mlResponseJson));
+                .thenReturn(Mono.just(objectMapper.readValue(mlResponseJson, PredictionResponse.class)));
 
         kafkaTemplate.send(TOPIC, data);
         kafkaTemplate.flush();
@@ -201,12 +204,19 @@ class StreamProcessorServiceTest {
         kafkaTemplate.send(TOPIC, data);
         kafkaTemplate.flush();
 
+        ArgumentCaptor<VehicleData> captor =
+                ArgumentCaptor.forClass(VehicleData.class);
+
+        // Sin veredicto el registro igual llega a los dashboards, marcado UNSCORED
         Awaitility.await()
                 .atMost(3, TimeUnit.SECONDS)
-                .untilAsserted(() -> {
-                    Mockito.verify(wsHandler, Mockito.never())
-                            .sendTelemetry(Mockito.any());
-                });
+                .untilAsserted(() -> Mockito.verify(wsHandler, Mockito.atLeastOnce())
+                        .sendTelemetry(captor.capture()));
+
+        VehicleData sent = captor.getValue();
+        assertThat(sent.getVehicleId()).isEqualTo("vehicle123");
+        assertThat(sent.getScoreStatus()).isEqualTo(ScoreStatus.UNSCORED);
+        assertThat(sent.isAnomaly()).isFalse();
     }
 
 
@@ -231,17 +241,24 @@ class StreamProcessorServiceTest {
                 .build();
 
         Mockito.when(predictionClient.predict(Mockito.any()))
-                .thenReturn(Mono.just("{ invalid json "));
+                .thenReturn(Mono.error(new DecodingException("JSON decoding error: { invalid json ")));
 
         kafkaTemplate.send(TOPIC, data);
         kafkaTemplate.flush();
 
+        ArgumentCaptor<VehicleData> captor =
+                ArgumentCaptor.forClass(VehicleData.class);
+
+        // Sin veredicto el registro igual llega a los dashboards, marcado UNSCORED
         Awaitility.await()
                 .atMost(3, TimeUnit.SECONDS)
-                .untilAsserted(() -> {
-                    Mockito.verify(wsHandler, Mockito.never())
-                            .sendTelemetry(Mockito.any());
-                });
+                .untilAsserted(() -> Mockito.verify(wsHandler, Mockito.atLeastOnce())
+                        .sendTelemetry(captor.capture()));
+
+        VehicleData sent = captor.getValue();
+        assertThat(sent.getVehicleId()).isEqualTo("vehicle123");
+        assertThat(sent.getScoreStatus()).isEqualTo(ScoreStatus.UNSCORED);
+        assertThat(sent.isAnomaly()).isFalse();
 
     }
 
@@ -0,0 +1,144 @@
+package com.martin.stream_processor_service.spill;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.client.ScoringUnavailableException;
+import com.martin.stream_processor_service.config.SpillProperties;
+import com.martin.stream_processor_service.config.StreamProcessingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.KafkaTemplate;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InferenceSpillTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, VehicleData> kafkaTemplate = mock(KafkaTemplate.class);
+    private InferenceSpill spill;
+
+    @AfterEach
+    void tearDown() {
+        if (spill != null) {
+            spill.close();
+        }
+    }
+
+    @Test
+    void shouldHoldRecordsDuringAnOutageAndDrainThemOnRecovery() {
+        spill = new InferenceSpill(properties(), new StreamProcessingProperties(), kafkaTemplate, registry);
+        AtomicBoolean modelUp = new AtomicBoolean(false);
+        List<String> published = new CopyOnWriteArrayList<>();
+        spill.start(data -> modelUp.get()
+                ? Mono.fromRunnable(() -> published.add(data.getVehicleId()))
+                : Mono.error(new ScoringUnavailableException("circuit open")));
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(spill.offer(vehicle("V" + i))).isTrue();
+        }
+        await().during(Duration.ofMillis(300)).atMost(Duration.ofSeconds(2))
+                .until(() -> registry.get("stream.spill.depth").gauge().value() == 500);
+        assertThat(published).isEmpty();
+
+        modelUp.set(true);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> registry.get("stream.spill.depth").gauge().value() == 0);
+        assertThat(published).hasSize(500).doesNotHaveDuplicates();
+        assertThat(registry.get("stream.spill.drained").counter().count()).isEqualTo(500);
+        verify(kafkaTemplate, never()).send(any(), any(), any());
+    }
+
+    @Test
+    void shouldRequeueFailingRecordsAndDeadLetterThemAfterMaxAttempts() {
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(new CompletableFuture<>());
+        spill = new InferenceSpill(properties(), new StreamProcessingProperties(), kafkaTemplate, registry);
+        Set<String> poison = Set.of("V3");
+        List<String> published = new CopyOnWriteArrayList<>();
+        spill.start(data -> poison.contains(data.getVehicleId())
+                ? Mono.error(new IllegalStateException("500 Internal Server Error"))
+                : Mono.fromRunnable(() -> published.add(data.getVehicleId())));
+
+        for (int i = 0; i < 10; i++) {
+            spill.offer(vehicle("V" + i));
+        }
+
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> registry.get("stream.spill.dead_lettered").counter().count() == 1);
+        assertThat(published).hasSize(9).doesNotContain("V3");
+        assertThat(registry.get("stream.spill.retried").counter().count()).isEqualTo(2);
+        verify(kafkaTemplate, times(1)).send(eq("vehicle-telemetry.DLT"), eq("V3"), any());
+    }
+
+    // Un error fuera del Mono (rescore lanza) vuelve a intentarse con backoff, no en un bucle caliente
+    @Test
+    void shouldBackOffWhenDrainingThrows() throws InterruptedException {
+        spill = new InferenceSpill(properties(), new StreamProcessingProperties(), kafkaTemplate, registry);
+        AtomicInteger attempts = new AtomicInteger();
+        spill.start(data -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("broken rescore");
+        });
+        spill.offer(vehicle("V0"));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> attempts.get() > 1);
+        Thread.sleep(500);
+
+        // Con backoff de 20 ms a 50 ms son a lo sumo unos 12 intentos en 500 ms
+        assertThat(attempts.get()).isLessThan(30);
+        assertThat(registry.get("stream.spill.depth").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRefuseRecordsWhenDisabled() {
+        spill = new InferenceSpill(new SpillProperties(), new StreamProcessingProperties(), kafkaTemplate, registry);
+
+        assertThat(spill.isEnabled()).isFalse();
+        assertThat(spill.offer(vehicle("V0"))).isFalse();
+    }
+
+    private SpillProperties properties() {
+        SpillProperties properties = new SpillProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(dir.toString());
+        properties.setDrainBatch(64);
+        properties.setRetryBackoff(Duration.ofMillis(20));
+        properties.setMaxRetryBackoff(Duration.ofMillis(50));
+        properties.setMaxAttempts(3);
+        return properties;
+    }
+
+    private static VehicleData vehicle(String vehicleId) {
+        return VehicleData.builder()
+                .vehicleId(vehicleId)
+                .speed(60)
+                .speedLimit(60)
+                .temperature(70)
+                .battery(80)
+                .weather("clear")
+                .roadType("urban")
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.martin.stream_processor_service.spill;
+
+import com.martin.model.VehicleData;
+import com.martin.model.codec.VehicleDataCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpillQueueTest {
+
+    private static final long SEGMENT = 4 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldKeepFifoOrderAcrossSegments() throws IOException {
+        SpillQueue queue = new SpillQueue(dir, SEGMENT, 1024 * 1024);
+        for (int i = 0; i < 200; i++) {
+            assertThat(queue.offer(vehicle(i), 0)).isTrue();
+        }
+        assertThat(segments()).isGreaterThan(3);
+        assertThat(queue.pending()).isEqualTo(200);
+
+        List<SpillQueue.Spilled> first = queue.poll(150);
+        List<SpillQueue.Spilled> rest = queue.poll(150);
+        queue.commit();
+
+        assertThat(first).extracting(s -> s.data().getVehicleId()).containsExactlyElementsOf(ids(0, 150));
+        assertThat(rest).extracting(s -> s.data().getVehicleId()).containsExactlyElementsOf(ids(150, 200));
+        assertThat(first.get(0).data()).isEqualTo(vehicle(0));
+        assertThat(queue.pending()).isZero();
+        // Sólo queda el segmento de escritura
+        assertThat(segments()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReplayAnUncommittedBatch() {
+        SpillQueue queue = new SpillQueue(dir, SEGMENT, 1024 * 1024);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(vehicle(i), 0);
+        }
+        queue.poll(4);
+        queue.commit();
+        queue.poll(3);
+        queue.rewind();
+
+        assertThat(queue.poll(100)).extracting(s -> s.data().getVehicleId()).containsExactlyElementsOf(ids(4, 10));
+    }
+
+    @Test
+    void shouldResumeFromTheCheckpointAfterARestart() {
+        SpillQueue queue = new SpillQueue(dir, SEGMENT, 1024 * 1024);
+        for (int i = 0; i < 100; i++) {
+            queue.offer(vehicle(i), i % 3);
+        }
+        queue.poll(40);
+        queue.commit();
+        // Tanda leída pero sin confirmar cuando "cae" el proceso
+        queue.poll(20);
+        queue.close();
+
+        SpillQueue reopened = new SpillQueue(dir, SEGMENT, 1024 * 1024);
+        assertThat(reopened.pending()).isEqualTo(60);
+        reopened.offer(vehicle(100), 0);
+
+        List<SpillQueue.Spilled> replayed = reopened.poll(1000);
+        assertThat(replayed).extracting(s -> s.data().getVehicleId()).containsExactlyElementsOf(ids(40, 101));
+        assertThat(replayed.get(0).attempts()).isEqualTo(40 % 3);
+    }
+
+    @Test
+    void shouldRejectRecordsOnceFull() {
+        SpillQueue queue = new SpillQueue(dir, SEGMENT, 2 * SEGMENT);
+        int accepted = 0;
+        while (queue.offer(vehicle(accepted), 0)) {
+            accepted++;
+        }
+
+        assertThat(accepted).isGreaterThan(0);
+        assertThat(queue.bytes()).isEqualTo(2 * SEGMENT);
+
+        // Al confirmar lo leído se libera el primer segmento
+        queue.poll(accepted);
+        queue.commit();
+        assertThat(queue.offer(vehicle(0), 0)).isTrue();
+    }
+
+    @Test
+    void shouldSkipFramesThatCannotBeDecoded() throws IOException {
+        SpillQueue queue = new SpillQueue(dir, SEGMENT, 1024 * 1024);
+        queue.offer(vehicle(0), 0);
+        queue.close();
+        // Frames escritos por fuera: un timestamp que hace fallar a Instant con ArithmeticException, no SerializationException
+        byte[] corrupt = VehicleDataCodec.encode(vehicle(1));
+        ByteBuffer.wrap(corrupt).putLong(8, Long.MIN_VALUE).putInt(16, -1);
+        SpillSegment segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = SpillSegment.open(files.filter(f -> f.toString().endsWith(".spill")).findFirst().orElseThrow());
+        }
+        segment.append(corrupt, 0);
+        segment.append(VehicleDataCodec.encode(vehicle(2)), 0);
+        segment.force();
+
+        SpillQueue reopened = new SpillQueue(dir, SEGMENT, 1024 * 1024);
+        assertThat(reopened.pending()).isEqualTo(2);
+        assertThat(reopened.poll(10)).extracting(s -> s.data().getVehicleId()).containsExactly(id(0), id(2));
+        reopened.rewind();
+        assertThat(reopened.poll(10)).hasSize(2);
+        assertThat(reopened.skipped()).isEqualTo(1);
+    }
+
+    private long segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.toString().endsWith(".spill")).count();
+        }
+    }
+
+    private static List<String> ids(int from, int to) {
+        return IntStream.range(from, to).mapToObj(SpillQueueTest::id).toList();
+    }
+
+    private static String id(int i) {
+        return String.format("V%05d", i);
+    }
+
+    private static VehicleData vehicle(int i) {
+        return VehicleData.builder()
+                .vehicleId(id(i))
+                .timestamp(Instant.parse("2026-01-08T12:00:00Z").plusSeconds(i))
+                .latitude(-31.4183)
+                .longitude(-64.1832)
+                .speed(60 + i % 40)
+                .temperature(70)
+                .battery(80)
+                .fuelLevel(90)
+                .weather("clear")
+                .roadType("urban")
+                .speedLimit(60)
+                .trafficLevel(2)
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package com.martin.stream_processor_service.state;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.FleetStateProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class FleetStateStoreTest {
+
+    private final FleetStateStore store = new FleetStateStore(new FleetStateProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void shouldKeepTheLatestStatePerVehicle() {
+        store.update(vehicle("A", -31.42, -64.18, false, 10));
+        store.update(vehicle("A", -31.43, -64.19, false, 20));
+        // Un registro atrasado no pisa al más nuevo
+        store.update(vehicle("A", -31.44, -64.20, false, 15));
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.get("A")).get().extracting(VehicleData::getLatitude).isEqualTo(-31.43);
+        assertThat(store.get("B")).isEmpty();
+    }
+
+    @Test
+    void shouldMoveVehiclesBetweenCells() {
+        store.update(vehicle("A", -31.42, -64.18, false, 1));
+        store.update(vehicle("A", -34.60, -58.38, false, 2));
+
+        assertThat(store.withinBounds(-31.5, -31.4, -64.2, -64.1, 0)).isEmpty();
+        assertThat(store.withinBounds(-34.7, -34.5, -58.4, -58.3, 0)).extracting(VehicleData::getVehicleId).containsExactly("A");
+    }
+
+    @Test
+    void shouldFindVehiclesWithinRadius() {
+        store.update(vehicle("center", -31.4201, -64.1888, false, 1));
+        store.update(vehicle("near", -31.4250, -64.1888, false, 1));   // ~0.5 km
+        store.update(vehicle("far", -31.4700, -64.1888, false, 1));    // ~5.5 km
+
+        assertThat(store.withinRadius(-31.4201, -64.1888, 1, 0))
+                .extracting(VehicleData::getVehicleId)
+                .containsExactlyInAnyOrder("center", "near");
+        assertThat(store.withinRadius(-31.4201, -64.1888, 10, 0)).hasSize(3);
+    }
+
+    @Test
+    void shouldTrackCurrentlyAnomalousVehicles() {
+        store.update(vehicle("A", 0, 0, true, 1));
+        store.update(vehicle("B", 0, 0, true, 1));
+        store.update(vehicle("A", 0, 0, false, 2));
+
+        assertThat(store.anomalous(0)).extracting(VehicleData::getVehicleId).containsExactly("B");
+        assertThat(store.anomalousCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLimitResultsAndRejectInvalidQueries() {
+        for (int i = 0; i < 50; i++) {
+            store.update(vehicle("V" + i, -31.42, -64.18, false, 1));
+        }
+
+        assertThat(store.withinBounds(-32, -31, -65, -64, 10)).hasSize(10);
+        assertThatThrownBy(() -> store.withinBounds(-31, -32, -65, -64, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.withinRadius(0, 0, -1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectCoordinatesOutsideTheWorld() {
+        assertThatThrownBy(() -> store.withinBounds(-1e12, 1e12, -64, -63, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.withinBounds(-31, -30, -181, -63, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.withinBounds(Double.NaN, -30, -64, -63, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.withinRadius(91, 0, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.withinRadius(0, 1e300, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.withinRadius(0, 0, Double.POSITIVE_INFINITY, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // El rectángulo entero tiene ~6.5e8 celdas: sólo debe recorrer las ocupadas
+    @Test
+    void shouldAnswerWorldSizedQueriesFromTheOccupiedCells() {
+        store.update(vehicle("A", -31.42, -64.18, false, 1));
+        store.update(vehicle("B", 51.5, -0.12, false, 1));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            assertThat(store.withinBounds(-90, 90, -180, 180, 0)).hasSize(2);
+            assertThat(store.withinRadius(-31.42, -64.18, 1e9, 0)).hasSize(2);
+        });
+    }
+
+    @Test
+    void shouldStayConsistentUnderConcurrentUpdates() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            long seed = t;
+            pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    store.update(vehicle("V" + random.nextInt(1_000), -31 - random.nextDouble(), -64 - random.nextDouble(), false, i));
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Cada vehículo aparece exactamente una vez en la consulta espacial
+        assertThat(store.size()).isEqualTo(1_000);
+        assertThat(store.withinBounds(-32, -31, -65, -64, 0))
+                .extracting(VehicleData::getVehicleId)
+                .doesNotHaveDuplicates()
+                .hasSize(1_000);
+    }
+
+    private static VehicleData vehicle(String id, double lat, double lon, boolean anomaly, long second) {
+        return VehicleData.builder()
+                .vehicleId(id)
+                .timestamp(Instant.ofEpochSecond(1_767_225_600L + second))
+                .latitude(lat)
+                .longitude(lon)
+                .anomaly(anomaly)
+                .build();
+    }
+}
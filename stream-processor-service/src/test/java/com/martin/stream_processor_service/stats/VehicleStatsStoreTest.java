@@ -0,0 +1,149 @@
+package com.martin.stream_processor_service.stats;
+
+import com.martin.model.VehicleData;
+import com.martin.model.VehicleStats;
+import com.martin.stream_processor_service.config.VehicleStatsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VehicleStatsStoreTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldMatchABruteForceWindow() {
+        VehicleStatsStore store = new VehicleStatsStore(properties(30), registry);
+        SplittableRandom random = new SplittableRandom(7);
+        List<Float> temperatures = new ArrayList<>();
+
+        // Más de 64 ventanas para pasar también por el recálculo exacto
+        for (int i = 0; i < 2500; i++) {
+            double temperature = 70 + random.nextGaussian() * 5 + i * 0.01;
+            temperatures.add((float) temperature);
+            VehicleStats stats = store.update(vehicle("K7Q2ZD", 60, temperature, 80, 0));
+
+            List<Float> window = temperatures.subList(Math.max(0, temperatures.size() - 30), temperatures.size());
+            double mean = window.stream().mapToDouble(Float::doubleValue).average().orElseThrow();
+            double variance = window.stream().mapToDouble(v -> (v - mean) * (v - mean)).sum() / window.size();
+
+            assertThat(stats.getSamples()).isEqualTo(window.size());
+            assertThat(stats.getTemperature().getMean()).isCloseTo(mean, within(1e-6));
+            assertThat(stats.getTemperature().getStdDev()).isCloseTo(Math.sqrt(variance), within(1e-6));
+            assertThat(stats.getTemperature().getMin()).isEqualTo(window.stream().mapToDouble(Float::doubleValue).min().orElseThrow());
+            assertThat(stats.getTemperature().getMax()).isEqualTo(window.stream().mapToDouble(Float::doubleValue).max().orElseThrow());
+        }
+    }
+
+    @Test
+    void shouldTrackRisingTemperatureWithTheEwma() {
+        VehicleStatsStore store = new VehicleStatsStore(properties(30), registry);
+        VehicleStats stats = null;
+        for (int i = 0; i < 30; i++) {
+            stats = store.update(vehicle("K7Q2ZD", 60, 70 + i, 80, 0));
+        }
+
+        assertThat(stats.getTemperature().getEwma()).isGreaterThan(stats.getTemperature().getMean());
+        assertThat(stats.getTemperature().getMax()).isEqualTo(99);
+    }
+
+    @Test
+    void shouldCountHarshEventsInsideTheWindowOnly() {
+        VehicleStatsStore store = new VehicleStatsStore(properties(5), registry);
+        store.update(vehicle("K7Q2ZD", 60, 70, 80, -40));
+        store.update(vehicle("K7Q2ZD", 60, 70, 80, 30));
+        VehicleStats stats = store.update(vehicle("K7Q2ZD", 60, 70, 80, -26));
+
+        assertThat(stats.getHarshBrakings()).isEqualTo(2);
+        assertThat(stats.getHarshAccelerations()).isEqualTo(1);
+
+        for (int i = 0; i < 3; i++) {
+            stats = store.update(vehicle("K7Q2ZD", 60, 70, 80, 5));
+        }
+        // La primera frenada ya salió de la ventana de 5 lecturas
+        assertThat(stats.getHarshBrakings()).isEqualTo(1);
+        assertThat(stats.getHarshAccelerations()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepVehiclesApartAndRespectMaxVehicles() {
+        VehicleStatsProperties properties = properties(10);
+        properties.setMaxVehicles(1);
+        VehicleStatsStore store = new VehicleStatsStore(properties, registry);
+
+        assertThat(store.update(vehicle("AAA111", 50, 70, 80, 0)).getSpeed().getMean()).isEqualTo(50);
+        assertThat(store.update(vehicle("BBB222", 90, 70, 80, 0))).isNull();
+        assertThat(store.vehicles()).isEqualTo(1);
+        assertThat(registry.get("stream.stats.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFreeIdleVehiclesWhenTheLimitIsReached() {
+        TestClock clock = new TestClock();
+        VehicleStatsProperties properties = properties(10);
+        properties.setMaxVehicles(1);
+        properties.setIdleTimeout(Duration.ofMinutes(10));
+        VehicleStatsStore store = new VehicleStatsStore(properties, registry, clock);
+
+        store.update(vehicle("AAA111", 50, 70, 80, 0));
+        clock.advance(Duration.ofMinutes(5));
+        assertThat(store.update(vehicle("BBB222", 90, 70, 80, 0))).isNull();
+
+        clock.advance(Duration.ofMinutes(6));
+        assertThat(store.update(vehicle("BBB222", 90, 70, 80, 0)).getSpeed().getMean()).isEqualTo(90);
+        assertThat(store.vehicles()).isEqualTo(1);
+        assertThat(registry.get("stream.stats.evicted").counter().count()).isEqualTo(1);
+    }
+
+    private static VehicleStatsProperties properties(int window) {
+        VehicleStatsProperties properties = new VehicleStatsProperties();
+        properties.setEnabled(true);
+        properties.setWindow(window);
+        return properties;
+    }
+
+    private static VehicleData vehicle(String id, double speed, double temperature, double battery, double acceleration) {
+        return VehicleData.builder()
+                .vehicleId(id)
+                .speed(speed)
+                .temperature(temperature)
+                .battery(battery)
+                .acceleration(acceleration)
+                .build();
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-08T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
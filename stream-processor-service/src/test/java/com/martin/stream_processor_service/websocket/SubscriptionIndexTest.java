@@ -0,0 +1,111 @@
+package com.martin.stream_processor_service.websocket;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.model.dto.SubscriptionRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SubscriptionIndexTest {
+
+    private static final Subscription.Bounds CORDOBA = new Subscription.Bounds(-31.45, -31.40, -64.20, -64.15);
+
+    private final SubscriptionIndex<String> index = new SubscriptionIndex<>(0.05, 4096);
+
+    @Test
+    void shouldRouteToWholeFleetSessions() {
+        index.put("all", Subscription.ALL);
+
+        assertThat(matches(vehicle("A", -31.42, -64.18, false))).containsExactly("all");
+    }
+
+    @Test
+    void shouldRouteByVehicleId() {
+        index.put("ab", new Subscription(Set.of("A", "B"), false, null));
+        index.put("c", new Subscription(Set.of("C"), false, null));
+
+        assertThat(matches(vehicle("A", 0, 0, false))).containsExactly("ab");
+        assertThat(matches(vehicle("C", 0, 0, false))).containsExactly("c");
+        assertThat(matches(vehicle("D", 0, 0, false))).isEmpty();
+    }
+
+    @Test
+    void shouldRouteByBoundingBox() {
+        index.put("cordoba", new Subscription(Set.of(), false, CORDOBA));
+
+        assertThat(matches(vehicle("A", -31.42, -64.18, false))).containsExactly("cordoba");
+        // Misma celda de la grilla pero fuera del área
+        assertThat(matches(vehicle("A", -31.39, -64.18, false))).isEmpty();
+        assertThat(matches(vehicle("A", -34.60, -58.38, false))).isEmpty();
+    }
+
+    @Test
+    void shouldEvaluateHugeAreasWithoutIndexingEveryCell() {
+        index.put("country", new Subscription(Set.of(), false, new Subscription.Bounds(-55, -21, -74, -53)));
+
+        assertThat(matches(vehicle("A", -31.42, -64.18, false))).containsExactly("country");
+        assertThat(matches(vehicle("A", 40.4, -3.7, false))).isEmpty();
+    }
+
+    // El producto de celdas desbordaba y el área se registraba celda por celda
+    @Test
+    void shouldNotIndexBoundsWhoseCellCountOverflows() {
+        SubscriptionIndex<String> fine = new SubscriptionIndex<>(1e-9, 4096);
+        fine.put("world", new Subscription(Set.of(), false, new Subscription.Bounds(-90, 90, -180, 180)));
+
+        List<String> matched = new ArrayList<>();
+        fine.forEachMatch(vehicle("A", -31.42, -64.18, false), matched::add);
+        assertThat(matched).containsExactly("world");
+    }
+
+    @Test
+    void shouldRejectBoundsOutsideTheWorld() {
+        SubscriptionRequest.Bounds bounds = new SubscriptionRequest.Bounds();
+        bounds.setMinLat(-1e12);
+        bounds.setMaxLat(1e12);
+        bounds.setMinLon(-64.2);
+        bounds.setMaxLon(-64.1);
+        SubscriptionRequest request = new SubscriptionRequest();
+        request.setBounds(bounds);
+
+        assertThatThrownBy(() -> Subscription.from(request)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldCombineCriteria() {
+        index.put("anomalies", new Subscription(Set.of(), true, null));
+        index.put("cordoba-anomalies", new Subscription(Set.of(), true, CORDOBA));
+        index.put("a-in-cordoba", new Subscription(Set.of("A"), false, CORDOBA));
+
+        assertThat(matches(vehicle("A", -31.42, -64.18, false))).containsExactly("a-in-cordoba");
+        assertThat(matches(vehicle("B", -31.42, -64.18, true))).containsExactlyInAnyOrder("anomalies", "cordoba-anomalies");
+        assertThat(matches(vehicle("A", -34.60, -58.38, true))).containsExactly("anomalies");
+    }
+
+    @Test
+    void shouldReplaceAndRemoveSubscriptions() {
+        index.put("s", new Subscription(Set.of("A"), false, null));
+        index.put("s", new Subscription(Set.of("B"), false, null));
+
+        assertThat(matches(vehicle("A", 0, 0, false))).isEmpty();
+        assertThat(matches(vehicle("B", 0, 0, false))).containsExactly("s");
+
+        index.remove("s");
+        assertThat(matches(vehicle("B", 0, 0, false))).isEmpty();
+    }
+
+    private List<String> matches(VehicleData data) {
+        List<String> result = new ArrayList<>();
+        index.forEachMatch(data, result::add);
+        return result;
+    }
+
+    private static VehicleData vehicle(String id, double lat, double lon, boolean anomaly) {
+        return VehicleData.builder().vehicleId(id).latitude(lat).longitude(lon).anomaly(anomaly).build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.martin.stream_processor_service.websocket;
+
+import com.martin.model.VehicleData;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+class TelemetryConflatorTest {
+
+    private final List<List<VehicleData>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    void shouldFlushOnlyTheLatestStatePerVehicle() {
+        try (TelemetryConflator conflator = new TelemetryConflator(Duration.ofHours(1), batches::add)) {
+            for (int i = 0; i < 100; i++) {
+                conflator.offer(vehicle("A", i));
+                conflator.offer(vehicle("B", 1000 + i));
+            }
+
+            conflator.flush();
+
+            assertThat(batches).hasSize(1);
+            assertThat(batches.get(0)).extracting(VehicleData::getVehicleId, VehicleData::getSpeed)
+                    .containsExactlyInAnyOrder(
+                            tuple("A", 99.0),
+                            tuple("B", 1099.0));
+        }
+    }
+
+    @Test
+    void shouldOnlyFlushVehiclesThatChanged() {
+        try (TelemetryConflator conflator = new TelemetryConflator(Duration.ofHours(1), batches::add)) {
+            conflator.offer(vehicle("A", 1));
+            conflator.offer(vehicle("B", 2));
+            conflator.flush();
+
+            conflator.offer(vehicle("B", 3));
+            conflator.flush();
+            conflator.flush();
+
+            assertThat(batches).hasSize(2);
+            assertThat(batches.get(1)).extracting(VehicleData::getVehicleId).containsExactly("B");
+        }
+    }
+
+    @Test
+    void shouldDropPendingStateOfVehiclesPublishedNow() {
+        try (TelemetryConflator conflator = new TelemetryConflator(Duration.ofHours(1), batches::add)) {
+            conflator.offer(vehicle("A", 1));
+            conflator.publishNow("A", () -> batches.add(List.of(vehicle("A", 2))));
+            conflator.flush();
+
+            assertThat(batches).hasSize(1);
+            assertThat(batches.get(0)).extracting(VehicleData::getSpeed).containsExactly(2.0);
+            assertThat(conflator.pendingVehicles()).isZero();
+        }
+    }
+
+    // Un normal ya tomado por el tick no puede salir después de la anomalía del mismo vehículo
+    @Test
+    void shouldNotSendAnOlderRecordAfterOnePublishedNow() throws Exception {
+        List<Double> sent = new CopyOnWriteArrayList<>();
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (TelemetryConflator conflator = new TelemetryConflator(Duration.ofHours(1), batch -> {
+            flushing.countDown();
+            awaitQuietly(release);
+            batch.forEach(data -> sent.add(data.getSpeed()));
+        })) {
+            conflator.offer(vehicle("A", 1));
+            Thread flusher = Thread.ofPlatform().start(conflator::flush);
+            assertThat(flushing.await(2, TimeUnit.SECONDS)).isTrue();
+
+            Thread anomaly = Thread.ofPlatform().start(() -> conflator.publishNow("A", () -> sent.add(2.0)));
+            Thread.sleep(50);
+            assertThat(sent).isEmpty();
+
+            release.countDown();
+            flusher.join(2_000);
+            anomaly.join(2_000);
+            assertThat(sent).containsExactly(1.0, 2.0);
+        }
+    }
+
+    @Test
+    void shouldFlushOnEveryTick() {
+        try (TelemetryConflator conflator = new TelemetryConflator(Duration.ofMillis(20), batches::add)) {
+            conflator.offer(vehicle("A", 1));
+
+            await().atMost(2, TimeUnit.SECONDS).until(() -> batches.size() == 1);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static VehicleData vehicle(String id, double speed) {
+        return VehicleData.builder().vehicleId(id).speed(speed).build();
+    }
+}
@@ -0,0 +1,201 @@
+package com.martin.stream_processor_service.websocket;
+
+import com.martin.model.VehicleData;
+import com.martin.stream_processor_service.config.WebSocketProperties;
+import com.martin.stream_processor_service.config.WebSocketProperties.SlowConsumerPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebSocketFanOutTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch slowRelease = new CountDownLatch(1);
+    private WebSocketFanOut fanOut;
+
+    @AfterEach
+    void tearDown() {
+        slowRelease.countDown();
+        fanOut.close();
+    }
+
+    @Test
+    void shouldShareTheSameFrameAcrossSessions() throws Exception {
+        fanOut = fanOut(SlowConsumerPolicy.DROP_OLDEST, 16);
+        List<WebSocketMessage<?>> first = new CopyOnWriteArrayList<>();
+        List<WebSocketMessage<?>> second = new CopyOnWriteArrayList<>();
+        fanOut.register(session("a", first, null));
+        fanOut.register(session("b", second, null));
+
+        TextMessage frame = new TextMessage("{\"vehicleId\":\"ABC123\"}");
+        fanOut.broadcast(frame);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> first.size() == 1 && second.size() == 1);
+        assertThat(first.get(0)).isSameAs(frame);
+        assertThat(second.get(0)).isSameAs(frame);
+    }
+
+    @Test
+    void shouldNotLetASlowSessionStallTheOthers() throws Exception {
+        fanOut = fanOut(SlowConsumerPolicy.DROP_OLDEST, 4);
+        List<WebSocketMessage<?>> fast = new CopyOnWriteArrayList<>();
+        List<WebSocketMessage<?>> slow = new CopyOnWriteArrayList<>();
+        fanOut.register(session("slow", slow, slowRelease));
+        fanOut.register(session("fast", fast, null));
+        blockOnFirstFrame(slow);
+
+        // El rápido recibe cada frame mientras el lento sigue bloqueado en el primero
+        for (int i = 1; i < 100; i++) {
+            int expected = i + 1;
+            fanOut.broadcast(new TextMessage("frame-" + i));
+            await().pollInterval(1, TimeUnit.MILLISECONDS).atMost(2, TimeUnit.SECONDS).until(() -> fast.size() == expected);
+        }
+
+        // El lento tiene uno bloqueado en sendMessage y la cola llena; el resto se descartó
+        await().atMost(2, TimeUnit.SECONDS).until(() -> dropped("slow") == 100 - 1 - 4);
+        assertThat(registry.get("stream.websocket.queue.depth").tag("session", "slow").gauge().value()).isEqualTo(4);
+        assertThat(dropped("fast")).isZero();
+    }
+
+    @Test
+    void shouldKeepOnlyTheNewestFramesWhenDroppingOldest() throws Exception {
+        fanOut = fanOut(SlowConsumerPolicy.DROP_OLDEST, 2);
+        List<WebSocketMessage<?>> received = new CopyOnWriteArrayList<>();
+        fanOut.register(session("slow", received, slowRelease));
+        blockOnFirstFrame(received);
+
+        for (int i = 1; i < 10; i++) {
+            fanOut.broadcast(new TextMessage("frame-" + i));
+        }
+        await().atMost(2, TimeUnit.SECONDS).until(() -> dropped("slow") == 7);
+        slowRelease.countDown();
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> received.size() == 3);
+        assertThat(received).extracting(m -> (Object) m.getPayload()).containsExactly("frame-0", "frame-8", "frame-9");
+    }
+
+    @Test
+    void shouldSkipToTheLatestFrame() throws Exception {
+        fanOut = fanOut(SlowConsumerPolicy.LATEST_ONLY, 3);
+        List<WebSocketMessage<?>> received = new CopyOnWriteArrayList<>();
+        fanOut.register(session("slow", received, slowRelease));
+        blockOnFirstFrame(received);
+
+        for (int i = 1; i < 5; i++) {
+            fanOut.broadcast(new TextMessage("frame-" + i));
+        }
+        await().atMost(2, TimeUnit.SECONDS).until(() -> dropped("slow") == 3);
+        slowRelease.countDown();
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> received.size() == 2);
+        assertThat(received).extracting(m -> (Object) m.getPayload()).containsExactly("frame-0", "frame-4");
+    }
+
+    @Test
+    void shouldDisconnectSlowConsumers() throws Exception {
+        fanOut = fanOut(SlowConsumerPolicy.DISCONNECT, 2);
+        WebSocketSession slow = session("slow", new CopyOnWriteArrayList<>(), slowRelease);
+        fanOut.register(slow);
+
+        for (int i = 0; i < 5; i++) {
+            fanOut.broadcast(new TextMessage("frame-" + i));
+        }
+
+        await().atMost(2, TimeUnit.SECONDS).untilAsserted(() -> verify(slow).close(CloseStatus.SESSION_NOT_RELIABLE));
+        // Las métricas de la sesión se eliminan al cerrarla
+        assertThat(registry.find("stream.websocket.queue.depth").tag("session", "slow").gauge()).isNull();
+    }
+
+    @Test
+    void shouldTagSessionMetersWithTheChannelAndRemoveThemOnClose() throws Exception {
+        WebSocketProperties properties = new WebSocketProperties();
+        fanOut = new WebSocketFanOut(properties, registry, "incidents");
+        WebSocketSession session = session("a", new CopyOnWriteArrayList<>(), null);
+        fanOut.register(session);
+
+        assertThat(registry.get("stream.websocket.frames.sent").tags("session", "a", "channel", "incidents").counter()).isNotNull();
+        assertThat(registry.find("stream.websocket.frames.sent").tag("channel", "telemetry").counter()).isNull();
+
+        fanOut.unregister(session);
+
+        assertThat(registry.find("stream.websocket.queue.depth").tag("session", "a").gauge()).isNull();
+        assertThat(registry.find("stream.websocket.frames.dropped").tag("session", "a").counter()).isNull();
+        assertThat(registry.find("stream.websocket.frames.sent").tag("session", "a").counter()).isNull();
+    }
+
+    @Test
+    void shouldSplitBatchesBySubscriptionAndShareTheFullFrame() throws Exception {
+        fanOut = fanOut(SlowConsumerPolicy.DROP_OLDEST, 16);
+        List<WebSocketMessage<?>> first = new CopyOnWriteArrayList<>();
+        List<WebSocketMessage<?>> second = new CopyOnWriteArrayList<>();
+        List<WebSocketMessage<?>> filtered = new CopyOnWriteArrayList<>();
+        fanOut.register(session("a", first, null));
+        fanOut.register(session("b", second, null));
+        WebSocketSession onlyB = session("only-b", filtered, null);
+        fanOut.register(onlyB);
+        fanOut.subscribe(onlyB, new Subscription(Set.of("B"), false, null));
+
+        List<VehicleData> batch = List.of(VehicleData.builder().vehicleId("A").build(), VehicleData.builder().vehicleId("B").build());
+        fanOut.routeBatch(batch, List.of("{\"vehicleId\":\"A\"}", "{\"vehicleId\":\"B\"}"));
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> first.size() == 1 && second.size() == 1 && filtered.size() == 1);
+        assertThat(first.get(0)).isSameAs(second.get(0));
+        assertThat(first.get(0).getPayload()).isEqualTo("[{\"vehicleId\":\"A\"},{\"vehicleId\":\"B\"}]");
+        assertThat(filtered.get(0).getPayload()).isEqualTo("[{\"vehicleId\":\"B\"}]");
+    }
+
+    private WebSocketFanOut fanOut(SlowConsumerPolicy policy, int capacity) {
+        WebSocketProperties properties = new WebSocketProperties();
+        properties.setSlowConsumerPolicy(policy);
+        properties.setQueueCapacity(capacity);
+        return new WebSocketFanOut(properties, registry);
+    }
+
+    // El sender queda bloqueado enviando frame-0; lo siguiente se acumula en la cola
+    private void blockOnFirstFrame(List<WebSocketMessage<?>> received) {
+        fanOut.broadcast(new TextMessage("frame-0"));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> received.size() == 1);
+    }
+
+    private double dropped(String session) {
+        return registry.get("stream.websocket.frames.dropped").tag("session", session).counter().count();
+    }
+
+    // Si recibe un latch, el primer envío queda bloqueado hasta liberarlo (cliente lento)
+    private static WebSocketSession session(String id, List<WebSocketMessage<?>> received, CountDownLatch block) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(inv -> {
+            received.add(inv.getArgument(0));
+            if (block != null) {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    // La sesión se cerró mientras el envío estaba bloqueado
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+}
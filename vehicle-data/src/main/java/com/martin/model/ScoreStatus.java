@@ -0,0 +1,11 @@
+package com.martin.model;
+
+// Resultado de pasar por el modelo de anomalías; null mientras el registro no llegó al procesador
+public enum ScoreStatus {
+    SCORED,
+    // Sin veredicto del modelo (circuito abierto, límite de concurrencia, descartado por el scheduler, timeout o 5xx
+    // tras los reintentos): se entrega igual y, salvo los descartados, va a puntuarse más tarde (spill o DLT).
+    UNSCORED,
+    // Anomalía evidente detectada por una regla del procesador; no pasó por el modelo
+    RULE
+}
@@ -8,7 +8,7 @@ import java.time.Instant;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class VehicleData {
     private String vehicleId;
     private Instant timestamp;
@@ -33,4 +33,8 @@ public class VehicleData {
     private boolean anomaly;      // para ML
     private String anomalyType;
 
+    private ScoreStatus scoreStatus;
+
+    private VehicleStats stats;   // ventana por vehículo, la agrega el procesador
+
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.martin.model;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Estadísticas de las últimas `samples` lecturas del vehículo; las calcula el procesador,
+// no viajan en el formato binario de Kafka
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VehicleStats {
+    private int samples;
+
+    private Metric speed;
+    private Metric temperature;
+    private Metric battery;
+
+    private int harshAccelerations;
+    private int harshBrakings;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Metric {
+        private double mean;
+        private double stdDev;
+        private double min;
+        private double max;
+        private double ewma;     // media exponencial, reacciona antes que mean a una tendencia
+    }
+}
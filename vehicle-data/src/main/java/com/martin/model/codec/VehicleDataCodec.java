@@ -0,0 +1,230 @@
+package com.martin.model.codec;
+
+import com.martin.model.VehicleData;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+
+// Formato binario de VehicleData para Kafka (big-endian):
+//
+//   0  magic (0xB1)        1  version             2  flags (night, anomaly, timestamp)
+//   3  weather             4  roadType            5  anomalyType      (códigos de diccionario)
+//   6  trafficLevel        7  reservado
+//   8  timestamp: epochSecond (long) + nano (int)
+//  20  latitude, longitude, speed, previousSpeed, acceleration,
+//      temperature, battery, fuelLevel, speedLimit (9 doubles)
+//  92  vehicleId (short longitud + UTF-8, -1 = null)
+//      textos literales de weather/roadType/anomalyType cuyo código es LITERAL, en ese orden
+//
+// Evolución del esquema: los campos nuevos se añaden al final y los lectores ignoran los bytes
+// que no conocen. Un cambio incompatible sube la versión y los lectores antiguos lo rechazan.
+public final class VehicleDataCodec {
+
+    public static final byte MAGIC = (byte) 0xB1;
+    public static final byte VERSION = 1;
+
+    static final int FIXED_SIZE = 92;
+
+    private static final int FLAG_NIGHT = 1;
+    private static final int FLAG_ANOMALY = 1 << 1;
+    private static final int FLAG_TIMESTAMP = 1 << 2;
+
+    // Los diccionarios sólo admiten altas al final: el código de un valor no puede cambiar
+    public static final Dictionary WEATHER = new Dictionary("clear", "rain", "fog", "storm");
+    public static final Dictionary ROAD_TYPE = new Dictionary("urban", "highway", "rural");
+    public static final Dictionary ANOMALY_TYPE = new Dictionary("", "overspeed", "engine_overheat", "battery_low");
+
+    private VehicleDataCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(VehicleData data) {
+        byte[] vehicleId = utf8(data.getVehicleId());
+        byte weather = WEATHER.code(data.getWeather());
+        byte roadType = ROAD_TYPE.code(data.getRoadType());
+        byte anomalyType = ANOMALY_TYPE.code(data.getAnomalyType());
+
+        int size = FIXED_SIZE + textSize(vehicleId)
+                + literalSize(weather, data.getWeather())
+                + literalSize(roadType, data.getRoadType())
+                + literalSize(anomalyType, data.getAnomalyType());
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        int flags = (data.isNight() ? FLAG_NIGHT : 0)
+                | (data.isAnomaly() ? FLAG_ANOMALY : 0)
+                | (data.getTimestamp() != null ? FLAG_TIMESTAMP : 0);
+
+        buffer.put(MAGIC)
+                .put(VERSION)
+                .put((byte) flags)
+                .put(weather)
+                .put(roadType)
+                .put(anomalyType)
+                .put((byte) data.getTrafficLevel())
+                .put((byte) 0);
+
+        Instant timestamp = data.getTimestamp();
+        buffer.putLong(timestamp != null ? timestamp.getEpochSecond() : 0L)
+                .putInt(timestamp != null ? timestamp.getNano() : 0);
+
+        buffer.putDouble(data.getLatitude())
+                .putDouble(data.getLongitude())
+                .putDouble(data.getSpeed())
+                .putDouble(data.getPreviousSpeed())
+                .putDouble(data.getAcceleration())
+                .putDouble(data.getTemperature())
+                .putDouble(data.getBattery())
+                .putDouble(data.getFuelLevel())
+                .putDouble(data.getSpeedLimit());
+
+        putText(buffer, vehicleId);
+        putLiteral(buffer, weather, data.getWeather());
+        putLiteral(buffer, roadType, data.getRoadType());
+        putLiteral(buffer, anomalyType, data.getAnomalyType());
+        return buffer.array();
+    }
+
+    public static VehicleData decode(byte[] bytes) {
+        if (!isBinary(bytes)) {
+            throw new SerializationException("Not a binary VehicleData payload");
+        }
+        byte version = bytes[1];
+        if (version < 1 || version > VERSION) {
+            throw new SerializationException("Unsupported VehicleData binary version " + version);
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+            int flags = buffer.get();
+            byte weather = buffer.get();
+            byte roadType = buffer.get();
+            byte anomalyType = buffer.get();
+            int trafficLevel = buffer.get();
+            buffer.get();
+
+            long epochSecond = buffer.getLong();
+            int nano = buffer.getInt();
+
+            VehicleData data = new VehicleData();
+            data.setTimestamp((flags & FLAG_TIMESTAMP) != 0 ? Instant.ofEpochSecond(epochSecond, nano) : null);
+            data.setNight((flags & FLAG_NIGHT) != 0);
+            data.setAnomaly((flags & FLAG_ANOMALY) != 0);
+            data.setTrafficLevel(trafficLevel);
+
+            data.setLatitude(buffer.getDouble());
+            data.setLongitude(buffer.getDouble());
+            data.setSpeed(buffer.getDouble());
+            data.setPreviousSpeed(buffer.getDouble());
+            data.setAcceleration(buffer.getDouble());
+            data.setTemperature(buffer.getDouble());
+            data.setBattery(buffer.getDouble());
+            data.setFuelLevel(buffer.getDouble());
+            data.setSpeedLimit(buffer.getDouble());
+
+            data.setVehicleId(getText(buffer));
+            data.setWeather(getValue(buffer, WEATHER, weather));
+            data.setRoadType(getValue(buffer, ROAD_TYPE, roadType));
+            data.setAnomalyType(getValue(buffer, ANOMALY_TYPE, anomalyType));
+            // Los bytes restantes pertenecen a campos de una versión posterior compatible
+            return data;
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Truncated VehicleData binary payload", e);
+        } catch (DateTimeException e) {
+            throw new SerializationException("Invalid VehicleData timestamp", e);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int textSize(byte[] text) {
+        return Short.BYTES + (text != null ? text.length : 0);
+    }
+
+    private static int literalSize(byte code, String value) {
+        return code == Dictionary.LITERAL ? textSize(utf8(value)) : 0;
+    }
+
+    private static void putText(ByteBuffer buffer, byte[] text) {
+        if (text == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        if (text.length > Short.MAX_VALUE) {
+            throw new SerializationException("Text field too long: " + text.length + " bytes");
+        }
+        buffer.putShort((short) text.length).put(text);
+    }
+
+    private static void putLiteral(ByteBuffer buffer, byte code, String value) {
+        if (code == Dictionary.LITERAL) {
+            putText(buffer, utf8(value));
+        }
+    }
+
+    private static String getText(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new SerializationException("Truncated VehicleData binary payload: text of " + length
+                    + " bytes, " + buffer.remaining() + " left");
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static String getValue(ByteBuffer buffer, Dictionary dictionary, byte code) {
+        return code == Dictionary.LITERAL ? getText(buffer) : dictionary.value(code);
+    }
+
+    // Valores conocidos de un campo de texto. 0 = null, 1..n = valor del diccionario, LITERAL = texto a continuación
+    public static final class Dictionary {
+
+        public static final byte NULL = 0;
+        public static final byte LITERAL = (byte) 0xFF;
+
+        private final String[] values;
+
+        Dictionary(String... values) {
+            this.values = values;
+        }
+
+        public byte code(String value) {
+            if (value == null) {
+                return NULL;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].equals(value)) {
+                    return (byte) (i + 1);
+                }
+            }
+            return LITERAL;
+        }
+
+        public String value(byte code) {
+            if (code == NULL) {
+                return null;
+            }
+            int index = (code & 0xFF) - 1;
+            if (index >= values.length) {
+                throw new SerializationException("Unknown dictionary code " + (code & 0xFF));
+            }
+            return values[index];
+        }
+
+        public int size() {
+            return values.length;
+        }
+    }
+}
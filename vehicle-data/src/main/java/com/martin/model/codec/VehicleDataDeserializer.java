@@ -0,0 +1,12 @@
+package com.martin.model.codec;
+
+import com.martin.model.VehicleData;
+import org.apache.kafka.common.serialization.Deserializer;
+
+public class VehicleDataDeserializer implements Deserializer<VehicleData> {
+
+    @Override
+    public VehicleData deserialize(String topic, byte[] data) {
+        return data != null ? VehicleDataCodec.decode(data) : null;
+    }
+}
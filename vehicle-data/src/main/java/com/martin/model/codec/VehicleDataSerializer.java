@@ -0,0 +1,12 @@
+package com.martin.model.codec;
+
+import com.martin.model.VehicleData;
+import org.apache.kafka.common.serialization.Serializer;
+
+public class VehicleDataSerializer implements Serializer<VehicleData> {
+
+    @Override
+    public byte[] serialize(String topic, VehicleData data) {
+        return data != null ? VehicleDataCodec.encode(data) : null;
+    }
+}
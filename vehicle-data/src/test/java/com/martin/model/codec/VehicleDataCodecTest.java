@@ -0,0 +1,198 @@
+package com.martin.model.codec;
+
+import com.martin.model.VehicleData;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VehicleDataCodecTest {
+
+    private final VehicleDataSerializer serializer = new VehicleDataSerializer();
+    private final VehicleDataDeserializer deserializer = new VehicleDataDeserializer();
+
+    // Round trip
+
+    @Test
+    void shouldRoundTripAllFields() {
+        VehicleData data = sample();
+
+        VehicleData decoded = roundTrip(data);
+
+        assertThat(decoded).isEqualTo(data);
+    }
+
+    @Test
+    void shouldKeepNanosecondTimestamps() {
+        VehicleData data = sample();
+        data.setTimestamp(Instant.ofEpochSecond(1_767_225_600L, 123_456_789));
+
+        assertThat(roundTrip(data).getTimestamp()).isEqualTo(data.getTimestamp());
+    }
+
+    @Test
+    void shouldRoundTripNullFields() {
+        VehicleData data = new VehicleData();
+
+        VehicleData decoded = roundTrip(data);
+
+        assertThat(decoded).isEqualTo(data);
+        assertThat(decoded.getTimestamp()).isNull();
+        assertThat(decoded.getVehicleId()).isNull();
+        assertThat(decoded.getWeather()).isNull();
+    }
+
+    @Test
+    void shouldRoundTripEveryDictionaryValue() {
+        for (String weather : new String[]{"clear", "rain", "fog", "storm"}) {
+            for (String roadType : new String[]{"urban", "highway", "rural"}) {
+                for (String anomalyType : new String[]{"", "overspeed", "engine_overheat", "battery_low"}) {
+                    VehicleData data = sample();
+                    data.setWeather(weather);
+                    data.setRoadType(roadType);
+                    data.setAnomalyType(anomalyType);
+
+                    byte[] bytes = serializer.serialize("vehicle-telemetry", data);
+
+                    assertThat(bytes).hasSize(VehicleDataCodec.FIXED_SIZE + Short.BYTES + data.getVehicleId().length());
+                    assertThat(deserializer.deserialize("vehicle-telemetry", bytes)).isEqualTo(data);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldBeMuchSmallerThanJson() {
+        byte[] bytes = serializer.serialize("vehicle-telemetry", sample());
+
+        // El mismo registro en JSON (JsonSerializer) ocupa unos 400 bytes
+        assertThat(bytes.length).isLessThan(110);
+    }
+
+    @Test
+    void shouldHandleNullPayloads() {
+        assertThat(serializer.serialize("vehicle-telemetry", null)).isNull();
+        assertThat(deserializer.deserialize("vehicle-telemetry", null)).isNull();
+    }
+
+    // Schema evolution
+
+    @Test
+    void shouldEncodeUnknownDictionaryValuesAsLiterals() {
+        VehicleData data = sample();
+        data.setWeather("hail");
+        data.setRoadType("dirt track");
+        data.setAnomalyType("sensor_failure");
+
+        byte[] bytes = serializer.serialize("vehicle-telemetry", data);
+
+        assertThat(bytes[3]).isEqualTo(VehicleDataCodec.Dictionary.LITERAL);
+        assertThat(deserializer.deserialize("vehicle-telemetry", bytes)).isEqualTo(data);
+    }
+
+    @Test
+    void shouldIgnoreFieldsAppendedByNewerWriters() {
+        VehicleData data = sample();
+        byte[] current = serializer.serialize("vehicle-telemetry", data);
+        byte[] extended = Arrays.copyOf(current, current.length + 12);
+        extended[current.length] = 42;
+
+        assertThat(deserializer.deserialize("vehicle-telemetry", extended)).isEqualTo(data);
+    }
+
+    @Test
+    void shouldRejectIncompatibleVersions() {
+        byte[] bytes = serializer.serialize("vehicle-telemetry", sample());
+        bytes[1] = (byte) (VehicleDataCodec.VERSION + 1);
+
+        assertThatThrownBy(() -> deserializer.deserialize("vehicle-telemetry", bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void shouldRejectUnknownDictionaryCodes() {
+        byte[] bytes = serializer.serialize("vehicle-telemetry", sample());
+        bytes[4] = (byte) (VehicleDataCodec.ROAD_TYPE.size() + 1);
+
+        assertThatThrownBy(() -> deserializer.deserialize("vehicle-telemetry", bytes))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void shouldRejectTruncatedPayloads() {
+        byte[] bytes = serializer.serialize("vehicle-telemetry", sample());
+
+        assertThatThrownBy(() -> deserializer.deserialize("vehicle-telemetry", Arrays.copyOf(bytes, 40)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    // Cortes dentro de vehicleId y de los textos literales, no sólo en la parte fija
+    @Test
+    void shouldRejectPayloadsTruncatedInsideTextFields() {
+        VehicleData data = sample();
+        data.setWeather("hail");
+        data.setRoadType("dirt track");
+        data.setAnomalyType("sensor_failure");
+        byte[] bytes = serializer.serialize("vehicle-telemetry", data);
+
+        for (int length = VehicleDataCodec.FIXED_SIZE; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+
+            assertThatThrownBy(() -> deserializer.deserialize("vehicle-telemetry", truncated))
+                    .as("cortado en %d de %d bytes", length, bytes.length)
+                    .isInstanceOf(SerializationException.class)
+                    .hasMessageContaining("Truncated");
+        }
+    }
+
+    @Test
+    void shouldRejectTextLengthsPastTheEndOfThePayload() {
+        byte[] bytes = serializer.serialize("vehicle-telemetry", sample());
+        bytes[VehicleDataCodec.FIXED_SIZE] = 0x7F;
+
+        assertThatThrownBy(() -> deserializer.deserialize("vehicle-telemetry", bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("Truncated");
+    }
+
+    @Test
+    void shouldNotMistakeJsonForBinary() {
+        byte[] json = "{\"vehicleId\":\"ABC123\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(VehicleDataCodec.isBinary(json)).isFalse();
+        assertThatThrownBy(() -> deserializer.deserialize("vehicle-telemetry", json))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    private VehicleData roundTrip(VehicleData data) {
+        return deserializer.deserialize("vehicle-telemetry", serializer.serialize("vehicle-telemetry", data));
+    }
+
+    private static VehicleData sample() {
+        return VehicleData.builder()
+                .vehicleId("K7Q2ZD")
+                .timestamp(Instant.parse("2026-01-08T12:34:56.789012Z"))
+                .latitude(-31.4183)
+                .longitude(-64.1832)
+                .speed(123.4)
+                .previousSpeed(118.2)
+                .acceleration(5.2)
+                .temperature(71.3)
+                .battery(79.8)
+                .fuelLevel(99.6)
+                .weather("storm")
+                .roadType("highway")
+                .speedLimit(120)
+                .night(true)
+                .trafficLevel(4)
+                .anomaly(true)
+                .anomalyType("overspeed")
+                .build();
+    }
+}
@@ -2,10 +2,12 @@ package com.martin.vehicle_telemetry_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling // activar la generacion de datos
+@ConfigurationPropertiesScan
 public class VehicleTelemetryServiceApplication {
 
 	public static void main(String[] args) {
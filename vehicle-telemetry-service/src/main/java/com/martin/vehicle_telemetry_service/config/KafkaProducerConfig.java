@@ -1,21 +1,32 @@
 package com.martin.vehicle_telemetry_service.config;
 
 import com.martin.model.VehicleData;
+import com.martin.model.codec.VehicleDataSerializer;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.mapping.DefaultJackson2JavaTypeMapper;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 @Configuration
 public class KafkaProducerConfig {
 
+    // Topics que siguen recibiendo JSON (consumidores antiguos); el resto usa el codec binario de vehicle-data
+    @Value("${telemetry.kafka.json-topics:}")
+    private List<String> jsonTopics;
+
     // ver este method
     @Bean
     public JsonSerializer<Object> jsonSerializer() {
@@ -30,13 +41,28 @@ public class KafkaProducerConfig {
     public ProducerFactory<String, VehicleData> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        // Lotes más grandes para el modo de carga; con el simulador demo apenas suma latencia
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), vehicleDataSerializer());
     }
 
     @Bean
     public KafkaTemplate<String, VehicleData> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    private Serializer<VehicleData> vehicleDataSerializer() {
+        Map<Pattern, Serializer<?>> delegates = new LinkedHashMap<>();
+        for (String topic : jsonTopics) {
+            if (!topic.isBlank()) {
+                delegates.put(Pattern.compile(Pattern.quote(topic.trim())), new JsonSerializer<VehicleData>().noTypeInfo());
+            }
+        }
+        if (delegates.isEmpty()) {
+            return new VehicleDataSerializer();
+        }
+        return (Serializer<VehicleData>) (Serializer<?>) new DelegatingByTopicSerializer(delegates, new VehicleDataSerializer());
+    }
+}
@@ -0,0 +1,28 @@
+package com.martin.vehicle_telemetry_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Modo de generación de carga (LoadGenerator); reemplaza al simulador de 10 vehículos cuando enabled=true
+@Data
+@ConfigurationProperties(prefix = "simulator.load")
+public class LoadGeneratorProperties {
+
+    private boolean enabled = false;
+
+    private String topic = "vehicle-telemetry";
+
+    private int vehicles = 100_000;
+
+    // Tasa total objetivo repartida entre shards; <= 0 significa sin límite
+    private int eventsPerSecond = 50_000;
+
+    private int shards = Runtime.getRuntime().availableProcessors();
+
+    // Semilla de los PRNG por shard; 0 = aleatoria
+    private long seed = 0;
+
+    private Duration reportInterval = Duration.ofSeconds(5);
+}
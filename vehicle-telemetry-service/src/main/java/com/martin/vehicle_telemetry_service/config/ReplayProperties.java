@@ -0,0 +1,36 @@
+package com.martin.vehicle_telemetry_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Modo replay (TelemetryReplayer): publica una grabación en lugar del simulador cuando enabled=true
+@Data
+@ConfigurationProperties(prefix = "simulator.replay")
+public class ReplayProperties {
+
+    private boolean enabled = false;
+
+    // JSON lines o binario (frames con prefijo de longitud del codec de vehicle-data); .gz se descomprime
+    private String file;
+
+    private Format format = Format.AUTO;
+
+    private String topic = "vehicle-telemetry";
+
+    // Multiplicador sobre el tiempo grabado (10 = 10x); <= 0 significa lo más rápido posible
+    private double speed = 10;
+
+    // Reescribe cada timestamp al instante en que se publica según el calendario del replay
+    private boolean rewriteTimestamps = true;
+
+    // Al terminar el archivo vuelve a empezar
+    private boolean loop = false;
+
+    private Duration reportInterval = Duration.ofSeconds(5);
+
+    public enum Format {
+        AUTO, JSON, BINARY
+    }
+}
@@ -1,20 +1,50 @@
 package com.martin.vehicle_telemetry_service.kafka.producer;
 
 import com.martin.model.VehicleData;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.TimeUnit;
+
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class KafkaProducer {
 
     private final KafkaTemplate<String, VehicleData> kafkaTemplate;
+    private final Timer sendLatency;
+    private final Counter sendFailures;
+
+    public KafkaProducer(KafkaTemplate<String, VehicleData> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        // Desde send() hasta el ack del broker: incluye la espera del lote (linger.ms)
+        this.sendLatency = Timer.builder("telemetry.kafka.send")
+                .description("Desde que se envía un registro hasta que el broker lo confirma")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.sendFailures = Counter.builder("telemetry.kafka.send.failed")
+                .description("Registros que Kafka no confirmó")
+                .register(meterRegistry);
+    }
 
     public void sendVehicleData(String topic, VehicleData data) {
-        kafkaTemplate.send(topic, data.getVehicleId(),data);
-        log.info("✅ Enviado a Kafka: " + data);
+        long start = System.nanoTime();
+        kafkaTemplate.send(topic, data.getVehicleId(), data).whenComplete((result, error) -> {
+            if (error == null) {
+                sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } else {
+                sendFailures.increment();
+                log.error("❌ Kafka no confirmó {}: {}", data.getVehicleId(), error.getMessage());
+            }
+        });
+        log.debug("✅ Enviado a Kafka: {}", data);
+    }
+
+    // Envía lo que quede en los lotes del productor (fin de un replay)
+    public void flush() {
+        kafkaTemplate.flush();
     }
 }
@@ -0,0 +1,173 @@
+package com.martin.vehicle_telemetry_service.services;
+
+import com.martin.model.VehicleData;
+import com.martin.vehicle_telemetry_service.config.LoadGeneratorProperties;
+import com.martin.vehicle_telemetry_service.kafka.producer.KafkaProducer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Generador de carga: los vehículos se reparten en shards, cada uno con su hilo, su PRNG no criptográfico
+// y su estado en arrays primitivos (sin compartir nada entre hilos salvo el contador de eventos)
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "simulator.load.enabled", havingValue = "true")
+public class LoadGenerator {
+
+    // Máximo de eventos seguidos antes de volver a mirar el reloj
+    private static final int MAX_BURST = 1_000;
+
+    private final KafkaProducer kafkaProducer;
+    private final LoadGeneratorProperties properties;
+    private final LongAdder emitted = new LongAdder();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public LoadGenerator(KafkaProducer kafkaProducer, LoadGeneratorProperties properties) {
+        if (properties.getVehicles() <= 0 || properties.getShards() <= 0) {
+            throw new IllegalArgumentException("simulator.load.vehicles y simulator.load.shards deben ser > 0");
+        }
+        this.kafkaProducer = kafkaProducer;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        int shards = Math.min(properties.getShards(), properties.getVehicles());
+        double ratePerShard = properties.getEventsPerSecond() / (double) shards;
+        SplittableRandom root = properties.getSeed() == 0 ? new SplittableRandom() : new SplittableRandom(properties.getSeed());
+
+        for (int i = 0; i < shards; i++) {
+            int from = (int) ((long) properties.getVehicles() * i / shards);
+            int to = (int) ((long) properties.getVehicles() * (i + 1) / shards);
+            Shard shard = new Shard(from, to, ratePerShard, root.split());
+            Thread thread = new Thread(shard::run, "load-shard-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+
+        Thread reporter = new Thread(this::report, "load-reporter");
+        reporter.setDaemon(true);
+        threads.add(reporter);
+
+        threads.forEach(Thread::start);
+        log.info("▶️ Load generator: {} vehículos en {} shards, objetivo {} eventos/s",
+                properties.getVehicles(), shards, properties.getEventsPerSecond());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        threads.clear();
+        log.info("⏸️ Load generator detenido, {} eventos enviados", emitted.sum());
+    }
+
+    public long emittedEvents() {
+        return emitted.sum();
+    }
+
+    private void report() {
+        long intervalNanos = properties.getReportInterval().toNanos();
+        long lastCount = emitted.sum();
+        long lastTime = System.nanoTime();
+
+        while (running) {
+            LockSupport.parkNanos(intervalNanos);
+            if (!running) {
+                return;
+            }
+            long count = emitted.sum();
+            long now = System.nanoTime();
+            double rate = (count - lastCount) * 1e9 / (now - lastTime);
+            log.info("📈 Load generator: {} eventos/s (objetivo {}), total {}",
+                    Math.round(rate), properties.getEventsPerSecond(), count);
+            lastCount = count;
+            lastTime = now;
+        }
+    }
+
+    private final class Shard {
+
+        private final String[] vehicleIds;
+        private final double[] lastSpeeds;
+        private final double eventsPerNano;
+        private final SplittableRandom random;
+        private int cursor;
+
+        Shard(int from, int to, double eventsPerSecond, SplittableRandom random) {
+            this.vehicleIds = new String[to - from];
+            for (int i = 0; i < vehicleIds.length; i++) {
+                vehicleIds[i] = String.format("V%07d", from + i);
+            }
+            this.lastSpeeds = new double[vehicleIds.length];
+            Arrays.fill(lastSpeeds, Double.NaN);
+            this.eventsPerNano = eventsPerSecond / 1e9;
+            this.random = random;
+        }
+
+        void run() {
+            long start = System.nanoTime();
+            long sent = 0;
+
+            while (running) {
+                // Cuántos eventos deberían haberse enviado a esta altura según la tasa objetivo
+                long due = eventsPerNano <= 0 ? sent + MAX_BURST
+                        : (long) ((System.nanoTime() - start) * eventsPerNano);
+                long burst = Math.min(due - sent, MAX_BURST);
+
+                if (burst <= 0) {
+                    long waitNanos = (long) ((sent + 1 - due) / eventsPerNano);
+                    LockSupport.parkNanos(Math.min(waitNanos, TimeUnit.MILLISECONDS.toNanos(10)));
+                    continue;
+                }
+
+                long i = 0;
+                while (i < burst && running) {
+                    emit();
+                    i++;
+                }
+                sent += i;
+                emitted.add(i);
+            }
+        }
+
+        private void emit() {
+            int slot = cursor;
+            cursor = slot + 1 == vehicleIds.length ? 0 : slot + 1;
+
+            VehicleData data = TelemetryGenerator.generate(vehicleIds[slot], lastSpeeds, slot, random);
+            try {
+                kafkaProducer.sendVehicleData(properties.getTopic(), data);
+            } catch (RuntimeException e) {
+                log.error("❌ Load generator: error enviando {}", data.getVehicleId(), e);
+            }
+        }
+    }
+}
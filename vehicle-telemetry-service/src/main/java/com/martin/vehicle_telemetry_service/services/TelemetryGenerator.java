@@ -0,0 +1,99 @@
+package com.martin.vehicle_telemetry_service.services;
+
+import com.martin.model.VehicleData;
+
+import java.time.Instant;
+import java.util.random.RandomGenerator;
+
+// Modelo de telemetría simulada compartido por TelemetrySimulator y LoadGenerator.
+// La última velocidad de cada vehículo vive en un double[] (NaN = sin lectura previa) indexado por slot.
+public final class TelemetryGenerator {
+
+    private static final String[] WEATHER_OPTIONS = {"clear", "rain", "fog", "storm"};
+    private static final String[] ROAD_TYPES = {"urban", "highway", "rural"};
+    private static final String ID_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private TelemetryGenerator() {
+    }
+
+    public static String randomId(RandomGenerator random) {
+        StringBuilder sb = new StringBuilder(6);
+        for (int i = 0; i < 6; i++) {
+            sb.append(ID_CHARS.charAt(random.nextInt(ID_CHARS.length())));
+        }
+        return sb.toString();
+    }
+
+    public static VehicleData generate(String vehicleId, double[] lastSpeeds, int slot, RandomGenerator random) {
+        String weather = WEATHER_OPTIONS[random.nextInt(WEATHER_OPTIONS.length)];
+        String roadType = ROAD_TYPES[random.nextInt(ROAD_TYPES.length)];
+        boolean night = random.nextBoolean();
+        int traffic = random.nextInt(5) + 1;
+
+        double speedLimit = switch (roadType) {
+            case "highway" -> 120;
+            case "urban" -> 60;
+            default -> 90;
+        };
+
+        double baseSpeed = Math.max(0, speedLimit * 0.6 + random.nextGaussian() * 10);
+        double temperature = 70 + random.nextGaussian() * 5;
+        double battery = 80 - random.nextDouble() * 0.5;
+        double fuel = 100 - random.nextDouble() * 0.8;
+
+        double previousSpeed = Double.isNaN(lastSpeeds[slot]) ? baseSpeed : lastSpeeds[slot];
+        double acceleration = baseSpeed - previousSpeed;
+        lastSpeeds[slot] = baseSpeed;
+
+        boolean anomaly = false;
+        String anomalyType = null;
+
+        if (random.nextDouble() < 0.05) {
+            int type = random.nextInt(3);
+
+            switch (type) {
+                case 0 -> {
+                    baseSpeed = speedLimit + 50 + random.nextDouble() * 30;
+                    anomaly = true;
+                    anomalyType = "overspeed";
+                }
+                case 1 -> {
+                    temperature = 110 + random.nextDouble() * 30;
+                    anomaly = true;
+                    anomalyType = "engine_overheat";
+                }
+                case 2 -> {
+                    battery = 10 + random.nextDouble() * 5;
+                    anomaly = true;
+                    anomalyType = "battery_low";
+                }
+                default -> {
+                    battery = 10 + random.nextDouble() * 10;
+                    anomaly = false;
+                    anomalyType = "";
+
+                }
+            }
+        }
+
+        return VehicleData.builder()
+                .vehicleId(vehicleId)
+                .timestamp(Instant.now())
+                .latitude(-31.4201 + random.nextDouble() / 100)
+                .longitude(-64.1888 + random.nextDouble() / 100)
+                .speed(baseSpeed)
+                .previousSpeed(previousSpeed)
+                .acceleration(acceleration)
+                .temperature(temperature)
+                .battery(battery)
+                .fuelLevel(fuel)
+                .weather(weather)
+                .roadType(roadType)
+                .speedLimit(speedLimit)
+                .night(night)
+                .trafficLevel(traffic)
+                .anomaly(anomaly)
+                .anomalyType(anomalyType)
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.martin.vehicle_telemetry_service.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.model.VehicleData;
+import com.martin.model.codec.VehicleDataCodec;
+import com.martin.vehicle_telemetry_service.config.ReplayProperties.Format;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+// Archivos de telemetría grabada: JSON lines (lo que publica el JsonSerializer) o binario,
+// una secuencia de [int longitud][VehicleDataCodec]. Los registros ilegibles se saltan y se cuentan.
+@Slf4j
+public final class TelemetryRecording {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FRAME = 1024 * 1024;
+
+    private TelemetryRecording() {
+    }
+
+    public interface Reader extends Closeable {
+
+        // null al llegar al final del archivo
+        VehicleData next() throws IOException;
+
+        long skipped();
+    }
+
+    public static Reader open(Path file, Format format, ObjectMapper objectMapper) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            if (file.getFileName().toString().endsWith(".gz")) {
+                in = new GZIPInputStream(in, BUFFER_SIZE);
+            }
+            BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+            Format resolved = format == Format.AUTO ? detect(buffered) : format;
+            return resolved == Format.JSON ? new JsonReader(buffered, objectMapper) : new BinaryReader(buffered);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public static void writeBinary(DataOutputStream out, VehicleData data) throws IOException {
+        byte[] bytes = VehicleDataCodec.encode(data);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // JSON si el primer carácter no blanco es '{'; cualquier otra cosa se lee como binario
+    private static Format detect(BufferedInputStream in) throws IOException {
+        in.mark(BUFFER_SIZE);
+        try {
+            int b;
+            while ((b = in.read()) != -1) {
+                if (!Character.isWhitespace(b)) {
+                    return b == '{' ? Format.JSON : Format.BINARY;
+                }
+            }
+            return Format.BINARY;
+        } finally {
+            in.reset();
+        }
+    }
+
+    private static final class JsonReader implements Reader {
+
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long line;
+        private long skipped;
+
+        JsonReader(InputStream in, ObjectMapper objectMapper) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public VehicleData next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return objectMapper.readValue(text, VehicleData.class);
+                } catch (JsonProcessingException e) {
+                    skipped++;
+                    log.warn("⚠️ Replay: línea {} ilegible, se omite ({})", line, e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public long skipped() {
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class BinaryReader implements Reader {
+
+        private final DataInputStream in;
+        private long frame;
+        private long skipped;
+
+        BinaryReader(InputStream in) {
+            this.in = new DataInputStream(in);
+        }
+
+        @Override
+        public VehicleData next() throws IOException {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return null;
+                }
+                if (length <= 0 || length > MAX_FRAME) {
+                    throw new IOException("Frame " + frame + " con longitud inválida " + length + "; ¿es un archivo binario?");
+                }
+                byte[] bytes = new byte[length];
+                try {
+                    in.readFully(bytes);
+                } catch (EOFException e) {
+                    log.warn("⚠️ Replay: último frame truncado ({} bytes esperados), se ignora", length);
+                    return null;
+                }
+                frame++;
+                try {
+                    return VehicleDataCodec.decode(bytes);
+                } catch (SerializationException e) {
+                    skipped++;
+                    log.warn("⚠️ Replay: frame {} ilegible, se omite ({})", frame, e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public long skipped() {
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
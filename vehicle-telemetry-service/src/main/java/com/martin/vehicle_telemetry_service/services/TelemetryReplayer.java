@@ -0,0 +1,214 @@
+package com.martin.vehicle_telemetry_service.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.martin.model.VehicleData;
+import com.martin.vehicle_telemetry_service.config.ReplayProperties;
+import com.martin.vehicle_telemetry_service.kafka.producer.KafkaProducer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Replay acelerado: lee una grabación y publica cada registro en startTime + (t - t0) / speed.
+// Un solo hilo lector mantiene el orden del archivo; el batching lo hace el productor (linger.ms / batch.size).
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "simulator.replay.enabled", havingValue = "true")
+public class TelemetryReplayer {
+
+    private final KafkaProducer kafkaProducer;
+    private final ReplayProperties properties;
+    private final ObjectMapper objectMapper;
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+    private volatile boolean finished;
+    // Retraso del último registro respecto de su instante programado, y el máximo observado
+    private volatile long lagNanos;
+    private volatile long maxLagNanos;
+    // Tiempo grabado alcanzado dentro de la pasada actual
+    private volatile long positionNanos;
+
+    public TelemetryReplayer(KafkaProducer kafkaProducer, ReplayProperties properties, ObjectMapper objectMapper) {
+        if (properties.getFile() == null || properties.getFile().isBlank()) {
+            throw new IllegalArgumentException("simulator.replay.file es obligatorio con simulator.replay.enabled=true");
+        }
+        this.kafkaProducer = kafkaProducer;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        finished = false;
+
+        Thread replay = new Thread(this::run, "telemetry-replay");
+        Thread reporter = new Thread(this::report, "replay-reporter");
+        replay.setDaemon(true);
+        reporter.setDaemon(true);
+        threads.add(replay);
+        threads.add(reporter);
+        threads.forEach(Thread::start);
+
+        log.info("▶️ Replay de {} a {}", properties.getFile(),
+                properties.getSpeed() > 0 ? properties.getSpeed() + "x" : "máxima velocidad");
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        threads.clear();
+    }
+
+    public long replayedEvents() {
+        return emitted.sum();
+    }
+
+    public long skippedRecords() {
+        return skipped.sum();
+    }
+
+    public Duration maxLag() {
+        return Duration.ofNanos(maxLagNanos);
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        try {
+            do {
+                replayOnce(Path.of(properties.getFile()));
+            } while (running && properties.isLoop());
+        } catch (IOException | RuntimeException e) {
+            log.error("❌ Replay: error leyendo {}", properties.getFile(), e);
+        } finally {
+            kafkaProducer.flush();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            log.info("✅ Replay terminado: {} eventos en {} s ({} eventos/s), retraso máx {} ms, {} omitidos",
+                    emitted.sum(), String.format("%.1f", seconds), Math.round(emitted.sum() / seconds),
+                    TimeUnit.NANOSECONDS.toMillis(maxLagNanos), skipped.sum());
+            running = false;
+            finished = true;
+        }
+    }
+
+    private void replayOnce(Path file) throws IOException {
+        double speed = properties.getSpeed();
+        long startNanos = System.nanoTime();
+        Instant startTime = Instant.now();
+        Long firstRecorded = null;
+        long offset = 0;
+
+        try (TelemetryRecording.Reader reader = TelemetryRecording.open(file, properties.getFormat(), objectMapper)) {
+            VehicleData data;
+            while (running && (data = reader.next()) != null) {
+                // Registros sin timestamp heredan el offset del anterior; los desordenados salen en cuanto se leen
+                if (data.getTimestamp() != null) {
+                    long recorded = epochNanos(data.getTimestamp());
+                    if (firstRecorded == null) {
+                        firstRecorded = recorded;
+                    }
+                    offset = Math.max(0, recorded - firstRecorded);
+                }
+
+                if (speed > 0) {
+                    long scheduled = (long) (offset / speed);
+                    if (!waitUntil(startNanos + scheduled)) {
+                        break;
+                    }
+                    long lag = System.nanoTime() - startNanos - scheduled;
+                    lagNanos = lag;
+                    if (lag > maxLagNanos) {
+                        maxLagNanos = lag;
+                    }
+                    if (properties.isRewriteTimestamps()) {
+                        data.setTimestamp(startTime.plusNanos(scheduled));
+                    }
+                } else if (properties.isRewriteTimestamps()) {
+                    data.setTimestamp(Instant.now());
+                }
+
+                send(data);
+                positionNanos = offset;
+            }
+            skipped.add(reader.skipped());
+        }
+    }
+
+    private void send(VehicleData data) {
+        try {
+            kafkaProducer.sendVehicleData(properties.getTopic(), data);
+            emitted.increment();
+        } catch (RuntimeException e) {
+            log.error("❌ Replay: error enviando {}", data.getVehicleId(), e);
+        }
+    }
+
+    // false si el replay se detuvo mientras esperaba
+    private boolean waitUntil(long deadline) {
+        while (running) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return true;
+            }
+            LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(10)));
+        }
+        return false;
+    }
+
+    private void report() {
+        long intervalNanos = properties.getReportInterval().toNanos();
+        long lastCount = emitted.sum();
+        long lastTime = System.nanoTime();
+
+        while (running) {
+            LockSupport.parkNanos(intervalNanos);
+            if (!running) {
+                return;
+            }
+            long count = emitted.sum();
+            long now = System.nanoTime();
+            double rate = (count - lastCount) * 1e9 / (now - lastTime);
+            log.info("📈 Replay: {} eventos/s, total {}, posición {}, retraso {} ms (máx {} ms)",
+                    Math.round(rate), count, Duration.ofNanos(positionNanos),
+                    TimeUnit.NANOSECONDS.toMillis(lagNanos), TimeUnit.NANOSECONDS.toMillis(maxLagNanos));
+            lastCount = count;
+            lastTime = now;
+        }
+    }
+
+    private static long epochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+}
@@ -0,0 +1,59 @@
+package com.martin.vehicle_telemetry_service.services;
+
+import com.martin.model.VehicleData;
+import com.martin.vehicle_telemetry_service.config.LoadGeneratorProperties;
+import com.martin.vehicle_telemetry_service.kafka.producer.KafkaProducer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class LoadGeneratorTest {
+
+    @Test
+    void shouldEmitEveryVehicleAtRoughlyTheTargetRate() throws Exception {
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        KafkaProducer producer = mock(KafkaProducer.class);
+        doAnswer(inv -> seen.add(inv.<VehicleData>getArgument(1).getVehicleId()))
+                .when(producer).sendVehicleData(eq("load-test"), any());
+
+        LoadGeneratorProperties properties = new LoadGeneratorProperties();
+        properties.setTopic("load-test");
+        properties.setVehicles(1_000);
+        properties.setShards(4);
+        properties.setEventsPerSecond(20_000);
+        properties.setSeed(42);
+        properties.setReportInterval(Duration.ofMillis(200));
+
+        LoadGenerator generator = new LoadGenerator(producer, properties);
+        generator.start();
+        Thread.sleep(1_000);
+        generator.stop();
+
+        // ~20k eventos en 1s; margen amplio para máquinas de CI lentas
+        assertThat(generator.emittedEvents()).isBetween(5_000L, 25_000L);
+        assertThat(seen).hasSize(1_000).contains("V0000000", "V0000999");
+    }
+
+    @Test
+    void shouldKeepPreviousSpeedPerVehicle() {
+        double[] lastSpeeds = {Double.NaN};
+        SplittableRandom random = new SplittableRandom(7);
+
+        VehicleData first = TelemetryGenerator.generate("V0000000", lastSpeeds, 0, random);
+        double stored = lastSpeeds[0];
+        VehicleData second = TelemetryGenerator.generate("V0000000", lastSpeeds, 0, random);
+
+        assertThat(first.getAcceleration()).isZero();
+        assertThat(second.getPreviousSpeed()).isEqualTo(stored);
+        assertThat(second.getAcceleration()).isEqualTo(lastSpeeds[0] - stored);
+    }
+}
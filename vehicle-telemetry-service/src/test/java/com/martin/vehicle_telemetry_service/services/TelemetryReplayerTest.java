@@ -0,0 +1,132 @@
+package com.martin.vehicle_telemetry_service.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.martin.model.VehicleData;
+import com.martin.vehicle_telemetry_service.config.ReplayProperties;
+import com.martin.vehicle_telemetry_service.kafka.producer.KafkaProducer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TelemetryReplayerTest {
+
+    private static final Instant RECORDED = Instant.parse("2026-01-08T08:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final KafkaProducer producer = mock(KafkaProducer.class);
+    private final List<VehicleData> sent = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    Path dir;
+
+    TelemetryReplayerTest() {
+        doAnswer(inv -> sent.add(inv.getArgument(1))).when(producer).sendVehicleData(eq("replay-test"), any());
+    }
+
+    @Test
+    void shouldReplayBinaryRecordingOnACompressedSchedule() throws Exception {
+        // 50 registros cada 100 ms = 4.9 s grabados, a 10x ~0.5 s
+        List<VehicleData> recording = recording(50, Duration.ofMillis(100));
+        Path file = dir.resolve("day.bin");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (VehicleData data : recording) {
+                TelemetryRecording.writeBinary(out, data);
+            }
+        }
+
+        Instant before = Instant.now();
+        long start = System.nanoTime();
+        TelemetryReplayer replayer = replay(file, 10);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(replayer.replayedEvents()).isEqualTo(50);
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(450));
+        assertThat(sent).extracting(VehicleData::getVehicleId)
+                .containsExactlyElementsOf(recording.stream().map(VehicleData::getVehicleId).toList());
+
+        // Timestamps reescritos al calendario del replay: mismo orden, separados 100 ms / 10
+        assertThat(sent.get(0).getTimestamp()).isAfterOrEqualTo(before.minusMillis(1));
+        assertThat(Duration.between(sent.get(0).getTimestamp(), sent.get(49).getTimestamp()))
+                .isEqualTo(Duration.ofMillis(490));
+        verify(producer).flush();
+    }
+
+    @Test
+    void shouldReplayJsonLinesAsFastAsPossibleSkippingBadLines() throws Exception {
+        List<VehicleData> recording = recording(20, Duration.ofMinutes(1));
+        List<String> lines = new ArrayList<>();
+        for (VehicleData data : recording) {
+            lines.add(objectMapper.writeValueAsString(data));
+        }
+        lines.add(5, "");
+        lines.add(10, "{not json");
+        Path file = dir.resolve("day.jsonl");
+        Files.write(file, lines);
+
+        ReplayProperties properties = properties(file, 0);
+        properties.setRewriteTimestamps(false);
+        TelemetryReplayer replayer = run(properties);
+
+        assertThat(replayer.replayedEvents()).isEqualTo(20);
+        assertThat(replayer.skippedRecords()).isEqualTo(1);
+        assertThat(sent).containsExactlyElementsOf(recording);
+    }
+
+    private TelemetryReplayer replay(Path file, double speed) throws InterruptedException {
+        return run(properties(file, speed));
+    }
+
+    private TelemetryReplayer run(ReplayProperties properties) throws InterruptedException {
+        TelemetryReplayer replayer = new TelemetryReplayer(producer, properties, objectMapper);
+        replayer.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!replayer.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        replayer.stop();
+        assertThat(replayer.isFinished()).isTrue();
+        return replayer;
+    }
+
+    private static ReplayProperties properties(Path file, double speed) {
+        ReplayProperties properties = new ReplayProperties();
+        properties.setFile(file.toString());
+        properties.setTopic("replay-test");
+        properties.setSpeed(speed);
+        properties.setReportInterval(Duration.ofMillis(100));
+        return properties;
+    }
+
+    private static List<VehicleData> recording(int count, Duration step) {
+        SplittableRandom random = new SplittableRandom(11);
+        double[] lastSpeeds = new double[4];
+        Arrays.fill(lastSpeeds, Double.NaN);
+        List<VehicleData> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            VehicleData data = TelemetryGenerator.generate("V000000" + (i % 4), lastSpeeds, i % 4, random);
+            data.setTimestamp(RECORDED.plus(step.multipliedBy(i)));
+            records.add(data);
+        }
+        return records;
+    }
+}